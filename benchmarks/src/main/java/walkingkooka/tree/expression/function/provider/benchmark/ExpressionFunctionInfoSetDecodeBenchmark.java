@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.net.UrlPath;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.Printers;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionInfo;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionInfoSet;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding the same {@link ExpressionFunctionInfoSet} from its binary, text and JSON forms, over catalogs of
+ * various sizes and both {@link CaseSensitivity}. Every form is encoded once during setup, so only decoding is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionFunctionInfoSetDecodeBenchmark {
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/benchmark/");
+
+    private final static String FUNCTION_PREFIX = "function-";
+
+    @Param({
+        "10",
+        "1000",
+        "100000"
+    })
+    public int size;
+
+    @Param({
+        "SENSITIVE",
+        "INSENSITIVE"
+    })
+    public CaseSensitivity caseSensitivity;
+
+    private byte[] binary;
+
+    private String text;
+
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final CaseSensitivity caseSensitivity = this.caseSensitivity;
+        final Set<ExpressionFunctionInfo> infos = Sets.hash();
+
+        for (int i = 0; i < this.size; i++) {
+            infos.add(
+                ExpressionFunctionInfo.with(
+                    BASE_URL.appendPath(
+                        UrlPath.parse(FUNCTION_PREFIX + i)
+                    ),
+                    ExpressionFunctionName.with(FUNCTION_PREFIX + i)
+                        .setCaseSensitivity(caseSensitivity)
+                )
+            );
+        }
+
+        final ExpressionFunctionInfoSet set = ExpressionFunctionInfoSet.with(
+            infos,
+            caseSensitivity
+        );
+
+        this.binary = set.toBinary();
+        this.text = set.text();
+
+        final StringBuilder json = new StringBuilder();
+        set.printJson(
+            Printers.stringBuilder(
+                json,
+                LineEnding.NONE
+            )
+        );
+        this.json = json.toString();
+    }
+
+    @Benchmark
+    public ExpressionFunctionInfoSet parseBinary() {
+        return ExpressionFunctionInfoSet.parseBinary(this.binary);
+    }
+
+    @Benchmark
+    public ExpressionFunctionInfoSet parseText() {
+        return ExpressionFunctionInfoSet.parse(
+            this.text,
+            this.caseSensitivity
+        );
+    }
+
+    @Benchmark
+    public ExpressionFunctionInfoSet parseJson() {
+        return ExpressionFunctionInfoSet.parseJson(this.json);
+    }
+}
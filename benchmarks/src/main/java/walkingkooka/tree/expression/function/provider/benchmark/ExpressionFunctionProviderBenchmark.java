@@ -0,0 +1,440 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.net.UrlPath;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionAliasSet;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionInfo;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionInfoSet;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProvider;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProviders;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionSelector;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of resolving a function by {@link ExpressionFunctionName} and by {@link ExpressionFunctionSelector}
+ * for each {@link ExpressionFunctionProvider} implementation, over catalogs of various sizes and both {@link CaseSensitivity}.
+ * <br>
+ * Each invocation looks up the next name in a pre-built array so the JIT cannot constant fold a single lookup. The
+ * looked up names always have the other {@link CaseSensitivity}, and for {@link CaseSensitivity#INSENSITIVE} different
+ * letter case, so the cost of converting a name to the case sensitivity of the provider is part of every measurement.
+ * <br>
+ * {@link TreeExpressionFunctionProviderBenchmark} measures the fixed catalog of {@link ExpressionFunctionProviders#expressionFunctions()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionFunctionProviderBenchmark {
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/benchmark/");
+
+    private final static List<?> VALUES = Lists.empty();
+
+    /**
+     * The provider being measured.
+     */
+    @Param({
+        "BASIC",
+        "ALIASES",
+        "COLLECTION",
+        "MERGED_MAPPED",
+        "FILTERED_MAPPED",
+        "FILTERED"
+    })
+    public ExpressionFunctionProviderKind kind;
+
+    @Param({
+        "10",
+        "1000",
+        "100000"
+    })
+    public int size;
+
+    @Param({
+        "SENSITIVE",
+        "INSENSITIVE"
+    })
+    public CaseSensitivity caseSensitivity;
+
+    private ExpressionFunctionProvider<ExpressionEvaluationContext> provider;
+
+    private ExpressionFunctionName[] names;
+
+    private ExpressionFunctionSelector[] selectors;
+
+    private int next;
+
+    private ProviderContext context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final CaseSensitivity caseSensitivity = this.caseSensitivity;
+        final int size = this.size;
+
+        this.provider = this.kind.provider(
+            size,
+            caseSensitivity
+        );
+
+        final ExpressionFunctionName[] names = this.kind.names(
+            size,
+            caseSensitivity
+        );
+
+        this.names = names;
+        this.selectors = selectors(names);
+        this.context = ProviderContexts.fake();
+    }
+
+    @Benchmark
+    public ExpressionFunction<?, ExpressionEvaluationContext> expressionFunctionName() {
+        return this.provider.expressionFunction(
+            this.names[this.next()],
+            VALUES,
+            this.context
+        );
+    }
+
+    @Benchmark
+    public ExpressionFunction<?, ExpressionEvaluationContext> expressionFunctionSelector() {
+        return this.provider.expressionFunction(
+            this.selectors[this.next()],
+            this.context
+        );
+    }
+
+    /**
+     * Creates a {@link ExpressionFunctionSelector} without any parameters for each name.
+     */
+    static ExpressionFunctionSelector[] selectors(final ExpressionFunctionName[] names) {
+        final ExpressionFunctionSelector[] selectors = new ExpressionFunctionSelector[names.length];
+        for (int i = 0; i < names.length; i++) {
+            selectors[i] = ExpressionFunctionSelector.with(
+                names[i],
+                ""
+            );
+        }
+        return selectors;
+    }
+
+    /**
+     * Creates a name that a provider with the given {@link CaseSensitivity} must convert before it can be found. The name
+     * always has the other {@link CaseSensitivity}, and for {@link CaseSensitivity#INSENSITIVE} providers is upper cased.
+     */
+    static ExpressionFunctionName lookupName(final String text,
+                                             final CaseSensitivity caseSensitivity) {
+        return CaseSensitivity.SENSITIVE == caseSensitivity ?
+            ExpressionFunctionName.with(text)
+                .setCaseSensitivity(CaseSensitivity.INSENSITIVE) :
+            ExpressionFunctionName.with(
+                text.toUpperCase()
+            ).setCaseSensitivity(CaseSensitivity.SENSITIVE);
+    }
+
+    private int next() {
+        final int next = this.next;
+        this.next = next + 1 == this.names.length ?
+            0 :
+            next + 1;
+        return next;
+    }
+
+    /**
+     * Builds a chain for each provider, wrapping a {@link ExpressionFunctionProviders#basic} where a wrapped provider is required.
+     */
+    public enum ExpressionFunctionProviderKind {
+        BASIC {
+            @Override
+            ExpressionFunctionProvider<ExpressionEvaluationContext> provider(final int size,
+                                                                             final CaseSensitivity caseSensitivity) {
+                return basic(
+                    0,
+                    size,
+                    caseSensitivity
+                );
+            }
+        },
+
+        ALIASES {
+            @Override
+            ExpressionFunctionProvider<ExpressionEvaluationContext> provider(final int size,
+                                                                             final CaseSensitivity caseSensitivity) {
+                final StringBuilder aliases = new StringBuilder();
+                for (int i = 0; i < size; i++) {
+                    if (i > 0) {
+                        aliases.append(", ");
+                    }
+                    aliases.append(ALIAS_PREFIX)
+                        .append(i)
+                        .append(' ')
+                        .append(FUNCTION_PREFIX)
+                        .append(i);
+                }
+
+                return ExpressionFunctionProviders.aliases(
+                    ExpressionFunctionAliasSet.parse(
+                        aliases.toString(),
+                        caseSensitivity
+                    ),
+                    basic(
+                        0,
+                        size,
+                        caseSensitivity
+                    )
+                );
+            }
+
+            @Override
+            ExpressionFunctionName[] names(final int size,
+                                           final CaseSensitivity caseSensitivity) {
+                return prefixNames(
+                    ALIAS_PREFIX,
+                    size,
+                    caseSensitivity
+                );
+            }
+        },
+
+        COLLECTION {
+            @Override
+            ExpressionFunctionProvider<ExpressionEvaluationContext> provider(final int size,
+                                                                             final CaseSensitivity caseSensitivity) {
+                // smallest catalog still needs two non empty members
+                final int half = Math.max(1, size / 2);
+
+                return ExpressionFunctionProviders.collection(
+                    caseSensitivity,
+                    Sets.of(
+                        basic(
+                            0,
+                            half,
+                            caseSensitivity
+                        ),
+                        basic(
+                            half,
+                            size,
+                            caseSensitivity
+                        )
+                    )
+                );
+            }
+        },
+
+        MERGED_MAPPED {
+            @Override
+            ExpressionFunctionProvider<ExpressionEvaluationContext> provider(final int size,
+                                                                             final CaseSensitivity caseSensitivity) {
+                return ExpressionFunctionProviders.mergedMapped(
+                    renamedInfos(
+                        size,
+                        caseSensitivity
+                    ),
+                    basic(
+                        0,
+                        size,
+                        caseSensitivity
+                    )
+                );
+            }
+
+            @Override
+            ExpressionFunctionName[] names(final int size,
+                                           final CaseSensitivity caseSensitivity) {
+                return prefixNames(
+                    RENAMED_PREFIX,
+                    size,
+                    caseSensitivity
+                );
+            }
+        },
+
+        FILTERED_MAPPED {
+            @Override
+            ExpressionFunctionProvider<ExpressionEvaluationContext> provider(final int size,
+                                                                             final CaseSensitivity caseSensitivity) {
+                return ExpressionFunctionProviders.filteredMapped(
+                    renamedInfos(
+                        size,
+                        caseSensitivity
+                    ),
+                    basic(
+                        0,
+                        size,
+                        caseSensitivity
+                    )
+                );
+            }
+
+            @Override
+            ExpressionFunctionName[] names(final int size,
+                                           final CaseSensitivity caseSensitivity) {
+                return prefixNames(
+                    RENAMED_PREFIX,
+                    size,
+                    caseSensitivity
+                );
+            }
+        },
+
+        FILTERED {
+            @Override
+            ExpressionFunctionProvider<ExpressionEvaluationContext> provider(final int size,
+                                                                             final CaseSensitivity caseSensitivity) {
+                final ExpressionFunctionProvider<ExpressionEvaluationContext> basic = basic(
+                    0,
+                    size,
+                    caseSensitivity
+                );
+
+                return ExpressionFunctionProviders.filtered(
+                    basic,
+                    basic.expressionFunctionInfos()
+                );
+            }
+        };
+
+        abstract ExpressionFunctionProvider<ExpressionEvaluationContext> provider(final int size,
+                                                                                  final CaseSensitivity caseSensitivity);
+
+        /**
+         * The names that will be looked up, by default the names of the functions returned by {@link #basic(int, int, CaseSensitivity)}
+         * as they would be typed by a user, see {@link #lookupName(String, CaseSensitivity)}.
+         */
+        ExpressionFunctionName[] names(final int size,
+                                       final CaseSensitivity caseSensitivity) {
+            return prefixNames(
+                FUNCTION_PREFIX,
+                size,
+                caseSensitivity
+            );
+        }
+
+        private final static String FUNCTION_PREFIX = "function-";
+
+        private final static String ALIAS_PREFIX = "alias-";
+
+        private final static String RENAMED_PREFIX = "renamed-";
+
+        private static ExpressionFunctionName[] prefixNames(final String prefix,
+                                                            final int size,
+                                                            final CaseSensitivity caseSensitivity) {
+            final ExpressionFunctionName[] names = new ExpressionFunctionName[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = lookupName(
+                    prefix + i,
+                    caseSensitivity
+                );
+            }
+            return names;
+        }
+
+        private static ExpressionFunctionName name(final String prefix,
+                                                   final int i,
+                                                   final CaseSensitivity caseSensitivity) {
+            return ExpressionFunctionName.with(prefix + i)
+                .setCaseSensitivity(caseSensitivity);
+        }
+
+        private static ExpressionFunctionProvider<ExpressionEvaluationContext> basic(final int from,
+                                                                                     final int to,
+                                                                                     final CaseSensitivity caseSensitivity) {
+            final Set<ExpressionFunction<?, ExpressionEvaluationContext>> functions = Sets.hash();
+
+            for (int i = from; i < to; i++) {
+                final ExpressionFunctionName name = name(
+                    FUNCTION_PREFIX,
+                    i,
+                    caseSensitivity
+                );
+
+                functions.add(
+                    new FakeExpressionFunction<>() {
+                        @Override
+                        public Optional<ExpressionFunctionName> name() {
+                            return Optional.of(name);
+                        }
+                    }
+                );
+            }
+
+            return ExpressionFunctionProviders.basic(
+                BASE_URL,
+                caseSensitivity,
+                functions
+            );
+        }
+
+        /**
+         * Renames every function returned by {@link #basic(int, int, CaseSensitivity)}, the url is used to match the original.
+         */
+        private static ExpressionFunctionInfoSet renamedInfos(final int size,
+                                                              final CaseSensitivity caseSensitivity) {
+            final Set<ExpressionFunctionInfo> infos = Sets.hash();
+
+            for (int i = 0; i < size; i++) {
+                infos.add(
+                    ExpressionFunctionInfo.with(
+                        BASE_URL.appendPath(
+                            UrlPath.parse(FUNCTION_PREFIX + i)
+                        ),
+                        name(
+                            RENAMED_PREFIX,
+                            i,
+                            caseSensitivity
+                        )
+                    )
+                );
+            }
+
+            return ExpressionFunctionInfoSet.with(
+                infos,
+                caseSensitivity
+            );
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks in this module reporting throughput and, using the {@link GCProfiler}, the allocation rate.
+ * Any JMH command line options such as <code>-p size=1000</code> are honoured.
+ */
+public final class ExpressionFunctionProviderBenchmarkRunner {
+
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(ExpressionFunctionProviderBenchmark.class.getPackage().getName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+
+    private ExpressionFunctionProviderBenchmarkRunner() {
+        throw new UnsupportedOperationException();
+    }
+}
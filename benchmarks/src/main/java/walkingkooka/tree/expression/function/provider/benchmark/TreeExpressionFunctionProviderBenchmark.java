@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProvider;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProviders;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionSelector;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of resolving every function of {@link ExpressionFunctionProviders#expressionFunctions()}. Its catalog
+ * and {@link walkingkooka.text.CaseSensitivity} are fixed, so unlike {@link ExpressionFunctionProviderBenchmark} there
+ * are no size or case sensitivity parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeExpressionFunctionProviderBenchmark {
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private ExpressionFunctionProvider<ExpressionEvaluationContext> provider;
+
+    private ExpressionFunctionName[] names;
+
+    private ExpressionFunctionSelector[] selectors;
+
+    private int next;
+
+    private ProviderContext context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final ExpressionFunctionProvider<ExpressionEvaluationContext> provider = ExpressionFunctionProviders.expressionFunctions();
+
+        final ExpressionFunctionName[] names = provider.expressionFunctionInfos()
+            .names()
+            .stream()
+            .map(n -> ExpressionFunctionProviderBenchmark.lookupName(
+                    n.value(),
+                    provider.expressionFunctionNameCaseSensitivity()
+                )
+            ).toArray(ExpressionFunctionName[]::new);
+
+        this.provider = provider;
+        this.names = names;
+        this.selectors = ExpressionFunctionProviderBenchmark.selectors(names);
+        this.context = ProviderContexts.fake();
+    }
+
+    @Benchmark
+    public ExpressionFunction<?, ExpressionEvaluationContext> expressionFunctionName() {
+        return this.provider.expressionFunction(
+            this.names[this.next()],
+            VALUES,
+            this.context
+        );
+    }
+
+    @Benchmark
+    public ExpressionFunction<?, ExpressionEvaluationContext> expressionFunctionSelector() {
+        return this.provider.expressionFunction(
+            this.selectors[this.next()],
+            this.context
+        );
+    }
+
+    private int next() {
+        final int next = this.next;
+        this.next = next + 1 == this.names.length ?
+            0 :
+            next + 1;
+        return next;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A single lookup by a {@link walkingkooka.tree.expression.function.provider.ExpressionFunctionProvider}, recorded by
+ * {@link JfrExpressionFunctionProvider}.
+ */
+@Name("walkingkooka.ExpressionFunctionProviderLookup")
+@Label("ExpressionFunctionProvider lookup")
+@Category({"walkingkooka", "ExpressionFunctionProvider"})
+@Description("A lookup of one or more functions by an ExpressionFunctionProvider")
+@StackTrace(false)
+final class ExpressionFunctionProviderEvent extends Event {
+
+    final static String HIT = "hit";
+
+    final static String MISS = "miss";
+
+    final static String FAILED = "failed";
+
+    @Label("Name")
+    @Description("The function name, or names for a batch lookup")
+    String name;
+
+    @Label("Selector")
+    @Description("The selector text, empty for lookups by name")
+    String selector;
+
+    @Label("Provider")
+    @Description("The class of the wrapped provider")
+    Class<?> provider;
+
+    @Label("Depth")
+    @Description("The number of recorded providers already performing a lookup on this thread")
+    int depth;
+
+    @Label("Outcome")
+    @Description("hit, miss for an unknown function or failed for any other exception")
+    String outcome;
+}
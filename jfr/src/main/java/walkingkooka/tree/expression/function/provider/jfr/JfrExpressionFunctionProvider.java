@@ -0,0 +1,318 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider.jfr;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionInfoSet;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProvider;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionSelector;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link ExpressionFunctionProvider} that emits a {@link ExpressionFunctionProviderEvent} around every lookup by the
+ * wrapped provider. When the event is disabled the only cost is the {@link ExpressionFunctionProviderEvent#isEnabled()}
+ * check, as the JIT removes the unused event. Names and selector text are only converted to strings for enabled events
+ * and the lookup is called directly, without a capturing lambda.
+ * <br>
+ * The depth of each event is the number of recorded providers already performing a lookup on the current thread, so
+ * wrapping every layer of a chain shows which layer called which.
+ */
+final class JfrExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
+
+    static <C extends ExpressionEvaluationContext> JfrExpressionFunctionProvider<C> with(final ExpressionFunctionProvider<C> provider) {
+        return new JfrExpressionFunctionProvider<>(
+            Objects.requireNonNull(provider, "provider")
+        );
+    }
+
+    private JfrExpressionFunctionProvider(final ExpressionFunctionProvider<C> provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderEvent event = new ExpressionFunctionProviderEvent();
+        if (false == event.isEnabled()) {
+            return this.provider.expressionFunction(
+                selector,
+                context
+            );
+        }
+
+        this.begin(
+            event,
+            selector.name()
+                .value(),
+            selector.toString()
+        );
+        try {
+            return hit(
+                event,
+                this.provider.expressionFunction(
+                    selector,
+                    context
+                )
+            );
+        } catch (final RuntimeException cause) {
+            throw failed(
+                event,
+                cause
+            );
+        } finally {
+            end(event);
+        }
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionName name,
+                                                       final List<?> values,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderEvent event = new ExpressionFunctionProviderEvent();
+        if (false == event.isEnabled()) {
+            return this.provider.expressionFunction(
+                name,
+                values,
+                context
+            );
+        }
+
+        this.begin(
+            event,
+            name.value(),
+            ""
+        );
+        try {
+            return hit(
+                event,
+                this.provider.expressionFunction(
+                    name,
+                    values,
+                    context
+                )
+            );
+        } catch (final RuntimeException cause) {
+            throw failed(
+                event,
+                cause
+            );
+        } finally {
+            end(event);
+        }
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderEvent event = new ExpressionFunctionProviderEvent();
+        if (false == event.isEnabled()) {
+            return this.provider.expressionFunctionIfPresent(
+                selector,
+                context
+            );
+        }
+
+        this.begin(
+            event,
+            selector.name()
+                .value(),
+            selector.toString()
+        );
+        try {
+            return hitOrMiss(
+                event,
+                this.provider.expressionFunctionIfPresent(
+                    selector,
+                    context
+                )
+            );
+        } catch (final RuntimeException cause) {
+            throw failed(
+                event,
+                cause
+            );
+        } finally {
+            end(event);
+        }
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderEvent event = new ExpressionFunctionProviderEvent();
+        if (false == event.isEnabled()) {
+            return this.provider.expressionFunctionIfPresent(
+                name,
+                values,
+                context
+            );
+        }
+
+        this.begin(
+            event,
+            name.value(),
+            ""
+        );
+        try {
+            return hitOrMiss(
+                event,
+                this.provider.expressionFunctionIfPresent(
+                    name,
+                    values,
+                    context
+                )
+            );
+        } catch (final RuntimeException cause) {
+            throw failed(
+                event,
+                cause
+            );
+        } finally {
+            end(event);
+        }
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderEvent event = new ExpressionFunctionProviderEvent();
+        if (false == event.isEnabled()) {
+            return this.provider.expressionFunctions(
+                names,
+                context
+            );
+        }
+
+        this.begin(
+            event,
+            names.toString(),
+            ""
+        );
+        try {
+            return hit(
+                event,
+                this.provider.expressionFunctions(
+                    names,
+                    context
+                )
+            );
+        } catch (final RuntimeException cause) {
+            throw failed(
+                event,
+                cause
+            );
+        } finally {
+            end(event);
+        }
+    }
+
+    /**
+     * Fills and begins an enabled event, the text of names and selectors is only computed by callers after
+     * {@link ExpressionFunctionProviderEvent#isEnabled()}.
+     */
+    private void begin(final ExpressionFunctionProviderEvent event,
+                       final String name,
+                       final String selector) {
+        final int[] depth = DEPTH.get();
+
+        event.name = name;
+        event.selector = selector;
+        event.provider = this.provider.getClass();
+        event.depth = depth[0];
+        event.begin();
+
+        depth[0]++;
+    }
+
+    private static <T> T hit(final ExpressionFunctionProviderEvent event,
+                             final T result) {
+        event.outcome = ExpressionFunctionProviderEvent.HIT;
+        return result;
+    }
+
+    private static <T> Optional<T> hitOrMiss(final ExpressionFunctionProviderEvent event,
+                                             final Optional<T> result) {
+        event.outcome = result.isPresent() ?
+            ExpressionFunctionProviderEvent.HIT :
+            ExpressionFunctionProviderEvent.MISS;
+        return result;
+    }
+
+    private static RuntimeException failed(final ExpressionFunctionProviderEvent event,
+                                           final RuntimeException cause) {
+        event.outcome = cause instanceof UnknownExpressionFunctionException ?
+            ExpressionFunctionProviderEvent.MISS :
+            ExpressionFunctionProviderEvent.FAILED;
+        return cause;
+    }
+
+    private static void end(final ExpressionFunctionProviderEvent event) {
+        DEPTH.get()[0]--;
+        event.commit();
+    }
+
+    /**
+     * The number of recorded lookups in progress on each thread.
+     */
+    private final static ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final ExpressionFunctionProvider<C> provider;
+
+    @Override
+    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+        return this.provider.expressionFunctionInfos();
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.provider.expressionFunctionNameCaseSensitivity();
+    }
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
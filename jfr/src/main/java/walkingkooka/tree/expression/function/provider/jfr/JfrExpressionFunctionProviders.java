@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider.jfr;
+
+import walkingkooka.reflect.PublicStaticHelper;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProvider;
+
+public final class JfrExpressionFunctionProviders implements PublicStaticHelper {
+
+    /**
+     * {@see JfrExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> ExpressionFunctionProvider<C> recorded(final ExpressionFunctionProvider<C> provider) {
+        return JfrExpressionFunctionProvider.with(provider);
+    }
+
+    /**
+     * Stop creation
+     */
+    private JfrExpressionFunctionProviders() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package walkingkooka.tree.expression.function.provider.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProvider;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProviderTesting;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionProviders;
+import walkingkooka.tree.expression.function.provider.ExpressionFunctionSelector;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class JfrExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<JfrExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<JfrExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testfunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION1 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME1);
+        }
+    };
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION2 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME2);
+        }
+    };
+
+    private final static ExpressionFunctionName UNKNOWN = ExpressionFunctionName.with("unknown");
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    private final static String EVENT_NAME = "walkingkooka.ExpressionFunctionProviderLookup";
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> JfrExpressionFunctionProvider.with(null)
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameUnknownFails() {
+        this.expressionFunctionFails(
+            UNKNOWN,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME2 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            UNKNOWN,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testRecording() throws IOException {
+        final JfrExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        final List<RecordedEvent> events = this.record(
+            () -> {
+                provider.expressionFunction(
+                    NAME1,
+                    VALUES,
+                    CONTEXT
+                );
+                provider.expressionFunctionIfPresent(
+                    UNKNOWN,
+                    VALUES,
+                    CONTEXT
+                );
+                assertThrows(
+                    UnknownExpressionFunctionException.class,
+                    () -> provider.expressionFunction(
+                        ExpressionFunctionSelector.parse(
+                            UNKNOWN + "",
+                            CASE_SENSITIVITY
+                        ),
+                        CONTEXT
+                    )
+                );
+            }
+        );
+
+        this.checkEquals(
+            Lists.of(
+                "testfunction1 hit 0",
+                "unknown miss 0",
+                "unknown miss 0"
+            ),
+            events.stream()
+                .map(e -> e.getString("name") + " " + e.getString("outcome") + " " + e.getInt("depth"))
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testRecordingFailed() throws IOException {
+        final JfrExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = JfrExpressionFunctionProvider.with(
+            ExpressionFunctionProviders.fake()
+        );
+
+        final List<RecordedEvent> events = this.record(
+            () -> assertThrows(
+                UnsupportedOperationException.class,
+                () -> provider.expressionFunction(
+                    NAME1,
+                    VALUES,
+                    CONTEXT
+                )
+            )
+        );
+
+        this.checkEquals(
+            Lists.of("failed"),
+            events.stream()
+                .map(e -> e.getString("outcome"))
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testRecordingDepth() throws IOException {
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = JfrExpressionFunctionProvider.with(
+            this.createExpressionFunctionProvider()
+        );
+
+        final List<RecordedEvent> events = this.record(
+            () -> provider.expressionFunctions(
+                Lists.of(NAME1),
+                CONTEXT
+            )
+        );
+
+        // the inner lookup finishes and commits first
+        this.checkEquals(
+            Lists.of(
+                "[testfunction1] hit 1",
+                "[testfunction1] hit 0"
+            ),
+            events.stream()
+                .map(e -> e.getString("name") + " " + e.getString("outcome") + " " + e.getInt("depth"))
+                .collect(Collectors.toList())
+        );
+    }
+
+    private List<RecordedEvent> record(final Runnable lookups) throws IOException {
+        final Path file = Files.createTempFile(
+            this.getClass().getSimpleName(),
+            ".jfr"
+        );
+        try {
+            try (final Recording recording = new Recording()) {
+                recording.enable(EVENT_NAME)
+                    .withoutThreshold();
+                recording.start();
+
+                lookups.run();
+
+                recording.stop();
+                recording.dump(file);
+            }
+
+            return RecordingFile.readAllEvents(file)
+                .stream()
+                .filter(e -> EVENT_NAME.equals(e.getEventType().getName()))
+                .sorted((l, r) -> l.getEndTime().compareTo(r.getEndTime()))
+                .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public JfrExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return JfrExpressionFunctionProvider.with(
+            ExpressionFunctionProviders.basic(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Sets.of(
+                    FUNCTION1,
+                    FUNCTION2
+                )
+            )
+        );
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createExpressionFunctionProvider(),
+            "testfunction1, testfunction2"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<JfrExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(JfrExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
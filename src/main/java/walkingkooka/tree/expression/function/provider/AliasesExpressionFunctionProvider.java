@@ -17,19 +17,26 @@
 
 package walkingkooka.tree.expression.function.provider;
 
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.plugin.ProviderContext;
 import walkingkooka.text.CaseSensitivity;
 import walkingkooka.tree.expression.ExpressionEvaluationContext;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
-import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 /**
  * A {@link ExpressionFunctionProvider} that uses the given aliases definition and {@link ExpressionFunctionProvider} to present another view.
+ * <br>
+ * The infos of the wrapped provider are merged with the aliases once, when this provider is created. To follow a
+ * provider that changes, such as a {@link RegistryExpressionFunctionProvider}, create the aliases again when its
+ * {@link RegistryExpressionFunctionProvider#version()} changes.
  */
 final class AliasesExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
 
@@ -46,18 +53,45 @@ final class AliasesExpressionFunctionProvider<C extends ExpressionEvaluationCont
         this.aliases = aliases;
         this.provider = provider;
 
-        this.infos = aliases.merge(provider.expressionFunctionInfos());
+        final CaseSensitivity caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+        final ExpressionFunctionInfoSet infos = aliases.merge(provider.expressionFunctionInfos());
+
+        final ExpressionFunctionNameIndex<AliasesExpressionFunctionProviderTarget> nameToTarget = ExpressionFunctionNameIndex.with(
+            caseSensitivity,
+            infos.size()
+        );
+        for (final ExpressionFunctionName name : infos.names()) {
+            final ExpressionFunctionName nameWithCaseSensitivity = ExpressionFunctionNameInterner.intern(
+                name,
+                caseSensitivity
+            );
+
+            nameToTarget.put(
+                nameWithCaseSensitivity,
+                AliasesExpressionFunctionProviderTarget.with(
+                    nameWithCaseSensitivity,
+                    aliases
+                )
+            );
+        }
+
+        this.infos = infos;
+        this.nameToTarget = nameToTarget;
+
+        // the renamer is sized for the names indexed above, which never change
+        this.renamer = ExpressionFunctionRenamer.with(
+            nameToTarget.size()
+        );
     }
 
     @Override
     public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
                                                        final ProviderContext context) {
-        return this.provider.expressionFunction(
-            this.aliases.selector(selector),
-            context
-        ).setName(
-            Optional.of(
-                selector.name()
+        return this.renamer.setName(
+            selector.name(),
+            this.provider.expressionFunction(
+                this.selector(selector),
+                context
             )
         );
     }
@@ -71,40 +105,165 @@ final class AliasesExpressionFunctionProvider<C extends ExpressionEvaluationCont
         Objects.requireNonNull(context, "context");
 
         return this.expressionFunction0(
-            name.setCaseSensitivity(this.expressionFunctionNameCaseSensitivity()),
+            ExpressionFunctionNameInterner.intern(
+                name,
+                this.expressionFunctionNameCaseSensitivity()
+            ),
             values,
             context
         );
     }
 
+    /**
+     * Resolves the selector exactly like {@link #expressionFunction(ExpressionFunctionSelector, ProviderContext)} and
+     * then asks the wrapped provider, so both always agree, even for aliases that target a function the wrapped provider
+     * does not have.
+     */
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionName name = selector.name();
+
+        return this.provider.expressionFunctionIfPresent(
+            this.selector(selector),
+            context
+        ).map(
+            f -> this.renamer.setName(
+                name,
+                f
+            )
+        );
+    }
+
+    /**
+     * Resolves the name exactly like {@link #expressionFunction(ExpressionFunctionName, List, ProviderContext)} and
+     * then asks the wrapped provider, so both always agree.
+     */
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionName nameWithCaseSensitivity = ExpressionFunctionNameInterner.intern(
+            name,
+            this.expressionFunctionNameCaseSensitivity()
+        );
+
+        final ExpressionFunctionProvider<C> provider = this.provider;
+
+        final AliasesExpressionFunctionProviderTarget target = this.target(nameWithCaseSensitivity);
+        final ExpressionFunctionSelector selector = target.selector;
+
+        final Optional<ExpressionFunction<?, C>> function;
+        if (null != selector) {
+            if (false == values.isEmpty()) {
+                throw new IllegalArgumentException("Alias " + nameWithCaseSensitivity + " should have no values");
+            }
+            function = provider.expressionFunctionIfPresent(
+                selector,
+                context
+            ).map(
+                f -> this.renamer.setName(
+                    nameWithCaseSensitivity,
+                    f
+                )
+            );
+        } else {
+            final ExpressionFunctionName targetName = target.name;
+            function = null != targetName ?
+                provider.expressionFunctionIfPresent(
+                    targetName,
+                    values,
+                    context
+                ) :
+                Optional.empty();
+        }
+
+        return function;
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final CaseSensitivity caseSensitivity = this.expressionFunctionNameCaseSensitivity();
+        final ExpressionFunctionProvider<C> provider = this.provider;
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(caseSensitivity)
+        );
+
+        // names that are not aliases are resolved by $provider in a single call
+        final List<ExpressionFunctionName> providerNames = Lists.array();
+
+        for (final ExpressionFunctionName name : names) {
+            final ExpressionFunctionName nameWithCaseSensitivity = ExpressionFunctionNameInterner.intern(
+                name,
+                caseSensitivity
+            );
+
+            final AliasesExpressionFunctionProviderTarget target = this.target(nameWithCaseSensitivity);
+            final ExpressionFunctionSelector selector = target.selector;
+            if (null != selector) {
+                nameToFunction.put(
+                    nameWithCaseSensitivity,
+                    this.renamer.setName(
+                        nameWithCaseSensitivity,
+                        provider.expressionFunction(
+                            selector,
+                            context
+                        )
+                    )
+                );
+            } else {
+                providerNames.add(
+                    target.name(name)
+                );
+            }
+        }
+
+        nameToFunction.putAll(
+            provider.expressionFunctions(
+                providerNames,
+                context
+            )
+        );
+
+        return Maps.readOnly(nameToFunction);
+    }
+
     public ExpressionFunction<?, C> expressionFunction0(final ExpressionFunctionName name,
                                                         final List<?> values,
                                                         final ProviderContext context) {
         ExpressionFunction<?, C> function;
 
-        final ExpressionFunctionAliasSet aliases = this.aliases;
         final ExpressionFunctionProvider<C> provider = this.provider;
 
-        final Optional<ExpressionFunctionSelector> selector = aliases.aliasSelector(
-            name.setCaseSensitivity(
-                provider.expressionFunctionNameCaseSensitivity()
-            )
-        );
-        if (selector.isPresent()) {
+        final AliasesExpressionFunctionProviderTarget target = this.target(name);
+        final ExpressionFunctionSelector selector = target.selector;
+        if (null != selector) {
             if (false == values.isEmpty()) {
                 throw new IllegalArgumentException("Alias " + name + " should have no values");
             }
-            // assumes that $provider caches selectors to function
-            function = provider.expressionFunction(
-                selector.get(),
-                context
-            ).setName(
-                Optional.of(name)
+            // wrap $provider with ExpressionFunctionProviders.cache to avoid evaluating the selector each time
+            function = this.renamer.setName(
+                name,
+                provider.expressionFunction(
+                    selector,
+                    context
+                )
             );
         } else {
             function = provider.expressionFunction(
-                aliases.aliasOrName(name)
-                    .orElseThrow(() -> new UnknownExpressionFunctionException(name)),
+                target.name(name),
                 values,
                 context
             );
@@ -113,6 +272,56 @@ final class AliasesExpressionFunctionProvider<C extends ExpressionEvaluationCont
         return function;
     }
 
+    /**
+     * Resolves the selector using the precomputed {@link #nameToTarget}. Unknown names and aliases with a selector
+     * given values are left to {@link ExpressionFunctionAliasSet#selector(ExpressionFunctionSelector)}, so its
+     * failures are unchanged.
+     */
+    private ExpressionFunctionSelector selector(final ExpressionFunctionSelector selector) {
+        Objects.requireNonNull(selector, "selector");
+
+        final AliasesExpressionFunctionProviderTarget target = this.nameToTarget.get(
+            ExpressionFunctionNameInterner.intern(
+                selector.name(),
+                this.expressionFunctionNameCaseSensitivity()
+            )
+        );
+
+        ExpressionFunctionSelector resolved = null;
+
+        if (null != target) {
+            final ExpressionFunctionSelector aliasSelector = target.selector;
+            if (null != aliasSelector) {
+                if (selector.valueText().isEmpty()) {
+                    resolved = aliasSelector;
+                }
+            } else {
+                final ExpressionFunctionName targetName = target.name;
+                if (null != targetName) {
+                    resolved = selector.setName(targetName);
+                }
+            }
+        }
+
+        return null != resolved ?
+            resolved :
+            this.aliases.selector(selector);
+    }
+
+    /**
+     * Names of {@link #infos} are resolved with a single probe of {@link #nameToTarget}, any other name is resolved
+     * by the {@link ExpressionFunctionAliasSet}.
+     */
+    private AliasesExpressionFunctionProviderTarget target(final ExpressionFunctionName name) {
+        final AliasesExpressionFunctionProviderTarget target = this.nameToTarget.get(name);
+        return null != target ?
+            target :
+            AliasesExpressionFunctionProviderTarget.with(
+                name,
+                this.aliases
+            );
+    }
+
     private final ExpressionFunctionAliasSet aliases;
 
     @Override
@@ -122,6 +331,17 @@ final class AliasesExpressionFunctionProvider<C extends ExpressionEvaluationCont
 
     private final ExpressionFunctionInfoSet infos;
 
+    /**
+     * The resolution of every name within {@link #infos}, computed once. This is also used to detect unknown names
+     * without throwing.
+     */
+    private final ExpressionFunctionNameIndex<AliasesExpressionFunctionProviderTarget> nameToTarget;
+
+    /**
+     * Remembers renamed functions so repeated lookups return the same {@link ExpressionFunction}.
+     */
+    private final ExpressionFunctionRenamer<C> renamer;
+
     @Override
     public CaseSensitivity expressionFunctionNameCaseSensitivity() {
         return this.provider.expressionFunctionNameCaseSensitivity();
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+
+import java.util.Optional;
+
+/**
+ * What a name resolves to within a {@link AliasesExpressionFunctionProvider}, either a {@link ExpressionFunctionSelector}
+ * for an alias with a selector, or the name of a function within the wrapped provider.
+ * <br>
+ * Aliases always refer to names or selectors of the wrapped provider and never to other aliases, so a single
+ * resolution is always final.
+ */
+final class AliasesExpressionFunctionProviderTarget {
+
+    /**
+     * Resolves the given name using the {@link ExpressionFunctionAliasSet}.
+     */
+    static AliasesExpressionFunctionProviderTarget with(final ExpressionFunctionName name,
+                                                        final ExpressionFunctionAliasSet aliases) {
+        final Optional<ExpressionFunctionSelector> selector = aliases.aliasSelector(name);
+
+        return new AliasesExpressionFunctionProviderTarget(
+            selector.isPresent() ?
+                null :
+                aliases.aliasOrName(name)
+                    .orElse(null),
+            selector.orElse(null)
+        );
+    }
+
+    private AliasesExpressionFunctionProviderTarget(final ExpressionFunctionName name,
+                                                    final ExpressionFunctionSelector selector) {
+        this.name = name;
+        this.selector = selector;
+    }
+
+    /**
+     * Returns the name of the function within the wrapped provider, failing if the alias resolved to nothing.
+     */
+    ExpressionFunctionName name(final ExpressionFunctionName aliasOrName) {
+        final ExpressionFunctionName name = this.name;
+        if (null == name) {
+            throw new UnknownExpressionFunctionException(aliasOrName);
+        }
+        return name;
+    }
+
+    /**
+     * The name of the function within the wrapped provider, null for an alias with a selector or an alias that
+     * resolved to nothing.
+     */
+    final ExpressionFunctionName name;
+
+    /**
+     * When not null the alias has a selector.
+     */
+    final ExpressionFunctionSelector selector;
+
+    @Override
+    public String toString() {
+        return String.valueOf(
+            null != this.selector ?
+                this.selector :
+                this.name
+        );
+    }
+}
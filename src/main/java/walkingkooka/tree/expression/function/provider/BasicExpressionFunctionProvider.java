@@ -29,10 +29,13 @@ import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
 import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.stream.Collectors;
 
 /**
@@ -62,7 +65,11 @@ final class BasicExpressionFunctionProvider<C extends ExpressionEvaluationContex
 
         this.nameCaseSensitivity = nameCaseSensitivity;
 
-        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+        final ExpressionFunctionNameIndex<ExpressionFunction<?, C>> nameToFunction = ExpressionFunctionNameIndex.with(
+            nameCaseSensitivity,
+            functions.size()
+        );
+        final SortedSet<ExpressionFunctionName> names = SortedSets.tree(
             ExpressionFunctionName.comparator(nameCaseSensitivity)
         );
 
@@ -71,20 +78,27 @@ final class BasicExpressionFunctionProvider<C extends ExpressionEvaluationContex
                 .orElseThrow(
                     () -> new IllegalArgumentException("Cannot add unnamed functions to provider")
                 );
+            final ExpressionFunctionName nameWithCaseSensitivity = ExpressionFunctionNameInterner.intern(
+                name,
+                nameCaseSensitivity
+            );
+
             final ExpressionFunction<?, ?> duplicate = nameToFunction.put(
-                name.setCaseSensitivity(nameCaseSensitivity),
+                nameWithCaseSensitivity,
                 function.setName(
-                    function.name()
-                        .map(n -> n.setCaseSensitivity(nameCaseSensitivity))
+                    Optional.of(nameWithCaseSensitivity)
                 )
             );
 
             if(null != duplicate) {
                 throw new IllegalArgumentException("Duplicate function " + name);
             }
+
+            names.add(nameWithCaseSensitivity);
         }
 
         this.nameToFunction = nameToFunction;
+        this.names = names;
 
         this.expressionFunctionInfos = ExpressionFunctionInfoSet.with(
             Sets.readOnly(
@@ -99,7 +113,10 @@ final class BasicExpressionFunctionProvider<C extends ExpressionEvaluationContex
                                         name.value()
                                     )
                                 ),
-                                name.setCaseSensitivity(nameCaseSensitivity)
+                                ExpressionFunctionNameInterner.intern(
+                                    name,
+                                    nameCaseSensitivity
+                                )
                             );
                         }
                     ).collect(Collectors.toCollection(SortedSets::tree))
@@ -128,16 +145,77 @@ final class BasicExpressionFunctionProvider<C extends ExpressionEvaluationContex
         Objects.requireNonNull(values, "values");
         Objects.requireNonNull(context, "context");
 
-        final ExpressionFunction<?, C> function = this.nameToFunction.get(
-            name.setCaseSensitivity(this.nameCaseSensitivity)
-        );
+        final ExpressionFunction<?, C> function = this.nameToFunction.get(name);
         if (null == function) {
             throw new UnknownExpressionFunctionException(name);
         }
         return function;
     }
 
-    private final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction;
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return this.nameToFunction.contains(selector.name()) ?
+            Optional.of(
+                selector.evaluateValueText(
+                    this,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return Optional.ofNullable(
+            this.nameToFunction.get(name)
+        );
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(this.nameCaseSensitivity)
+        );
+
+        for (final ExpressionFunctionName name : names) {
+            final ExpressionFunction<?, C> function = this.nameToFunction.get(name);
+            if (null == function) {
+                throw new UnknownExpressionFunctionException(name);
+            }
+            // key using the provider name, like the other providers, rather than the given name
+            nameToFunction.put(
+                function.name()
+                    .get(),
+                function
+            );
+        }
+
+        return Maps.readOnly(nameToFunction);
+    }
+
+    /**
+     * Hash index using the provider {@link CaseSensitivity}, which means lookups do not need to call {@link ExpressionFunctionName#setCaseSensitivity(CaseSensitivity)}.
+     */
+    private final ExpressionFunctionNameIndex<ExpressionFunction<?, C>> nameToFunction;
+
+    /**
+     * Sorted names, only used by {@link #toString()}.
+     */
+    private final SortedSet<ExpressionFunctionName> names;
 
     @Override
     public ExpressionFunctionInfoSet expressionFunctionInfos() {
@@ -155,8 +233,7 @@ final class BasicExpressionFunctionProvider<C extends ExpressionEvaluationContex
 
     @Override
     public String toString() {
-        return this.nameToFunction.keySet()
-            .stream()
+        return this.names.stream()
             .map(Object::toString)
             .collect(Collectors.joining(", "));
     }
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.set.Sets;
+import walkingkooka.collect.set.SortedSets;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.Expression;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.NamedFunctionExpression;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link ExpressionFunctionProvider} holding only the {@link ExpressionFunction functions} named within an
+ * {@link Expression}. All names are resolved once using {@link ExpressionFunctionProvider#expressionFunctions(java.util.Collection, ProviderContext)},
+ * so unknown names fail when binding, and evaluating the {@link Expression} never returns to the original provider.
+ * <br>
+ * Lookups with values, which never happen for a {@link NamedFunctionExpression}, are passed to the original provider.
+ */
+final class BoundExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
+
+    static <C extends ExpressionEvaluationContext> BoundExpressionFunctionProvider<C> with(final Expression expression,
+                                                                                           final ExpressionFunctionProvider<C> provider,
+                                                                                           final ProviderContext context) {
+        Objects.requireNonNull(expression, "expression");
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(context, "context");
+
+        return new BoundExpressionFunctionProvider<>(
+            names(
+                expression,
+                provider.expressionFunctionNameCaseSensitivity()
+            ),
+            provider,
+            context
+        );
+    }
+
+    /**
+     * Returns the names of every {@link NamedFunctionExpression} within the given {@link Expression}.
+     */
+    static SortedSet<ExpressionFunctionName> names(final Expression expression,
+                                                   final CaseSensitivity caseSensitivity) {
+        final SortedSet<ExpressionFunctionName> names = SortedSets.tree(
+            ExpressionFunctionName.comparator(caseSensitivity)
+        );
+        names(
+            expression,
+            names
+        );
+        return names;
+    }
+
+    private static void names(final Expression expression,
+                              final Set<ExpressionFunctionName> names) {
+        if (expression instanceof NamedFunctionExpression) {
+            names.add(
+                ((NamedFunctionExpression) expression).value()
+            );
+        }
+
+        for (final Expression child : expression.children()) {
+            names(
+                child,
+                names
+            );
+        }
+    }
+
+    private BoundExpressionFunctionProvider(final SortedSet<ExpressionFunctionName> names,
+                                            final ExpressionFunctionProvider<C> provider,
+                                            final ProviderContext context) {
+        final CaseSensitivity caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+
+        final ExpressionFunctionNameIndex<ExpressionFunction<?, C>> nameToFunction = ExpressionFunctionNameIndex.with(
+            caseSensitivity,
+            names.size()
+        );
+
+        for (final Map.Entry<ExpressionFunctionName, ExpressionFunction<?, C>> nameAndFunction : provider.expressionFunctions(
+            names,
+            context
+        ).entrySet()) {
+            nameToFunction.put(
+                nameAndFunction.getKey(),
+                nameAndFunction.getValue()
+            );
+        }
+
+        this.nameToFunction = nameToFunction;
+        this.names = names;
+        this.provider = provider;
+        this.caseSensitivity = caseSensitivity;
+
+        this.infos = ExpressionFunctionInfoSet.with(
+            Sets.readOnly(
+                provider.expressionFunctionInfos()
+                    .stream()
+                    .filter(i -> nameToFunction.contains(i.name()))
+                    .collect(Collectors.toCollection(SortedSets::tree))
+            ),
+            caseSensitivity
+        );
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return selector.valueText().isEmpty() ?
+            this.bound(selector.name()) :
+            this.provider.expressionFunction(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionName name,
+                                                       final List<?> values,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return values.isEmpty() ?
+            this.bound(name) :
+            this.provider.expressionFunction(
+                name,
+                values,
+                context
+            );
+    }
+
+    private ExpressionFunction<?, C> bound(final ExpressionFunctionName name) {
+        final ExpressionFunction<?, C> function = this.nameToFunction.get(name);
+        if (null == function) {
+            throw new UnknownExpressionFunctionException(name);
+        }
+        return function;
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return selector.valueText().isEmpty() ?
+            Optional.ofNullable(
+                this.nameToFunction.get(
+                    selector.name()
+                )
+            ) :
+            this.provider.expressionFunctionIfPresent(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return values.isEmpty() ?
+            Optional.ofNullable(
+                this.nameToFunction.get(name)
+            ) :
+            this.provider.expressionFunctionIfPresent(
+                name,
+                values,
+                context
+            );
+    }
+
+    /**
+     * The functions for all names within the {@link Expression}.
+     */
+    private final ExpressionFunctionNameIndex<ExpressionFunction<?, C>> nameToFunction;
+
+    /**
+     * Sorted names, only used by {@link #toString()}.
+     */
+    private final SortedSet<ExpressionFunctionName> names;
+
+    /**
+     * The original provider, only used for lookups with values.
+     */
+    private final ExpressionFunctionProvider<C> provider;
+
+    @Override
+    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+        return this.infos;
+    }
+
+    private final ExpressionFunctionInfoSet infos;
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.caseSensitivity;
+    }
+
+    private final CaseSensitivity caseSensitivity;
+
+    @Override
+    public String toString() {
+        return this.names.stream()
+            .map(Object::toString)
+            .collect(Collectors.joining(", "));
+    }
+}
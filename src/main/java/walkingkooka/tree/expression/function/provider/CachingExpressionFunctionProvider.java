@@ -0,0 +1,429 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ExpressionFunctionProvider} that remembers the {@link ExpressionFunction} returned by the wrapped provider
+ * for each {@link ExpressionFunctionSelector} and {@link ExpressionFunctionName}, so repeated lookups skip
+ * {@link ExpressionFunctionSelector#evaluateValueText(ExpressionFunctionProvider, ProviderContext)} and any decorators.
+ * <br>
+ * Reads are a single {@link ConcurrentHashMap#get(Object)} and never lock. Once <code>maxEntries</code> is reached,
+ * entries are evicted using the CLOCK (second chance) approximation of LRU, which only requires reads to set a flag.
+ * <br>
+ * Lookups with values and failed lookups are never cached.
+ * <br>
+ * The {@link ProviderContext} is not part of the key, the function cached by the first lookup of a name or selector is
+ * returned for every later {@link ProviderContext}. This matches all providers in this package, do not wrap providers
+ * that return different functions for different {@link ProviderContext}.
+ * <br>
+ * Lookups never ask the wrapped provider whether it changed. Call {@link #clear()} after the wrapped provider changes,
+ * for example after a {@link RegistryExpressionFunctionProvider#register(ExpressionFunction)} or
+ * {@link SwappableExpressionFunctionProvider#swap(ExpressionFunctionProvider)}, or when its
+ * {@link RegistryExpressionFunctionProvider#version()} changes.
+ * <br>
+ * Cache hits and misses are counted using striped counters, so counting rarely contends between threads.
+ */
+public final class CachingExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
+
+    static <C extends ExpressionEvaluationContext> CachingExpressionFunctionProvider<C> with(final ExpressionFunctionProvider<C> provider,
+                                                                                             final int maxEntries) {
+        Objects.requireNonNull(provider, "provider");
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Invalid maxEntries " + maxEntries + " <= 0");
+        }
+
+        return new CachingExpressionFunctionProvider<>(
+            provider,
+            maxEntries
+        );
+    }
+
+    private CachingExpressionFunctionProvider(final ExpressionFunctionProvider<C> provider,
+                                              final int maxEntries) {
+        this.provider = provider;
+        this.caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+
+        this.keyToEntry = new ConcurrentHashMap<>();
+        this.clock = new Object[maxEntries];
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final int generation = this.generation;
+        final ExpressionFunctionName name = ExpressionFunctionNameInterner.intern(
+            selector.name(),
+            this.caseSensitivity
+        );
+
+        // selectors without value text share entries with name lookups
+        final Object key = selector.valueText().isEmpty() ?
+            name :
+            selector.setName(name);
+
+        ExpressionFunction<?, C> function = this.get(key);
+        if (null == function) {
+            function = this.put(
+                key,
+                this.provider.expressionFunction(
+                    selector,
+                    context
+                ),
+                generation
+            );
+        }
+
+        return function;
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionName name,
+                                                       final List<?> values,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunction<?, C> function;
+
+        if (values.isEmpty()) {
+            final int generation = this.generation;
+            final ExpressionFunctionName key = ExpressionFunctionNameInterner.intern(
+                name,
+                this.caseSensitivity
+            );
+
+            final ExpressionFunction<?, C> cached = this.get(key);
+            function = null != cached ?
+                cached :
+                this.put(
+                    key,
+                    this.provider.expressionFunction(
+                        name,
+                        values,
+                        context
+                    ),
+                    generation
+                );
+        } else {
+            function = this.provider.expressionFunction(
+                name,
+                values,
+                context
+            );
+        }
+
+        return function;
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final int generation = this.generation;
+        final ExpressionFunctionName name = ExpressionFunctionNameInterner.intern(
+            selector.name(),
+            this.caseSensitivity
+        );
+
+        final Object key = selector.valueText().isEmpty() ?
+            name :
+            selector.setName(name);
+
+        final ExpressionFunction<?, C> function = this.get(key);
+        return null != function ?
+            Optional.of(function) :
+            this.provider.expressionFunctionIfPresent(
+                selector,
+                context
+            ).map(f -> this.put(key, f, generation));
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final Optional<ExpressionFunction<?, C>> function;
+
+        if (values.isEmpty()) {
+            final int generation = this.generation;
+            final ExpressionFunctionName key = ExpressionFunctionNameInterner.intern(
+                name,
+                this.caseSensitivity
+            );
+
+            final ExpressionFunction<?, C> cached = this.get(key);
+            function = null != cached ?
+                Optional.of(cached) :
+                this.provider.expressionFunctionIfPresent(
+                    name,
+                    values,
+                    context
+                ).map(f -> this.put(key, f, generation));
+        } else {
+            function = this.provider.expressionFunctionIfPresent(
+                name,
+                values,
+                context
+            );
+        }
+
+        return function;
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final CaseSensitivity caseSensitivity = this.caseSensitivity;
+        final int generation = this.generation;
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(caseSensitivity)
+        );
+
+        // all names that were not cached are passed to the wrapped provider in a single call
+        final List<ExpressionFunctionName> missing = Lists.array();
+
+        for (final ExpressionFunctionName name : names) {
+            final ExpressionFunctionName key = ExpressionFunctionNameInterner.intern(
+                name,
+                caseSensitivity
+            );
+
+            final ExpressionFunction<?, C> cached = this.get(key);
+            if (null != cached) {
+                nameToFunction.put(
+                    key,
+                    cached
+                );
+            } else {
+                missing.add(key);
+            }
+        }
+
+        if (false == missing.isEmpty()) {
+            for (final Map.Entry<ExpressionFunctionName, ExpressionFunction<?, C>> nameAndFunction : this.provider.expressionFunctions(
+                missing,
+                context
+            ).entrySet()) {
+                final ExpressionFunctionName key = ExpressionFunctionNameInterner.intern(
+                    nameAndFunction.getKey(),
+                    caseSensitivity
+                );
+
+                nameToFunction.put(
+                    key,
+                    this.put(
+                        key,
+                        nameAndFunction.getValue(),
+                        generation
+                    )
+                );
+            }
+        }
+
+        return Maps.readOnly(nameToFunction);
+    }
+
+    /**
+     * Lock free read, marking the entry as recently used.
+     */
+    private ExpressionFunction<?, C> get(final Object key) {
+        final CachingExpressionFunctionProviderEntry<C> entry = this.keyToEntry.get(key);
+
+        final ExpressionFunction<?, C> function;
+        if (null != entry) {
+            if (false == entry.referenced) {
+                entry.referenced = true;
+            }
+            this.hits.increment(key);
+            function = entry.function;
+        } else {
+            this.misses.increment(key);
+            function = null;
+        }
+
+        return function;
+    }
+
+    /**
+     * Removes all cached functions. Call this after the wrapped provider changes, so later lookups ask it again.
+     * Functions returned by lookups that started before the clear are returned but not cached.
+     */
+    public void clear() {
+        synchronized (this.clock) {
+            this.generation++;
+
+            this.keyToEntry.clear();
+            Arrays.fill(
+                this.clock,
+                null
+            );
+            this.size = 0;
+            this.hand = 0;
+        }
+    }
+
+    /**
+     * Adds a new entry evicting another if the cache is full. If another thread added the same key first its function
+     * is returned. Functions looked up before a {@link #clear()} are returned but not cached.
+     */
+    private ExpressionFunction<?, C> put(final Object key,
+                                         final ExpressionFunction<?, C> function,
+                                         final int generation) {
+        synchronized (this.clock) {
+            if (generation != this.generation) {
+                return function;
+            }
+
+            final CachingExpressionFunctionProviderEntry<C> existing = this.keyToEntry.get(key);
+            if (null != existing) {
+                return existing.function;
+            }
+
+            final Object[] clock = this.clock;
+            final int size = this.size;
+
+            if (size < clock.length) {
+                clock[size] = key;
+                this.size = size + 1;
+            } else {
+                // advance the hand giving recently used entries a second chance
+                int hand = this.hand;
+                for (; ; ) {
+                    final CachingExpressionFunctionProviderEntry<C> candidate = this.keyToEntry.get(clock[hand]);
+                    if (candidate.referenced) {
+                        candidate.referenced = false;
+                        hand = (hand + 1) % clock.length;
+                    } else {
+                        this.keyToEntry.remove(clock[hand]);
+                        clock[hand] = key;
+                        this.hand = (hand + 1) % clock.length;
+                        break;
+                    }
+                }
+            }
+
+            this.keyToEntry.put(
+                key,
+                new CachingExpressionFunctionProviderEntry<>(function)
+            );
+        }
+
+        return function;
+    }
+
+    /**
+     * Holds all cached functions, keys are either a {@link ExpressionFunctionName} or {@link ExpressionFunctionSelector}
+     * with the wrapped provider {@link CaseSensitivity}.
+     */
+    private final Map<Object, CachingExpressionFunctionProviderEntry<C>> keyToEntry;
+
+    /**
+     * The keys in insertion order, used as the CLOCK ring when evicting. Also used as the lock for all writes.
+     */
+    private final Object[] clock;
+
+    /**
+     * The number of slots in {@link #clock} that are filled.
+     */
+    private int size;
+
+    /**
+     * The position of the CLOCK hand.
+     */
+    private int hand;
+
+    /**
+     * The number of cached entries.
+     */
+    public int size() {
+        return this.keyToEntry.size();
+    }
+
+    /**
+     * The number of lookups that returned a cached {@link ExpressionFunction}.
+     */
+    public long hits() {
+        return this.hits.get();
+    }
+
+    private final CachingExpressionFunctionProviderCounter hits = new CachingExpressionFunctionProviderCounter();
+
+    /**
+     * The number of lookups that were passed to the wrapped {@link ExpressionFunctionProvider}.
+     */
+    public long misses() {
+        return this.misses.get();
+    }
+
+    private final CachingExpressionFunctionProviderCounter misses = new CachingExpressionFunctionProviderCounter();
+
+    /**
+     * Incremented by each {@link #clear()}, lookups read it before asking the wrapped provider, so functions they
+     * return are not cached after a newer clear. Only incremented while holding the {@link #clock} lock.
+     */
+    private volatile int generation;
+
+    @Override
+    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+        return this.provider.expressionFunctionInfos();
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.caseSensitivity;
+    }
+
+    private final CaseSensitivity caseSensitivity;
+
+    private final ExpressionFunctionProvider<C> provider;
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A counter within a {@link CachingExpressionFunctionProvider} split into several {@link AtomicLong} cells selected by
+ * the identity hash of the key being counted, so threads looking up different keys usually increment different cells
+ * and rarely contend. Reading the count adds all cells.
+ */
+final class CachingExpressionFunctionProviderCounter {
+
+    /**
+     * The number of cells, which must be a power of two.
+     */
+    final static int CELLS = 16;
+
+    CachingExpressionFunctionProviderCounter() {
+        final AtomicLong[] cells = new AtomicLong[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            cells[i] = new AtomicLong();
+        }
+        this.cells = cells;
+    }
+
+    /**
+     * Adds one to the cell selected by the given key.
+     */
+    void increment(final Object key) {
+        final int hash = System.identityHashCode(key);
+
+        // spread the high bits so the mask uses them
+        this.cells[(hash ^ (hash >>> 16)) & (CELLS - 1)].incrementAndGet();
+    }
+
+    /**
+     * Returns the sum of all cells.
+     */
+    long get() {
+        long count = 0;
+        for (final AtomicLong cell : this.cells) {
+            count = count + cell.get();
+        }
+        return count;
+    }
+
+    private final AtomicLong[] cells;
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.get());
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+
+/**
+ * A single cached {@link ExpressionFunction} within a {@link CachingExpressionFunctionProvider}.
+ */
+final class CachingExpressionFunctionProviderEntry<C extends ExpressionEvaluationContext> {
+
+    CachingExpressionFunctionProviderEntry(final ExpressionFunction<?, C> function) {
+        this.function = function;
+    }
+
+    final ExpressionFunction<?, C> function;
+
+    /**
+     * Set by reads and cleared as the CLOCK hand passes, a lost update only affects which entry is evicted.
+     */
+    boolean referenced;
+
+    @Override
+    public String toString() {
+        return this.function.toString();
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link ExpressionFunctionProvider} that resolves every {@link ExpressionFunctionInfo} of the wrapped provider once,
+ * flattening any chain of decorators into a single hash lookup. Lookups with values or a {@link ExpressionFunctionSelector}
+ * with value text, and any name the wrapped provider reported as absent when compiling, are passed to the original provider.
+ * Any other failure while resolving a name, such as a name provided by more than one member of a collection, is
+ * thrown by {@link ExpressionFunctionProviders#compile(ExpressionFunctionProvider, ProviderContext)}.
+ * <br>
+ * Functions are resolved using the {@link ProviderContext} given when compiling, the {@link ProviderContext} given to
+ * later lookups is only passed to the original provider for names that were not resolved ahead of time.
+ * <br>
+ * The functions and {@link ExpressionFunctionInfoSet} are a snapshot of the original provider, later changes such as
+ * a {@link RegistryExpressionFunctionProvider#register(ExpressionFunction)} are not seen. Compile again to follow
+ * such changes, for example when {@link RegistryExpressionFunctionProvider#version()} changes.
+ */
+final class CompiledExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
+
+    static <C extends ExpressionEvaluationContext> CompiledExpressionFunctionProvider<C> with(final ExpressionFunctionProvider<C> provider,
+                                                                                              final ProviderContext context) {
+        return new CompiledExpressionFunctionProvider<>(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(context, "context")
+        );
+    }
+
+    private CompiledExpressionFunctionProvider(final ExpressionFunctionProvider<C> provider,
+                                               final ProviderContext context) {
+        final CaseSensitivity caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+        final ExpressionFunctionInfoSet infos = provider.expressionFunctionInfos();
+        final List<?> values = Lists.empty();
+
+        final ExpressionFunctionNameIndex<ExpressionFunction<?, C>> nameToFunction = ExpressionFunctionNameIndex.with(
+            caseSensitivity,
+            infos.size()
+        );
+
+        for (final ExpressionFunctionName name : infos.names()) {
+            final ExpressionFunctionName nameWithCaseSensitivity = ExpressionFunctionNameInterner.intern(
+                name,
+                caseSensitivity
+            );
+
+            // names the provider does not have are left to the original provider, any other failure is reported
+            provider.expressionFunctionIfPresent(
+                nameWithCaseSensitivity,
+                values,
+                context
+            ).ifPresent(
+                f -> nameToFunction.put(
+                    nameWithCaseSensitivity,
+                    f
+                )
+            );
+        }
+
+        this.nameToFunction = nameToFunction;
+        this.provider = provider;
+        this.infos = infos;
+        this.caseSensitivity = caseSensitivity;
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        ExpressionFunction<?, C> function = null;
+
+        if (selector.valueText().isEmpty()) {
+            function = this.nameToFunction.get(
+                selector.name()
+            );
+        }
+
+        return null != function ?
+            function :
+            this.provider.expressionFunction(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionName name,
+                                                       final List<?> values,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        ExpressionFunction<?, C> function = null;
+
+        if (values.isEmpty()) {
+            function = this.nameToFunction.get(name);
+        }
+
+        return null != function ?
+            function :
+            this.provider.expressionFunction(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        ExpressionFunction<?, C> function = null;
+
+        if (selector.valueText().isEmpty()) {
+            function = this.nameToFunction.get(
+                selector.name()
+            );
+        }
+
+        return null != function ?
+            Optional.of(function) :
+            this.provider.expressionFunctionIfPresent(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        ExpressionFunction<?, C> function = null;
+
+        if (values.isEmpty()) {
+            function = this.nameToFunction.get(name);
+        }
+
+        return null != function ?
+            Optional.of(function) :
+            this.provider.expressionFunctionIfPresent(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final CaseSensitivity caseSensitivity = this.caseSensitivity;
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(caseSensitivity)
+        );
+
+        // names that could not be resolved ahead of time are passed to the original provider in a single call
+        final List<ExpressionFunctionName> missing = Lists.array();
+
+        for (final ExpressionFunctionName name : names) {
+            final ExpressionFunction<?, C> function = this.nameToFunction.get(name);
+            if (null != function) {
+                nameToFunction.put(
+                    ExpressionFunctionNameInterner.intern(
+                        name,
+                        caseSensitivity
+                    ),
+                    function
+                );
+            } else {
+                missing.add(name);
+            }
+        }
+
+        if (false == missing.isEmpty()) {
+            nameToFunction.putAll(
+                this.provider.expressionFunctions(
+                    missing,
+                    context
+                )
+            );
+        }
+
+        return Maps.readOnly(nameToFunction);
+    }
+
+    /**
+     * Functions resolved by the original provider, using the provider {@link CaseSensitivity}.
+     */
+    private final ExpressionFunctionNameIndex<ExpressionFunction<?, C>> nameToFunction;
+
+    /**
+     * The original provider, used for selectors with values and unknown names.
+     */
+    private final ExpressionFunctionProvider<C> provider;
+
+    @Override
+    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+        return this.infos;
+    }
+
+    private final ExpressionFunctionInfoSet infos;
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.caseSensitivity;
+    }
+
+    private final CaseSensitivity caseSensitivity;
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
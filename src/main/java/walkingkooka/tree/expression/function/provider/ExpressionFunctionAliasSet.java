@@ -19,6 +19,7 @@ package walkingkooka.tree.expression.function.provider;
 
 import walkingkooka.collect.set.ImmutableSortedSetDefaults;
 import walkingkooka.collect.set.SortedSets;
+import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.plugin.PluginAliasSet;
 import walkingkooka.plugin.PluginAliasSetLike;
 import walkingkooka.text.CaseSensitivity;
@@ -34,10 +35,27 @@ import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.SortedSet;
 
+/**
+ * A read only sorted {@link java.util.Set} of {@link ExpressionFunctionAlias}.
+ * <br>
+ * Edits that would not change the elements, such as adding an alias that is already present or deleting one that is
+ * absent, return this set without building a new {@link PluginAliasSet}.
+ * <br>
+ * The aliases are held in a persistent {@link ExpressionFunctionSortedTree} with a {@link ExpressionFunctionNameTrie}
+ * from each alias name to its alias, so {@link #aliasSelector(ExpressionFunctionName)},
+ * {@link #aliasOrName(ExpressionFunctionName)} and {@link #containsAliasOrName(ExpressionFunctionName)} never search,
+ * and {@link #concat(ExpressionFunctionAlias)}, {@link #delete(ExpressionFunctionAlias)},
+ * {@link #replace(ExpressionFunctionAlias, ExpressionFunctionAlias)} and {@link #concatOrReplace(ExpressionFunctionAlias)}
+ * copy only <code>O(log n)</code> nodes of each. An added alias that shares its name, target or url with another alias
+ * is left to {@link PluginAliasSet}, which validates such aliases. {@link #subSet(ExpressionFunctionAlias, ExpressionFunctionAlias)},
+ * {@link #headSet(ExpressionFunctionAlias)} and {@link #tailSet(ExpressionFunctionAlias)} copy and index only the
+ * aliases in range. The {@link PluginAliasSet} used by the remaining operations is only created when first needed.
+ */
 public final class ExpressionFunctionAliasSet extends AbstractSet<ExpressionFunctionAlias>
     implements PluginAliasSetLike<ExpressionFunctionName,
     ExpressionFunctionInfo,
@@ -91,52 +109,283 @@ public final class ExpressionFunctionAliasSet extends AbstractSet<ExpressionFunc
     }
 
     private ExpressionFunctionAliasSet(final PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet> pluginAliasSet) {
+        this(
+            pluginAliasSet,
+            pluginAliasSet.<ExpressionFunctionPluginHelper>helper().caseSensitivity,
+            pluginAliasSet.comparator(),
+            ExpressionFunctionSortedTree.with(
+                pluginAliasSet,
+                treeComparator(
+                    pluginAliasSet.comparator()
+                )
+            )
+        );
+    }
+
+    /**
+     * Creates a set holding the aliases of the given tree, building each index with one pass over the tree.
+     */
+    private ExpressionFunctionAliasSet(final PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet> pluginAliasSet,
+                                       final CaseSensitivity caseSensitivity,
+                                       final Comparator<? super ExpressionFunctionAlias> comparator,
+                                       final ExpressionFunctionSortedTree<ExpressionFunctionAlias> tree) {
+        ExpressionFunctionNameTrie<ExpressionFunctionAlias> nameToAlias = ExpressionFunctionNameTrie.empty(caseSensitivity);
+        ExpressionFunctionNameTrie<Integer> targetCounts = ExpressionFunctionNameTrie.empty(caseSensitivity);
+        ExpressionFunctionNameTrie<Integer> urlCounts = ExpressionFunctionNameTrie.empty(CaseSensitivity.SENSITIVE);
+
+        final Iterator<ExpressionFunctionAlias> aliases = tree.iterator();
+        while (aliases.hasNext()) {
+            final ExpressionFunctionAlias alias = aliases.next();
+
+            nameToAlias = nameToAlias.put(
+                alias.name()
+                    .value(),
+                alias
+            );
+            targetCounts = count(
+                targetCounts,
+                target(alias),
+                1
+            );
+            urlCounts = count(
+                urlCounts,
+                url(alias),
+                1
+            );
+        }
+
         this.pluginAliasSet = pluginAliasSet;
+        this.caseSensitivity = caseSensitivity;
+        this.comparator = comparator;
+        this.tree = tree;
+        this.nameToAlias = nameToAlias;
+        this.targetCounts = targetCounts;
+        this.urlCounts = urlCounts;
+    }
+
+    private ExpressionFunctionAliasSet(final CaseSensitivity caseSensitivity,
+                                       final Comparator<? super ExpressionFunctionAlias> comparator,
+                                       final ExpressionFunctionSortedTree<ExpressionFunctionAlias> tree,
+                                       final ExpressionFunctionNameTrie<ExpressionFunctionAlias> nameToAlias,
+                                       final ExpressionFunctionNameTrie<Integer> targetCounts,
+                                       final ExpressionFunctionNameTrie<Integer> urlCounts) {
+        this.pluginAliasSet = null;
+        this.caseSensitivity = caseSensitivity;
+        this.comparator = comparator;
+        this.tree = tree;
+        this.nameToAlias = nameToAlias;
+        this.targetCounts = targetCounts;
+        this.urlCounts = urlCounts;
+    }
+
+    /**
+     * {@link SortedSet#comparator()} returns null for natural ordering, the tree always needs a {@link Comparator}.
+     */
+    private static Comparator<? super ExpressionFunctionAlias> treeComparator(final Comparator<? super ExpressionFunctionAlias> comparator) {
+        return null != comparator ?
+            comparator :
+            Comparator.<ExpressionFunctionAlias>naturalOrder();
+    }
+
+    /**
+     * The name of the function an alias with a selector refers to, or null.
+     */
+    private static String target(final ExpressionFunctionAlias alias) {
+        return alias.selector()
+            .map(s -> s.name().value())
+            .orElse(null);
+    }
+
+    private static String url(final ExpressionFunctionAlias alias) {
+        return alias.url()
+            .map(AbsoluteUrl::toString)
+            .orElse(null);
+    }
+
+    /**
+     * Adds the delta to the count for the given key, removing keys whose count reaches zero. A null key is ignored.
+     */
+    private static ExpressionFunctionNameTrie<Integer> count(final ExpressionFunctionNameTrie<Integer> counts,
+                                                             final String key,
+                                                             final int delta) {
+        ExpressionFunctionNameTrie<Integer> counted = counts;
+
+        if (null != key) {
+            final Integer count = counts.get(key);
+            final int newCount = (null == count ? 0 : count) + delta;
+
+            counted = 0 == newCount ?
+                counts.remove(key) :
+                counts.put(
+                    key,
+                    newCount
+                );
+        }
+
+        return counted;
+    }
+
+    /**
+     * Returns a set with the given alias added, or null if the alias shares its name, target or url with another alias
+     * and must be validated by {@link PluginAliasSet}.
+     */
+    private ExpressionFunctionAliasSet concatIfUnique(final ExpressionFunctionAlias alias) {
+        final ExpressionFunctionNameTrie<ExpressionFunctionAlias> nameToAlias = this.nameToAlias;
+        final ExpressionFunctionNameTrie<Integer> targetCounts = this.targetCounts;
+        final ExpressionFunctionNameTrie<Integer> urlCounts = this.urlCounts;
+
+        final String name = alias.name()
+            .value();
+        final String target = target(alias);
+        final String url = url(alias);
+
+        return null == this.tree.get(alias) &&
+            null == nameToAlias.get(name) &&
+            null == targetCounts.get(name) &&
+            (null == target || null == nameToAlias.get(target)) &&
+            (null == url || null == urlCounts.get(url)) ?
+            new ExpressionFunctionAliasSet(
+                this.caseSensitivity,
+                this.comparator,
+                this.tree.add(alias),
+                nameToAlias.put(
+                    name,
+                    alias
+                ),
+                count(
+                    targetCounts,
+                    target,
+                    1
+                ),
+                count(
+                    urlCounts,
+                    url,
+                    1
+                )
+            ) :
+            null;
+    }
+
+    /**
+     * Returns a set without the given alias, which must be present.
+     */
+    private ExpressionFunctionAliasSet deletePresent(final ExpressionFunctionAlias alias) {
+        final ExpressionFunctionSortedTree<ExpressionFunctionAlias> tree = this.tree.remove(alias);
+
+        return tree.isEmpty() ?
+            empty(this.caseSensitivity) :
+            new ExpressionFunctionAliasSet(
+                this.caseSensitivity,
+                this.comparator,
+                tree,
+                this.nameToAlias.remove(
+                    alias.name()
+                        .value()
+                ),
+                count(
+                    this.targetCounts,
+                    target(alias),
+                    -1
+                ),
+                count(
+                    this.urlCounts,
+                    url(alias),
+                    -1
+                )
+            );
     }
 
     @Override
     public ExpressionFunctionSelector selector(final ExpressionFunctionSelector selector) {
-        return this.pluginAliasSet.selector(selector);
+        return this.pluginAliasSet().selector(selector);
     }
 
     @Override
     public Optional<ExpressionFunctionSelector> aliasSelector(final ExpressionFunctionName name) {
-        return this.pluginAliasSet.aliasSelector(name);
+        Objects.requireNonNull(name, "name");
+
+        final ExpressionFunctionAlias alias = this.nameToAlias.get(name);
+        return null == alias ?
+            Optional.empty() :
+            alias.selector();
     }
 
     @Override
     public Optional<ExpressionFunctionName> aliasOrName(final ExpressionFunctionName name) {
-        return this.pluginAliasSet.aliasOrName(name);
+        Objects.requireNonNull(name, "name");
+
+        final ExpressionFunctionAlias alias = this.nameToAlias.get(name);
+        return null == alias ?
+            Optional.empty() :
+            Optional.of(
+                alias.selector()
+                    .map(ExpressionFunctionSelector::name)
+                    .orElse(
+                        alias.name()
+                    )
+            );
     }
 
     @Override
     public ExpressionFunctionInfoSet merge(final ExpressionFunctionInfoSet infos) {
-        return this.pluginAliasSet.merge(infos);
+        Objects.requireNonNull(infos, "infos");
+
+        final ExpressionFunctionInfoSet merged = ExpressionFunctionAliasSetMerger.merge(
+            this,
+            this.caseSensitivity,
+            infos
+        );
+        return null != merged ?
+            merged :
+            this.pluginAliasSet()
+                .merge(infos);
     }
 
     @Override
     public boolean containsAliasOrName(final ExpressionFunctionName aliasOrName) {
-        return this.pluginAliasSet.containsAliasOrName(aliasOrName);
+        Objects.requireNonNull(aliasOrName, "aliasOrName");
+
+        return null != this.nameToAlias.get(aliasOrName);
     }
 
     @Override
     public ExpressionFunctionAliasSet concatOrReplace(final ExpressionFunctionAlias alias) {
-        return new ExpressionFunctionAliasSet(
-            this.pluginAliasSet.concatOrReplace(alias)
-        );
+        Objects.requireNonNull(alias, "alias");
+
+        ExpressionFunctionAliasSet set = this;
+
+        if (false == this.contains(alias)) {
+            final ExpressionFunctionAlias previous = this.nameToAlias.get(
+                alias.name()
+            );
+
+            set = (null == previous ?
+                this :
+                this.deletePresent(previous)
+            ).concatIfUnique(alias);
+
+            if (null == set) {
+                set = new ExpressionFunctionAliasSet(
+                    this.pluginAliasSet()
+                        .concatOrReplace(alias)
+                );
+            }
+        }
+
+        return set;
     }
 
     @Override
     public ExpressionFunctionAliasSet deleteAliasOrNameAll(final Collection<ExpressionFunctionName> aliasOrNames) {
         return this.setElements(
-            this.pluginAliasSet.deleteAliasOrNameAll(aliasOrNames)
+            this.pluginAliasSet().deleteAliasOrNameAll(aliasOrNames)
         );
     }
 
     @Override
     public ExpressionFunctionAliasSet keepAliasOrNameAll(final Collection<ExpressionFunctionName> aliasOrNames) {
         return this.setElements(
-            this.pluginAliasSet.keepAliasOrNameAll(aliasOrNames)
+            this.pluginAliasSet().keepAliasOrNameAll(aliasOrNames)
         );
     }
 
@@ -144,116 +393,219 @@ public final class ExpressionFunctionAliasSet extends AbstractSet<ExpressionFunc
 
     @Override
     public Comparator<? super ExpressionFunctionAlias> comparator() {
-        return this.pluginAliasSet.comparator();
+        return this.comparator;
+    }
+
+    private final Comparator<? super ExpressionFunctionAlias> comparator;
+
+    @Override
+    public boolean contains(final Object alias) {
+        return alias instanceof ExpressionFunctionAlias &&
+            alias.equals(
+                this.tree.get((ExpressionFunctionAlias) alias)
+            );
     }
 
     @Override
     public Iterator<ExpressionFunctionAlias> iterator() {
-        return this.pluginAliasSet.stream().iterator();
+        return this.tree.iterator();
     }
 
     @Override
     public int size() {
-        return this.pluginAliasSet.size();
+        return this.tree.size();
     }
 
     @Override
     public ExpressionFunctionAliasSet setElements(final Collection<ExpressionFunctionAlias> aliases) {
-        final ExpressionFunctionAliasSet after = new ExpressionFunctionAliasSet(
-            this.pluginAliasSet.setElements(aliases)
-        );
-        return this.pluginAliasSet.equals(aliases) ?
+        // test for equality first, so unchanged elements are not copied into a new PluginAliasSet
+        return this.isSame(aliases) ?
             this :
-            after;
+            new ExpressionFunctionAliasSet(
+                this.pluginAliasSet()
+                    .setElements(aliases)
+            );
     }
 
     @Override
     public ExpressionFunctionAliasSet setElementsFailIfDifferent(final Collection<ExpressionFunctionAlias> aliases) {
-        final ExpressionFunctionAliasSet after = new ExpressionFunctionAliasSet(
-            this.pluginAliasSet.setElementsFailIfDifferent(aliases)
-        );
-        return this.pluginAliasSet.equals(aliases) ?
+        return this.isSame(aliases) ?
             this :
-            after;
+            new ExpressionFunctionAliasSet(
+                this.pluginAliasSet()
+                    .setElementsFailIfDifferent(aliases)
+            );
+    }
+
+    private boolean isSame(final Collection<ExpressionFunctionAlias> aliases) {
+        return this == aliases ||
+            this.pluginAliasSet == aliases ||
+            this.equals(aliases);
     }
 
     @Override
     public SortedSet<ExpressionFunctionAlias> toSet() {
-        return this.pluginAliasSet.toSet();
+        return this.pluginAliasSet().toSet();
     }
 
     @Override
     public ExpressionFunctionAliasSet subSet(final ExpressionFunctionAlias from,
                                              final ExpressionFunctionAlias to) {
-        return this.setElements(
-            this.pluginAliasSet.subSet(
+        // null or reversed bounds are left to PluginAliasSet, which reports them
+        return null != from && null != to && this.tree.comparator.compare(from, to) <= 0 ?
+            this.range(
                 from,
                 to
-            )
-        );
+            ) :
+            this.setElements(
+                this.pluginAliasSet().subSet(
+                    from,
+                    to
+                )
+            );
     }
 
     @Override
     public ExpressionFunctionAliasSet headSet(final ExpressionFunctionAlias alias) {
-        return this.setElements(
-            this.pluginAliasSet.headSet(alias)
-        );
+        return null != alias ?
+            this.range(
+                null,
+                alias
+            ) :
+            this.setElements(
+                this.pluginAliasSet().headSet(alias)
+            );
     }
 
     @Override
     public ExpressionFunctionAliasSet tailSet(final ExpressionFunctionAlias alias) {
-        return this.setElements(
-            this.pluginAliasSet.tailSet(alias)
+        return null != alias ?
+            this.range(
+                alias,
+                null
+            ) :
+            this.setElements(
+                this.pluginAliasSet().tailSet(alias)
+            );
+    }
+
+    /**
+     * Returns a set with only the aliases in range, copying and indexing only those aliases. Any subset of valid
+     * aliases is itself valid, so {@link PluginAliasSet} is not needed.
+     */
+    private ExpressionFunctionAliasSet range(final ExpressionFunctionAlias from,
+                                             final ExpressionFunctionAlias to) {
+        final ExpressionFunctionSortedTree<ExpressionFunctionAlias> tree = this.tree;
+        final ExpressionFunctionSortedTree<ExpressionFunctionAlias> range = tree.range(
+            from,
+            to
         );
+
+        return tree == range ?
+            this :
+            range.isEmpty() ?
+                empty(this.caseSensitivity) :
+                new ExpressionFunctionAliasSet(
+                    null,
+                    this.caseSensitivity,
+                    this.comparator,
+                    range
+                );
     }
 
     @Override
     public ExpressionFunctionAliasSet concat(final ExpressionFunctionAlias alias) {
-        return this.setElements(
-            this.pluginAliasSet.concat(alias)
-        );
+        Objects.requireNonNull(alias, "alias");
+
+        ExpressionFunctionAliasSet set = this;
+
+        if (false == this.contains(alias)) {
+            set = this.concatIfUnique(alias);
+            if (null == set) {
+                set = this.setElements(
+                    this.pluginAliasSet()
+                        .concat(alias)
+                );
+            }
+        }
+
+        return set;
     }
 
     @Override
     public ExpressionFunctionAliasSet concatAll(final Collection<ExpressionFunctionAlias> aliases) {
-        return this.setElements(
-            this.pluginAliasSet.concatAll(aliases)
-        );
+        Objects.requireNonNull(aliases, "aliases");
+
+        return aliases.isEmpty() ?
+            this :
+            this.setElements(
+                this.pluginAliasSet().concatAll(aliases)
+            );
     }
 
     @Override
     public ExpressionFunctionAliasSet delete(final ExpressionFunctionAlias alias) {
-        return this.setElements(
-            this.pluginAliasSet.delete(alias)
-        );
+        Objects.requireNonNull(alias, "alias");
+
+        return this.contains(alias) ?
+            this.deletePresent(alias) :
+            this;
     }
 
     @Override
     public ExpressionFunctionAliasSet deleteAll(final Collection<ExpressionFunctionAlias> aliases) {
-        return this.setElements(
-            this.pluginAliasSet.deleteAll(aliases)
-        );
+        Objects.requireNonNull(aliases, "aliases");
+
+        return aliases.isEmpty() ?
+            this :
+            this.setElements(
+                this.pluginAliasSet().deleteAll(aliases)
+            );
     }
 
     @Override
     public ExpressionFunctionAliasSet replace(final ExpressionFunctionAlias oldAlias,
                                               final ExpressionFunctionAlias newAlias) {
-        return this.setElements(
-            this.pluginAliasSet.replace(
-                oldAlias,
-                newAlias
-            )
-        );
+        Objects.requireNonNull(oldAlias, "oldAlias");
+        Objects.requireNonNull(newAlias, "newAlias");
+
+        ExpressionFunctionAliasSet set = null;
+
+        // an absent oldAlias is left to PluginAliasSet, even when newAlias is equal
+        if (this.contains(oldAlias)) {
+            set = oldAlias.equals(newAlias) ?
+                this :
+                this.deletePresent(oldAlias)
+                    .concatIfUnique(newAlias);
+        }
+
+        return null != set ?
+            set :
+            this.setElements(
+                this.pluginAliasSet()
+                    .replace(
+                        oldAlias,
+                        newAlias
+                    )
+            );
     }
 
     @Override
     public ExpressionFunctionAlias first() {
-        return this.pluginAliasSet.first();
+        final ExpressionFunctionSortedTree<ExpressionFunctionAlias> tree = this.tree;
+        if (tree.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return tree.first();
     }
 
     @Override
     public ExpressionFunctionAlias last() {
-        return this.pluginAliasSet.last();
+        final ExpressionFunctionSortedTree<ExpressionFunctionAlias> tree = this.tree;
+        if (tree.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return tree.last();
     }
 
     @Override
@@ -263,15 +615,78 @@ public final class ExpressionFunctionAliasSet extends AbstractSet<ExpressionFunc
 
     @Override
     public String text() {
-        return this.pluginAliasSet.text();
+        return this.pluginAliasSet().text();
     }
 
     @Override
     public void printTree(final IndentingPrinter printer) {
-        this.pluginAliasSet.printTree(printer);
+        this.pluginAliasSet().printTree(printer);
+    }
+
+    CaseSensitivity caseSensitivity() {
+        return this.caseSensitivity;
     }
 
-    private final PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet> pluginAliasSet;
+    private final CaseSensitivity caseSensitivity;
+
+    private final ExpressionFunctionSortedTree<ExpressionFunctionAlias> tree;
+
+    /**
+     * Each alias by its name.
+     */
+    private final ExpressionFunctionNameTrie<ExpressionFunctionAlias> nameToAlias;
+
+    /**
+     * The number of aliases with a selector for each function name they refer to.
+     */
+    private final ExpressionFunctionNameTrie<Integer> targetCounts;
+
+    /**
+     * The number of aliases with each url.
+     */
+    private final ExpressionFunctionNameTrie<Integer> urlCounts;
+
+    /**
+     * Returns the {@link PluginAliasSet} holding the same aliases, creating it the first time. Racing threads may each
+     * create an equal {@link PluginAliasSet}, which is harmless as both are immutable.
+     */
+    private PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet> pluginAliasSet() {
+        PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet> pluginAliasSet = this.pluginAliasSet;
+        if (null == pluginAliasSet) {
+            final SortedSet<ExpressionFunctionAlias> aliases = null != this.comparator ?
+                SortedSets.tree(this.comparator) :
+                SortedSets.tree();
+            aliases.addAll(this);
+
+            pluginAliasSet = PluginAliasSet.with(
+                aliases,
+                ExpressionFunctionPluginHelper.instance(this.caseSensitivity)
+            );
+            this.pluginAliasSet = pluginAliasSet;
+        }
+        return pluginAliasSet;
+    }
+
+    private PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet> pluginAliasSet;
+
+    // binary...........................................................................................................
+
+    /**
+     * Returns a compact binary form of this set, which may be read using {@link #parseBinary(byte[])}.
+     */
+    public byte[] toBinary() {
+        return ExpressionFunctionBinaryWriter.aliasSet(
+            this,
+            this.caseSensitivity
+        );
+    }
+
+    /**
+     * Reads the binary form written by {@link #toBinary()}.
+     */
+    public static ExpressionFunctionAliasSet parseBinary(final byte[] bytes) {
+        return ExpressionFunctionBinaryReader.aliasSet(bytes);
+    }
 
     // Json.............................................................................................................
 
@@ -282,7 +697,7 @@ public final class ExpressionFunctionAliasSet extends AbstractSet<ExpressionFunc
     private JsonNode marshall(final JsonNodeMarshallContext context) {
         String text = this.text();
 
-        if (CaseSensitivity.INSENSITIVE == this.pluginAliasSet.<ExpressionFunctionPluginHelper>helper().caseSensitivity) {
+        if (CaseSensitivity.INSENSITIVE == this.caseSensitivity) {
             text = CASE_INSENSITIVE_PREFIX + text;
         }
 
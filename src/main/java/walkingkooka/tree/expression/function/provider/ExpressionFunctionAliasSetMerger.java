@@ -0,0 +1,192 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package walkingkooka.tree.expression.function.provider;
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Merges a {@link ExpressionFunctionAliasSet} with a {@link ExpressionFunctionInfoSet} in a single pass, walking both
+ * in name order like a merge join. A name alias keeps the info with the same name, an alias with a url becomes an info
+ * with that url, and an alias with a selector renames the info of its target, found using a
+ * {@link ExpressionFunctionNameIndex} that is only built when such an alias is present. Aliases produce their infos
+ * in alias name order, so the result is built as a balanced {@link ExpressionFunctionSortedTree} without sorting.
+ * <br>
+ * Whenever the inputs are not in the expected order, or an alias would need any other handling, such as a missing
+ * target, null is returned and the caller uses {@link walkingkooka.plugin.PluginAliasSet#merge}.
+ */
+final class ExpressionFunctionAliasSetMerger {
+
+    /**
+     * Returns the merged infos, the given infos if every info was kept unchanged, or null when the merge must be
+     * performed by {@link walkingkooka.plugin.PluginAliasSet}.
+     */
+    static ExpressionFunctionInfoSet merge(final ExpressionFunctionAliasSet aliases,
+                                           final CaseSensitivity caseSensitivity,
+                                           final ExpressionFunctionInfoSet infos) {
+        final Comparator<ExpressionFunctionName> comparator = ExpressionFunctionName.comparator(caseSensitivity);
+
+        final ExpressionFunctionInfo[] merged = new ExpressionFunctionInfo[aliases.size()];
+        int count = 0;
+        int kept = 0;
+
+        ExpressionFunctionNameIndex<ExpressionFunctionInfo> nameToInfo = null;
+
+        final Iterator<ExpressionFunctionInfo> infoIterator = infos.iterator();
+        ExpressionFunctionInfo info = infoIterator.hasNext() ?
+            infoIterator.next() :
+            null;
+
+        ExpressionFunctionName previousAlias = null;
+
+        for (final ExpressionFunctionAlias alias : aliases) {
+            final ExpressionFunctionName name = alias.name();
+            if (null != previousAlias && comparator.compare(previousAlias, name) >= 0) {
+                return null;
+            }
+            previousAlias = name;
+
+            final Optional<ExpressionFunctionSelector> selector = alias.selector();
+            final Optional<AbsoluteUrl> url = alias.url();
+
+            ExpressionFunctionInfo mergedInfo = null;
+
+            if (false == selector.isPresent()) {
+                if (url.isPresent()) {
+                    return null;
+                }
+
+                // advance infos up to this name
+                int compare = -1;
+                while (null != info) {
+                    compare = comparator.compare(
+                        info.name(),
+                        name
+                    );
+                    if (compare >= 0) {
+                        break;
+                    }
+
+                    final ExpressionFunctionInfo next = infoIterator.hasNext() ?
+                        infoIterator.next() :
+                        null;
+                    if (null != next && comparator.compare(info.name(), next.name()) >= 0) {
+                        return null;
+                    }
+                    info = next;
+                }
+
+                if (null != info && 0 == compare) {
+                    // a name that only matches ignoring case may be renamed by PluginAliasSet
+                    if (false == info.name().value().equals(name.value())) {
+                        return null;
+                    }
+                    mergedInfo = info;
+                    kept++;
+                }
+            } else {
+                if (url.isPresent()) {
+                    mergedInfo = ExpressionFunctionInfo.with(
+                        url.get(),
+                        name
+                    );
+                } else {
+                    if (null == nameToInfo) {
+                        nameToInfo = index(
+                            infos,
+                            caseSensitivity
+                        );
+                        if (null == nameToInfo) {
+                            return null;
+                        }
+                    }
+
+                    final ExpressionFunctionInfo target = nameToInfo.get(
+                        selector.get()
+                            .name()
+                    );
+                    if (null == target) {
+                        return null;
+                    }
+                    mergedInfo = target.setName(name);
+                }
+            }
+
+            if (null != mergedInfo) {
+                merged[count++] = mergedInfo;
+            }
+        }
+
+        final ExpressionFunctionInfoSet result;
+
+        if (kept == count && count == infos.size() && caseSensitivity == infos.caseSensitivity()) {
+            result = infos;
+        } else {
+            final ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree = ExpressionFunctionSortedTree.with(
+                Arrays.asList(merged)
+                    .subList(
+                        0,
+                        count
+                    ),
+                Comparator.naturalOrder()
+            );
+
+            // two aliases produced infos that are equal, leave that to PluginAliasSet
+            result = tree.size() == count ?
+                ExpressionFunctionInfoSet.withTree(
+                    tree,
+                    caseSensitivity
+                ) :
+                null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns an index of each info by name, or null if two infos have the same name.
+     */
+    private static ExpressionFunctionNameIndex<ExpressionFunctionInfo> index(final ExpressionFunctionInfoSet infos,
+                                                                             final CaseSensitivity caseSensitivity) {
+        final ExpressionFunctionNameIndex<ExpressionFunctionInfo> nameToInfo = ExpressionFunctionNameIndex.with(
+            caseSensitivity,
+            infos.size()
+        );
+
+        for (final ExpressionFunctionInfo info : infos) {
+            if (null != nameToInfo.put(info.name(), info)) {
+                return null;
+            }
+        }
+
+        return nameToInfo;
+    }
+
+    /**
+     * Stop creation
+     */
+    private ExpressionFunctionAliasSetMerger() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.SortedSets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+
+/**
+ * Reads the binary form written by {@link ExpressionFunctionBinaryWriter}.
+ */
+final class ExpressionFunctionBinaryReader {
+
+    static ExpressionFunctionInfoSet infoSet(final byte[] bytes) {
+        Objects.requireNonNull(bytes, "bytes");
+
+        final ExpressionFunctionBinaryReader reader = new ExpressionFunctionBinaryReader(bytes);
+        final CaseSensitivity caseSensitivity = reader.header(ExpressionFunctionBinaryWriter.INFO_SET);
+        final int count = reader.readVarint();
+
+        final SortedSet<ExpressionFunctionInfo> infos = SortedSets.tree();
+
+        for (int i = 0; i < count; i++) {
+            final int flags = reader.readFlags(
+                ExpressionFunctionBinaryWriter.INFO_NAME_CASE_INSENSITIVE |
+                    ExpressionFunctionBinaryWriter.INFO_NAME_SAME_AS_URL
+            );
+            final String urlPrefix = reader.readDictionaryString();
+            final String urlSuffix = reader.readString();
+
+            final String name = 0 != (flags & ExpressionFunctionBinaryWriter.INFO_NAME_SAME_AS_URL) ?
+                urlSuffix :
+                reader.readString();
+
+            infos.add(
+                ExpressionFunctionInfo.with(
+                    Url.parseAbsolute(urlPrefix + urlSuffix),
+                    ExpressionFunctionNameInterner.canonical(
+                        name,
+                        0 != (flags & ExpressionFunctionBinaryWriter.INFO_NAME_CASE_INSENSITIVE) ?
+                            CaseSensitivity.INSENSITIVE :
+                            CaseSensitivity.SENSITIVE
+                    )
+                )
+            );
+        }
+
+        reader.end();
+
+        return ExpressionFunctionInfoSet.with(
+            infos,
+            caseSensitivity
+        );
+    }
+
+    static ExpressionFunctionAliasSet aliasSet(final byte[] bytes) {
+        Objects.requireNonNull(bytes, "bytes");
+
+        final ExpressionFunctionBinaryReader reader = new ExpressionFunctionBinaryReader(bytes);
+        final CaseSensitivity caseSensitivity = reader.header(ExpressionFunctionBinaryWriter.ALIAS_SET);
+        final int count = reader.readVarint();
+
+        final SortedSet<ExpressionFunctionAlias> aliases = SortedSets.tree();
+
+        for (int i = 0; i < count; i++) {
+            final int flags = reader.readFlags(
+                ExpressionFunctionBinaryWriter.ALIAS_SELECTOR |
+                    ExpressionFunctionBinaryWriter.ALIAS_URL
+            );
+            final ExpressionFunctionName name = ExpressionFunctionNameInterner.canonical(
+                reader.readString(),
+                caseSensitivity
+            );
+
+            Optional<ExpressionFunctionSelector> selector = Optional.empty();
+            if (0 != (flags & ExpressionFunctionBinaryWriter.ALIAS_SELECTOR)) {
+                selector = Optional.of(
+                    ExpressionFunctionSelector.with(
+                        ExpressionFunctionNameInterner.canonical(
+                            reader.readString(),
+                            caseSensitivity
+                        ),
+                        reader.readString()
+                    )
+                );
+            }
+
+            Optional<AbsoluteUrl> url = Optional.empty();
+            if (0 != (flags & ExpressionFunctionBinaryWriter.ALIAS_URL)) {
+                final String prefix = reader.readDictionaryString();
+                url = Optional.of(
+                    Url.parseAbsolute(prefix + reader.readString())
+                );
+            }
+
+            aliases.add(
+                ExpressionFunctionAlias.with(
+                    name,
+                    selector,
+                    url
+                )
+            );
+        }
+
+        reader.end();
+
+        return ExpressionFunctionAliasSet.empty(caseSensitivity)
+            .setElements(aliases);
+    }
+
+    private ExpressionFunctionBinaryReader(final byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    private CaseSensitivity header(final byte type) {
+        final int actual = this.readByte();
+        if (type != actual) {
+            throw new IllegalArgumentException("Invalid type " + actual + " expected " + type);
+        }
+
+        final int flags = this.readFlags(ExpressionFunctionBinaryWriter.CASE_INSENSITIVE);
+
+        return 0 != (flags & ExpressionFunctionBinaryWriter.CASE_INSENSITIVE) ?
+            CaseSensitivity.INSENSITIVE :
+            CaseSensitivity.SENSITIVE;
+    }
+
+    /**
+     * Reads a flags byte, failing if any bit outside the given mask is set, so bytes from a newer or corrupt writer
+     * are not silently misread.
+     */
+    private int readFlags(final int mask) {
+        final int position = this.position;
+        final int flags = this.readByte();
+        if (0 != (flags & ~mask)) {
+            throw new IllegalArgumentException("Invalid flags " + flags + " at " + position);
+        }
+        return flags;
+    }
+
+    private String readDictionaryString() {
+        final List<String> dictionary = this.dictionary;
+
+        final int index = this.readVarint();
+        final String text;
+
+        if (0 == index) {
+            text = this.readString();
+            dictionary.add(text);
+        } else {
+            if (index > dictionary.size()) {
+                throw new IllegalArgumentException("Invalid dictionary index " + (index - 1) + " at " + this.position);
+            }
+            text = dictionary.get(index - 1);
+        }
+
+        return text;
+    }
+
+    private String readString() {
+        final int length = this.readVarint();
+        if (length > this.bytes.length - this.position) {
+            throw this.endOfBytes();
+        }
+
+        final String text = new String(
+            this.bytes,
+            this.position,
+            length,
+            StandardCharsets.UTF_8
+        );
+        this.position += length;
+        return text;
+    }
+
+    /**
+     * Reads an unsigned int written by {@link ExpressionFunctionBinaryWriter}, failing for a fifth byte holding more
+     * than the top 3 bits of a non negative int, so an overlong or overflowing varint is not silently wrapped.
+     */
+    private int readVarint() {
+        final int position = this.position;
+
+        int value = 0;
+        int shift = 0;
+
+        for (; ; ) {
+            final int b = this.readByte();
+            if (28 == shift && 0 != (b & ~0x07)) {
+                throw new IllegalArgumentException("Invalid varint at " + position);
+            }
+            value |= (b & 0x7F) << shift;
+            if (0 == (b & 0x80)) {
+                break;
+            }
+            shift += 7;
+        }
+
+        return value;
+    }
+
+    private int readByte() {
+        if (this.position >= this.bytes.length) {
+            throw this.endOfBytes();
+        }
+        return this.bytes[this.position++] & 0xFF;
+    }
+
+    private void end() {
+        if (this.position != this.bytes.length) {
+            throw new IllegalArgumentException("Invalid extra bytes at " + this.position);
+        }
+    }
+
+    private IllegalArgumentException endOfBytes() {
+        return new IllegalArgumentException("End of bytes at " + this.position);
+    }
+
+    private final byte[] bytes;
+
+    private int position;
+
+    /**
+     * Url prefixes read so far, in the order they were added.
+     */
+    private final List<String> dictionary = Lists.array();
+}
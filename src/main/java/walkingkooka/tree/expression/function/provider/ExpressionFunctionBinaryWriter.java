@@ -0,0 +1,250 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.text.CaseSensitivity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes the compact binary form of a {@link ExpressionFunctionInfoSet} or {@link ExpressionFunctionAliasSet}, read
+ * by {@link ExpressionFunctionBinaryReader}.
+ * <pre>
+ * set      = type flags count element*
+ * type     = 'I' for infos or 'A' for aliases
+ * flags    = bit 0 set when names are case insensitive
+ * count    = varint
+ * info     = infoFlags urlPrefix string [name]
+ * alias    = aliasFlags name [selectorName selectorValueText] [urlPrefix string]
+ * urlPrefix = varint 0 followed by a new string added to the dictionary, or the varint dictionary index + 1
+ * string   = varint UTF-8 byte count followed by the bytes
+ * </pre>
+ * Urls are split after the last slash, so urls sharing a base such as {@link ExpressionFunctionProviders#BASE_URL}
+ * write the base once. Info names equal to the last url path component are not written.
+ */
+final class ExpressionFunctionBinaryWriter {
+
+    final static byte INFO_SET = 'I';
+
+    final static byte ALIAS_SET = 'A';
+
+    final static int CASE_INSENSITIVE = 1;
+
+    final static int INFO_NAME_CASE_INSENSITIVE = 1;
+
+    final static int INFO_NAME_SAME_AS_URL = 2;
+
+    final static int ALIAS_SELECTOR = 1;
+
+    final static int ALIAS_URL = 2;
+
+    static byte[] infoSet(final ExpressionFunctionInfoSet infos,
+                          final CaseSensitivity caseSensitivity) {
+        final ExpressionFunctionBinaryWriter writer = new ExpressionFunctionBinaryWriter(
+            16 + infos.size() * 16
+        );
+
+        writer.header(
+            INFO_SET,
+            caseSensitivity,
+            infos.size()
+        );
+
+        for (final ExpressionFunctionInfo info : infos) {
+            final String url = info.url()
+                .value();
+            final int slash = url.lastIndexOf('/') + 1;
+            final String suffix = url.substring(slash);
+            final String name = info.name()
+                .value();
+            final boolean sameAsUrl = name.equals(suffix);
+
+            writer.writeByte(
+                (CaseSensitivity.INSENSITIVE == info.name().caseSensitivity() ? INFO_NAME_CASE_INSENSITIVE : 0) |
+                    (sameAsUrl ? INFO_NAME_SAME_AS_URL : 0)
+            );
+            writer.writeDictionaryString(
+                url.substring(0, slash)
+            );
+            writer.writeString(suffix);
+
+            if (false == sameAsUrl) {
+                writer.writeString(name);
+            }
+        }
+
+        return writer.toByteArray();
+    }
+
+    static byte[] aliasSet(final ExpressionFunctionAliasSet aliases,
+                           final CaseSensitivity caseSensitivity) {
+        final ExpressionFunctionBinaryWriter writer = new ExpressionFunctionBinaryWriter(
+            16 + aliases.size() * 16
+        );
+
+        writer.header(
+            ALIAS_SET,
+            caseSensitivity,
+            aliases.size()
+        );
+
+        for (final ExpressionFunctionAlias alias : aliases) {
+            final Optional<ExpressionFunctionSelector> selector = alias.selector();
+            final Optional<AbsoluteUrl> url = alias.url();
+
+            writer.writeByte(
+                (selector.isPresent() ? ALIAS_SELECTOR : 0) |
+                    (url.isPresent() ? ALIAS_URL : 0)
+            );
+            writer.writeString(
+                alias.name()
+                    .value()
+            );
+
+            if (selector.isPresent()) {
+                final ExpressionFunctionSelector s = selector.get();
+                writer.writeString(
+                    s.name()
+                        .value()
+                );
+                writer.writeString(
+                    s.valueText()
+                );
+            }
+
+            if (url.isPresent()) {
+                final String u = url.get()
+                    .value();
+                final int slash = u.lastIndexOf('/') + 1;
+
+                writer.writeDictionaryString(
+                    u.substring(0, slash)
+                );
+                writer.writeString(
+                    u.substring(slash)
+                );
+            }
+        }
+
+        return writer.toByteArray();
+    }
+
+    private ExpressionFunctionBinaryWriter(final int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    private void header(final byte type,
+                        final CaseSensitivity caseSensitivity,
+                        final int count) {
+        this.writeByte(type);
+        this.writeByte(
+            CaseSensitivity.INSENSITIVE == caseSensitivity ?
+                CASE_INSENSITIVE :
+                0
+        );
+        this.writeVarint(count);
+    }
+
+    private void writeDictionaryString(final String text) {
+        final Map<String, Integer> dictionary = this.dictionary;
+
+        final Integer index = dictionary.get(text);
+        if (null != index) {
+            this.writeVarint(index + 1);
+        } else {
+            this.writeVarint(0);
+            this.writeString(text);
+            dictionary.put(
+                text,
+                dictionary.size()
+            );
+        }
+    }
+
+    private void writeString(final String text) {
+        final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        this.writeVarint(utf8.length);
+        this.ensure(utf8.length);
+        System.arraycopy(
+            utf8,
+            0,
+            this.bytes,
+            this.size,
+            utf8.length
+        );
+        this.size += utf8.length;
+    }
+
+    /**
+     * Writes an unsigned int 7 bits at a time, least significant group first, setting the top bit of every byte but
+     * the last.
+     */
+    private void writeVarint(final int value) {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            this.writeByte((v & 0x7F) | 0x80);
+            v = v >>> 7;
+        }
+        this.writeByte(v);
+    }
+
+    private void writeByte(final int value) {
+        this.ensure(1);
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    private void ensure(final int count) {
+        final int required = this.size + count;
+        if (required > this.bytes.length) {
+            final byte[] bytes = new byte[Math.max(required, this.bytes.length * 2)];
+            System.arraycopy(
+                this.bytes,
+                0,
+                bytes,
+                0,
+                this.size
+            );
+            this.bytes = bytes;
+        }
+    }
+
+    private byte[] toByteArray() {
+        final byte[] bytes = new byte[this.size];
+        System.arraycopy(
+            this.bytes,
+            0,
+            bytes,
+            0,
+            this.size
+        );
+        return bytes;
+    }
+
+    private byte[] bytes;
+
+    private int size;
+
+    /**
+     * Url prefixes already written and their index.
+     */
+    private final Map<String, Integer> dictionary = Maps.hash();
+}
@@ -24,6 +24,7 @@ import walkingkooka.plugin.PluginInfoSet;
 import walkingkooka.plugin.PluginInfoSetLike;
 import walkingkooka.text.CaseSensitivity;
 import walkingkooka.text.printer.IndentingPrinter;
+import walkingkooka.text.printer.Printer;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.json.JsonArray;
 import walkingkooka.tree.json.JsonNode;
@@ -32,8 +33,10 @@ import walkingkooka.tree.json.marshall.JsonNodeContext;
 import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
 import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
 
+import java.io.Reader;
 import java.util.AbstractSet;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
@@ -41,6 +44,14 @@ import java.util.function.Predicate;
 
 /**
  * A read only {@link Set} of {@link ExpressionFunctionInfo} sorted by {@link ExpressionFunctionName}.
+ * <br>
+ * Edits that would not change the elements, such as adding an info that is already present or deleting one that is
+ * absent, return this set without copying the elements. The elements are held in a persistent
+ * {@link ExpressionFunctionSortedTree}, so {@link #concat(ExpressionFunctionInfo)}, {@link #delete(ExpressionFunctionInfo)}
+ * and {@link #replace(ExpressionFunctionInfo, ExpressionFunctionInfo)} copy only <code>O(log n)</code> nodes and share
+ * the rest with this set. {@link #filter(ExpressionFunctionInfoSet)} and {@link #renameIfPresent(ExpressionFunctionInfoSet)}
+ * use a {@link ExpressionFunctionInfoSetJoiner} to edit the same tree in one pass over both sets. The
+ * {@link PluginInfoSet} used by the remaining operations is only created when first needed.
  */
 public final class ExpressionFunctionInfoSet extends AbstractSet<ExpressionFunctionInfo> implements PluginInfoSetLike<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet> {
 
@@ -101,22 +112,46 @@ public final class ExpressionFunctionInfoSet extends AbstractSet<ExpressionFunct
             );
     }
 
+    /**
+     * Creates a set holding the infos of the given tree, which must be sorted by {@link Comparator#naturalOrder()}.
+     */
+    static ExpressionFunctionInfoSet withTree(final ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree,
+                                              final CaseSensitivity caseSensitivity) {
+        return tree.isEmpty() ?
+            empty(caseSensitivity) :
+            new ExpressionFunctionInfoSet(
+                tree,
+                caseSensitivity
+            );
+    }
+
     private ExpressionFunctionInfoSet(final PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo> pluginInfoSet,
                                       final CaseSensitivity caseSensitivity) {
+        this.tree = ExpressionFunctionSortedTree.with(
+            pluginInfoSet,
+            Comparator.naturalOrder()
+        );
         this.pluginInfoSet = pluginInfoSet;
         this.caseSensitivity = caseSensitivity;
     }
 
+    private ExpressionFunctionInfoSet(final ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree,
+                                      final CaseSensitivity caseSensitivity) {
+        this.tree = tree;
+        this.pluginInfoSet = null;
+        this.caseSensitivity = caseSensitivity;
+    }
+
     // PluginInfoSetLike................................................................................................
 
     @Override
     public Set<ExpressionFunctionName> names() {
-        return this.pluginInfoSet.names();
+        return this.pluginInfoSet().names();
     }
 
     @Override
     public Set<AbsoluteUrl> url() {
-        return this.pluginInfoSet.url();
+        return this.pluginInfoSet().url();
     }
 
     @Override
@@ -127,72 +162,174 @@ public final class ExpressionFunctionInfoSet extends AbstractSet<ExpressionFunct
 
     @Override
     public ExpressionFunctionInfoSet filter(final ExpressionFunctionInfoSet infos) {
-        return this.setElements(
-            this.pluginInfoSet.filter(
-                infos.pluginInfoSet
-            )
-        );
+        Objects.requireNonNull(infos, "infos");
+
+        // filtering an empty set or filtering by itself cannot change anything
+        return this.isEmpty() || this == infos ?
+            this :
+            ExpressionFunctionInfoSetJoiner.filter(
+                this,
+                infos
+            );
     }
 
     @Override
-    public ExpressionFunctionInfoSet renameIfPresent(ExpressionFunctionInfoSet renameInfos) {
-        return this.setElements(
-            this.pluginInfoSet.renameIfPresent(
-                renameInfos.pluginInfoSet
-            )
-        );
+    public ExpressionFunctionInfoSet renameIfPresent(final ExpressionFunctionInfoSet renameInfos) {
+        Objects.requireNonNull(renameInfos, "renameInfos");
+
+        ExpressionFunctionInfoSet renamed = this;
+
+        if (false == this.isEmpty() && false == renameInfos.isEmpty()) {
+            renamed = ExpressionFunctionInfoSetJoiner.renameIfPresent(
+                this,
+                renameInfos
+            );
+
+            if (null == renamed) {
+                renamed = this.setElements(
+                    this.pluginInfoSet().renameIfPresent(
+                        renameInfos.pluginInfoSet()
+                    )
+                );
+            }
+        }
+
+        return renamed;
     }
 
     @Override
     public ExpressionFunctionInfoSet concat(final ExpressionFunctionInfo info) {
-        return this.setElements(
-            this.pluginInfoSet.concat(info)
+        Objects.requireNonNull(info, "info");
+
+        final ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree = this.tree;
+
+        return this.contains(info) ?
+            this :
+            isNameFree(tree, info) ?
+                this.setTree(
+                    tree.add(info)
+                ) :
+                this.setElements(
+                    this.pluginInfoSet()
+                        .concat(info)
+                );
+    }
+
+    /**
+     * Tests if no info in the tree has the name of the given info. Infos sharing a name are left to
+     * {@link PluginInfoSet}, which decides how such duplicates are handled.
+     */
+    static boolean isNameFree(final ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree,
+                              final ExpressionFunctionInfo info) {
+        return null == tree.get(info) &&
+            false == isSameName(info, tree.lower(info)) &&
+            false == isSameName(info, tree.higher(info));
+    }
+
+    private ExpressionFunctionInfoSet setTree(final ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree) {
+        return withTree(
+            tree,
+            this.caseSensitivity
         );
     }
 
+    private static boolean isSameName(final ExpressionFunctionInfo info,
+                                      final ExpressionFunctionInfo other) {
+        return null != other &&
+            0 == info.name()
+                .compareTo(
+                    other.name()
+                );
+    }
+
     @Override
     public ExpressionFunctionInfoSet concatAll(final Collection<ExpressionFunctionInfo> infos) {
-        return this.setElements(
-            this.pluginInfoSet.concatAll(infos)
-        );
+        Objects.requireNonNull(infos, "infos");
+
+        return infos.isEmpty() ?
+            this :
+            this.setElements(
+                this.pluginInfoSet().concatAll(infos)
+            );
     }
 
     @Override
     public ExpressionFunctionInfoSet delete(final ExpressionFunctionInfo info) {
-        return this.setElements(
-            this.pluginInfoSet.delete(info)
-        );
+        Objects.requireNonNull(info, "info");
+
+        return this.contains(info) ?
+            this.setTree(
+                this.tree.remove(info)
+            ) :
+            this;
     }
 
     @Override
     public ExpressionFunctionInfoSet deleteAll(final Collection<ExpressionFunctionInfo> infos) {
-        return this.setElements(
-            this.pluginInfoSet.deleteAll(infos)
-        );
+        Objects.requireNonNull(infos, "infos");
+
+        return infos.isEmpty() ?
+            this :
+            this.setElements(
+                this.pluginInfoSet().deleteAll(infos)
+            );
     }
 
     @Override
     public ExpressionFunctionInfoSet deleteIf(final Predicate<? super ExpressionFunctionInfo> predicate) {
         return this.setElements(
-            this.pluginInfoSet.deleteIf(predicate)
+            this.pluginInfoSet().deleteIf(predicate)
         );
     }
 
     @Override
     public ExpressionFunctionInfoSet replace(final ExpressionFunctionInfo oldInfo,
                                              final ExpressionFunctionInfo newInfo) {
-        return this.setElements(
-            this.pluginInfoSet.replace(
+        Objects.requireNonNull(oldInfo, "oldInfo");
+        Objects.requireNonNull(newInfo, "newInfo");
+
+        final ExpressionFunctionInfoSet replaced;
+
+        // an absent oldInfo is left to PluginInfoSet, even when newInfo is equal
+        if (this.contains(oldInfo)) {
+            if (oldInfo.equals(newInfo)) {
+                replaced = this;
+            } else {
+                final ExpressionFunctionSortedTree<ExpressionFunctionInfo> removed = this.tree.remove(oldInfo);
+                replaced = isNameFree(removed, newInfo) ?
+                    this.setTree(
+                        removed.add(newInfo)
+                    ) :
+                    this.replace0(
+                        oldInfo,
+                        newInfo
+                    );
+            }
+        } else {
+            replaced = this.replace0(
                 oldInfo,
                 newInfo
-            )
+            );
+        }
+
+        return replaced;
+    }
+
+    private ExpressionFunctionInfoSet replace0(final ExpressionFunctionInfo oldInfo,
+                                               final ExpressionFunctionInfo newInfo) {
+        return this.setElements(
+            this.pluginInfoSet()
+                .replace(
+                    oldInfo,
+                    newInfo
+                )
         );
     }
 
     @Override
     public ExpressionFunctionInfoSet setElementsFailIfDifferent(final Collection<ExpressionFunctionInfo> infos) {
         return this.setElements(
-            this.pluginInfoSet.setElementsFailIfDifferent(
+            this.pluginInfoSet().setElementsFailIfDifferent(
                 infos
             )
         );
@@ -200,25 +337,26 @@ public final class ExpressionFunctionInfoSet extends AbstractSet<ExpressionFunct
 
     @Override
     public ExpressionFunctionInfoSet setElements(final Collection<ExpressionFunctionInfo> infos) {
-        final ExpressionFunctionInfoSet after = new ExpressionFunctionInfoSet(
-            this.pluginInfoSet.setElements(infos),
-            this.caseSensitivity
-        );
-        return this.pluginInfoSet.equals(infos) ?
+        // test for equality first, so unchanged elements are not copied into a new PluginInfoSet
+        return this == infos || this.equals(infos) ?
             this :
-            after;
+            new ExpressionFunctionInfoSet(
+                this.pluginInfoSet()
+                    .setElements(infos),
+                this.caseSensitivity
+            );
     }
 
     @Override
     public Set<ExpressionFunctionInfo> toSet() {
-        return this.pluginInfoSet.toSet();
+        return this.pluginInfoSet().toSet();
     }
 
     // TreePrintable....................................................................................................
 
     @Override
     public String text() {
-        return this.pluginInfoSet.text();
+        return this.pluginInfoSet().text();
     }
 
     // TreePrintable....................................................................................................
@@ -228,27 +366,77 @@ public final class ExpressionFunctionInfoSet extends AbstractSet<ExpressionFunct
         printer.println(this.getClass().getSimpleName());
         printer.indent();
         {
-            this.pluginInfoSet.printTree(printer);
+            this.pluginInfoSet().printTree(printer);
         }
         printer.outdent();
     }
 
     // AbstractSet......................................................................................................
 
+    @Override
+    public boolean contains(final Object info) {
+        return info instanceof ExpressionFunctionInfo &&
+            info.equals(
+                this.tree.get((ExpressionFunctionInfo) info)
+            );
+    }
+
     @Override
     public Iterator<ExpressionFunctionInfo> iterator() {
-        return this.pluginInfoSet.iterator();
+        return this.tree.iterator();
     }
 
     @Override
     public int size() {
-        return this.pluginInfoSet.size();
+        return this.tree.size();
     }
 
-    private final PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo> pluginInfoSet;
+    ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree() {
+        return this.tree;
+    }
+
+    private final ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree;
+
+    /**
+     * Returns the {@link PluginInfoSet} holding the same infos, creating it the first time. Racing threads may each
+     * create an equal {@link PluginInfoSet}, which is harmless as both are immutable.
+     */
+    private PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo> pluginInfoSet() {
+        PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo> pluginInfoSet = this.pluginInfoSet;
+        if (null == pluginInfoSet) {
+            pluginInfoSet = PluginInfoSet.with(this);
+            this.pluginInfoSet = pluginInfoSet;
+        }
+        return pluginInfoSet;
+    }
+
+    private PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo> pluginInfoSet;
+
+    CaseSensitivity caseSensitivity() {
+        return this.caseSensitivity;
+    }
 
     private final CaseSensitivity caseSensitivity;
 
+    // binary...........................................................................................................
+
+    /**
+     * Returns a compact binary form of this set, which may be read using {@link #parseBinary(byte[])}.
+     */
+    public byte[] toBinary() {
+        return ExpressionFunctionBinaryWriter.infoSet(
+            this,
+            this.caseSensitivity
+        );
+    }
+
+    /**
+     * Reads the binary form written by {@link #toBinary()}.
+     */
+    public static ExpressionFunctionInfoSet parseBinary(final byte[] bytes) {
+        return ExpressionFunctionBinaryReader.infoSet(bytes);
+    }
+
     // json.............................................................................................................
 
     // [ "@https://example.com/test-function-1 test-function-1", "@https://example.com/test-function-2 test-function-2" ]
@@ -273,6 +461,34 @@ public final class ExpressionFunctionInfoSet extends AbstractSet<ExpressionFunct
     private final static JsonArray EMPTY_CASE_INSENSITIVE_ARRAY = JsonNode.array()
         .appendChild(INSENSITIVE);
 
+    /**
+     * Prints the same JSON as the marshaller directly to the {@link Printer}, without building a {@link JsonArray}.
+     */
+    public void printJson(final Printer printer) {
+        ExpressionFunctionInfoSetJson.print(
+            this,
+            this.caseSensitivity,
+            printer
+        );
+    }
+
+    /**
+     * Parses the JSON produced by {@link #printJson(Printer)} or the marshaller in a single pass, without building a
+     * {@link JsonArray}.
+     */
+    public static ExpressionFunctionInfoSet parseJson(final CharSequence json) {
+        return ExpressionFunctionInfoSetJson.parse(json);
+    }
+
+    /**
+     * Reads the same JSON as {@link #parseJson(CharSequence)} from the {@link Reader} one character at a time, without
+     * first reading it into a {@link String}. Any {@link java.io.IOException} is rethrown as an
+     * {@link java.io.UncheckedIOException}.
+     */
+    public static ExpressionFunctionInfoSet readJson(final Reader reader) {
+        return ExpressionFunctionInfoSetJson.read(reader);
+    }
+
     // @VisibleForTesting
     static ExpressionFunctionInfoSet unmarshall(final JsonNode node,
                                                 final JsonNodeUnmarshallContext context) {
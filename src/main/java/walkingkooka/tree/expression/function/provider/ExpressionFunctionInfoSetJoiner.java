@@ -0,0 +1,207 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.text.CaseSensitivity;
+
+import java.util.Iterator;
+
+/**
+ * Joins the infos of one {@link ExpressionFunctionInfoSet} with the infos of another by url, for
+ * {@link ExpressionFunctionInfoSet#filter(ExpressionFunctionInfoSet)} and
+ * {@link ExpressionFunctionInfoSet#renameIfPresent(ExpressionFunctionInfoSet)}.
+ * <br>
+ * Both sets are walked together in name order like a merge join, so an info whose name and url are both present in the
+ * other set is matched without any lookup. Only when that fails is an index of the other infos by url built, once,
+ * keeping each join <code>O(n + m)</code>. The result is edited from the persistent tree of the first set, so the
+ * infos that are kept unchanged are never copied.
+ */
+final class ExpressionFunctionInfoSetJoiner {
+
+    /**
+     * Keeps only the infos whose url is also present in the other infos.
+     */
+    static ExpressionFunctionInfoSet filter(final ExpressionFunctionInfoSet infos,
+                                            final ExpressionFunctionInfoSet other) {
+        final ExpressionFunctionInfoSetJoiner joiner = new ExpressionFunctionInfoSetJoiner(other);
+
+        ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree = infos.tree();
+
+        for (final ExpressionFunctionInfo info : infos) {
+            if (null == joiner.sameUrl(info)) {
+                tree = tree.remove(info);
+            }
+        }
+
+        return setTree(
+            infos,
+            tree
+        );
+    }
+
+    /**
+     * Replaces each info with the info of the other infos having the same url, or returns null when that leaves two
+     * infos with the same name, or the other infos share a url, which must be handled by
+     * {@link walkingkooka.plugin.PluginInfoSet}.
+     */
+    static ExpressionFunctionInfoSet renameIfPresent(final ExpressionFunctionInfoSet infos,
+                                                     final ExpressionFunctionInfoSet renameInfos) {
+        ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree = infos.tree();
+
+        // every renamed info is removed before any is added, so infos that swap names do not collide
+        ExpressionFunctionInfoSetJoiner joiner = new ExpressionFunctionInfoSetJoiner(renameInfos);
+        for (final ExpressionFunctionInfo info : infos) {
+            final ExpressionFunctionInfo renamed = joiner.sameUrl(info);
+            if (joiner.duplicateUrl) {
+                return null;
+            }
+            if (null != renamed && false == renamed.equals(info)) {
+                tree = tree.remove(info);
+            }
+        }
+
+        if (tree != infos.tree()) {
+            joiner = joiner.restart();
+            for (final ExpressionFunctionInfo info : infos) {
+                final ExpressionFunctionInfo renamed = joiner.sameUrl(info);
+                if (null != renamed && false == renamed.equals(info)) {
+                    if (false == ExpressionFunctionInfoSet.isNameFree(tree, renamed)) {
+                        return null;
+                    }
+                    tree = tree.add(renamed);
+                }
+            }
+        }
+
+        return setTree(
+            infos,
+            tree
+        );
+    }
+
+    private static ExpressionFunctionInfoSet setTree(final ExpressionFunctionInfoSet infos,
+                                                     final ExpressionFunctionSortedTree<ExpressionFunctionInfo> tree) {
+        return infos.tree() == tree ?
+            infos :
+            ExpressionFunctionInfoSet.withTree(
+                tree,
+                infos.caseSensitivity()
+            );
+    }
+
+    private ExpressionFunctionInfoSetJoiner(final ExpressionFunctionInfoSet other) {
+        this(
+            other,
+            null
+        );
+    }
+
+    private ExpressionFunctionInfoSetJoiner(final ExpressionFunctionInfoSet other,
+                                            final ExpressionFunctionNameIndex<ExpressionFunctionInfo> urlToInfo) {
+        this.other = other;
+        this.iterator = other.iterator();
+        this.current = this.next();
+        this.urlToInfo = urlToInfo;
+    }
+
+    /**
+     * Returns a joiner walking the other infos again from the start, keeping any url index already built.
+     */
+    private ExpressionFunctionInfoSetJoiner restart() {
+        return new ExpressionFunctionInfoSetJoiner(
+            this.other,
+            this.urlToInfo
+        );
+    }
+
+    /**
+     * Returns the info of the other infos with the same url as the given info or null. Infos must be given in name
+     * order, so the other infos are only walked once.
+     */
+    private ExpressionFunctionInfo sameUrl(final ExpressionFunctionInfo info) {
+        ExpressionFunctionInfo current = this.current;
+
+        int compare = -1;
+        while (null != current) {
+            compare = current.name()
+                .compareTo(
+                    info.name()
+                );
+            if (compare >= 0) {
+                break;
+            }
+            current = this.next();
+        }
+        this.current = current;
+
+        return null != current && 0 == compare && current.url().equals(info.url()) ?
+            current :
+            this.urlToInfo()
+                .get(
+                    info.url()
+                        .toString()
+                );
+    }
+
+    private ExpressionFunctionInfo next() {
+        final Iterator<ExpressionFunctionInfo> iterator = this.iterator;
+        return iterator.hasNext() ?
+            iterator.next() :
+            null;
+    }
+
+    /**
+     * Returns the index of the other infos by url, building it the first time.
+     */
+    private ExpressionFunctionNameIndex<ExpressionFunctionInfo> urlToInfo() {
+        ExpressionFunctionNameIndex<ExpressionFunctionInfo> urlToInfo = this.urlToInfo;
+
+        if (null == urlToInfo) {
+            final ExpressionFunctionInfoSet other = this.other;
+
+            urlToInfo = ExpressionFunctionNameIndex.with(
+                CaseSensitivity.SENSITIVE,
+                other.size()
+            );
+            for (final ExpressionFunctionInfo info : other) {
+                if (null != urlToInfo.put(info.url().toString(), info)) {
+                    this.duplicateUrl = true;
+                }
+            }
+            this.urlToInfo = urlToInfo;
+        }
+
+        return urlToInfo;
+    }
+
+    private final ExpressionFunctionInfoSet other;
+
+    private final Iterator<ExpressionFunctionInfo> iterator;
+
+    /**
+     * The other info at the cursor, or null once every other info was passed.
+     */
+    private ExpressionFunctionInfo current;
+
+    private ExpressionFunctionNameIndex<ExpressionFunctionInfo> urlToInfo;
+
+    /**
+     * Set when two of the other infos share a url, which only matters to {@link #renameIfPresent(ExpressionFunctionInfoSet, ExpressionFunctionInfoSet)}.
+     */
+    private boolean duplicateUrl;
+}
@@ -0,0 +1,484 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.InvalidCharacterException;
+import walkingkooka.collect.set.SortedSets;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.text.printer.Printer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.SortedSet;
+
+/**
+ * Writes and reads the JSON form of a {@link ExpressionFunctionInfoSet} directly to and from characters, producing
+ * the same JSON as {@link walkingkooka.tree.json.marshall.JsonNodeMarshallContext#marshall(Object)} without building a
+ * {@link walkingkooka.tree.json.JsonArray} or an intermediate {@link java.util.Set}. This is useful for very large
+ * catalogs sent to clients.
+ * <br>
+ * Printing writes the url and name of each info straight to the {@link Printer}, escaping characters in place. Parsing
+ * reads one character at a time from a {@link CharSequence} or {@link Reader}, and infos that arrive sorted, as printed
+ * infos always are, are built into the {@link ExpressionFunctionSortedTree} of the set without sorting or copying.
+ */
+final class ExpressionFunctionInfoSetJson {
+
+    /**
+     * Prints the JSON array of info strings, each prefixed with <code>@</code> when the name is case insensitive.
+     */
+    static void print(final ExpressionFunctionInfoSet infos,
+                      final CaseSensitivity caseSensitivity,
+                      final Printer printer) {
+        Objects.requireNonNull(printer, "printer");
+
+        printer.print("[");
+
+        if (infos.isEmpty()) {
+            if (CaseSensitivity.INSENSITIVE == caseSensitivity) {
+                printer.print(EMPTY_CASE_INSENSITIVE);
+            }
+        } else {
+            String separator = "";
+
+            for (final ExpressionFunctionInfo info : infos) {
+                printer.print(separator);
+                printer.print(
+                    CaseSensitivity.INSENSITIVE == info.name().caseSensitivity() ?
+                        QUOTE_CASE_INSENSITIVE :
+                        QUOTE
+                );
+                printEscaped(
+                    info.url()
+                        .toString(),
+                    printer
+                );
+                printer.print(" ");
+                printEscaped(
+                    info.name()
+                        .value(),
+                    printer
+                );
+                printer.print(QUOTE);
+                separator = ",";
+            }
+        }
+
+        printer.print("]");
+    }
+
+    private final static char CASE_INSENSITIVE_PREFIX = '@';
+
+    private final static String QUOTE = "\"";
+
+    private final static String QUOTE_CASE_INSENSITIVE = QUOTE + CASE_INSENSITIVE_PREFIX;
+
+    private final static String EMPTY_CASE_INSENSITIVE = QUOTE_CASE_INSENSITIVE + QUOTE;
+
+    /**
+     * Prints the text without quotes, printing each run of characters that need no escaping as is.
+     */
+    private static void printEscaped(final String text,
+                                     final Printer printer) {
+        final int length = text.length();
+        int start = 0;
+
+        for (int i = 0; i < length; i++) {
+            final String escaped = escape(text.charAt(i));
+            if (null != escaped) {
+                if (start < i) {
+                    printer.print(
+                        text.substring(
+                            start,
+                            i
+                        )
+                    );
+                }
+                printer.print(escaped);
+                start = i + 1;
+            }
+        }
+
+        if (0 == start) {
+            printer.print(text);
+        } else {
+            if (start < length) {
+                printer.print(
+                    text.substring(start)
+                );
+            }
+        }
+    }
+
+    /**
+     * Returns the escape sequence for the given character or null if it needs no escaping.
+     */
+    private static String escape(final char c) {
+        final String escaped;
+
+        switch (c) {
+            case '"':
+                escaped = "\\\"";
+                break;
+            case '\\':
+                escaped = "\\\\";
+                break;
+            case '\n':
+                escaped = "\\n";
+                break;
+            case '\r':
+                escaped = "\\r";
+                break;
+            case '\t':
+                escaped = "\\t";
+                break;
+            default:
+                if (c < ' ') {
+                    final String hex = Integer.toHexString(c);
+                    escaped = (hex.length() < 2 ?
+                        "\\u000" :
+                        "\\u00") + hex;
+                } else {
+                    escaped = null;
+                }
+                break;
+        }
+
+        return escaped;
+    }
+
+    /**
+     * Reads the JSON array written by {@link #print(ExpressionFunctionInfoSet, CaseSensitivity, Printer)} or the JSON marshaller in a
+     * single pass. The first string decides the {@link CaseSensitivity} of the set, like the JSON unmarshaller.
+     */
+    static ExpressionFunctionInfoSet parse(final CharSequence json) {
+        Objects.requireNonNull(json, "json");
+
+        return new ExpressionFunctionInfoSetJson(
+            json,
+            null
+        ).parseArray();
+    }
+
+    /**
+     * Reads the JSON array from the {@link Reader} one character at a time, without first reading it into a
+     * {@link String}. An {@link IOException} is rethrown as an {@link UncheckedIOException}.
+     */
+    static ExpressionFunctionInfoSet read(final Reader reader) {
+        Objects.requireNonNull(reader, "reader");
+
+        return new ExpressionFunctionInfoSetJson(
+            null,
+            reader
+        ).parseArray();
+    }
+
+    private ExpressionFunctionInfoSetJson(final CharSequence json,
+                                          final Reader reader) {
+        this.json = json;
+        this.reader = reader;
+        this.c = this.read();
+    }
+
+    private ExpressionFunctionInfoSet parseArray() {
+        this.skipWhitespace();
+        this.expect('[');
+        this.skipWhitespace();
+
+        CaseSensitivity caseSensitivity = CaseSensitivity.SENSITIVE;
+
+        Object[] infos = new Object[16];
+        int count = 0;
+        boolean sorted = true;
+
+        if (false == this.tryConsume(']')) {
+            boolean first = true;
+
+            for (; ; ) {
+                this.expect('"');
+
+                final boolean insensitive = this.tryConsume(CASE_INSENSITIVE_PREFIX);
+                if (first) {
+                    if (insensitive) {
+                        caseSensitivity = CaseSensitivity.INSENSITIVE;
+                    }
+                    first = false;
+                }
+
+                final String string = this.parseStringCharacters();
+
+                // a lone @ marks an empty case insensitive set
+                if (false == string.isEmpty() || false == insensitive) {
+                    final ExpressionFunctionInfo info = ExpressionFunctionInfo.parse(
+                        string,
+                        insensitive ?
+                            CaseSensitivity.INSENSITIVE :
+                            CaseSensitivity.SENSITIVE
+                    );
+
+                    if (sorted && count > 0) {
+                        final ExpressionFunctionInfo previous = (ExpressionFunctionInfo) infos[count - 1];
+                        sorted = previous.compareTo(info) < 0 &&
+                            previous.name()
+                                .compareTo(
+                                    info.name()
+                                ) < 0;
+                    }
+
+                    if (count == infos.length) {
+                        final Object[] copy = new Object[count * 2];
+                        System.arraycopy(infos, 0, copy, 0, count);
+                        infos = copy;
+                    }
+                    infos[count++] = info;
+                }
+
+                this.skipWhitespace();
+                if (this.tryConsume(']')) {
+                    break;
+                }
+                this.expect(',');
+                this.skipWhitespace();
+            }
+        }
+
+        this.skipWhitespace();
+        if (-1 != this.c) {
+            throw this.invalidCharacter();
+        }
+
+        return sorted ?
+            ExpressionFunctionInfoSet.withTree(
+                ExpressionFunctionSortedTree.sorted(
+                    infos,
+                    count,
+                    Comparator.<ExpressionFunctionInfo>naturalOrder()
+                ),
+                caseSensitivity
+            ) :
+            unsorted(
+                infos,
+                count,
+                caseSensitivity
+            );
+    }
+
+    /**
+     * Infos that are out of order or share a name are given to {@link ExpressionFunctionInfoSet#with(java.util.Collection, CaseSensitivity)},
+     * which sorts and checks them like the JSON unmarshaller.
+     */
+    private static ExpressionFunctionInfoSet unsorted(final Object[] infos,
+                                                      final int count,
+                                                      final CaseSensitivity caseSensitivity) {
+        final SortedSet<ExpressionFunctionInfo> set = SortedSets.tree();
+        for (int i = 0; i < count; i++) {
+            set.add((ExpressionFunctionInfo) infos[i]);
+        }
+
+        return ExpressionFunctionInfoSet.with(
+            set,
+            caseSensitivity
+        );
+    }
+
+    /**
+     * Parses the characters of a string after its opening quote, consuming the closing quote.
+     */
+    private String parseStringCharacters() {
+        final StringBuilder b = this.string;
+        b.setLength(0);
+
+        for (; ; ) {
+            final int c = this.c;
+            if (-1 == c) {
+                throw endOfText("\"");
+            }
+            if ('"' == c) {
+                this.advance();
+                break;
+            }
+            if ('\\' == c) {
+                this.advance();
+
+                final int escaped = this.c;
+                switch (escaped) {
+                    case -1:
+                        throw endOfText("escape");
+                    case '"':
+                    case '\\':
+                    case '/':
+                        b.append((char) escaped);
+                        break;
+                    case 'b':
+                        b.append('\b');
+                        break;
+                    case 'f':
+                        b.append('\f');
+                        break;
+                    case 'n':
+                        b.append('\n');
+                        break;
+                    case 'r':
+                        b.append('\r');
+                        break;
+                    case 't':
+                        b.append('\t');
+                        break;
+                    case 'u':
+                        b.append(this.parseUnicodeEscape());
+                        continue;
+                    default:
+                        throw this.invalidCharacter();
+                }
+                this.advance();
+            } else {
+                if (c < ' ') {
+                    throw this.invalidCharacter();
+                }
+                b.append((char) c);
+                this.advance();
+            }
+        }
+
+        return b.toString();
+    }
+
+    /**
+     * Parses the 4 hex digits after <code>\\u</code>, leaving the position after the last digit.
+     */
+    private char parseUnicodeEscape() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            this.advance();
+
+            final int c = this.c;
+            if (-1 == c) {
+                throw endOfText("hex digit");
+            }
+            final int digit = Character.digit(
+                (char) c,
+                16
+            );
+            if (-1 == digit) {
+                throw this.invalidCharacter();
+            }
+            value = value * 16 + digit;
+        }
+        this.advance();
+
+        return (char) value;
+    }
+
+    private void skipWhitespace() {
+        for (; ; ) {
+            final int c = this.c;
+            if (' ' != c && '\t' != c && '\n' != c && '\r' != c) {
+                break;
+            }
+            this.advance();
+        }
+    }
+
+    private boolean tryConsume(final char c) {
+        final boolean consumed = c == this.c;
+        if (consumed) {
+            this.advance();
+        }
+        return consumed;
+    }
+
+    private void expect(final char c) {
+        if (-1 == this.c) {
+            throw endOfText(String.valueOf(c));
+        }
+        if (false == this.tryConsume(c)) {
+            throw this.invalidCharacter();
+        }
+    }
+
+    private void advance() {
+        this.position++;
+        this.c = this.read();
+    }
+
+    /**
+     * Returns the character at the position or -1 at the end of the text.
+     */
+    private int read() {
+        final int c;
+
+        final Reader reader = this.reader;
+        if (null != reader) {
+            try {
+                c = reader.read();
+            } catch (final IOException cause) {
+                throw new UncheckedIOException(cause);
+            }
+        } else {
+            final CharSequence json = this.json;
+            c = this.position < json.length() ?
+                json.charAt(this.position) :
+                -1;
+        }
+
+        return c;
+    }
+
+    /**
+     * Only a {@link CharSequence} has the text needed by {@link InvalidCharacterException}, a {@link Reader} reports
+     * the character and its position.
+     */
+    private IllegalArgumentException invalidCharacter() {
+        final CharSequence json = this.json;
+
+        return null != json ?
+            new InvalidCharacterException(
+                json.toString(),
+                this.position
+            ) :
+            new IllegalArgumentException("Invalid character '" + (char) this.c + "' at " + this.position);
+    }
+
+    private static IllegalArgumentException endOfText(final String expected) {
+        return new IllegalArgumentException("End of text expected " + expected);
+    }
+
+    /**
+     * The text being parsed, or null when reading a {@link Reader}.
+     */
+    private final CharSequence json;
+
+    private final Reader reader;
+
+    /**
+     * The position of {@link #c}.
+     */
+    private int position;
+
+    /**
+     * The character at {@link #position} or -1 at the end of the text.
+     */
+    private int c;
+
+    /**
+     * Reused for the characters of each string.
+     */
+    private final StringBuilder string = new StringBuilder();
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.Cast;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * An open addressing hash table keyed by the text of a {@link ExpressionFunctionName}, hashed and compared using a
+ * fixed {@link CaseSensitivity}. The {@link CaseSensitivity} of names given to {@link #get(ExpressionFunctionName)}
+ * is ignored, so lookups never call {@link ExpressionFunctionName#setCaseSensitivity(CaseSensitivity)} and never allocate.
+ * <br>
+ * Instances are filled once using {@link #put(ExpressionFunctionName, Object)} and must not be modified after they are
+ * shared between threads.
+ */
+final class ExpressionFunctionNameIndex<V> {
+
+    static <V> ExpressionFunctionNameIndex<V> with(final CaseSensitivity caseSensitivity,
+                                                   final int expectedSize) {
+        Objects.requireNonNull(caseSensitivity, "caseSensitivity");
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Invalid expectedSize " + expectedSize + " < 0");
+        }
+
+        return new ExpressionFunctionNameIndex<>(
+            caseSensitivity,
+            expectedSize
+        );
+    }
+
+    /**
+     * Creates an index holding each of the given names, useful to test if a name is present.
+     */
+    static ExpressionFunctionNameIndex<ExpressionFunctionName> names(final Collection<ExpressionFunctionName> names,
+                                                                     final CaseSensitivity caseSensitivity) {
+        Objects.requireNonNull(names, "names");
+
+        final ExpressionFunctionNameIndex<ExpressionFunctionName> index = with(
+            caseSensitivity,
+            names.size()
+        );
+
+        for (final ExpressionFunctionName name : names) {
+            index.put(
+                name,
+                name
+            );
+        }
+
+        return index;
+    }
+
+    private ExpressionFunctionNameIndex(final CaseSensitivity caseSensitivity,
+                                        final int expectedSize) {
+        this.insensitive = CaseSensitivity.INSENSITIVE == caseSensitivity;
+
+        // keep the load factor under 0.5 so misses terminate quickly
+        int capacity = 2;
+        while (capacity < expectedSize * 2) {
+            capacity = capacity * 2;
+        }
+
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Returns the value for the given name or null.
+     */
+    V get(final ExpressionFunctionName name) {
+        return this.get(
+            name.value()
+        );
+    }
+
+    /**
+     * Returns the value for the given name text or null.
+     */
+    V get(final String name) {
+        final String[] keys = this.keys;
+        final int mask = keys.length - 1;
+
+        int i = hash(name, this.insensitive) & mask;
+        for (; ; ) {
+            final String key = keys[i];
+            if (null == key) {
+                return null;
+            }
+            if (equals(key, name, this.insensitive)) {
+                return Cast.to(this.values[i]);
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns true if the name is present.
+     */
+    boolean contains(final ExpressionFunctionName name) {
+        return null != this.get(name);
+    }
+
+    /**
+     * Adds or replaces the value for the given name, returning the previous value or null.
+     */
+    V put(final ExpressionFunctionName name,
+          final V value) {
+        Objects.requireNonNull(name, "name");
+
+        return this.put(
+            name.value(),
+            value
+        );
+    }
+
+    /**
+     * Adds or replaces the value for the given name text, returning the previous value or null.
+     */
+    V put(final String text,
+          final V value) {
+        Objects.requireNonNull(text, "text");
+        Objects.requireNonNull(value, "value");
+
+        if ((this.size + 1) * 2 > this.keys.length) {
+            this.resize();
+        }
+
+        final String[] keys = this.keys;
+        final int mask = keys.length - 1;
+
+        int i = hash(text, this.insensitive) & mask;
+        for (; ; ) {
+            final String key = keys[i];
+            if (null == key) {
+                keys[i] = text;
+                this.values[i] = value;
+                this.size++;
+                return null;
+            }
+            if (equals(key, text, this.insensitive)) {
+                final V previous = Cast.to(this.values[i]);
+                this.values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        final String[] keys = this.keys;
+        final Object[] values = this.values;
+
+        final int capacity = keys.length * 2;
+        final int mask = capacity - 1;
+
+        final String[] newKeys = new String[capacity];
+        final Object[] newValues = new Object[capacity];
+
+        for (int j = 0; j < keys.length; j++) {
+            final String key = keys[j];
+            if (null != key) {
+                int i = hash(key, this.insensitive) & mask;
+                while (null != newKeys[i]) {
+                    i = (i + 1) & mask;
+                }
+                newKeys[i] = key;
+                newValues[i] = values[j];
+            }
+        }
+
+        this.keys = newKeys;
+        this.values = newValues;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Hashes the name text, folding case when insensitive, shared with {@link ExpressionFunctionNameTrie}.
+     */
+    static int hash(final String text,
+                    final boolean insensitive) {
+        int hash = 0;
+
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + fold(text.charAt(i), insensitive);
+        }
+
+        // spread the high bits so the mask uses them
+        return hash ^ (hash >>> 16);
+    }
+
+    static boolean equals(final String key,
+                          final String text,
+                          final boolean insensitive) {
+        // interned names share their text, so most hits are decided by identity
+        if (key == text) {
+            return true;
+        }
+
+        boolean equals = key.length() == text.length();
+
+        if (equals && false == key.equals(text)) {
+            if (insensitive) {
+                final int length = key.length();
+                for (int i = 0; i < length; i++) {
+                    if (fold(key.charAt(i), insensitive) != fold(text.charAt(i), insensitive)) {
+                        equals = false;
+                        break;
+                    }
+                }
+            } else {
+                equals = false;
+            }
+        }
+
+        return equals;
+    }
+
+    private static char fold(final char c,
+                             final boolean insensitive) {
+        return insensitive ?
+            Character.toLowerCase(
+                Character.toUpperCase(c)
+            ) :
+            c;
+    }
+
+    private final boolean insensitive;
+
+    private String[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        String separator = "";
+
+        final String[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++) {
+            final String key = keys[i];
+            if (null != key) {
+                b.append(separator)
+                    .append(key)
+                    .append('=')
+                    .append(this.values[i]);
+                separator = ", ";
+            }
+        }
+
+        return b.toString();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import java.util.Objects;
+
+/**
+ * Returns a canonical {@link ExpressionFunctionName} for each text and {@link CaseSensitivity}, so converting a name
+ * to the case sensitivity of a provider does not allocate, and equal names are usually the same instance, letting
+ * equality checks short-circuit on identity.
+ * <br>
+ * Each {@link CaseSensitivity} has a fixed table of {@link #SIZE} slots selected by the hash of the text, and a new
+ * name replaces whatever name held its slot. Unknown names typed by users therefore only ever evict other names for a
+ * while, and never stop real names being interned. Reads and writes of a slot are single reference operations, so the
+ * table needs no locking; racing threads at worst intern equal names twice.
+ * <br>
+ * Only providers intern, using the names they hold. Text that is only parsed, such as user input or catalogs read by
+ * {@link ExpressionFunctionPluginHelper}, uses {@link #canonical(String, CaseSensitivity)}, which reads the table but
+ * never writes it, so parsing never evicts the names of providers or contends on the shared slots.
+ */
+final class ExpressionFunctionNameInterner {
+
+    /**
+     * The number of slots for each {@link CaseSensitivity}, which must be a power of two.
+     */
+    final static int SIZE = 4096;
+
+    /**
+     * Returns the canonical {@link ExpressionFunctionName} with the given text and {@link CaseSensitivity}.
+     */
+    static ExpressionFunctionName with(final String text,
+                                       final CaseSensitivity caseSensitivity) {
+        Objects.requireNonNull(text, "text");
+
+        final ExpressionFunctionName[] slots = slots(caseSensitivity);
+        final int slot = slot(text);
+
+        ExpressionFunctionName name = slots[slot];
+        if (null == name || false == text.equals(name.value())) {
+            name = ExpressionFunctionName.with(text)
+                .setCaseSensitivity(caseSensitivity);
+            slots[slot] = name;
+        }
+        return name;
+    }
+
+    /**
+     * Returns the canonical {@link ExpressionFunctionName} with the text of the given name and {@link CaseSensitivity}.
+     */
+    static ExpressionFunctionName intern(final ExpressionFunctionName name,
+                                         final CaseSensitivity caseSensitivity) {
+        Objects.requireNonNull(name, "name");
+
+        final ExpressionFunctionName[] slots = slots(caseSensitivity);
+        final String text = name.value();
+        final int slot = slot(text);
+
+        ExpressionFunctionName interned = slots[slot];
+
+        // the given name is usually already the canonical name
+        if (interned != name) {
+            if (null == interned || false == text.equals(interned.value())) {
+                interned = name.setCaseSensitivity(caseSensitivity);
+                slots[slot] = interned;
+            }
+        }
+        return interned;
+    }
+
+    /**
+     * Returns the canonical {@link ExpressionFunctionName} with the given text and {@link CaseSensitivity} if one was
+     * interned, otherwise a new name that is not remembered.
+     */
+    static ExpressionFunctionName canonical(final String text,
+                                            final CaseSensitivity caseSensitivity) {
+        Objects.requireNonNull(text, "text");
+
+        final ExpressionFunctionName name = slots(caseSensitivity)[slot(text)];
+        return null != name && text.equals(name.value()) ?
+            name :
+            ExpressionFunctionName.with(text)
+                .setCaseSensitivity(caseSensitivity);
+    }
+
+    /**
+     * Returns the canonical {@link ExpressionFunctionName} with the text of the given name and {@link CaseSensitivity}
+     * if one was interned, otherwise the given name with the {@link CaseSensitivity}, which is not remembered.
+     */
+    static ExpressionFunctionName canonical(final ExpressionFunctionName name,
+                                            final CaseSensitivity caseSensitivity) {
+        Objects.requireNonNull(name, "name");
+
+        final String text = name.value();
+        final ExpressionFunctionName interned = slots(caseSensitivity)[slot(text)];
+        return null != interned && text.equals(interned.value()) ?
+            interned :
+            name.setCaseSensitivity(caseSensitivity);
+    }
+
+    private static int slot(final String text) {
+        final int hash = text.hashCode();
+
+        // spread the high bits so the mask uses them
+        return (hash ^ (hash >>> 16)) & (SIZE - 1);
+    }
+
+    private static ExpressionFunctionName[] slots(final CaseSensitivity caseSensitivity) {
+        Objects.requireNonNull(caseSensitivity, "caseSensitivity");
+
+        return CaseSensitivity.SENSITIVE == caseSensitivity ?
+            SENSITIVE :
+            INSENSITIVE;
+    }
+
+    private final static ExpressionFunctionName[] INSENSITIVE = new ExpressionFunctionName[SIZE];
+
+    private final static ExpressionFunctionName[] SENSITIVE = new ExpressionFunctionName[SIZE];
+
+    /**
+     * Stop creation
+     */
+    private ExpressionFunctionNameInterner() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.Cast;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import java.util.Objects;
+
+/**
+ * An immutable hash trie keyed by the text of a {@link ExpressionFunctionName}, hashed and compared using a fixed
+ * {@link CaseSensitivity} like {@link ExpressionFunctionNameIndex}. Each level consumes 5 bits of the hash, so a
+ * lookup visits at most 7 nodes no matter how many names are present, while {@link #put(String, Object)} and
+ * {@link #remove(String)} copy only the nodes on that path and share all others with this trie.
+ */
+final class ExpressionFunctionNameTrie<V> {
+
+    static <V> ExpressionFunctionNameTrie<V> empty(final CaseSensitivity caseSensitivity) {
+        Objects.requireNonNull(caseSensitivity, "caseSensitivity");
+
+        return new ExpressionFunctionNameTrie<>(
+            CaseSensitivity.INSENSITIVE == caseSensitivity,
+            ExpressionFunctionNameTrieNode.EMPTY,
+            0
+        );
+    }
+
+    private ExpressionFunctionNameTrie(final boolean insensitive,
+                                       final ExpressionFunctionNameTrieNode root,
+                                       final int size) {
+        this.insensitive = insensitive;
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the value for the given name or null.
+     */
+    V get(final ExpressionFunctionName name) {
+        return this.get(
+            name.value()
+        );
+    }
+
+    /**
+     * Returns the value for the given name text or null.
+     */
+    V get(final String name) {
+        final boolean insensitive = this.insensitive;
+
+        return Cast.to(
+            this.root.get(
+                name,
+                ExpressionFunctionNameIndex.hash(
+                    name,
+                    insensitive
+                ),
+                0,
+                insensitive
+            )
+        );
+    }
+
+    /**
+     * Returns a trie with the value for the given name added or replaced, or this trie if the name already has the
+     * same value.
+     */
+    ExpressionFunctionNameTrie<V> put(final String name,
+                                      final V value) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(value, "value");
+
+        final boolean insensitive = this.insensitive;
+        final ExpressionFunctionNameTrieNode root = this.root;
+        final int hash = ExpressionFunctionNameIndex.hash(
+            name,
+            insensitive
+        );
+
+        final boolean absent = null == root.get(
+            name,
+            hash,
+            0,
+            insensitive
+        );
+
+        final ExpressionFunctionNameTrieNode put = root.put(
+            name,
+            hash,
+            value,
+            0,
+            insensitive
+        );
+
+        return root == put ?
+            this :
+            new ExpressionFunctionNameTrie<>(
+                insensitive,
+                put,
+                absent ?
+                    this.size + 1 :
+                    this.size
+            );
+    }
+
+    /**
+     * Returns a trie without the given name, or this trie if the name is absent.
+     */
+    ExpressionFunctionNameTrie<V> remove(final String name) {
+        Objects.requireNonNull(name, "name");
+
+        final boolean insensitive = this.insensitive;
+        final ExpressionFunctionNameTrieNode root = this.root;
+
+        final ExpressionFunctionNameTrieNode removed = root.remove(
+            name,
+            ExpressionFunctionNameIndex.hash(
+                name,
+                insensitive
+            ),
+            0,
+            insensitive
+        );
+
+        return root == removed ?
+            this :
+            new ExpressionFunctionNameTrie<>(
+                insensitive,
+                removed,
+                this.size - 1
+            );
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private final boolean insensitive;
+
+    private final ExpressionFunctionNameTrieNode root;
+
+    private final int size;
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        this.root.toString(b);
+        return b.toString();
+    }
+}
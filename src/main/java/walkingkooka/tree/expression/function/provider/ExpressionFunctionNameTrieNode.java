@@ -0,0 +1,362 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package walkingkooka.tree.expression.function.provider;
+
+/**
+ * An immutable node within a {@link ExpressionFunctionNameTrie}. The slots hold a key and value pair for each bit set
+ * in the bitmap, ordered by bit. A null key marks a value that is a child node for names sharing that 5 bit hash
+ * fragment. Once all 32 hash bits are used a node holds colliding names as plain pairs and ignores its bitmap.
+ */
+final class ExpressionFunctionNameTrieNode {
+
+    final static ExpressionFunctionNameTrieNode EMPTY = new ExpressionFunctionNameTrieNode(
+        0,
+        new Object[0]
+    );
+
+    private final static int BITS = 5;
+
+    private final static int MASK = (1 << BITS) - 1;
+
+    private ExpressionFunctionNameTrieNode(final int bitmap,
+                                           final Object[] slots) {
+        this.bitmap = bitmap;
+        this.slots = slots;
+    }
+
+    Object get(final String key,
+               final int hash,
+               final int shift,
+               final boolean insensitive) {
+        final Object[] slots = this.slots;
+
+        Object value = null;
+
+        if (shift >= Integer.SIZE) {
+            final int index = this.collisionIndex(
+                key,
+                insensitive
+            );
+            if (-1 != index) {
+                value = slots[index + 1];
+            }
+        } else {
+            final int bit = bit(
+                hash,
+                shift
+            );
+            if (0 != (this.bitmap & bit)) {
+                final int index = this.index(bit);
+                final String slotKey = (String) slots[index];
+                final Object slotValue = slots[index + 1];
+
+                if (null == slotKey) {
+                    value = ((ExpressionFunctionNameTrieNode) slotValue).get(
+                        key,
+                        hash,
+                        shift + BITS,
+                        insensitive
+                    );
+                } else if (ExpressionFunctionNameIndex.equals(slotKey, key, insensitive)) {
+                    value = slotValue;
+                }
+            }
+        }
+
+        return value;
+    }
+
+    ExpressionFunctionNameTrieNode put(final String key,
+                                       final int hash,
+                                       final Object value,
+                                       final int shift,
+                                       final boolean insensitive) {
+        final Object[] slots = this.slots;
+
+        final ExpressionFunctionNameTrieNode put;
+
+        if (shift >= Integer.SIZE) {
+            final int index = this.collisionIndex(
+                key,
+                insensitive
+            );
+            if (-1 == index) {
+                put = new ExpressionFunctionNameTrieNode(
+                    0,
+                    insert(
+                        slots,
+                        slots.length,
+                        key,
+                        value
+                    )
+                );
+            } else {
+                put = value == slots[index + 1] ?
+                    this :
+                    this.set(
+                        index,
+                        key,
+                        value
+                    );
+            }
+        } else {
+            final int bit = bit(
+                hash,
+                shift
+            );
+            final int index = this.index(bit);
+
+            if (0 == (this.bitmap & bit)) {
+                put = new ExpressionFunctionNameTrieNode(
+                    this.bitmap | bit,
+                    insert(
+                        slots,
+                        index,
+                        key,
+                        value
+                    )
+                );
+            } else {
+                final String slotKey = (String) slots[index];
+                final Object slotValue = slots[index + 1];
+
+                if (null == slotKey) {
+                    final ExpressionFunctionNameTrieNode child = (ExpressionFunctionNameTrieNode) slotValue;
+                    final ExpressionFunctionNameTrieNode childPut = child.put(
+                        key,
+                        hash,
+                        value,
+                        shift + BITS,
+                        insensitive
+                    );
+                    put = child == childPut ?
+                        this :
+                        this.set(
+                            index,
+                            null,
+                            childPut
+                        );
+                } else if (ExpressionFunctionNameIndex.equals(slotKey, key, insensitive)) {
+                    put = value == slotValue ?
+                        this :
+                        this.set(
+                            index,
+                            key,
+                            value
+                        );
+                } else {
+                    // two names share this hash fragment, push both into a new child node
+                    final int nextShift = shift + BITS;
+
+                    put = this.set(
+                        index,
+                        null,
+                        EMPTY.put(
+                            slotKey,
+                            ExpressionFunctionNameIndex.hash(
+                                slotKey,
+                                insensitive
+                            ),
+                            slotValue,
+                            nextShift,
+                            insensitive
+                        ).put(
+                            key,
+                            hash,
+                            value,
+                            nextShift,
+                            insensitive
+                        )
+                    );
+                }
+            }
+        }
+
+        return put;
+    }
+
+    ExpressionFunctionNameTrieNode remove(final String key,
+                                          final int hash,
+                                          final int shift,
+                                          final boolean insensitive) {
+        final Object[] slots = this.slots;
+
+        ExpressionFunctionNameTrieNode removed = this;
+
+        if (shift >= Integer.SIZE) {
+            final int index = this.collisionIndex(
+                key,
+                insensitive
+            );
+            if (-1 != index) {
+                removed = new ExpressionFunctionNameTrieNode(
+                    0,
+                    delete(
+                        slots,
+                        index
+                    )
+                );
+            }
+        } else {
+            final int bit = bit(
+                hash,
+                shift
+            );
+
+            if (0 != (this.bitmap & bit)) {
+                final int index = this.index(bit);
+                final String slotKey = (String) slots[index];
+                final Object slotValue = slots[index + 1];
+
+                if (null == slotKey) {
+                    final ExpressionFunctionNameTrieNode child = (ExpressionFunctionNameTrieNode) slotValue;
+                    final ExpressionFunctionNameTrieNode childRemoved = child.remove(
+                        key,
+                        hash,
+                        shift + BITS,
+                        insensitive
+                    );
+
+                    if (child != childRemoved) {
+                        removed = 0 == childRemoved.slots.length ?
+                            this.delete(
+                                bit,
+                                index
+                            ) :
+                            this.set(
+                                index,
+                                null,
+                                childRemoved
+                            );
+                    }
+                } else if (ExpressionFunctionNameIndex.equals(slotKey, key, insensitive)) {
+                    removed = this.delete(
+                        bit,
+                        index
+                    );
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    private static int bit(final int hash,
+                           final int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Returns the index of the key slot for the given bit, which is twice the number of lower bits that are set.
+     */
+    private int index(final int bit) {
+        return 2 * Integer.bitCount(this.bitmap & (bit - 1));
+    }
+
+    private int collisionIndex(final String key,
+                               final boolean insensitive) {
+        final Object[] slots = this.slots;
+
+        int index = -1;
+        for (int i = 0; i < slots.length; i = i + 2) {
+            if (ExpressionFunctionNameIndex.equals((String) slots[i], key, insensitive)) {
+                index = i;
+                break;
+            }
+        }
+        return index;
+    }
+
+    private ExpressionFunctionNameTrieNode set(final int index,
+                                               final String key,
+                                               final Object value) {
+        final Object[] slots = this.slots.clone();
+        slots[index] = key;
+        slots[index + 1] = value;
+
+        return new ExpressionFunctionNameTrieNode(
+            this.bitmap,
+            slots
+        );
+    }
+
+    private ExpressionFunctionNameTrieNode delete(final int bit,
+                                                  final int index) {
+        final int bitmap = this.bitmap & ~bit;
+
+        return 0 == bitmap ?
+            EMPTY :
+            new ExpressionFunctionNameTrieNode(
+                bitmap,
+                delete(
+                    this.slots,
+                    index
+                )
+            );
+    }
+
+    private static Object[] insert(final Object[] slots,
+                                   final int index,
+                                   final String key,
+                                   final Object value) {
+        final Object[] inserted = new Object[slots.length + 2];
+        System.arraycopy(slots, 0, inserted, 0, index);
+        inserted[index] = key;
+        inserted[index + 1] = value;
+        System.arraycopy(slots, index, inserted, index + 2, slots.length - index);
+        return inserted;
+    }
+
+    private static Object[] delete(final Object[] slots,
+                                   final int index) {
+        final Object[] deleted = new Object[slots.length - 2];
+        System.arraycopy(slots, 0, deleted, 0, index);
+        System.arraycopy(slots, index + 2, deleted, index, slots.length - index - 2);
+        return deleted;
+    }
+
+    private final int bitmap;
+
+    private final Object[] slots;
+
+    void toString(final StringBuilder b) {
+        final Object[] slots = this.slots;
+
+        for (int i = 0; i < slots.length; i = i + 2) {
+            final Object key = slots[i];
+            final Object value = slots[i + 1];
+
+            if (null == key) {
+                ((ExpressionFunctionNameTrieNode) value).toString(b);
+            } else {
+                if (b.length() > 0) {
+                    b.append(", ");
+                }
+                b.append(key)
+                    .append('=')
+                    .append(value);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        this.toString(b);
+        return b.toString();
+    }
+}
@@ -66,8 +66,11 @@ final class ExpressionFunctionPluginHelper implements PluginHelper<ExpressionFun
 
     @Override
     public ExpressionFunctionName name(final String text) {
-        return ExpressionFunctionName.with(text)
-            .setCaseSensitivity(this.caseSensitivity);
+        // parsed text may be anything typed by a user, only reuse names interned by providers
+        return ExpressionFunctionNameInterner.canonical(
+            text,
+            this.caseSensitivity
+        );
     }
 
     @Override
@@ -77,7 +80,10 @@ final class ExpressionFunctionPluginHelper implements PluginHelper<ExpressionFun
             cursor,
             context
         ).map(
-            n -> n.setCaseSensitivity(this.caseSensitivity)
+            n -> ExpressionFunctionNameInterner.canonical(
+                n,
+                this.caseSensitivity
+            )
         );
     }
 
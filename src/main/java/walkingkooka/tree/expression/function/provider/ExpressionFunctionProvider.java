@@ -17,14 +17,21 @@
 
 package walkingkooka.tree.expression.function.provider;
 
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.plugin.Provider;
 import walkingkooka.plugin.ProviderContext;
 import walkingkooka.text.CaseSensitivity;
 import walkingkooka.tree.expression.ExpressionEvaluationContext;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 /**
  * A provider that supports listing available {@link ExpressionFunctionInfo} and fetching implementations by {@link ExpressionFunctionName}.
@@ -44,6 +51,93 @@ public interface ExpressionFunctionProvider<C extends ExpressionEvaluationContex
                                                 final List<?> values,
                                                 final ProviderContext context);
 
+    /**
+     * Getter that returns the {@link ExpressionFunction} with the given {@link ExpressionFunctionSelector} or
+     * {@link Optional#empty()} if the name is unknown. Other failures such as invalid values are still thrown.
+     * <br>
+     * Providers should override this default, which catches the {@link UnknownExpressionFunctionException} thrown by
+     * {@link #expressionFunction(ExpressionFunctionSelector, ProviderContext)}.
+     */
+    default Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                        final ProviderContext context) {
+        Optional<ExpressionFunction<?, C>> function;
+
+        try {
+            function = Optional.of(
+                this.expressionFunction(
+                    selector,
+                    context
+                )
+            );
+        } catch (final UnknownExpressionFunctionException unknown) {
+            function = Optional.empty();
+        }
+
+        return function;
+    }
+
+    /**
+     * Getter that returns the {@link ExpressionFunction} with the given {@link ExpressionFunctionName} or
+     * {@link Optional#empty()} if the name is unknown. Other failures such as invalid values are still thrown.
+     * <br>
+     * Providers should override this default, which catches the {@link UnknownExpressionFunctionException} thrown by
+     * {@link #expressionFunction(ExpressionFunctionName, List, ProviderContext)}.
+     */
+    default Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                        final List<?> values,
+                                                                        final ProviderContext context) {
+        Optional<ExpressionFunction<?, C>> function;
+
+        try {
+            function = Optional.of(
+                this.expressionFunction(
+                    name,
+                    values,
+                    context
+                )
+            );
+        } catch (final UnknownExpressionFunctionException unknown) {
+            function = Optional.empty();
+        }
+
+        return function;
+    }
+
+    /**
+     * Resolves all the given {@link ExpressionFunctionName} without values in a single call, returning a {@link Map}
+     * sorted using {@link #expressionFunctionNameCaseSensitivity()}, with each key converted to that {@link CaseSensitivity}.
+     * If any name is unknown an {@link UnknownExpressionFunctionException} is thrown.
+     * <br>
+     * Providers should override this default, which calls {@link #expressionFunction(ExpressionFunctionName, List, ProviderContext)}
+     * for each name, to avoid repeating the same fixed costs for every name.
+     */
+    default Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                      final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final List<?> values = Lists.empty();
+        final CaseSensitivity caseSensitivity = this.expressionFunctionNameCaseSensitivity();
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(caseSensitivity)
+        );
+
+        for (final ExpressionFunctionName name : names) {
+            if (false == nameToFunction.containsKey(name)) {
+                nameToFunction.put(
+                    name.setCaseSensitivity(caseSensitivity),
+                    this.expressionFunction(
+                        name,
+                        values,
+                        context
+                    )
+                );
+            }
+        }
+
+        return Maps.readOnly(nameToFunction);
+    }
+
     /**
      * Returns all known {@link ExpressionFunctionInfo}.
      */
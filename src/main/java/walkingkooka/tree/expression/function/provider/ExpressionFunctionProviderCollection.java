@@ -17,6 +17,8 @@
 
 package walkingkooka.tree.expression.function.provider;
 
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.plugin.ProviderCollection;
 import walkingkooka.plugin.ProviderCollectionProviderGetter;
 import walkingkooka.plugin.ProviderContext;
@@ -25,12 +27,26 @@ import walkingkooka.tree.expression.ExpressionEvaluationContext;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 
 /**
  * A {@link ExpressionFunctionProvider} view of a collection of {@link ExpressionFunctionProvider providers}.
+ * <br>
+ * The names of all providers are held in an exact hash index built once from their {@link ExpressionFunctionInfoSet},
+ * so a lookup of a name with a single provider is routed to that provider with a single probe. Unknown names,
+ * including mistyped or speculative names from validators, and names provided by more than one provider are left to
+ * {@link ProviderCollection}, which reports its usual failure using the same infos, without asking any provider.
+ * <br>
+ * The index and merged infos are a snapshot of the members when the collection was created, lookups never ask the
+ * members for their {@link ExpressionFunctionInfoSet} again. Members that change, such as a
+ * {@link RegistryExpressionFunctionProvider} or {@link SwappableExpressionFunctionProvider}, are followed by creating
+ * the collection again, for example when the {@link RegistryExpressionFunctionProvider#version()} or
+ * {@link SwappableExpressionFunctionProvider#version()} of those members changes.
  */
 final class ExpressionFunctionProviderCollection<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
 
@@ -44,17 +60,20 @@ final class ExpressionFunctionProviderCollection<C extends ExpressionEvaluationC
 
     private ExpressionFunctionProviderCollection(final CaseSensitivity expressionFunctionNameCaseSensitivity,
                                                  final Set<ExpressionFunctionProvider<C>> providers) {
-        this.providers = ProviderCollection.with(
-            // javac complained couldnt infer type parameters
-            new ProviderCollectionProviderGetter<ExpressionFunctionProvider<C>, ExpressionFunctionName, ExpressionFunctionSelector, ExpressionFunction<?, C>>() {
+        // javac complained couldnt infer type parameters
+        final ProviderCollectionProviderGetter<ExpressionFunctionProvider<C>, ExpressionFunctionName, ExpressionFunctionSelector, ExpressionFunction<?, C>> getter =
+            new ProviderCollectionProviderGetter<>() {
                 @Override
                 public ExpressionFunction<?, C> get(final ExpressionFunctionProvider<C> provider,
                                                     final ExpressionFunctionName name,
                                                     final List<?> values,
                                                     final ProviderContext context) {
-                    return this.fixNameCaseSensitivity(
+                    return ExpressionFunctionProviderCollection.this.fixNameCaseSensitivity(
                         provider.expressionFunction(
-                            name.setCaseSensitivity(provider.expressionFunctionNameCaseSensitivity()),
+                            ExpressionFunctionNameInterner.intern(
+                                name,
+                                provider.expressionFunctionNameCaseSensitivity()
+                            ),
                             values,
                             context
                         )
@@ -66,29 +85,73 @@ final class ExpressionFunctionProviderCollection<C extends ExpressionEvaluationC
                                                     final ExpressionFunctionSelector selector,
                                                     final ProviderContext context) {
                     // FIX the name case sensitivity before invoking provider and unfix name of returned function
-                    return this.fixNameCaseSensitivity(
+                    return ExpressionFunctionProviderCollection.this.fixNameCaseSensitivity(
                         provider.expressionFunction(
                             selector.setName(
-                                selector.name()
-                                    .setCaseSensitivity(provider.expressionFunctionNameCaseSensitivity())
+                                ExpressionFunctionNameInterner.intern(
+                                    selector.name(),
+                                    provider.expressionFunctionNameCaseSensitivity()
+                                )
                             ),
                             context
                         )
                     );
                 }
+            };
 
-                private ExpressionFunction<?, C> fixNameCaseSensitivity(final ExpressionFunction<?, C> function) {
-                    return function.setName(
-                        function.name()
-                            .map(n -> n.setCaseSensitivity(expressionFunctionNameCaseSensitivity))
-                    );
-                }
-            },
-            ExpressionFunctionProvider::expressionFunctionInfos,
+        // ask each provider for its infos once
+        final Map<ExpressionFunctionProvider<C>, ExpressionFunctionInfoSet> providerToInfos = Maps.hash();
+
+        int nameCount = 0;
+        for (final ExpressionFunctionProvider<C> provider : providers) {
+            final ExpressionFunctionInfoSet infos = provider.expressionFunctionInfos();
+            providerToInfos.put(
+                provider,
+                infos
+            );
+            nameCount = nameCount + infos.size();
+        }
+
+        // ProviderCollection also reads the infos gathered above, so it never asks a provider for its infos again
+        this.providers = ProviderCollection.with(
+            getter,
+            providerToInfos::get,
             ExpressionFunction.class.getSimpleName(),
             providers
         );
 
+        final ExpressionFunctionNameIndex<Optional<ExpressionFunctionProvider<C>>> nameToProvider = ExpressionFunctionNameIndex.with(
+            expressionFunctionNameCaseSensitivity,
+            nameCount
+        );
+
+        for (final Map.Entry<ExpressionFunctionProvider<C>, ExpressionFunctionInfoSet> providerAndInfos : providerToInfos.entrySet()) {
+            final ExpressionFunctionProvider<C> provider = providerAndInfos.getKey();
+            final Optional<ExpressionFunctionProvider<C>> owner = Optional.of(provider);
+
+            for (final ExpressionFunctionName name : providerAndInfos.getValue().names()) {
+                final Optional<ExpressionFunctionProvider<C>> previous = nameToProvider.put(
+                    name,
+                    owner
+                );
+
+                // name is provided by more than one provider, ProviderCollection will report the failure
+                if (null != previous && previous.orElse(null) != provider) {
+                    nameToProvider.put(
+                        name,
+                        Optional.empty()
+                    );
+                }
+            }
+        }
+
+        this.getter = getter;
+        this.nameToProvider = nameToProvider;
+
+        this.expressionFunctionInfos = ExpressionFunctionInfoSet.with(
+            this.providers.infos(),
+            expressionFunctionNameCaseSensitivity
+        );
         this.expressionFunctionNameCaseSensitivity = expressionFunctionNameCaseSensitivity;
     }
 
@@ -98,13 +161,24 @@ final class ExpressionFunctionProviderCollection<C extends ExpressionEvaluationC
         Objects.requireNonNull(selector, "selector");
         Objects.requireNonNull(context, "context");
 
-        return this.providers.get(
-            selector.setName(
-                selector.name()
-                    .setCaseSensitivity(this.expressionFunctionNameCaseSensitivity)
-            ),
-            context
-        );
+        final ExpressionFunctionName name = selector.name();
+        final ExpressionFunctionProvider<C> provider = this.provider(name);
+
+        return null != provider ?
+            this.getter.get(
+                provider,
+                selector,
+                context
+            ) :
+            this.providers.get(
+                selector.setName(
+                    ExpressionFunctionNameInterner.intern(
+                        name,
+                        this.expressionFunctionNameCaseSensitivity
+                    )
+                ),
+                context
+            );
     }
 
     @Override
@@ -115,21 +189,172 @@ final class ExpressionFunctionProviderCollection<C extends ExpressionEvaluationC
         Objects.requireNonNull(values, "values");
         Objects.requireNonNull(context, "context");
 
-        return this.providers.get(
-            name.setCaseSensitivity(this.expressionFunctionNameCaseSensitivity),
-            values,
-            context
+        final ExpressionFunctionProvider<C> provider = this.provider(name);
+
+        return null != provider ?
+            this.getter.get(
+                provider,
+                name,
+                values,
+                context
+            ) :
+            this.providers.get(
+                ExpressionFunctionNameInterner.intern(
+                    name,
+                    this.expressionFunctionNameCaseSensitivity
+                ),
+                values,
+                context
+            );
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return null != this.nameToProvider.get(selector.name()) ?
+            Optional.of(
+                this.expressionFunction(
+                    selector,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return null != this.nameToProvider.get(name) ?
+            Optional.of(
+                this.expressionFunction(
+                    name,
+                    values,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final CaseSensitivity caseSensitivity = this.expressionFunctionNameCaseSensitivity;
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(caseSensitivity)
+        );
+
+        // group names by provider so each provider is called once
+        final Map<ExpressionFunctionProvider<C>, List<ExpressionFunctionName>> providerToNames = Maps.hash();
+
+        for (final ExpressionFunctionName name : names) {
+            final ExpressionFunctionProvider<C> provider = this.provider(name);
+
+            if (null != provider) {
+                List<ExpressionFunctionName> providerNames = providerToNames.get(provider);
+                if (null == providerNames) {
+                    providerNames = Lists.array();
+                    providerToNames.put(
+                        provider,
+                        providerNames
+                    );
+                }
+                providerNames.add(
+                    ExpressionFunctionNameInterner.intern(
+                        name,
+                        provider.expressionFunctionNameCaseSensitivity()
+                    )
+                );
+            } else {
+                // name is unknown or provided by more than one provider, ProviderCollection will report the failure
+                nameToFunction.put(
+                    ExpressionFunctionNameInterner.intern(
+                        name,
+                        caseSensitivity
+                    ),
+                    this.expressionFunction(
+                        name,
+                        Lists.empty(),
+                        context
+                    )
+                );
+            }
+        }
+
+        for (final Map.Entry<ExpressionFunctionProvider<C>, List<ExpressionFunctionName>> providerAndNames : providerToNames.entrySet()) {
+            for (final Map.Entry<ExpressionFunctionName, ExpressionFunction<?, C>> nameAndFunction : providerAndNames.getKey()
+                .expressionFunctions(
+                    providerAndNames.getValue(),
+                    context
+                ).entrySet()) {
+                nameToFunction.put(
+                    ExpressionFunctionNameInterner.intern(
+                        nameAndFunction.getKey(),
+                        caseSensitivity
+                    ),
+                    this.fixNameCaseSensitivity(
+                        nameAndFunction.getValue()
+                    )
+                );
+            }
+        }
+
+        return Maps.readOnly(nameToFunction);
+    }
+
+    private ExpressionFunction<?, C> fixNameCaseSensitivity(final ExpressionFunction<?, C> function) {
+        return function.setName(
+            function.name()
+                .map(n -> ExpressionFunctionNameInterner.intern(
+                    n,
+                    this.expressionFunctionNameCaseSensitivity
+                ))
         );
     }
 
+    /**
+     * Returns the only {@link ExpressionFunctionProvider} that provides the given name, or null if the name is unknown
+     * or provided by several providers.
+     */
+    private ExpressionFunctionProvider<C> provider(final ExpressionFunctionName name) {
+        final Optional<ExpressionFunctionProvider<C>> provider = this.nameToProvider.get(name);
+        return null != provider ?
+            provider.orElse(null) :
+            null;
+    }
+
+    /**
+     * Used to invoke a single routed {@link ExpressionFunctionProvider}, fixing name case sensitivity the same way as {@link #providers}.
+     */
+    private final ProviderCollectionProviderGetter<ExpressionFunctionProvider<C>, ExpressionFunctionName, ExpressionFunctionSelector, ExpressionFunction<?, C>> getter;
+
+    /**
+     * Routes each name from the {@link ExpressionFunctionInfoSet} of all providers to its provider. Names provided by
+     * more than one provider have an empty value and are left to {@link #providers}.
+     */
+    private final ExpressionFunctionNameIndex<Optional<ExpressionFunctionProvider<C>>> nameToProvider;
+
     @Override
     public ExpressionFunctionInfoSet expressionFunctionInfos() {
-        return ExpressionFunctionInfoSet.with(
-            this.providers.infos(),
-            this.expressionFunctionNameCaseSensitivity
-        );
+        return this.expressionFunctionInfos;
     }
 
+    /**
+     * The merged {@link ExpressionFunctionInfoSet} of all providers, computed once as providers are immutable.
+     */
+    private final ExpressionFunctionInfoSet expressionFunctionInfos;
+
     private final ProviderCollection<ExpressionFunctionProvider<C>, ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionSelector, ExpressionFunction<?, C>> providers;
 
     @Override
@@ -23,7 +23,10 @@ import walkingkooka.tree.expression.ExpressionEvaluationContext;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface ExpressionFunctionProviderDelegator<C extends ExpressionEvaluationContext> extends ExpressionFunctionProvider<C> {
 
@@ -49,6 +52,38 @@ public interface ExpressionFunctionProviderDelegator<C extends ExpressionEvaluat
             );
     }
 
+    @Override
+    default Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                        final ProviderContext context) {
+        return this.expressionFunctionProvider()
+            .expressionFunctionIfPresent(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    default Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                        final List<?> values,
+                                                                        final ProviderContext context) {
+        return this.expressionFunctionProvider()
+            .expressionFunctionIfPresent(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    default Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                      final ProviderContext context) {
+        return this.expressionFunctionProvider()
+            .expressionFunctions(
+                names,
+                context
+            );
+    }
+
     @Override
     default ExpressionFunctionInfoSet expressionFunctionInfos() {
         return this.expressionFunctionProvider()
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters updated by a metered {@link ExpressionFunctionProvider}, see {@link ExpressionFunctionProviders#metered(ExpressionFunctionProvider, ExpressionFunctionProviderMetrics)}.
+ * A single instance may be shared by many providers, and updates never lock.
+ * <br>
+ * Lookup times are counted in buckets with power of two boundaries, bucket <code>n</code> counting lookups that took
+ * less than <code>2^n</code> nanoseconds, with the last bucket also counting all slower lookups.
+ */
+public final class ExpressionFunctionProviderMetrics {
+
+    /**
+     * The maximum number of function names with their own hit count, hits for other names are only counted in totals.
+     */
+    final static int MAX_NAMES = 8192;
+
+    /**
+     * The number of latency buckets, the last bucket counts lookups taking about two seconds or longer.
+     */
+    public final static int LATENCY_BUCKETS = 32;
+
+    public static ExpressionFunctionProviderMetrics empty() {
+        return new ExpressionFunctionProviderMetrics();
+    }
+
+    private ExpressionFunctionProviderMetrics() {
+        super();
+
+        final AtomicLong[] latencies = new AtomicLong[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            latencies[i] = new AtomicLong();
+        }
+        this.latencies = latencies;
+    }
+
+    /**
+     * Records a single lookup, a null name records a miss.
+     */
+    void lookup(final ExpressionFunctionName name,
+                final boolean selector,
+                final long nanos) {
+        (selector ? this.selectorLookups : this.nameLookups).incrementAndGet();
+
+        if (null == name) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hit(name);
+        }
+
+        this.latency(nanos);
+    }
+
+    /**
+     * Records a single lookup that failed with something other than an unknown function.
+     */
+    void failure(final boolean selector,
+                 final long nanos) {
+        (selector ? this.selectorLookups : this.nameLookups).incrementAndGet();
+        this.failures.incrementAndGet();
+        this.latency(nanos);
+    }
+
+    /**
+     * Records a lookup of many names, that took the given time.
+     */
+    void lookups(final Iterable<ExpressionFunctionName> names,
+                 final long nanos) {
+        for (final ExpressionFunctionName name : names) {
+            this.nameLookups.incrementAndGet();
+            this.hit(name);
+        }
+
+        this.latency(nanos);
+    }
+
+    /**
+     * Records a lookup of many names that failed because some names were unknown, counting a single miss for the
+     * whole lookup.
+     */
+    void lookupsMiss(final int count,
+                     final long nanos) {
+        this.nameLookups.addAndGet(count);
+        this.misses.incrementAndGet();
+        this.latency(nanos);
+    }
+
+    /**
+     * Records a lookup of many names that failed with something other than an unknown function.
+     */
+    void lookupsFailure(final int count,
+                        final long nanos) {
+        this.nameLookups.addAndGet(count);
+        this.failures.incrementAndGet();
+        this.latency(nanos);
+    }
+
+    private void hit(final ExpressionFunctionName name) {
+        final Map<ExpressionFunctionName, AtomicLong> nameToHits = this.nameToHits;
+
+        AtomicLong hits = nameToHits.get(name);
+        if (null == hits && nameToHits.size() < MAX_NAMES) {
+            final AtomicLong created = new AtomicLong();
+            hits = nameToHits.putIfAbsent(
+                name,
+                created
+            );
+            if (null == hits) {
+                hits = created;
+            }
+        }
+
+        if (null != hits) {
+            hits.incrementAndGet();
+        }
+        this.hits.incrementAndGet();
+    }
+
+    private void latency(final long nanos) {
+        final int bucket = 64 - Long.numberOfLeadingZeros(
+            Math.max(
+                nanos,
+                0
+            )
+        );
+        this.latencies[Math.min(bucket, LATENCY_BUCKETS - 1)]
+            .incrementAndGet();
+    }
+
+    /**
+     * Returns a copy of all counters. Counters are read one at a time, so a snapshot taken during lookups may be
+     * slightly inconsistent.
+     */
+    public ExpressionFunctionProviderMetricsSnapshot snapshot() {
+        final Map<ExpressionFunctionName, Long> nameToHits = Maps.sorted(
+            ExpressionFunctionProviderMetricsSnapshot.NAME_COMPARATOR
+        );
+        for (final Map.Entry<ExpressionFunctionName, AtomicLong> nameAndHits : this.nameToHits.entrySet()) {
+            nameToHits.put(
+                nameAndHits.getKey(),
+                nameAndHits.getValue()
+                    .get()
+            );
+        }
+
+        final List<Long> latencies = Lists.array();
+        for (final AtomicLong latency : this.latencies) {
+            latencies.add(latency.get());
+        }
+
+        return ExpressionFunctionProviderMetricsSnapshot.with(
+            this.selectorLookups.get(),
+            this.nameLookups.get(),
+            this.hits.get(),
+            this.misses.get(),
+            this.failures.get(),
+            nameToHits,
+            latencies
+        );
+    }
+
+    private final AtomicLong selectorLookups = new AtomicLong();
+
+    private final AtomicLong nameLookups = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final Map<ExpressionFunctionName, AtomicLong> nameToHits = new ConcurrentHashMap<>();
+
+    private final AtomicLong[] latencies;
+
+    @Override
+    public String toString() {
+        return this.snapshot()
+            .toString();
+    }
+}
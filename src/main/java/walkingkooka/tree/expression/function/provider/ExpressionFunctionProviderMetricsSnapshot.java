@@ -0,0 +1,414 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.text.printer.IndentingPrinter;
+import walkingkooka.text.printer.TreePrintable;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.json.JsonArray;
+import walkingkooka.tree.json.JsonNode;
+import walkingkooka.tree.json.JsonObject;
+import walkingkooka.tree.json.JsonPropertyName;
+import walkingkooka.tree.json.marshall.JsonNodeContext;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A read only copy of the counters within a {@link ExpressionFunctionProviderMetrics}.
+ */
+public final class ExpressionFunctionProviderMetricsSnapshot implements TreePrintable {
+
+    /**
+     * Orders names by their text and then {@link CaseSensitivity}, so names that only differ in case sensitivity are
+     * kept apart.
+     */
+    final static Comparator<ExpressionFunctionName> NAME_COMPARATOR = ExpressionFunctionName.comparator(CaseSensitivity.SENSITIVE)
+        .thenComparing(ExpressionFunctionName::caseSensitivity);
+
+    static ExpressionFunctionProviderMetricsSnapshot with(final long selectorLookups,
+                                                          final long nameLookups,
+                                                          final long hits,
+                                                          final long misses,
+                                                          final long failures,
+                                                          final Map<ExpressionFunctionName, Long> nameToHits,
+                                                          final List<Long> latencies) {
+        return new ExpressionFunctionProviderMetricsSnapshot(
+            selectorLookups,
+            nameLookups,
+            hits,
+            misses,
+            failures,
+            Maps.readOnly(
+                Objects.requireNonNull(nameToHits, "nameToHits")
+            ),
+            Lists.readOnly(
+                Objects.requireNonNull(latencies, "latencies")
+            )
+        );
+    }
+
+    private ExpressionFunctionProviderMetricsSnapshot(final long selectorLookups,
+                                                      final long nameLookups,
+                                                      final long hits,
+                                                      final long misses,
+                                                      final long failures,
+                                                      final Map<ExpressionFunctionName, Long> nameToHits,
+                                                      final List<Long> latencies) {
+        this.selectorLookups = selectorLookups;
+        this.nameLookups = nameLookups;
+        this.hits = hits;
+        this.misses = misses;
+        this.failures = failures;
+        this.nameToHits = nameToHits;
+        this.latencies = latencies;
+    }
+
+    /**
+     * The number of lookups using a {@link ExpressionFunctionSelector}.
+     */
+    public long selectorLookups() {
+        return this.selectorLookups;
+    }
+
+    private final long selectorLookups;
+
+    /**
+     * The number of lookups using a {@link ExpressionFunctionName}.
+     */
+    public long nameLookups() {
+        return this.nameLookups;
+    }
+
+    private final long nameLookups;
+
+    /**
+     * The number of lookups that returned a function.
+     */
+    public long hits() {
+        return this.hits;
+    }
+
+    private final long hits;
+
+    /**
+     * The number of unknown functions, a failed lookup of many names counts a single miss.
+     */
+    public long misses() {
+        return this.misses;
+    }
+
+    private final long misses;
+
+    /**
+     * The number of lookups that failed with anything other than an unknown function.
+     */
+    public long failures() {
+        return this.failures;
+    }
+
+    private final long failures;
+
+    /**
+     * The number of hits for each function name. Names that only differ in {@link CaseSensitivity} are counted
+     * separately.
+     */
+    public Map<ExpressionFunctionName, Long> nameToHits() {
+        return this.nameToHits;
+    }
+
+    private final Map<ExpressionFunctionName, Long> nameToHits;
+
+    /**
+     * The number of lookups in each latency bucket, see {@link ExpressionFunctionProviderMetrics}.
+     */
+    public List<Long> latencies() {
+        return this.latencies;
+    }
+
+    private final List<Long> latencies;
+
+    // TreePrintable....................................................................................................
+
+    @Override
+    public void printTree(final IndentingPrinter printer) {
+        printer.println(this.getClass().getSimpleName());
+        printer.indent();
+        {
+            printer.println(SELECTOR_LOOKUPS_PROPERTY_STRING + ": " + this.selectorLookups);
+            printer.println(NAME_LOOKUPS_PROPERTY_STRING + ": " + this.nameLookups);
+            printer.println(HITS_PROPERTY_STRING + ": " + this.hits);
+            printer.println(MISSES_PROPERTY_STRING + ": " + this.misses);
+            printer.println(FAILURES_PROPERTY_STRING + ": " + this.failures);
+
+            printer.println(NAME_TO_HITS_PROPERTY_STRING);
+            printer.indent();
+            for (final Map.Entry<ExpressionFunctionName, Long> nameAndHits : this.nameToHits.entrySet()) {
+                printer.println(nameAndHits.getKey() + ": " + nameAndHits.getValue());
+            }
+            printer.outdent();
+
+            printer.println(LATENCIES_PROPERTY_STRING);
+            printer.indent();
+            {
+                final List<Long> latencies = this.latencies;
+                final int last = latencies.size() - 1;
+
+                for (int i = 0; i <= last; i++) {
+                    final long count = latencies.get(i);
+                    if (0 != count) {
+                        printer.println(
+                            (i < last ? "< " : ">= ") +
+                                (1L << (i < last ? i : i - 1)) +
+                                "ns: " +
+                                count
+                        );
+                    }
+                }
+            }
+            printer.outdent();
+        }
+        printer.outdent();
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            this.selectorLookups,
+            this.nameLookups,
+            this.hits,
+            this.misses,
+            this.failures,
+            this.nameToHits,
+            this.latencies
+        );
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other || other instanceof ExpressionFunctionProviderMetricsSnapshot && this.equals0(Cast.to(other));
+    }
+
+    private boolean equals0(final ExpressionFunctionProviderMetricsSnapshot other) {
+        return this.selectorLookups == other.selectorLookups &&
+            this.nameLookups == other.nameLookups &&
+            this.hits == other.hits &&
+            this.misses == other.misses &&
+            this.failures == other.failures &&
+            this.nameToHits.equals(other.nameToHits) &&
+            this.latencies.equals(other.latencies);
+    }
+
+    @Override
+    public String toString() {
+        return this.treeToString(
+            "  ",
+            "\n"
+        );
+    }
+
+    // json.............................................................................................................
+
+    private final static String SELECTOR_LOOKUPS_PROPERTY_STRING = "selectorLookups";
+
+    private final static String NAME_LOOKUPS_PROPERTY_STRING = "nameLookups";
+
+    private final static String HITS_PROPERTY_STRING = "hits";
+
+    private final static String MISSES_PROPERTY_STRING = "misses";
+
+    private final static String FAILURES_PROPERTY_STRING = "failures";
+
+    private final static String NAME_TO_HITS_PROPERTY_STRING = "nameToHits";
+
+    private final static String LATENCIES_PROPERTY_STRING = "latencies";
+
+    // @VisibleForTesting
+    final static JsonPropertyName SELECTOR_LOOKUPS_PROPERTY = JsonPropertyName.with(SELECTOR_LOOKUPS_PROPERTY_STRING);
+
+    // @VisibleForTesting
+    final static JsonPropertyName NAME_LOOKUPS_PROPERTY = JsonPropertyName.with(NAME_LOOKUPS_PROPERTY_STRING);
+
+    // @VisibleForTesting
+    final static JsonPropertyName HITS_PROPERTY = JsonPropertyName.with(HITS_PROPERTY_STRING);
+
+    // @VisibleForTesting
+    final static JsonPropertyName MISSES_PROPERTY = JsonPropertyName.with(MISSES_PROPERTY_STRING);
+
+    // @VisibleForTesting
+    final static JsonPropertyName FAILURES_PROPERTY = JsonPropertyName.with(FAILURES_PROPERTY_STRING);
+
+    // @VisibleForTesting
+    final static JsonPropertyName NAME_TO_HITS_PROPERTY = JsonPropertyName.with(NAME_TO_HITS_PROPERTY_STRING);
+
+    // @VisibleForTesting
+    final static JsonPropertyName LATENCIES_PROPERTY = JsonPropertyName.with(LATENCIES_PROPERTY_STRING);
+
+    // {
+    //   "selectorLookups": 1,
+    //   "nameLookups": 2,
+    //   "hits": 2,
+    //   "misses": 1,
+    //   "failures": 0,
+    //   "nameToHits": {
+    //     "abs": 2,
+    //     "@sum": 1
+    //   },
+    //   "latencies": [0, 0, 3 ...]
+    // }
+    private JsonNode marshall(final JsonNodeMarshallContext context) {
+        JsonObject nameToHits = JsonNode.object();
+        for (final Map.Entry<ExpressionFunctionName, Long> nameAndHits : this.nameToHits.entrySet()) {
+            final ExpressionFunctionName name = nameAndHits.getKey();
+
+            nameToHits = nameToHits.set(
+                JsonPropertyName.with(
+                    CaseSensitivity.INSENSITIVE == name.caseSensitivity() ?
+                        CASE_INSENSITIVE_PREFIX + name.value() :
+                        name.value()
+                ),
+                JsonNode.number(
+                    nameAndHits.getValue()
+                )
+            );
+        }
+
+        JsonArray latencies = JsonNode.array();
+        for (final Long latency : this.latencies) {
+            latencies = latencies.appendChild(
+                JsonNode.number(latency)
+            );
+        }
+
+        return JsonNode.object()
+            .set(SELECTOR_LOOKUPS_PROPERTY, JsonNode.number(this.selectorLookups))
+            .set(NAME_LOOKUPS_PROPERTY, JsonNode.number(this.nameLookups))
+            .set(HITS_PROPERTY, JsonNode.number(this.hits))
+            .set(MISSES_PROPERTY, JsonNode.number(this.misses))
+            .set(FAILURES_PROPERTY, JsonNode.number(this.failures))
+            .set(NAME_TO_HITS_PROPERTY, nameToHits)
+            .set(LATENCIES_PROPERTY, latencies);
+    }
+
+    // @VisibleForTesting
+    static ExpressionFunctionProviderMetricsSnapshot unmarshall(final JsonNode node,
+                                                               final JsonNodeUnmarshallContext context) {
+        long selectorLookups = 0;
+        long nameLookups = 0;
+        long hits = 0;
+        long misses = 0;
+        long failures = 0;
+        final Map<ExpressionFunctionName, Long> nameToHits = Maps.sorted(NAME_COMPARATOR);
+        final List<Long> latencies = Lists.array();
+
+        for (final JsonNode child : node.objectOrFail().children()) {
+            final JsonPropertyName name = child.name();
+            switch (name.value()) {
+                case SELECTOR_LOOKUPS_PROPERTY_STRING:
+                    selectorLookups = count(child);
+                    break;
+                case NAME_LOOKUPS_PROPERTY_STRING:
+                    nameLookups = count(child);
+                    break;
+                case HITS_PROPERTY_STRING:
+                    hits = count(child);
+                    break;
+                case MISSES_PROPERTY_STRING:
+                    misses = count(child);
+                    break;
+                case FAILURES_PROPERTY_STRING:
+                    failures = count(child);
+                    break;
+                case NAME_TO_HITS_PROPERTY_STRING:
+                    for (final JsonNode nameAndHits : child.objectOrFail().children()) {
+                        nameToHits.put(
+                            name(
+                                nameAndHits.name()
+                                    .value()
+                            ),
+                            count(nameAndHits)
+                        );
+                    }
+                    break;
+                case LATENCIES_PROPERTY_STRING:
+                    for (final JsonNode latency : child.arrayOrFail().children()) {
+                        latencies.add(
+                            count(latency)
+                        );
+                    }
+                    break;
+                default:
+                    JsonNodeUnmarshallContext.unknownPropertyPresent(
+                        name,
+                        node
+                    );
+                    break;
+            }
+        }
+
+        return with(
+            selectorLookups,
+            nameLookups,
+            hits,
+            misses,
+            failures,
+            nameToHits,
+            latencies
+        );
+    }
+
+    private static ExpressionFunctionName name(final String text) {
+        final boolean insensitive = text.length() > 0 && CASE_INSENSITIVE_PREFIX == text.charAt(0);
+
+        return ExpressionFunctionName.with(
+            insensitive ?
+                text.substring(1) :
+                text
+        ).setCaseSensitivity(
+            insensitive ?
+                CaseSensitivity.INSENSITIVE :
+                CaseSensitivity.SENSITIVE
+        );
+    }
+
+    private static long count(final JsonNode node) {
+        return node.numberOrFail()
+            .longValue();
+    }
+
+    private final static char CASE_INSENSITIVE_PREFIX = '@';
+
+    static {
+        JsonNodeContext.register(
+            JsonNodeContext.computeTypeName(ExpressionFunctionProviderMetricsSnapshot.class),
+            ExpressionFunctionProviderMetricsSnapshot::unmarshall,
+            ExpressionFunctionProviderMetricsSnapshot::marshall,
+            ExpressionFunctionProviderMetricsSnapshot.class
+        );
+    }
+}
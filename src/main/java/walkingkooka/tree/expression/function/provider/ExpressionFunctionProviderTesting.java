@@ -19,6 +19,7 @@ package walkingkooka.tree.expression.function.provider;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.plugin.ProviderContext;
 import walkingkooka.plugin.ProviderContexts;
@@ -27,8 +28,12 @@ import walkingkooka.text.CaseSensitivity;
 import walkingkooka.tree.expression.ExpressionEvaluationContext;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -226,6 +231,223 @@ public interface ExpressionFunctionProviderTesting<P extends ExpressionFunctionP
         );
     }
 
+    // expressionFunctionIfPresent......................................................................................
+
+    @Test
+    default void testExpressionFunctionIfPresentSelectorWithNullSelectorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunctionIfPresent(
+                    (ExpressionFunctionSelector) null,
+                    ProviderContexts.fake()
+                )
+        );
+    }
+
+    @Test
+    default void testExpressionFunctionIfPresentSelectorWithNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunctionIfPresent(
+                    ExpressionFunctionSelector.parse(
+                        "selector",
+                        CaseSensitivity.INSENSITIVE
+                    ),
+                    null
+                )
+        );
+    }
+
+    @Test
+    default void testExpressionFunctionIfPresentNameWithNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunctionIfPresent(
+                    (ExpressionFunctionName) null,
+                    Lists.empty(),
+                    ProviderContexts.fake()
+                )
+        );
+    }
+
+    @Test
+    default void testExpressionFunctionIfPresentNameWithNullValuesFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunctionIfPresent(
+                    ExpressionFunctionName.with("dummy"),
+                    null,
+                    ProviderContexts.fake()
+                )
+        );
+    }
+
+    @Test
+    default void testExpressionFunctionIfPresentNameWithNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunctionIfPresent(
+                    ExpressionFunctionName.with("ignore"),
+                    Lists.empty(),
+                    null
+                )
+        );
+    }
+
+    default void expressionFunctionIfPresentAndCheck(final ExpressionFunctionSelector selector,
+                                                     final ProviderContext context) {
+        this.expressionFunctionIfPresentAndCheck(
+            this.createExpressionFunctionProvider(),
+            selector,
+            context,
+            Optional.empty()
+        );
+    }
+
+    default void expressionFunctionIfPresentAndCheck(final ExpressionFunctionSelector selector,
+                                                     final ProviderContext context,
+                                                     final ExpressionFunction<?, ?> expected) {
+        this.expressionFunctionIfPresentAndCheck(
+            this.createExpressionFunctionProvider(),
+            selector,
+            context,
+            Optional.of(expected)
+        );
+    }
+
+    default void expressionFunctionIfPresentAndCheck(final ExpressionFunctionProvider<C> provider,
+                                                     final ExpressionFunctionSelector selector,
+                                                     final ProviderContext context,
+                                                     final Optional<ExpressionFunction<?, ?>> expected) {
+        this.checkEquals(
+            expected,
+            provider.expressionFunctionIfPresent(
+                selector,
+                context
+            ),
+            () -> selector.toString()
+        );
+    }
+
+    default void expressionFunctionIfPresentAndCheck(final ExpressionFunctionName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context) {
+        this.expressionFunctionIfPresentAndCheck(
+            this.createExpressionFunctionProvider(),
+            name,
+            values,
+            context,
+            Optional.empty()
+        );
+    }
+
+    default void expressionFunctionIfPresentAndCheck(final ExpressionFunctionName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context,
+                                                     final ExpressionFunction<?, ?> expected) {
+        this.expressionFunctionIfPresentAndCheck(
+            this.createExpressionFunctionProvider(),
+            name,
+            values,
+            context,
+            Optional.of(expected)
+        );
+    }
+
+    default void expressionFunctionIfPresentAndCheck(final ExpressionFunctionProvider<C> provider,
+                                                     final ExpressionFunctionName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context,
+                                                     final Optional<ExpressionFunction<?, ?>> expected) {
+        this.checkEquals(
+            expected,
+            provider.expressionFunctionIfPresent(
+                name,
+                values,
+                context
+            ),
+            () -> name.toString()
+        );
+    }
+
+    // expressionFunctions..............................................................................................
+
+    @Test
+    default void testExpressionFunctionsWithNullNamesFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunctions(
+                    null,
+                    ProviderContexts.fake()
+                )
+        );
+    }
+
+    @Test
+    default void testExpressionFunctionsWithNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunctions(
+                    Lists.empty(),
+                    null
+                )
+        );
+    }
+
+    @Test
+    default void testExpressionFunctionsEmpty() {
+        this.expressionFunctionsAndCheck(
+            this.createExpressionFunctionProvider(),
+            Lists.empty(),
+            ProviderContexts.fake(),
+            Maps.empty()
+        );
+    }
+
+    default void expressionFunctionsFails(final ExpressionFunctionProvider<C> provider,
+                                          final Collection<ExpressionFunctionName> names,
+                                          final ProviderContext context) {
+        assertThrows(
+            UnknownExpressionFunctionException.class,
+            () -> provider.expressionFunctions(
+                names,
+                context
+            )
+        );
+    }
+
+    default void expressionFunctionsAndCheck(final Collection<ExpressionFunctionName> names,
+                                             final ProviderContext context,
+                                             final Map<ExpressionFunctionName, ExpressionFunction<?, ?>> expected) {
+        this.expressionFunctionsAndCheck(
+            this.createExpressionFunctionProvider(),
+            names,
+            context,
+            expected
+        );
+    }
+
+    default void expressionFunctionsAndCheck(final ExpressionFunctionProvider<C> provider,
+                                             final Collection<ExpressionFunctionName> names,
+                                             final ProviderContext context,
+                                             final Map<ExpressionFunctionName, ExpressionFunction<?, ?>> expected) {
+        this.checkEquals(
+            expected,
+            provider.expressionFunctions(
+                names,
+                context
+            ),
+            () -> names.toString()
+        );
+    }
+
     @Test
     default void testExpressionFunctionInfosReadOnly() {
         assertThrows(
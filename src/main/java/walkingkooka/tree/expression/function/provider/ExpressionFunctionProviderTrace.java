@@ -0,0 +1,182 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.text.printer.IndentingPrinter;
+import walkingkooka.text.printer.TreePrintable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A single lookup by a traced {@link ExpressionFunctionProvider}, with the lookups of any traced providers it called.
+ */
+public final class ExpressionFunctionProviderTrace implements TreePrintable {
+
+    static ExpressionFunctionProviderTrace with(final String provider,
+                                                final String input,
+                                                final CaseSensitivity caseSensitivity,
+                                                final Optional<String> output,
+                                                final long nanos,
+                                                final List<ExpressionFunctionProviderTrace> children) {
+        return new ExpressionFunctionProviderTrace(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(input, "input"),
+            Objects.requireNonNull(caseSensitivity, "caseSensitivity"),
+            Objects.requireNonNull(output, "output"),
+            nanos,
+            Lists.immutable(
+                Objects.requireNonNull(children, "children")
+            )
+        );
+    }
+
+    private ExpressionFunctionProviderTrace(final String provider,
+                                            final String input,
+                                            final CaseSensitivity caseSensitivity,
+                                            final Optional<String> output,
+                                            final long nanos,
+                                            final List<ExpressionFunctionProviderTrace> children) {
+        this.provider = provider;
+        this.input = input;
+        this.caseSensitivity = caseSensitivity;
+        this.output = output;
+        this.nanos = nanos;
+        this.children = children;
+    }
+
+    /**
+     * The simple class name of the traced provider.
+     */
+    public String provider() {
+        return this.provider;
+    }
+
+    private final String provider;
+
+    /**
+     * The name, selector or names that were looked up.
+     */
+    public String input() {
+        return this.input;
+    }
+
+    private final String input;
+
+    /**
+     * The {@link CaseSensitivity} of the name that was looked up.
+     */
+    public CaseSensitivity caseSensitivity() {
+        return this.caseSensitivity;
+    }
+
+    private final CaseSensitivity caseSensitivity;
+
+    /**
+     * The name of the returned function or functions, empty if the lookup failed or returned nothing.
+     */
+    public Optional<String> output() {
+        return this.output;
+    }
+
+    private final Optional<String> output;
+
+    /**
+     * The total time taken, including the time of all {@link #children()}.
+     */
+    public long nanos() {
+        return this.nanos;
+    }
+
+    private final long nanos;
+
+    /**
+     * The lookups by other traced providers performed during this lookup.
+     */
+    public List<ExpressionFunctionProviderTrace> children() {
+        return this.children;
+    }
+
+    private final List<ExpressionFunctionProviderTrace> children;
+
+    // TreePrintable....................................................................................................
+
+    @Override
+    public void printTree(final IndentingPrinter printer) {
+        printer.println(
+            this.provider +
+                " " +
+                this.input +
+                " (" +
+                this.caseSensitivity +
+                ") -> " +
+                this.output.orElse("?") +
+                " " +
+                this.nanos +
+                "ns"
+        );
+
+        printer.indent();
+        {
+            for (final ExpressionFunctionProviderTrace child : this.children) {
+                child.printTree(printer);
+            }
+        }
+        printer.outdent();
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            this.provider,
+            this.input,
+            this.caseSensitivity,
+            this.output,
+            this.nanos,
+            this.children
+        );
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other || other instanceof ExpressionFunctionProviderTrace && this.equals0(Cast.to(other));
+    }
+
+    private boolean equals0(final ExpressionFunctionProviderTrace other) {
+        return this.provider.equals(other.provider) &&
+            this.input.equals(other.input) &&
+            this.caseSensitivity == other.caseSensitivity &&
+            this.output.equals(other.output) &&
+            this.nanos == other.nanos &&
+            this.children.equals(other.children);
+    }
+
+    @Override
+    public String toString() {
+        return this.treeToString(
+            "  ",
+            "\n"
+        );
+    }
+}
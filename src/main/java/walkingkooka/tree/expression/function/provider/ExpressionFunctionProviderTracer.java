@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.text.CaseSensitivity;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Collects the {@link ExpressionFunctionProviderTrace} of traced providers, see {@link ExpressionFunctionProviders#traced(ExpressionFunctionProvider, ExpressionFunctionProviderTracer)}.
+ * Wrapping each layer of a provider chain with the same tracer records each lookup as a tree, with each layer a child
+ * of the layer that called it.
+ * <br>
+ * A tracer is not thread safe and should only be used by a single thread, typically while diagnosing a single lookup.
+ */
+public final class ExpressionFunctionProviderTracer {
+
+    public static ExpressionFunctionProviderTracer empty() {
+        return new ExpressionFunctionProviderTracer();
+    }
+
+    private ExpressionFunctionProviderTracer() {
+        super();
+    }
+
+    /**
+     * Starts a new lookup, which will become the parent of any lookups started before {@link #end(String, String, CaseSensitivity, Optional, long)}.
+     */
+    void begin() {
+        this.stack.add(
+            Lists.array()
+        );
+    }
+
+    /**
+     * Completes the most recent lookup started by {@link #begin()}.
+     */
+    void end(final String provider,
+             final String input,
+             final CaseSensitivity caseSensitivity,
+             final Optional<String> output,
+             final long nanos) {
+        final List<List<ExpressionFunctionProviderTrace>> stack = this.stack;
+        final List<ExpressionFunctionProviderTrace> children = stack.remove(stack.size() - 1);
+
+        final ExpressionFunctionProviderTrace trace = ExpressionFunctionProviderTrace.with(
+            provider,
+            input,
+            caseSensitivity,
+            output,
+            nanos,
+            children
+        );
+
+        (stack.isEmpty() ? this.traces : stack.get(stack.size() - 1)).add(trace);
+    }
+
+    /**
+     * The children of lookups that have begun but not ended.
+     */
+    private final List<List<ExpressionFunctionProviderTrace>> stack = Lists.array();
+
+    /**
+     * Returns all completed outermost lookups in the order they completed.
+     */
+    public List<ExpressionFunctionProviderTrace> traces() {
+        return Lists.readOnly(this.traces);
+    }
+
+    /**
+     * Removes all completed lookups.
+     */
+    public void clear() {
+        this.traces.clear();
+    }
+
+    private final List<ExpressionFunctionProviderTrace> traces = Lists.array();
+
+    @Override
+    public String toString() {
+        return this.traces.toString();
+    }
+}
@@ -19,12 +19,17 @@ package walkingkooka.tree.expression.function.provider;
 
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
 import walkingkooka.reflect.PublicStaticHelper;
 import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.Expression;
 import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public final class ExpressionFunctionProviders implements PublicStaticHelper {
 
@@ -60,6 +65,30 @@ public final class ExpressionFunctionProviders implements PublicStaticHelper {
         );
     }
 
+    /**
+     * {@see BoundExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> ExpressionFunctionProvider<C> bind(final Expression expression,
+                                                                                             final ExpressionFunctionProvider<C> provider,
+                                                                                             final ProviderContext context) {
+        return BoundExpressionFunctionProvider.with(
+            expression,
+            provider,
+            context
+        );
+    }
+
+    /**
+     * {@see CachingExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> CachingExpressionFunctionProvider<C> cache(final ExpressionFunctionProvider<C> provider,
+                                                                                                     final int maxEntries) {
+        return CachingExpressionFunctionProvider.with(
+            provider,
+            maxEntries
+        );
+    }
+
     /**
      * {@see ExpressionFunctionProviderCollection}
      */
@@ -71,6 +100,17 @@ public final class ExpressionFunctionProviders implements PublicStaticHelper {
         );
     }
 
+    /**
+     * {@see CompiledExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> ExpressionFunctionProvider<C> compile(final ExpressionFunctionProvider<C> provider,
+                                                                                                final ProviderContext context) {
+        return CompiledExpressionFunctionProvider.with(
+            provider,
+            context
+        );
+    }
+
     /**
      * {@see EmptyExpressionFunctionProvider}
      */
@@ -114,6 +154,30 @@ public final class ExpressionFunctionProviders implements PublicStaticHelper {
         );
     }
 
+    /**
+     * {@see LazyExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> ExpressionFunctionProvider<C> lazy(final CaseSensitivity expressionFunctionNameCaseSensitivity,
+                                                                                             final Supplier<ExpressionFunctionProvider<C>> provider) {
+        return LazyExpressionFunctionProvider.with(
+            expressionFunctionNameCaseSensitivity,
+            provider
+        );
+    }
+
+    /**
+     * {@see LazyBasicExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> ExpressionFunctionProvider<C> lazyBasic(final AbsoluteUrl baseUrl,
+                                                                                                  final CaseSensitivity nameCaseSensitivity,
+                                                                                                  final Map<ExpressionFunctionName, Supplier<ExpressionFunction<?, C>>> functions) {
+        return LazyBasicExpressionFunctionProvider.with(
+            baseUrl,
+            nameCaseSensitivity,
+            functions
+        );
+    }
+
     /**
      * {@see MergedMappedExpressionFunctionProvider}
      */
@@ -125,6 +189,46 @@ public final class ExpressionFunctionProviders implements PublicStaticHelper {
         );
     }
 
+    /**
+     * {@see MeteredExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> ExpressionFunctionProvider<C> metered(final ExpressionFunctionProvider<C> provider,
+                                                                                                final ExpressionFunctionProviderMetrics metrics) {
+        return MeteredExpressionFunctionProvider.with(
+            provider,
+            metrics
+        );
+    }
+
+    /**
+     * {@see RegistryExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> RegistryExpressionFunctionProvider<C> registry(final AbsoluteUrl baseUrl,
+                                                                                                         final CaseSensitivity nameCaseSensitivity) {
+        return RegistryExpressionFunctionProvider.with(
+            baseUrl,
+            nameCaseSensitivity
+        );
+    }
+
+    /**
+     * {@see SwappableExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> SwappableExpressionFunctionProvider<C> swappable(final ExpressionFunctionProvider<C> provider) {
+        return SwappableExpressionFunctionProvider.with(provider);
+    }
+
+    /**
+     * {@see TracedExpressionFunctionProvider}
+     */
+    public static <C extends ExpressionEvaluationContext> ExpressionFunctionProvider<C> traced(final ExpressionFunctionProvider<C> provider,
+                                                                                               final ExpressionFunctionProviderTracer tracer) {
+        return TracedExpressionFunctionProvider.with(
+            provider,
+            tracer
+        );
+    }
+
     /**
      * Stop creation
      */
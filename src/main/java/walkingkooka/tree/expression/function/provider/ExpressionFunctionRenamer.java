@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.Cast;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Remembers the result of {@link ExpressionFunction#setName(Optional)} for each name, so providers that rename the
+ * functions of another provider return the same renamed {@link ExpressionFunction} for repeated lookups.
+ * <br>
+ * A remembered function is replaced when the wrapped provider returns a different {@link ExpressionFunction} for the
+ * same name.
+ * <br>
+ * Renamed functions are held in a fixed table of slots selected by the hash of the name, sized from the number of
+ * names the provider expects. A new name replaces whatever was remembered in its slot, so unknown names only ever evict
+ * other entries for a while and never stop real names being remembered.
+ * <br>
+ * A renamer is created together with the names of the provider that owns it and is never resized. Providers that
+ * rename never change their names after creation, to follow a wrapped provider that changes they are created again,
+ * which also creates a new renamer sized for the new names.
+ */
+final class ExpressionFunctionRenamer<C extends ExpressionEvaluationContext> {
+
+    /**
+     * The maximum number of slots.
+     */
+    final static int MAX_SIZE = 4096;
+
+    /**
+     * Creates a renamer with enough slots for the given number of names, up to {@link #MAX_SIZE}.
+     */
+    static <C extends ExpressionEvaluationContext> ExpressionFunctionRenamer<C> with(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Invalid expectedSize " + expectedSize + " < 0");
+        }
+
+        return new ExpressionFunctionRenamer<>(expectedSize);
+    }
+
+    private ExpressionFunctionRenamer(final int expectedSize) {
+        // leave room so a few colliding names do not keep evicting each other
+        int size = 2;
+        while (size < expectedSize * 2 && size < MAX_SIZE) {
+            size = size * 2;
+        }
+
+        this.slots = new Object[size];
+    }
+
+    /**
+     * Returns the given {@link ExpressionFunction} with the given name, reusing the previous result if the function
+     * is unchanged.
+     */
+    ExpressionFunction<?, C> setName(final ExpressionFunctionName name,
+                                     final ExpressionFunction<?, C> function) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(function, "function");
+
+        final Object[] slots = this.slots;
+        final int slot = slot(
+            name.value(),
+            slots.length
+        );
+
+        final ExpressionFunctionRenamerEntry<C> entry = Cast.to(slots[slot]);
+
+        final ExpressionFunction<?, C> renamed;
+        if (null != entry && entry.isSame(name, function)) {
+            renamed = entry.renamed;
+        } else {
+            renamed = function.setName(
+                Optional.of(name)
+            );
+
+            // entries are immutable, so racing threads at worst replace an equal entry
+            slots[slot] = new ExpressionFunctionRenamerEntry<>(
+                name,
+                function,
+                renamed
+            );
+        }
+
+        return renamed;
+    }
+
+    private static int slot(final String text,
+                            final int length) {
+        final int hash = text.hashCode();
+
+        // spread the high bits so the mask uses them
+        return (hash ^ (hash >>> 16)) & (length - 1);
+    }
+
+    /**
+     * Holds {@link ExpressionFunctionRenamerEntry} or null.
+     */
+    private final Object[] slots;
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        String separator = "";
+
+        for (final Object entry : this.slots) {
+            if (null != entry) {
+                b.append(separator)
+                    .append(entry);
+                separator = ", ";
+            }
+        }
+
+        return b.toString();
+    }
+}
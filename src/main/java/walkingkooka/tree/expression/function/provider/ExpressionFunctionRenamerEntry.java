@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+
+/**
+ * A single remembered renamed {@link ExpressionFunction} within a {@link ExpressionFunctionRenamer}.
+ */
+final class ExpressionFunctionRenamerEntry<C extends ExpressionEvaluationContext> {
+
+    ExpressionFunctionRenamerEntry(final ExpressionFunctionName name,
+                                   final ExpressionFunction<?, C> function,
+                                   final ExpressionFunction<?, C> renamed) {
+        this.name = name;
+        this.function = function;
+        this.renamed = renamed;
+    }
+
+    /**
+     * Only returns true if the function is the same instance and the name has the same text and case sensitivity.
+     */
+    boolean isSame(final ExpressionFunctionName name,
+                   final ExpressionFunction<?, C> function) {
+        final ExpressionFunctionName entryName = this.name;
+
+        return this.function == function &&
+            (entryName == name ||
+                entryName.caseSensitivity() == name.caseSensitivity() &&
+                    entryName.value().equals(name.value()));
+    }
+
+    private final ExpressionFunctionName name;
+
+    private final ExpressionFunction<?, C> function;
+
+    final ExpressionFunction<?, C> renamed;
+
+    @Override
+    public String toString() {
+        return this.renamed.toString();
+    }
+}
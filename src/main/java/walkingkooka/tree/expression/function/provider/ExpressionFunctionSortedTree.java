@@ -0,0 +1,480 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.Cast;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable sorted set of elements held in a balanced AVL tree. Adding or removing an element copies only the
+ * nodes on the path from the root to that element, so each edit costs <code>O(log n)</code> time and memory and shares
+ * all other nodes with the previous tree.
+ * <br>
+ * Elements are compared only by the {@link Comparator}, like a {@link java.util.TreeSet}.
+ */
+final class ExpressionFunctionSortedTree<T> {
+
+    static <T> ExpressionFunctionSortedTree<T> empty(final Comparator<? super T> comparator) {
+        return new ExpressionFunctionSortedTree<>(
+            Objects.requireNonNull(comparator, "comparator"),
+            null
+        );
+    }
+
+    /**
+     * Builds a balanced tree in <code>O(n)</code> when the elements are already sorted without duplicates, otherwise
+     * each element is added one at a time.
+     */
+    static <T> ExpressionFunctionSortedTree<T> with(final Iterable<T> elements,
+                                                    final Comparator<? super T> comparator) {
+        Objects.requireNonNull(elements, "elements");
+        Objects.requireNonNull(comparator, "comparator");
+
+        int count = 0;
+        Object[] array = new Object[16];
+        T previous = null;
+        boolean sorted = true;
+
+        for (final T element : elements) {
+            if (sorted && count > 0 && comparator.compare(previous, element) >= 0) {
+                sorted = false;
+            }
+            if (count == array.length) {
+                final Object[] copy = new Object[count * 2];
+                System.arraycopy(array, 0, copy, 0, count);
+                array = copy;
+            }
+            array[count++] = element;
+            previous = element;
+        }
+
+        ExpressionFunctionSortedTree<T> tree;
+        if (sorted) {
+            tree = sorted(
+                array,
+                count,
+                comparator
+            );
+        } else {
+            tree = empty(comparator);
+            for (int i = 0; i < count; i++) {
+                final T element = Cast.to(array[i]);
+                tree = tree.add(element);
+            }
+        }
+
+        return tree;
+    }
+
+    /**
+     * Builds a balanced tree in <code>O(n)</code> from the first count elements of the array, which must already be
+     * sorted without duplicates.
+     */
+    static <T> ExpressionFunctionSortedTree<T> sorted(final Object[] elements,
+                                                      final int count,
+                                                      final Comparator<? super T> comparator) {
+        return new ExpressionFunctionSortedTree<>(
+            Objects.requireNonNull(comparator, "comparator"),
+            build(
+                elements,
+                0,
+                count
+            )
+        );
+    }
+
+    private static <T> ExpressionFunctionSortedTreeNode<T> build(final Object[] sorted,
+                                                                 final int from,
+                                                                 final int to) {
+        final ExpressionFunctionSortedTreeNode<T> node;
+        if (from >= to) {
+            node = null;
+        } else {
+            final int middle = (from + to) >>> 1;
+            final T value = Cast.to(sorted[middle]);
+
+            node = ExpressionFunctionSortedTreeNode.with(
+                build(
+                    sorted,
+                    from,
+                    middle
+                ),
+                value,
+                build(
+                    sorted,
+                    middle + 1,
+                    to
+                )
+            );
+        }
+        return node;
+    }
+
+    private ExpressionFunctionSortedTree(final Comparator<? super T> comparator,
+                                         final ExpressionFunctionSortedTreeNode<T> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    /**
+     * Returns the element comparing equal to the given element or null.
+     */
+    T get(final T element) {
+        final Comparator<? super T> comparator = this.comparator;
+
+        ExpressionFunctionSortedTreeNode<T> node = this.root;
+        while (null != node) {
+            final int compare = comparator.compare(
+                element,
+                node.value
+            );
+            if (0 == compare) {
+                return node.value;
+            }
+            node = compare < 0 ?
+                node.left :
+                node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the greatest element less than the given element or null.
+     */
+    T lower(final T element) {
+        final Comparator<? super T> comparator = this.comparator;
+
+        T lower = null;
+        ExpressionFunctionSortedTreeNode<T> node = this.root;
+        while (null != node) {
+            if (comparator.compare(node.value, element) < 0) {
+                lower = node.value;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * Returns the least element greater than the given element or null.
+     */
+    T higher(final T element) {
+        final Comparator<? super T> comparator = this.comparator;
+
+        T higher = null;
+        ExpressionFunctionSortedTreeNode<T> node = this.root;
+        while (null != node) {
+            if (comparator.compare(node.value, element) > 0) {
+                higher = node.value;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return higher;
+    }
+
+    /**
+     * Returns a tree with the given element, or this tree if an element comparing equal is already present.
+     */
+    ExpressionFunctionSortedTree<T> add(final T element) {
+        Objects.requireNonNull(element, "element");
+
+        final ExpressionFunctionSortedTreeNode<T> root = this.root;
+        final ExpressionFunctionSortedTreeNode<T> added = add(
+            root,
+            element,
+            this.comparator
+        );
+        return root == added ?
+            this :
+            new ExpressionFunctionSortedTree<>(
+                this.comparator,
+                added
+            );
+    }
+
+    private static <T> ExpressionFunctionSortedTreeNode<T> add(final ExpressionFunctionSortedTreeNode<T> node,
+                                                               final T element,
+                                                               final Comparator<? super T> comparator) {
+        final ExpressionFunctionSortedTreeNode<T> added;
+
+        if (null == node) {
+            added = ExpressionFunctionSortedTreeNode.with(
+                null,
+                element,
+                null
+            );
+        } else {
+            final int compare = comparator.compare(
+                element,
+                node.value
+            );
+            if (compare < 0) {
+                final ExpressionFunctionSortedTreeNode<T> left = add(
+                    node.left,
+                    element,
+                    comparator
+                );
+                added = left == node.left ?
+                    node :
+                    ExpressionFunctionSortedTreeNode.balance(
+                        left,
+                        node.value,
+                        node.right
+                    );
+            } else if (compare > 0) {
+                final ExpressionFunctionSortedTreeNode<T> right = add(
+                    node.right,
+                    element,
+                    comparator
+                );
+                added = right == node.right ?
+                    node :
+                    ExpressionFunctionSortedTreeNode.balance(
+                        node.left,
+                        node.value,
+                        right
+                    );
+            } else {
+                added = node;
+            }
+        }
+
+        return added;
+    }
+
+    /**
+     * Returns a tree without the element comparing equal to the given element, or this tree if none is present.
+     */
+    ExpressionFunctionSortedTree<T> remove(final T element) {
+        Objects.requireNonNull(element, "element");
+
+        final ExpressionFunctionSortedTreeNode<T> root = this.root;
+        final ExpressionFunctionSortedTreeNode<T> removed = remove(
+            root,
+            element,
+            this.comparator
+        );
+        return root == removed ?
+            this :
+            new ExpressionFunctionSortedTree<>(
+                this.comparator,
+                removed
+            );
+    }
+
+    private static <T> ExpressionFunctionSortedTreeNode<T> remove(final ExpressionFunctionSortedTreeNode<T> node,
+                                                                  final T element,
+                                                                  final Comparator<? super T> comparator) {
+        final ExpressionFunctionSortedTreeNode<T> removed;
+
+        if (null == node) {
+            removed = null;
+        } else {
+            final int compare = comparator.compare(
+                element,
+                node.value
+            );
+            if (compare < 0) {
+                final ExpressionFunctionSortedTreeNode<T> left = remove(
+                    node.left,
+                    element,
+                    comparator
+                );
+                removed = left == node.left ?
+                    node :
+                    ExpressionFunctionSortedTreeNode.balance(
+                        left,
+                        node.value,
+                        node.right
+                    );
+            } else if (compare > 0) {
+                final ExpressionFunctionSortedTreeNode<T> right = remove(
+                    node.right,
+                    element,
+                    comparator
+                );
+                removed = right == node.right ?
+                    node :
+                    ExpressionFunctionSortedTreeNode.balance(
+                        node.left,
+                        node.value,
+                        right
+                    );
+            } else if (null == node.left) {
+                removed = node.right;
+            } else if (null == node.right) {
+                removed = node.left;
+            } else {
+                ExpressionFunctionSortedTreeNode<T> least = node.right;
+                while (null != least.left) {
+                    least = least.left;
+                }
+
+                removed = ExpressionFunctionSortedTreeNode.balance(
+                    node.left,
+                    least.value,
+                    removeLeast(node.right)
+                );
+            }
+        }
+
+        return removed;
+    }
+
+    private static <T> ExpressionFunctionSortedTreeNode<T> removeLeast(final ExpressionFunctionSortedTreeNode<T> node) {
+        return null == node.left ?
+            node.right :
+            ExpressionFunctionSortedTreeNode.balance(
+                removeLeast(node.left),
+                node.value,
+                node.right
+            );
+    }
+
+    /**
+     * Returns a tree with the elements from the given lower bound inclusive up to the given upper bound exclusive,
+     * where a null bound is unbounded. Only the <code>k</code> elements in range are visited, and they are copied into
+     * a new balanced tree in <code>O(k + log n)</code>. This tree is returned when every element is in range.
+     */
+    ExpressionFunctionSortedTree<T> range(final T from,
+                                          final T to) {
+        final List<T> elements = new ArrayList<>();
+        range(
+            this.root,
+            from,
+            to,
+            this.comparator,
+            elements
+        );
+
+        final int count = elements.size();
+        return this.size() == count ?
+            this :
+            new ExpressionFunctionSortedTree<>(
+                this.comparator,
+                build(
+                    elements.toArray(),
+                    0,
+                    count
+                )
+            );
+    }
+
+    private static <T> void range(final ExpressionFunctionSortedTreeNode<T> node,
+                                  final T from,
+                                  final T to,
+                                  final Comparator<? super T> comparator,
+                                  final List<T> elements) {
+        if (null != node) {
+            final T value = node.value;
+            final boolean afterFrom = null == from || comparator.compare(value, from) >= 0;
+            final boolean beforeTo = null == to || comparator.compare(value, to) < 0;
+
+            if (afterFrom) {
+                range(
+                    node.left,
+                    from,
+                    to,
+                    comparator,
+                    elements
+                );
+            }
+            if (afterFrom && beforeTo) {
+                elements.add(value);
+            }
+            if (beforeTo) {
+                range(
+                    node.right,
+                    from,
+                    to,
+                    comparator,
+                    elements
+                );
+            }
+        }
+    }
+
+    int size() {
+        return ExpressionFunctionSortedTreeNode.size(this.root);
+    }
+
+    // @VisibleForTesting
+    int height() {
+        return ExpressionFunctionSortedTreeNode.height(this.root);
+    }
+
+    boolean isEmpty() {
+        return null == this.root;
+    }
+
+    T first() {
+        ExpressionFunctionSortedTreeNode<T> node = this.root;
+        if (null == node) {
+            return null;
+        }
+        while (null != node.left) {
+            node = node.left;
+        }
+        return node.value;
+    }
+
+    T last() {
+        ExpressionFunctionSortedTreeNode<T> node = this.root;
+        if (null == node) {
+            return null;
+        }
+        while (null != node.right) {
+            node = node.right;
+        }
+        return node.value;
+    }
+
+    Iterator<T> iterator() {
+        return new ExpressionFunctionSortedTreeIterator<>(this.root);
+    }
+
+    final Comparator<? super T> comparator;
+
+    /**
+     * The root node, null when the tree is empty.
+     */
+    private final ExpressionFunctionSortedTreeNode<T> root;
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        String separator = "";
+
+        final Iterator<T> iterator = this.iterator();
+        while (iterator.hasNext()) {
+            b.append(separator)
+                .append(iterator.next());
+            separator = ", ";
+        }
+
+        return b.toString();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.Cast;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link Iterator} returning the elements of a {@link ExpressionFunctionSortedTree} in order. The stack holds the
+ * nodes whose value and right subtree are still to be visited, and never needs more slots than the tree height.
+ */
+final class ExpressionFunctionSortedTreeIterator<T> implements Iterator<T> {
+
+    ExpressionFunctionSortedTreeIterator(final ExpressionFunctionSortedTreeNode<T> root) {
+        this.stack = new Object[ExpressionFunctionSortedTreeNode.height(root)];
+        this.pushLeft(root);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.top > 0;
+    }
+
+    @Override
+    public T next() {
+        if (0 == this.top) {
+            throw new NoSuchElementException();
+        }
+
+        this.top--;
+        final ExpressionFunctionSortedTreeNode<T> node = Cast.to(this.stack[this.top]);
+        this.stack[this.top] = null;
+
+        this.pushLeft(node.right);
+        return node.value;
+    }
+
+    private void pushLeft(final ExpressionFunctionSortedTreeNode<T> node) {
+        ExpressionFunctionSortedTreeNode<T> push = node;
+        while (null != push) {
+            this.stack[this.top++] = push;
+            push = push.left;
+        }
+    }
+
+    /**
+     * Holds {@link ExpressionFunctionSortedTreeNode}.
+     */
+    private final Object[] stack;
+
+    private int top;
+
+    @Override
+    public String toString() {
+        return this.hasNext() ?
+            String.valueOf(
+                ((ExpressionFunctionSortedTreeNode<?>) this.stack[this.top - 1]).value
+            ) :
+            "";
+    }
+}
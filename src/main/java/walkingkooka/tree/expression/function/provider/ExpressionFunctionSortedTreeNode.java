@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package walkingkooka.tree.expression.function.provider;
+
+/**
+ * An immutable node within a {@link ExpressionFunctionSortedTree}, holding the height and size of its subtree.
+ */
+final class ExpressionFunctionSortedTreeNode<T> {
+
+    static <T> ExpressionFunctionSortedTreeNode<T> with(final ExpressionFunctionSortedTreeNode<T> left,
+                                                         final T value,
+                                                         final ExpressionFunctionSortedTreeNode<T> right) {
+        return new ExpressionFunctionSortedTreeNode<>(
+            left,
+            value,
+            right
+        );
+    }
+
+    /**
+     * Creates a node with the given children, rotating once or twice if their heights differ by more than one.
+     */
+    static <T> ExpressionFunctionSortedTreeNode<T> balance(final ExpressionFunctionSortedTreeNode<T> left,
+                                                            final T value,
+                                                            final ExpressionFunctionSortedTreeNode<T> right) {
+        final int leftHeight = height(left);
+        final int rightHeight = height(right);
+
+        final ExpressionFunctionSortedTreeNode<T> node;
+
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left) >= height(left.right)) {
+                node = with(
+                    left.left,
+                    left.value,
+                    with(
+                        left.right,
+                        value,
+                        right
+                    )
+                );
+            } else {
+                final ExpressionFunctionSortedTreeNode<T> leftRight = left.right;
+                node = with(
+                    with(
+                        left.left,
+                        left.value,
+                        leftRight.left
+                    ),
+                    leftRight.value,
+                    with(
+                        leftRight.right,
+                        value,
+                        right
+                    )
+                );
+            }
+        } else if (rightHeight > leftHeight + 1) {
+            if (height(right.right) >= height(right.left)) {
+                node = with(
+                    with(
+                        left,
+                        value,
+                        right.left
+                    ),
+                    right.value,
+                    right.right
+                );
+            } else {
+                final ExpressionFunctionSortedTreeNode<T> rightLeft = right.left;
+                node = with(
+                    with(
+                        left,
+                        value,
+                        rightLeft.left
+                    ),
+                    rightLeft.value,
+                    with(
+                        rightLeft.right,
+                        right.value,
+                        right.right
+                    )
+                );
+            }
+        } else {
+            node = with(
+                left,
+                value,
+                right
+            );
+        }
+
+        return node;
+    }
+
+    static int height(final ExpressionFunctionSortedTreeNode<?> node) {
+        return null == node ?
+            0 :
+            node.height;
+    }
+
+    static int size(final ExpressionFunctionSortedTreeNode<?> node) {
+        return null == node ?
+            0 :
+            node.size;
+    }
+
+    private ExpressionFunctionSortedTreeNode(final ExpressionFunctionSortedTreeNode<T> left,
+                                             final T value,
+                                             final ExpressionFunctionSortedTreeNode<T> right) {
+        this.left = left;
+        this.value = value;
+        this.right = right;
+        this.height = 1 + Math.max(
+            height(left),
+            height(right)
+        );
+        this.size = 1 + size(left) + size(right);
+    }
+
+    final ExpressionFunctionSortedTreeNode<T> left;
+
+    final T value;
+
+    final ExpressionFunctionSortedTreeNode<T> right;
+
+    final int height;
+
+    final int size;
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.value);
+    }
+}
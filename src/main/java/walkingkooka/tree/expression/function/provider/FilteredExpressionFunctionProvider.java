@@ -23,9 +23,13 @@ import walkingkooka.text.CaseSensitivity;
 import walkingkooka.tree.expression.ExpressionEvaluationContext;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * A {@link ExpressionFunctionProvider} that provides functions from one provider but lists more {@link ExpressionFunctionInfo}.
@@ -48,6 +52,10 @@ final class FilteredExpressionFunctionProvider<C extends ExpressionEvaluationCon
         );
         this.provider = provider;
         this.infos = infos;
+        this.names = ExpressionFunctionNameIndex.names(
+            infos.names(),
+            provider.expressionFunctionNameCaseSensitivity()
+        );
     }
 
     @Override
@@ -65,15 +73,78 @@ final class FilteredExpressionFunctionProvider<C extends ExpressionEvaluationCon
                                                        final ProviderContext context) {
         return this.provider.expressionFunction(
             this.guard.name(
-                name.setCaseSensitivity(this.expressionFunctionNameCaseSensitivity())
+                ExpressionFunctionNameInterner.intern(
+                    name,
+                    this.expressionFunctionNameCaseSensitivity()
+                )
             ),
             Objects.requireNonNull(values, "values"),
             Objects.requireNonNull(context, "context")
         );
     }
 
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        // only unknown names are empty, everything else is checked by the guard like expressionFunction
+        return this.names.contains(selector.name()) ?
+            this.provider.expressionFunctionIfPresent(
+                this.guard.selector(selector),
+                context
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return this.names.contains(name) ?
+            this.provider.expressionFunctionIfPresent(
+                this.guard.name(
+                    ExpressionFunctionNameInterner.intern(
+                        name,
+                        this.expressionFunctionNameCaseSensitivity()
+                    )
+                ),
+                values,
+                context
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        for (final ExpressionFunctionName name : names) {
+            if (false == this.names.contains(name)) {
+                throw new UnknownExpressionFunctionException(name);
+            }
+        }
+
+        return this.provider.expressionFunctions(
+            names,
+            context
+        );
+    }
+
     private final FilteredProviderGuard<ExpressionFunctionName, ExpressionFunctionSelector> guard;
 
+    /**
+     * The names of all {@link #infos}, used to detect unknown names without throwing.
+     */
+    private final ExpressionFunctionNameIndex<ExpressionFunctionName> names;
+
     private final ExpressionFunctionProvider<C> provider;
 
     @Override
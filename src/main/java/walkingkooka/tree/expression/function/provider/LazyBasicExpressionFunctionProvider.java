@@ -0,0 +1,247 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.collect.set.SortedSets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.UrlPath;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link ExpressionFunctionProvider} similar to {@link BasicExpressionFunctionProvider} but accepting a
+ * {@link Supplier} for each {@link ExpressionFunctionName}. The {@link ExpressionFunctionInfoSet} is built from the names
+ * alone, and each {@link ExpressionFunction} is only created the first time it is requested, which is useful for large
+ * catalogs where only a few functions are used.
+ */
+final class LazyBasicExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
+
+    static <C extends ExpressionEvaluationContext> LazyBasicExpressionFunctionProvider<C> with(final AbsoluteUrl baseUrl,
+                                                                                               final CaseSensitivity nameCaseSensitivity,
+                                                                                               final Map<ExpressionFunctionName, Supplier<ExpressionFunction<?, C>>> functions) {
+        return new LazyBasicExpressionFunctionProvider<>(
+            Objects.requireNonNull(baseUrl, "baseUrl"),
+            Objects.requireNonNull(nameCaseSensitivity, "nameCaseSensitivity"),
+            Objects.requireNonNull(functions, "functions")
+        );
+    }
+
+    private LazyBasicExpressionFunctionProvider(final AbsoluteUrl baseUrl,
+                                                final CaseSensitivity nameCaseSensitivity,
+                                                final Map<ExpressionFunctionName, Supplier<ExpressionFunction<?, C>>> functions) {
+        if (functions.isEmpty()) {
+            throw new IllegalArgumentException("Functions cannot be empty");
+        }
+
+        this.nameCaseSensitivity = nameCaseSensitivity;
+
+        final ExpressionFunctionNameIndex<LazyBasicExpressionFunctionProviderEntry<C>> nameToEntry = ExpressionFunctionNameIndex.with(
+            nameCaseSensitivity,
+            functions.size()
+        );
+        final SortedSet<ExpressionFunctionName> names = SortedSets.tree(
+            ExpressionFunctionName.comparator(nameCaseSensitivity)
+        );
+        final SortedSet<ExpressionFunctionInfo> infos = SortedSets.tree();
+
+        for (final Map.Entry<ExpressionFunctionName, Supplier<ExpressionFunction<?, C>>> nameAndSupplier : functions.entrySet()) {
+            final ExpressionFunctionName name = Objects.requireNonNull(
+                nameAndSupplier.getKey(),
+                "name"
+            );
+            final ExpressionFunctionName nameWithCaseSensitivity = ExpressionFunctionNameInterner.intern(
+                name,
+                nameCaseSensitivity
+            );
+
+            final LazyBasicExpressionFunctionProviderEntry<C> duplicate = nameToEntry.put(
+                nameWithCaseSensitivity,
+                new LazyBasicExpressionFunctionProviderEntry<>(
+                    nameWithCaseSensitivity,
+                    Objects.requireNonNull(
+                        nameAndSupplier.getValue(),
+                        "supplier"
+                    )
+                )
+            );
+
+            if (null != duplicate) {
+                throw new IllegalArgumentException("Duplicate function " + name);
+            }
+
+            names.add(nameWithCaseSensitivity);
+            infos.add(
+                ExpressionFunctionInfo.with(
+                    baseUrl.appendPath(
+                        UrlPath.parse(
+                            name.value()
+                        )
+                    ),
+                    nameWithCaseSensitivity
+                )
+            );
+        }
+
+        this.nameToEntry = nameToEntry;
+        this.names = names;
+
+        this.expressionFunctionInfos = ExpressionFunctionInfoSet.with(
+            Sets.readOnly(infos),
+            nameCaseSensitivity
+        );
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return selector.evaluateValueText(
+            this,
+            context
+        );
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionName name,
+                                                       final List<?> values,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final LazyBasicExpressionFunctionProviderEntry<C> entry = this.nameToEntry.get(name);
+        if (null == entry) {
+            throw new UnknownExpressionFunctionException(name);
+        }
+        return entry.function();
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return this.nameToEntry.contains(selector.name()) ?
+            Optional.of(
+                selector.evaluateValueText(
+                    this,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final LazyBasicExpressionFunctionProviderEntry<C> entry = this.nameToEntry.get(name);
+        return null != entry ?
+            Optional.of(
+                entry.function()
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionNameIndex<LazyBasicExpressionFunctionProviderEntry<C>> nameToEntry = this.nameToEntry;
+
+        // check all names before creating any function
+        for (final ExpressionFunctionName name : names) {
+            if (false == nameToEntry.contains(name)) {
+                throw new UnknownExpressionFunctionException(name);
+            }
+        }
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(this.nameCaseSensitivity)
+        );
+
+        // key by the name with the provider case sensitivity, not the given name
+        for (final ExpressionFunctionName name : names) {
+            nameToFunction.put(
+                ExpressionFunctionNameInterner.intern(
+                    name,
+                    this.nameCaseSensitivity
+                ),
+                nameToEntry.get(name)
+                    .function()
+            );
+        }
+
+        return Maps.readOnly(nameToFunction);
+    }
+
+    /**
+     * Hash index using the provider {@link CaseSensitivity} holding an entry for each function, created or not.
+     */
+    private final ExpressionFunctionNameIndex<LazyBasicExpressionFunctionProviderEntry<C>> nameToEntry;
+
+    /**
+     * Sorted names, only used by {@link #toString()}.
+     */
+    private final SortedSet<ExpressionFunctionName> names;
+
+    @Override
+    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+        return this.expressionFunctionInfos;
+    }
+
+    private final ExpressionFunctionInfoSet expressionFunctionInfos;
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.nameCaseSensitivity;
+    }
+
+    private final CaseSensitivity nameCaseSensitivity;
+
+    @Override
+    public String toString() {
+        return this.names.stream()
+            .map(Object::toString)
+            .collect(Collectors.joining(", "));
+    }
+}
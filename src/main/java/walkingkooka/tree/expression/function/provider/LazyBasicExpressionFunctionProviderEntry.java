@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Holds the {@link Supplier} for a single function within a {@link LazyBasicExpressionFunctionProvider}, creating the
+ * {@link ExpressionFunction} once on the first request.
+ */
+final class LazyBasicExpressionFunctionProviderEntry<C extends ExpressionEvaluationContext> {
+
+    LazyBasicExpressionFunctionProviderEntry(final ExpressionFunctionName name,
+                                             final Supplier<ExpressionFunction<?, C>> supplier) {
+        this.name = name;
+        this.supplier = supplier;
+    }
+
+    /**
+     * Returns the {@link ExpressionFunction}, creating it if this is the first request. Once created reads only need
+     * a volatile read.
+     */
+    ExpressionFunction<?, C> function() {
+        ExpressionFunction<?, C> function = this.function;
+        if (null == function) {
+            synchronized (this) {
+                function = this.function;
+                if (null == function) {
+                    function = Objects.requireNonNull(
+                        this.supplier.get(),
+                        "function"
+                    ).setName(
+                        Optional.of(this.name)
+                    );
+                    this.function = function;
+                    this.supplier = null; // allow the supplier to be gc'd
+                }
+            }
+        }
+        return function;
+    }
+
+    private final ExpressionFunctionName name;
+
+    private Supplier<ExpressionFunction<?, C>> supplier;
+
+    private volatile ExpressionFunction<?, C> function;
+
+    @Override
+    public String toString() {
+        return this.name.toString();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ExpressionFunctionProvider} that creates the wrapped {@link ExpressionFunctionProvider} using a
+ * {@link Supplier} on the first lookup, useful when building the provider is expensive and it may never be used.
+ * <br>
+ * The {@link CaseSensitivity} is given up front so {@link #expressionFunctionNameCaseSensitivity()} never creates the
+ * wrapped provider. The {@link Supplier} is called at most once even when many threads perform the first lookup.
+ */
+final class LazyExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProviderDelegator<C> {
+
+    static <C extends ExpressionEvaluationContext> LazyExpressionFunctionProvider<C> with(final CaseSensitivity expressionFunctionNameCaseSensitivity,
+                                                                                          final Supplier<ExpressionFunctionProvider<C>> provider) {
+        return new LazyExpressionFunctionProvider<>(
+            Objects.requireNonNull(expressionFunctionNameCaseSensitivity, "expressionFunctionNameCaseSensitivity"),
+            Objects.requireNonNull(provider, "provider")
+        );
+    }
+
+    private LazyExpressionFunctionProvider(final CaseSensitivity expressionFunctionNameCaseSensitivity,
+                                           final Supplier<ExpressionFunctionProvider<C>> supplier) {
+        this.expressionFunctionNameCaseSensitivity = expressionFunctionNameCaseSensitivity;
+        this.supplier = supplier;
+    }
+
+    // ExpressionFunctionProviderDelegator..............................................................................
+
+    @Override
+    public ExpressionFunctionProvider<C> expressionFunctionProvider() {
+        ExpressionFunctionProvider<C> provider = this.provider;
+        if (null == provider) {
+            synchronized (this) {
+                provider = this.provider;
+                if (null == provider) {
+                    final String failure = this.failure;
+                    if (null != failure) {
+                        throw new IllegalStateException(failure);
+                    }
+
+                    provider = Objects.requireNonNull(
+                        this.supplier.get(),
+                        "provider"
+                    );
+
+                    final CaseSensitivity caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+                    if (this.expressionFunctionNameCaseSensitivity != caseSensitivity) {
+                        // the supplier would return an equally wrong provider, so remember the failure instead
+                        this.failure = "Provider case sensitivity " + caseSensitivity + " different from " + this.expressionFunctionNameCaseSensitivity;
+                        this.supplier = null;
+                        throw new IllegalStateException(this.failure);
+                    }
+
+                    this.provider = provider;
+                    this.supplier = null; // allow the supplier to be gc'd
+                }
+            }
+        }
+        return provider;
+    }
+
+    /**
+     * Cleared once {@link #provider} is created or the created provider was rejected.
+     */
+    private Supplier<ExpressionFunctionProvider<C>> supplier;
+
+    /**
+     * The message of the {@link IllegalStateException} thrown when the created provider was rejected, thrown again by
+     * all following lookups without calling the {@link Supplier}.
+     */
+    private String failure;
+
+    private volatile ExpressionFunctionProvider<C> provider;
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.expressionFunctionNameCaseSensitivity;
+    }
+
+    private final CaseSensitivity expressionFunctionNameCaseSensitivity;
+
+    /**
+     * Returns the {@link Object#toString()} of the wrapped provider if it was created, otherwise that of the {@link Supplier}.
+     */
+    @Override
+    public String toString() {
+        final ExpressionFunctionProvider<C> provider = this.provider;
+        if (null != provider) {
+            return provider.toString();
+        }
+
+        synchronized (this) {
+            return null != this.provider ?
+                this.provider.toString() :
+                null != this.supplier ?
+                    this.supplier.toString() :
+                    this.failure;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The batch lookup shared by {@link FilteredMappedExpressionFunctionProvider} and {@link MergedMappedExpressionFunctionProvider},
+ * which map every name to a name of the wrapped provider, resolve all of them in a single call and then rename the
+ * results back. A name missing from the functions returned by the wrapped provider fails with an
+ * {@link UnknownExpressionFunctionException}.
+ */
+final class MappedExpressionFunctionProviderBatch {
+
+    static <C extends ExpressionEvaluationContext> Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                                                            final Function<ExpressionFunctionName, ExpressionFunctionName> mapper,
+                                                                                                                            final ExpressionFunctionProvider<C> provider,
+                                                                                                                            final ExpressionFunctionRenamer<C> renamer,
+                                                                                                                            final ProviderContext context) {
+        final CaseSensitivity caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+
+        final List<ExpressionFunctionName> namesWithCaseSensitivity = Lists.array();
+        final List<ExpressionFunctionName> providerNames = Lists.array();
+
+        for (final ExpressionFunctionName name : names) {
+            final ExpressionFunctionName nameWithCaseSensitivity = ExpressionFunctionNameInterner.intern(
+                name,
+                caseSensitivity
+            );
+
+            namesWithCaseSensitivity.add(nameWithCaseSensitivity);
+            providerNames.add(
+                mapper.apply(nameWithCaseSensitivity)
+            );
+        }
+
+        // the keys of the returned map may have any case sensitivity, so find them using that of the provider
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> returned = provider.expressionFunctions(
+            providerNames,
+            context
+        );
+        final ExpressionFunctionNameIndex<ExpressionFunction<?, C>> providerNameToFunction = ExpressionFunctionNameIndex.with(
+            caseSensitivity,
+            returned.size()
+        );
+        for (final Map.Entry<ExpressionFunctionName, ExpressionFunction<?, C>> nameAndFunction : returned.entrySet()) {
+            final ExpressionFunction<?, C> function = nameAndFunction.getValue();
+            if (null != function) {
+                providerNameToFunction.put(
+                    nameAndFunction.getKey(),
+                    function
+                );
+            }
+        }
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(caseSensitivity)
+        );
+
+        final int count = providerNames.size();
+        for (int i = 0; i < count; i++) {
+            final ExpressionFunctionName nameWithCaseSensitivity = namesWithCaseSensitivity.get(i);
+
+            final ExpressionFunction<?, C> function = providerNameToFunction.get(
+                providerNames.get(i)
+            );
+            if (null == function) {
+                throw new UnknownExpressionFunctionException(nameWithCaseSensitivity);
+            }
+
+            nameToFunction.put(
+                nameWithCaseSensitivity,
+                renamer.setName(
+                    nameWithCaseSensitivity,
+                    function
+                )
+            );
+        }
+
+        return Maps.readOnly(nameToFunction);
+    }
+
+    /**
+     * Stop creation
+     */
+    private MappedExpressionFunctionProviderBatch() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -24,7 +24,9 @@ import walkingkooka.tree.expression.ExpressionEvaluationContext;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -54,6 +56,16 @@ final class MergedMappedExpressionFunctionProvider<C extends ExpressionEvaluatio
         );
 
         this.provider = provider;
+
+        // the renamer and index are built together from the same mapped infos, and never change
+        final ExpressionFunctionInfoSet mapped = this.mapper.infos();
+        this.renamer = ExpressionFunctionRenamer.with(
+            mapped.size()
+        );
+        this.names = ExpressionFunctionNameIndex.names(
+            mapped.names(),
+            provider.expressionFunctionNameCaseSensitivity()
+        );
     }
 
     @Override
@@ -77,7 +89,10 @@ final class MergedMappedExpressionFunctionProvider<C extends ExpressionEvaluatio
         Objects.requireNonNull(context, "context");
 
         return this.expressionFunction0(
-            name.setCaseSensitivity(this.expressionFunctionNameCaseSensitivity()),
+            ExpressionFunctionNameInterner.intern(
+                name,
+                this.expressionFunctionNameCaseSensitivity()
+            ),
             values,
             context
         );
@@ -92,15 +107,76 @@ final class MergedMappedExpressionFunctionProvider<C extends ExpressionEvaluatio
 
         final ExpressionFunctionProvider<C> provider = this.provider;
 
-        return provider.expressionFunction(
-            this.mapper.name(name),
-            values,
+        return this.renamer.setName(
+            name,
+            provider.expressionFunction(
+                this.mapper.name(name),
+                values,
+                context
+            )
+        );
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return this.names.contains(selector.name()) ?
+            Optional.of(
+                selector.evaluateValueText(
+                    this,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return this.names.contains(name) ?
+            Optional.of(
+                this.expressionFunction(
+                    name,
+                    values,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        return MappedExpressionFunctionProviderBatch.expressionFunctions(
+            names,
+            this.mapper::name,
+            this.provider,
+            this.renamer,
             context
-        ).setName(
-            Optional.of(name)
         );
     }
 
+    /**
+     * The names of all mapped {@link ExpressionFunctionInfo}, used to detect unknown names without throwing.
+     */
+    private final ExpressionFunctionNameIndex<ExpressionFunctionName> names;
+
+    /**
+     * Remembers renamed functions so repeated lookups return the same {@link ExpressionFunction}.
+     */
+    private final ExpressionFunctionRenamer<C> renamer;
+
     @Override
     public CaseSensitivity expressionFunctionNameCaseSensitivity() {
         return this.provider.expressionFunctionNameCaseSensitivity();
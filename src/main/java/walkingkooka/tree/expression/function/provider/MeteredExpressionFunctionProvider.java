@@ -0,0 +1,270 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link ExpressionFunctionProvider} that records every lookup, whether it found a function and the time taken in
+ * a {@link ExpressionFunctionProviderMetrics}. Lookups failing with a {@link UnknownExpressionFunctionException} or
+ * an empty {@link Optional} are counted as misses, any other failure is counted as a failure. Every lookup is timed,
+ * including failures. A lookup of many names that fails because of unknown names counts a single miss, the wrapped
+ * provider is never queried again to find which names were unknown.
+ */
+final class MeteredExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
+
+    static <C extends ExpressionEvaluationContext> MeteredExpressionFunctionProvider<C> with(final ExpressionFunctionProvider<C> provider,
+                                                                                             final ExpressionFunctionProviderMetrics metrics) {
+        return new MeteredExpressionFunctionProvider<>(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(metrics, "metrics")
+        );
+    }
+
+    private MeteredExpressionFunctionProvider(final ExpressionFunctionProvider<C> provider,
+                                              final ExpressionFunctionProviderMetrics metrics) {
+        this.provider = provider;
+        this.metrics = metrics;
+        this.caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final long start = System.nanoTime();
+        try {
+            final ExpressionFunction<?, C> function = this.provider.expressionFunction(
+                selector,
+                context
+            );
+            this.lookup(
+                selector.name(),
+                true,
+                start
+            );
+            return function;
+        } catch (final UnknownExpressionFunctionException cause) {
+            this.lookup(
+                null,
+                true,
+                start
+            );
+            throw cause;
+        } catch (final RuntimeException cause) {
+            this.failure(
+                true,
+                start
+            );
+            throw cause;
+        }
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionName name,
+                                                       final List<?> values,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final long start = System.nanoTime();
+        try {
+            final ExpressionFunction<?, C> function = this.provider.expressionFunction(
+                name,
+                values,
+                context
+            );
+            this.lookup(
+                name,
+                false,
+                start
+            );
+            return function;
+        } catch (final UnknownExpressionFunctionException cause) {
+            this.lookup(
+                null,
+                false,
+                start
+            );
+            throw cause;
+        } catch (final RuntimeException cause) {
+            this.failure(
+                false,
+                start
+            );
+            throw cause;
+        }
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final long start = System.nanoTime();
+        final Optional<ExpressionFunction<?, C>> function;
+        try {
+            function = this.provider.expressionFunctionIfPresent(
+                selector,
+                context
+            );
+        } catch (final RuntimeException cause) {
+            this.failure(
+                true,
+                start
+            );
+            throw cause;
+        }
+        this.lookup(
+            function.isPresent() ?
+                selector.name() :
+                null,
+            true,
+            start
+        );
+        return function;
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final long start = System.nanoTime();
+        final Optional<ExpressionFunction<?, C>> function;
+        try {
+            function = this.provider.expressionFunctionIfPresent(
+                name,
+                values,
+                context
+            );
+        } catch (final RuntimeException cause) {
+            this.failure(
+                false,
+                start
+            );
+            throw cause;
+        }
+        this.lookup(
+            function.isPresent() ?
+                name :
+                null,
+            false,
+            start
+        );
+        return function;
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final long start = System.nanoTime();
+        try {
+            final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = this.provider.expressionFunctions(
+                names,
+                context
+            );
+            this.metrics.lookups(
+                nameToFunction.keySet(),
+                System.nanoTime() - start
+            );
+            return nameToFunction;
+        } catch (final UnknownExpressionFunctionException cause) {
+            this.metrics.lookupsMiss(
+                names.size(),
+                System.nanoTime() - start
+            );
+            throw cause;
+        } catch (final RuntimeException cause) {
+            this.metrics.lookupsFailure(
+                names.size(),
+                System.nanoTime() - start
+            );
+            throw cause;
+        }
+    }
+
+    /**
+     * Records a lookup, converting the name to the provider {@link CaseSensitivity} so names that only differ in case
+     * share a counter when the provider ignores case.
+     */
+    private void lookup(final ExpressionFunctionName name,
+                        final boolean selector,
+                        final long start) {
+        this.metrics.lookup(
+            null != name ?
+                ExpressionFunctionNameInterner.intern(
+                    name,
+                    this.caseSensitivity
+                ) :
+                null,
+            selector,
+            System.nanoTime() - start
+        );
+    }
+
+    private void failure(final boolean selector,
+                         final long start) {
+        this.metrics.failure(
+            selector,
+            System.nanoTime() - start
+        );
+    }
+
+    private final ExpressionFunctionProvider<C> provider;
+
+    private final ExpressionFunctionProviderMetrics metrics;
+
+    @Override
+    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+        return this.provider.expressionFunctionInfos();
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.caseSensitivity;
+    }
+
+    private final CaseSensitivity caseSensitivity;
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
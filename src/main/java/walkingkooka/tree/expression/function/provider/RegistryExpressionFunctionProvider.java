@@ -0,0 +1,304 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.collect.set.SortedSets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.UrlPath;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link ExpressionFunctionProvider} similar to {@link BasicExpressionFunctionProvider}, that starts empty and
+ * allows functions to be added and removed at any time, for example as plugins are loaded.
+ * <br>
+ * Functions are held in a {@link ConcurrentHashMap} using names with the provider {@link CaseSensitivity}, so lookups
+ * never lock and may run while other threads register or unregister functions.
+ * <br>
+ * {@link #expressionFunctionInfos()} is rebuilt on demand after the registry changes.
+ */
+public final class RegistryExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
+
+    static <C extends ExpressionEvaluationContext> RegistryExpressionFunctionProvider<C> with(final AbsoluteUrl baseUrl,
+                                                                                              final CaseSensitivity nameCaseSensitivity) {
+        return new RegistryExpressionFunctionProvider<>(
+            Objects.requireNonNull(baseUrl, "baseUrl"),
+            Objects.requireNonNull(nameCaseSensitivity, "nameCaseSensitivity")
+        );
+    }
+
+    private RegistryExpressionFunctionProvider(final AbsoluteUrl baseUrl,
+                                               final CaseSensitivity nameCaseSensitivity) {
+        this.baseUrl = baseUrl;
+        this.nameCaseSensitivity = nameCaseSensitivity;
+    }
+
+    /**
+     * Adds the given {@link ExpressionFunction}, returning any function with the same name that was replaced.
+     */
+    public Optional<ExpressionFunction<?, C>> register(final ExpressionFunction<?, C> function) {
+        Objects.requireNonNull(function, "function");
+
+        final ExpressionFunctionName name = this.name(
+            function.name()
+                .orElseThrow(
+                    () -> new IllegalArgumentException("Cannot add unnamed functions to provider")
+                )
+        );
+
+        // the name is replaced with the function, a put keeps the text of an existing key with a different case
+        final RegistryExpressionFunctionProviderFunction<C> previous = this.nameToFunction.put(
+            name,
+            new RegistryExpressionFunctionProviderFunction<>(
+                name,
+                function.setName(
+                    Optional.of(name)
+                )
+            )
+        );
+        this.version.incrementAndGet();
+        return optionalFunction(previous);
+    }
+
+    /**
+     * Removes the {@link ExpressionFunction} with the given name, returning the removed function if one existed.
+     */
+    public Optional<ExpressionFunction<?, C>> unregister(final ExpressionFunctionName name) {
+        Objects.requireNonNull(name, "name");
+
+        final RegistryExpressionFunctionProviderFunction<C> removed = this.nameToFunction.remove(
+            this.name(name)
+        );
+        if (null != removed) {
+            this.version.incrementAndGet();
+        }
+        return optionalFunction(removed);
+    }
+
+    private static <C extends ExpressionEvaluationContext> Optional<ExpressionFunction<?, C>> optionalFunction(final RegistryExpressionFunctionProviderFunction<C> function) {
+        return null != function ?
+            Optional.of(function.function) :
+            Optional.empty();
+    }
+
+    /**
+     * The version of the registered functions, which starts at zero and is incremented by each
+     * {@link #register(ExpressionFunction)} and each {@link #unregister(ExpressionFunctionName)} that removed a function.
+     * Views built from this provider may compare versions to cheaply detect a change and then be created again.
+     */
+    public long version() {
+        return this.version.get();
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return selector.evaluateValueText(
+            this,
+            context
+        );
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionName name,
+                                                       final List<?> values,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return this.function(name);
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return this.nameToFunction.containsKey(
+            this.name(
+                selector.name()
+            )
+        ) ?
+            Optional.of(
+                selector.evaluateValueText(
+                    this,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return optionalFunction(
+            this.nameToFunction.get(
+                this.name(name)
+            )
+        );
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = Maps.sorted(
+            ExpressionFunctionName.comparator(this.nameCaseSensitivity)
+        );
+
+        // key by the name with the provider case sensitivity, not the given name
+        for (final ExpressionFunctionName name : names) {
+            nameToFunction.put(
+                this.name(name),
+                this.function(name)
+            );
+        }
+
+        return Maps.readOnly(nameToFunction);
+    }
+
+    private ExpressionFunction<?, C> function(final ExpressionFunctionName name) {
+        final RegistryExpressionFunctionProviderFunction<C> function = this.nameToFunction.get(
+            this.name(name)
+        );
+        if (null == function) {
+            throw new UnknownExpressionFunctionException(name);
+        }
+        return function.function;
+    }
+
+    private ExpressionFunctionName name(final ExpressionFunctionName name) {
+        return ExpressionFunctionNameInterner.intern(
+            name,
+            this.nameCaseSensitivity
+        );
+    }
+
+    /**
+     * All registered functions, the keys always have {@link #nameCaseSensitivity}, so equality and hashing follow
+     * the provider {@link CaseSensitivity}. The registered name is read from the value, never the key.
+     */
+    private final Map<ExpressionFunctionName, RegistryExpressionFunctionProviderFunction<C>> nameToFunction = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented after each change to {@link #nameToFunction}.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+        // read the version before the functions, so infos built from a newer registry are only ever rebuilt again
+        final long version = this.version.get();
+
+        RegistryExpressionFunctionProviderInfos infos = this.infos.get();
+        if (null == infos || version != infos.version) {
+            final RegistryExpressionFunctionProviderInfos built = new RegistryExpressionFunctionProviderInfos(
+                this.buildExpressionFunctionInfos(),
+                version
+            );
+
+            // only publish over older infos, a racing thread may have already published newer infos
+            while (null == infos || infos.version < version) {
+                if (this.infos.compareAndSet(infos, built)) {
+                    break;
+                }
+                infos = this.infos.get();
+            }
+
+            infos = built;
+        }
+
+        return infos.infos;
+    }
+
+    private ExpressionFunctionInfoSet buildExpressionFunctionInfos() {
+        final AbsoluteUrl baseUrl = this.baseUrl;
+
+        return ExpressionFunctionInfoSet.with(
+            Sets.readOnly(
+                this.nameToFunction.values()
+                    .stream()
+                    .map(
+                        f -> ExpressionFunctionInfo.with(
+                            baseUrl.appendPath(
+                                UrlPath.parse(
+                                    f.name.value()
+                                )
+                            ),
+                            f.name
+                        )
+                    ).collect(Collectors.toCollection(SortedSets::tree))
+            ),
+            this.nameCaseSensitivity
+        );
+    }
+
+    /**
+     * The last built infos, replaced when {@link #version} changes. Infos are only ever replaced by infos with a
+     * newer version, so a slow thread never publishes infos older than those already published.
+     */
+    private final AtomicReference<RegistryExpressionFunctionProviderInfos> infos = new AtomicReference<>();
+
+    private final AbsoluteUrl baseUrl;
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.nameCaseSensitivity;
+    }
+
+    private final CaseSensitivity nameCaseSensitivity;
+
+    @Override
+    public String toString() {
+        return this.nameToFunction.values()
+            .stream()
+            .map(f -> f.name)
+            .sorted(
+                ExpressionFunctionName.comparator(this.nameCaseSensitivity)
+            ).map(Object::toString)
+            .collect(Collectors.joining(", "));
+    }
+}
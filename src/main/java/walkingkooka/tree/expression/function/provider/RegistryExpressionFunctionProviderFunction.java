@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+
+/**
+ * A function registered with a {@link RegistryExpressionFunctionProvider} and the name it was registered with.
+ * The name is held with the function, so registering a function again using a name with a different case replaces
+ * the name together with the function, even though the map key found equal keeps its original text.
+ */
+final class RegistryExpressionFunctionProviderFunction<C extends ExpressionEvaluationContext> {
+
+    RegistryExpressionFunctionProviderFunction(final ExpressionFunctionName name,
+                                               final ExpressionFunction<?, C> function) {
+        this.name = name;
+        this.function = function;
+    }
+
+    final ExpressionFunctionName name;
+
+    final ExpressionFunction<?, C> function;
+
+    @Override
+    public String toString() {
+        return this.name + " " + this.function;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+/**
+ * The {@link ExpressionFunctionInfoSet} of a {@link RegistryExpressionFunctionProvider} and the version of the
+ * registry it was built from.
+ */
+final class RegistryExpressionFunctionProviderInfos {
+
+    RegistryExpressionFunctionProviderInfos(final ExpressionFunctionInfoSet infos,
+                                            final long version) {
+        this.infos = infos;
+        this.version = version;
+    }
+
+    final ExpressionFunctionInfoSet infos;
+
+    final long version;
+
+    @Override
+    public String toString() {
+        return this.version + " " + this.infos;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link ExpressionFunctionProvider} that passes all lookups to a wrapped {@link ExpressionFunctionProvider} which may
+ * be replaced at any time, for example after aliases are edited or plugins are enabled.
+ * <br>
+ * The wrapped provider and its version are held together in a single {@link AtomicReference}, so reads never lock.
+ * Writers build the replacement provider first and then publish it with {@link #swap(ExpressionFunctionProvider)}.
+ * Each lookup uses a single provider, but a sequence of lookups may see different providers. Callers that cache
+ * functions or infos should compare {@link #version()} to detect a swap.
+ */
+public final class SwappableExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProviderDelegator<C> {
+
+    static <C extends ExpressionEvaluationContext> SwappableExpressionFunctionProvider<C> with(final ExpressionFunctionProvider<C> provider) {
+        return new SwappableExpressionFunctionProvider<>(
+            Objects.requireNonNull(provider, "provider")
+        );
+    }
+
+    private SwappableExpressionFunctionProvider(final ExpressionFunctionProvider<C> provider) {
+        this.caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+        this.snapshot = new AtomicReference<>(
+            new SwappableExpressionFunctionProviderSnapshot<>(
+                provider,
+                0
+            )
+        );
+    }
+
+    /**
+     * Replaces the wrapped {@link ExpressionFunctionProvider}, returning the new version. The replacement must have
+     * the same {@link CaseSensitivity}, as names already handed out by this provider depend upon it.
+     */
+    public long swap(final ExpressionFunctionProvider<C> provider) {
+        Objects.requireNonNull(provider, "provider");
+
+        final CaseSensitivity caseSensitivity = provider.expressionFunctionNameCaseSensitivity();
+        if (this.caseSensitivity != caseSensitivity) {
+            throw new IllegalArgumentException("Provider case sensitivity " + caseSensitivity + " different from " + this.caseSensitivity);
+        }
+
+        final AtomicReference<SwappableExpressionFunctionProviderSnapshot<C>> snapshot = this.snapshot;
+
+        SwappableExpressionFunctionProviderSnapshot<C> previous;
+        SwappableExpressionFunctionProviderSnapshot<C> next;
+        do {
+            previous = snapshot.get();
+            next = new SwappableExpressionFunctionProviderSnapshot<>(
+                provider,
+                previous.version + 1
+            );
+        } while (false == snapshot.compareAndSet(
+            previous,
+            next
+        ));
+
+        return next.version;
+    }
+
+    /**
+     * The version of the current wrapped {@link ExpressionFunctionProvider}, which starts at zero and is incremented
+     * by each {@link #swap(ExpressionFunctionProvider)}.
+     */
+    public long version() {
+        return this.snapshot.get()
+            .version;
+    }
+
+    // ExpressionFunctionProviderDelegator..............................................................................
+
+    @Override
+    public ExpressionFunctionProvider<C> expressionFunctionProvider() {
+        return this.snapshot.get()
+            .provider;
+    }
+
+    private final AtomicReference<SwappableExpressionFunctionProviderSnapshot<C>> snapshot;
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.caseSensitivity;
+    }
+
+    private final CaseSensitivity caseSensitivity;
+
+    @Override
+    public String toString() {
+        return this.expressionFunctionProvider()
+            .toString();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link ExpressionFunctionProvider} that records every lookup by the wrapped provider in a {@link ExpressionFunctionProviderTracer},
+ * including the name and {@link CaseSensitivity} going in, the name of the returned function coming out and the time
+ * taken.
+ */
+final class TracedExpressionFunctionProvider<C extends ExpressionEvaluationContext> implements ExpressionFunctionProvider<C> {
+
+    static <C extends ExpressionEvaluationContext> TracedExpressionFunctionProvider<C> with(final ExpressionFunctionProvider<C> provider,
+                                                                                            final ExpressionFunctionProviderTracer tracer) {
+        return new TracedExpressionFunctionProvider<>(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(tracer, "tracer")
+        );
+    }
+
+    private TracedExpressionFunctionProvider(final ExpressionFunctionProvider<C> provider,
+                                             final ExpressionFunctionProviderTracer tracer) {
+        this.provider = provider;
+        this.tracer = tracer;
+        this.label = provider.getClass()
+            .getSimpleName();
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionSelector selector,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderTracer tracer = this.tracer;
+        Optional<String> output = Optional.empty();
+
+        tracer.begin();
+        final long start = System.nanoTime();
+        try {
+            final ExpressionFunction<?, C> function = this.provider.expressionFunction(
+                selector,
+                context
+            );
+            output = output(function);
+            return function;
+        } finally {
+            tracer.end(
+                this.label,
+                selector.toString(),
+                selector.name()
+                    .caseSensitivity(),
+                output,
+                System.nanoTime() - start
+            );
+        }
+    }
+
+    @Override
+    public ExpressionFunction<?, C> expressionFunction(final ExpressionFunctionName name,
+                                                       final List<?> values,
+                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderTracer tracer = this.tracer;
+        Optional<String> output = Optional.empty();
+
+        tracer.begin();
+        final long start = System.nanoTime();
+        try {
+            final ExpressionFunction<?, C> function = this.provider.expressionFunction(
+                name,
+                values,
+                context
+            );
+            output = output(function);
+            return function;
+        } finally {
+            tracer.end(
+                this.label,
+                name.value(),
+                name.caseSensitivity(),
+                output,
+                System.nanoTime() - start
+            );
+        }
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderTracer tracer = this.tracer;
+        Optional<String> output = Optional.empty();
+
+        tracer.begin();
+        final long start = System.nanoTime();
+        try {
+            final Optional<ExpressionFunction<?, C>> function = this.provider.expressionFunctionIfPresent(
+                selector,
+                context
+            );
+            output = function.flatMap(TracedExpressionFunctionProvider::output);
+            return function;
+        } finally {
+            tracer.end(
+                this.label,
+                selector.toString(),
+                selector.name()
+                    .caseSensitivity(),
+                output,
+                System.nanoTime() - start
+            );
+        }
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderTracer tracer = this.tracer;
+        Optional<String> output = Optional.empty();
+
+        tracer.begin();
+        final long start = System.nanoTime();
+        try {
+            final Optional<ExpressionFunction<?, C>> function = this.provider.expressionFunctionIfPresent(
+                name,
+                values,
+                context
+            );
+            output = function.flatMap(TracedExpressionFunctionProvider::output);
+            return function;
+        } finally {
+            tracer.end(
+                this.label,
+                name.value(),
+                name.caseSensitivity(),
+                output,
+                System.nanoTime() - start
+            );
+        }
+    }
+
+    @Override
+    public Map<ExpressionFunctionName, ExpressionFunction<?, C>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                     final ProviderContext context) {
+        Objects.requireNonNull(names, "names");
+        Objects.requireNonNull(context, "context");
+
+        final ExpressionFunctionProviderTracer tracer = this.tracer;
+        Optional<String> output = Optional.empty();
+
+        tracer.begin();
+        final long start = System.nanoTime();
+        try {
+            final Map<ExpressionFunctionName, ExpressionFunction<?, C>> nameToFunction = this.provider.expressionFunctions(
+                names,
+                context
+            );
+            output = Optional.of(
+                nameToFunction.values()
+                    .stream()
+                    .map(f -> output(f).orElse("?"))
+                    .collect(Collectors.joining(", "))
+            );
+            return nameToFunction;
+        } finally {
+            tracer.end(
+                this.label,
+                names.stream()
+                    .map(ExpressionFunctionName::value)
+                    .collect(Collectors.joining(", ")),
+                this.expressionFunctionNameCaseSensitivity(),
+                output,
+                System.nanoTime() - start
+            );
+        }
+    }
+
+    private static Optional<String> output(final ExpressionFunction<?, ?> function) {
+        return function.name()
+            .map(ExpressionFunctionName::value);
+    }
+
+    private final ExpressionFunctionProvider<C> provider;
+
+    private final ExpressionFunctionProviderTracer tracer;
+
+    /**
+     * The simple class name of {@link #provider}, recorded with each trace.
+     */
+    private final String label;
+
+    @Override
+    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+        return this.provider.expressionFunctionInfos();
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return this.provider.expressionFunctionNameCaseSensitivity();
+    }
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
@@ -31,6 +31,7 @@ import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * A {@link ExpressionFunctionProvider} for {@link ExpressionFunctions}.
@@ -129,6 +130,61 @@ final class TreeExpressionFunctionProvider<C extends ExpressionEvaluationContext
         return Cast.to(function);
     }
 
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return isFunctionName(selector.name()) ?
+            Optional.of(
+                this.expressionFunction(
+                    selector,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    @Override
+    public Optional<ExpressionFunction<?, C>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                       final List<?> values,
+                                                                       final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return isFunctionName(name) ?
+            Optional.of(
+                this.expressionFunction(
+                    name,
+                    values,
+                    context
+                )
+            ) :
+            Optional.empty();
+    }
+
+    /**
+     * Must match the names in {@link #expressionFunction(ExpressionFunctionName, List, ProviderContext)}.
+     */
+    private static boolean isFunctionName(final ExpressionFunctionName name) {
+        final boolean present;
+
+        switch (name.value()) {
+            case "name":
+            case "node":
+            case "typeName":
+                present = true;
+                break;
+            default:
+                present = false;
+                break;
+        }
+
+        return present;
+    }
+
     private void checkNoValues(final List<?> values) {
         if (false == values.isEmpty()) {
             throw new IllegalArgumentException("Got " + values.size() + " expected 0");
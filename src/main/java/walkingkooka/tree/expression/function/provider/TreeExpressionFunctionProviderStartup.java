@@ -33,6 +33,8 @@ public final class TreeExpressionFunctionProviderStartup implements PublicStatic
         // register json marshallers/unmarshallers.
         ExpressionFunctionAliasSet.empty(CaseSensitivity.SENSITIVE);
         ExpressionFunctionInfoSet.empty(CaseSensitivity.SENSITIVE);
+        ExpressionFunctionProviderMetrics.empty()
+            .snapshot();
         ExpressionFunctionSelector.parse(
             "Hello",
             CaseSensitivity.SENSITIVE
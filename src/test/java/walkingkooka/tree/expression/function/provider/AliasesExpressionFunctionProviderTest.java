@@ -20,7 +20,9 @@ package walkingkooka.tree.expression.function.provider;
 import org.junit.jupiter.api.Test;
 import walkingkooka.Cast;
 import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
+import walkingkooka.net.Url;
 import walkingkooka.plugin.ProviderContext;
 import walkingkooka.plugin.ProviderContexts;
 import walkingkooka.reflect.JavaVisibility;
@@ -35,6 +37,9 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public final class AliasesExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<AliasesExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext> {
 
     private final static String NAME1_STRING = "function1";
@@ -157,6 +162,46 @@ public final class AliasesExpressionFunctionProviderTest implements ExpressionFu
         );
     }
 
+    @Test
+    public void testExpressionFunctionInfosAfterRegistryRegisterUnchanged() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> registry = RegistryExpressionFunctionProvider.with(
+            Url.parseAbsolute("https://example.com/"),
+            CASE_SENSITIVITY
+        );
+        registry.register(FUNCTION1);
+
+        final AliasesExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = AliasesExpressionFunctionProvider.with(
+            ExpressionFunctionAliasSet.parse(
+                NAME1 + ", " + ALIAS2 + " " + NAME2,
+                CASE_SENSITIVITY
+            ),
+            registry
+        );
+
+        final ExpressionFunctionInfoSet infos = provider.expressionFunctionInfos();
+
+        registry.register(FUNCTION2);
+
+        assertSame(
+            infos,
+            provider.expressionFunctionInfos()
+        );
+        this.expressionFunctionInfosAndCheck(
+            provider,
+            INFO1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosSameWhileUnchanged() {
+        final AliasesExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunctionInfos(),
+            provider.expressionFunctionInfos()
+        );
+    }
+
     @Test
     public void testExpressionFunctionNameWithName() {
         this.expressionFunctionAndCheck(
@@ -191,6 +236,155 @@ public final class AliasesExpressionFunctionProviderTest implements ExpressionFu
         );
     }
 
+    @Test
+    public void testExpressionFunctionNameWithAliasSame() {
+        final ExpressionFunctionProvider<?> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunction(
+                ALIAS2,
+                Lists.empty(),
+                CONTEXT
+            ),
+            provider.expressionFunction(
+                ALIAS2,
+                Lists.empty(),
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameWithAlias() {
+        this.expressionFunctionIfPresentAndCheck(
+            ALIAS2,
+            Lists.empty(),
+            CONTEXT,
+            FUNCTION2.setName(
+                Optional.of(ALIAS2)
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown"),
+            Lists.empty(),
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentSelectorUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionSelector.parse(
+                "unknown",
+                ExpressionFunctionName.DEFAULT_CASE_SENSITIVITY
+            ),
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentAgreesSelectorAliasTargetMissing() {
+        this.expressionFunctionAndIfPresentAgreeUnknown(
+            ExpressionFunctionName.with("alias5")
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentAgreesUrlAliasTargetMissing() {
+        this.expressionFunctionAndIfPresentAgreeUnknown(
+            ExpressionFunctionName.with("alias6")
+        );
+    }
+
+    /**
+     * Both aliases appear in the infos, but target function404 which the wrapped provider does not have, the lookup
+     * must fail with {@link UnknownExpressionFunctionException} and the if present lookup return nothing.
+     */
+    private void expressionFunctionAndIfPresentAgreeUnknown(final ExpressionFunctionName alias) {
+        final AliasesExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = AliasesExpressionFunctionProvider.with(
+            ExpressionFunctionAliasSet.parse(
+                "function1, alias5 function404(\"Value5\") https://example.com/alias5, alias6 function404 https://example.com/alias6",
+                CASE_SENSITIVITY
+            ),
+            ExpressionFunctionProviders.basic(
+                Url.parseAbsolute("https://example.com/"),
+                CASE_SENSITIVITY,
+                Sets.of(
+                    FUNCTION1
+                )
+            )
+        );
+
+        final ExpressionFunctionSelector selector = ExpressionFunctionSelector.parse(
+            alias + "",
+            CASE_SENSITIVITY
+        );
+
+        assertThrows(
+            UnknownExpressionFunctionException.class,
+            () -> provider.expressionFunction(
+                alias,
+                Lists.empty(),
+                CONTEXT
+            )
+        );
+        this.expressionFunctionIfPresentAndCheck(
+            provider,
+            alias,
+            Lists.empty(),
+            CONTEXT,
+            Optional.empty()
+        );
+
+        assertThrows(
+            UnknownExpressionFunctionException.class,
+            () -> provider.expressionFunction(
+                selector,
+                CONTEXT
+            )
+        );
+        this.expressionFunctionIfPresentAndCheck(
+            provider,
+            selector,
+            CONTEXT,
+            Optional.empty()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctions() {
+        this.expressionFunctionsAndCheck(
+            Lists.of(
+                NAME1,
+                ALIAS2
+            ),
+            CONTEXT,
+            Maps.of(
+                NAME1,
+                FUNCTION1,
+                ALIAS2,
+                FUNCTION2.setName(
+                    Optional.of(ALIAS2)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsUnknownFails() {
+        this.expressionFunctionsFails(
+            this.createExpressionFunctionProvider(),
+            Lists.of(
+                ExpressionFunctionName.with("unknown")
+            ),
+            CONTEXT
+        );
+    }
+
     @Test
     public void testExpressionFunctionSelectorWithAlias() {
         this.expressionFunctionAndCheck(
@@ -290,6 +484,38 @@ public final class AliasesExpressionFunctionProviderTest implements ExpressionFu
                     return function;
                 }
 
+                @Override
+                public Optional<ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                                                                    final ProviderContext context) {
+                    try {
+                        return Optional.of(
+                            this.expressionFunction(
+                                selector,
+                                context
+                            )
+                        );
+                    } catch (final UnknownExpressionFunctionException unknown) {
+                        return Optional.empty();
+                    }
+                }
+
+                @Override
+                public Optional<ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                                                                    final List<?> values,
+                                                                                                                    final ProviderContext context) {
+                    try {
+                        return Optional.of(
+                            this.expressionFunction(
+                                name,
+                                values,
+                                context
+                            )
+                        );
+                    } catch (final UnknownExpressionFunctionException unknown) {
+                        return Optional.empty();
+                    }
+                }
+
                 @Override
                 public ExpressionFunctionInfoSet expressionFunctionInfos() {
                     return ExpressionFunctionInfoSet.with(
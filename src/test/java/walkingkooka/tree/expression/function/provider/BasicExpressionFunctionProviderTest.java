@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.Cast;
 import walkingkooka.ToStringTesting;
 import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.net.Url;
@@ -278,6 +279,94 @@ public final class BasicExpressionFunctionProviderTest implements ExpressionFunc
         );
     }
 
+    @Test
+    public void testExpressionFunctionIfPresentName() {
+        this.expressionFunctionIfPresentAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentSelectorUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionSelector.parse(
+                "unknown",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctions() {
+        this.expressionFunctionsAndCheck(
+            Lists.of(
+                NAME1,
+                NAME2
+            ),
+            CONTEXT,
+            Maps.of(
+                NAME1,
+                FUNCTION1,
+                NAME2,
+                FUNCTION2
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsKeyedByProviderName() {
+        final CaseSensitivity caseSensitivity = CaseSensitivity.INSENSITIVE;
+
+        final ExpressionFunctionName key = this.createExpressionFunctionProvider(caseSensitivity)
+            .expressionFunctions(
+                Lists.of(
+                    ExpressionFunctionName.with(
+                        NAME1.value()
+                            .toUpperCase()
+                    ).setCaseSensitivity(CaseSensitivity.SENSITIVE)
+                ),
+                CONTEXT
+            ).keySet()
+            .iterator()
+            .next();
+
+        this.checkEquals(
+            NAME1.value(),
+            key.value(),
+            "key value"
+        );
+        this.checkEquals(
+            caseSensitivity,
+            key.caseSensitivity(),
+            "key caseSensitivity"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsUnknownFails() {
+        this.expressionFunctionsFails(
+            this.createExpressionFunctionProvider(),
+            Lists.of(
+                NAME1,
+                ExpressionFunctionName.with("unknown")
+            ),
+            CONTEXT
+        );
+    }
+
     @Test
     public void testExpressionFunctionSelector() {
         final CaseSensitivity caseSensitivity = CaseSensitivity.INSENSITIVE;
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.Expression;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class BoundExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<BoundExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<BoundExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testfunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME3 = ExpressionFunctionName.with("testfunction3")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION1 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME1);
+        }
+    };
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION2 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME2);
+        }
+    };
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION3 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME3);
+        }
+    };
+
+    private final static Expression EXPRESSION = Expression.call(
+        Expression.namedFunction(NAME1),
+        Lists.of(
+            Expression.call(
+                Expression.namedFunction(NAME2),
+                Lists.of(
+                    Expression.value(1)
+                )
+            ),
+            Expression.call(
+                Expression.namedFunction(
+                    ExpressionFunctionName.with(
+                        NAME1.value()
+                            .toUpperCase()
+                    )
+                ),
+                Lists.empty()
+            )
+        )
+    );
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    @Test
+    public void testWithNullExpressionFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> BoundExpressionFunctionProvider.with(
+                null,
+                this.provider(),
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> BoundExpressionFunctionProvider.with(
+                EXPRESSION,
+                null,
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> BoundExpressionFunctionProvider.with(
+                EXPRESSION,
+                this.provider(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testWithUnknownFunctionFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BoundExpressionFunctionProvider.with(
+                Expression.call(
+                    Expression.namedFunction(
+                        ExpressionFunctionName.with("unknown")
+                    ),
+                    Lists.empty()
+                ),
+                this.provider(),
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testNames() {
+        this.checkEquals(
+            Sets.of(
+                NAME1,
+                NAME2
+            ),
+            BoundExpressionFunctionProvider.names(
+                EXPRESSION,
+                CASE_SENSITIVITY
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName2() {
+        this.expressionFunctionAndCheck(
+            NAME2,
+            VALUES,
+            CONTEXT,
+            FUNCTION2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameNotBoundFails() {
+        this.expressionFunctionFails(
+            NAME3,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME2 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameNotBound() {
+        this.expressionFunctionIfPresentAndCheck(
+            NAME3,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfos() {
+        this.expressionFunctionInfosAndCheck(
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction1"),
+                NAME1
+            ),
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction2"),
+                NAME2
+            )
+        );
+    }
+
+    @Override
+    public BoundExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return BoundExpressionFunctionProvider.with(
+            EXPRESSION,
+            this.provider(),
+            CONTEXT
+        );
+    }
+
+    private ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider() {
+        return ExpressionFunctionProviders.basic(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Sets.of(
+                FUNCTION1,
+                FUNCTION2,
+                FUNCTION3
+            )
+        );
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createExpressionFunctionProvider(),
+            "testfunction1, testfunction2"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<BoundExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(BoundExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
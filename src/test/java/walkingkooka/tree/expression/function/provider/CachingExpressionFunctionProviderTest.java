@@ -0,0 +1,728 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CachingExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<CachingExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<CachingExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testfunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION1 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME1);
+        }
+    };
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION2 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME2);
+        }
+    };
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CachingExpressionFunctionProvider.with(
+                null,
+                1
+            )
+        );
+    }
+
+    @Test
+    public void testWithZeroMaxEntriesFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> CachingExpressionFunctionProvider.with(
+                ExpressionFunctionProviders.fake(),
+                0
+            )
+        );
+
+        this.checkEquals(
+            "Invalid maxEntries 0 <= 0",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameUnknownFails() {
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        this.expressionFunctionFails(
+            provider,
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            0,
+            0,
+            1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameCached() {
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        final ExpressionFunction<?, FakeExpressionEvaluationContext> function = provider.expressionFunctionIfPresent(
+            NAME1,
+            VALUES,
+            CONTEXT
+        ).get();
+
+        assertSame(
+            function,
+            provider.expressionFunction(
+                NAME1,
+                VALUES,
+                CONTEXT
+            )
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            1,
+            1,
+            1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        this.expressionFunctionIfPresentAndCheck(
+            provider,
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT,
+            Optional.empty()
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            0,
+            0,
+            1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsCached() {
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        final ExpressionFunction<?, FakeExpressionEvaluationContext> function1 = provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, FakeExpressionEvaluationContext>> nameToFunction = provider.expressionFunctions(
+            Lists.of(
+                NAME1,
+                NAME2
+            ),
+            CONTEXT
+        );
+
+        assertSame(
+            function1,
+            nameToFunction.get(NAME1)
+        );
+        assertSame(
+            nameToFunction.get(NAME2),
+            provider.expressionFunction(
+                NAME2,
+                VALUES,
+                CONTEXT
+            )
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            2,
+            2,
+            2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameCached() {
+        final Counter counter = new Counter();
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider(
+            counter,
+            10
+        );
+
+        final ExpressionFunction<?, FakeExpressionEvaluationContext> function = provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+
+        assertSame(
+            function,
+            provider.expressionFunction(
+                ExpressionFunctionName.with(
+                    NAME1.value()
+                        .toUpperCase()
+                ),
+                VALUES,
+                CONTEXT
+            )
+        );
+
+        this.checkEquals(
+            1,
+            counter.count,
+            "wrapped provider calls"
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            1,
+            1,
+            1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelectorSharesNameEntry() {
+        final Counter counter = new Counter();
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider(
+            counter,
+            10
+        );
+
+        final ExpressionFunction<?, FakeExpressionEvaluationContext> function = provider.expressionFunction(
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+
+        assertSame(
+            function,
+            provider.expressionFunction(
+                ExpressionFunctionSelector.parse(
+                    NAME2 + "",
+                    CASE_SENSITIVITY
+                ),
+                CONTEXT
+            )
+        );
+
+        this.checkEquals(
+            1,
+            counter.count,
+            "wrapped provider calls"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionEvicts() {
+        final Counter counter = new Counter();
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider(
+            counter,
+            1
+        );
+
+        provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+
+        this.checkEquals(
+            3,
+            counter.count,
+            "wrapped provider calls"
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            1,
+            0,
+            3
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionEvictsNotRecentlyUsed() {
+        final Counter counter = new Counter();
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider(
+            counter,
+            2
+        );
+
+        provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+
+        // NAME1 and NAME2 are both marked as used, the hand clears both and evicts NAME1
+        provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            ExpressionFunctionSelector.parse(
+                NAME2 + "(\"value\")",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT
+        );
+
+        // NAME2 survived
+        provider.expressionFunction(
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+
+        this.checkEquals(
+            3,
+            counter.count,
+            "wrapped provider calls"
+        );
+
+        this.checkEquals(
+            2,
+            provider.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameWithValuesNotCached() {
+        final Counter counter = new Counter();
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider(
+            counter,
+            10
+        );
+
+        final List<?> values = Lists.of("value");
+
+        provider.expressionFunction(
+            NAME1,
+            values,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            NAME1,
+            values,
+            CONTEXT
+        );
+
+        this.checkEquals(
+            2,
+            counter.count,
+            "wrapped provider calls"
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            0,
+            0,
+            0
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameAfterSwapCachedUntilClear() {
+        final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> replacement = new FakeExpressionFunction<>() {
+            @Override
+            public Optional<ExpressionFunctionName> name() {
+                return Optional.of(NAME1);
+            }
+        };
+
+        final SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext> swappable = ExpressionFunctionProviders.swappable(
+            ExpressionFunctionProviders.basic(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Sets.of(
+                    FUNCTION1
+                )
+            )
+        );
+
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = CachingExpressionFunctionProvider.with(
+            swappable,
+            10
+        );
+
+        this.expressionFunctionAndCheck(
+            provider,
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+
+        swappable.swap(
+            ExpressionFunctionProviders.basic(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Sets.of(
+                    replacement
+                )
+            )
+        );
+
+        assertSame(
+            FUNCTION1,
+            provider.expressionFunction(
+                NAME1,
+                VALUES,
+                CONTEXT
+            ),
+            "cached before clear"
+        );
+
+        provider.clear();
+
+        assertSame(
+            replacement,
+            provider.expressionFunction(
+                NAME1,
+                VALUES,
+                CONTEXT
+            ),
+            "after clear"
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            1,
+            1,
+            2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameAfterRegistryUnregisterAndClearFails() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> registry = ExpressionFunctionProviders.registry(
+            BASE_URL,
+            CASE_SENSITIVITY
+        );
+        registry.register(FUNCTION2);
+
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = CachingExpressionFunctionProvider.with(
+            registry,
+            10
+        );
+
+        provider.expressionFunction(
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+
+        registry.unregister(NAME2);
+        provider.clear();
+
+        this.expressionFunctionFails(
+            provider,
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            0,
+            0,
+            2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameClearedDuringLookupNotCached() {
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> basic = ExpressionFunctionProviders.basic(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Sets.of(
+                FUNCTION1
+            )
+        );
+
+        final List<CachingExpressionFunctionProvider<FakeExpressionEvaluationContext>> cache = Lists.array();
+
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = CachingExpressionFunctionProvider.with(
+            new ExpressionFunctionProviderDelegator<>() {
+                @Override
+                public ExpressionFunction<?, FakeExpressionEvaluationContext> expressionFunction(final ExpressionFunctionName name,
+                                                                                                 final List<?> values,
+                                                                                                 final ProviderContext context) {
+                    // the wrapped provider changes while the function is being looked up
+                    cache.get(0)
+                        .clear();
+                    return basic.expressionFunction(
+                        name,
+                        values,
+                        context
+                    );
+                }
+
+                @Override
+                public ExpressionFunctionProvider<FakeExpressionEvaluationContext> expressionFunctionProvider() {
+                    return basic;
+                }
+            },
+            10
+        );
+        cache.add(provider);
+
+        this.expressionFunctionAndCheck(
+            provider,
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            0,
+            0,
+            1
+        );
+    }
+
+    @Test
+    public void testClearKeepsHitsAndMisses() {
+        final CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+
+        provider.clear();
+
+        this.sizeHitsMissesAndCheck(
+            provider,
+            0,
+            1,
+            1
+        );
+    }
+
+    private void sizeHitsMissesAndCheck(final CachingExpressionFunctionProvider<?> provider,
+                                        final int size,
+                                        final long hits,
+                                        final long misses) {
+        this.checkEquals(
+            size,
+            provider.size(),
+            "size"
+        );
+        this.checkEquals(
+            hits,
+            provider.hits(),
+            "hits"
+        );
+        this.checkEquals(
+            misses,
+            provider.misses(),
+            "misses"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfos() {
+        this.expressionFunctionInfosAndCheck(
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction1"),
+                NAME1
+            ),
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction2"),
+                NAME2
+            )
+        );
+    }
+
+    @Override
+    public CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return this.createExpressionFunctionProvider(
+            new Counter(),
+            10
+        );
+    }
+
+    private CachingExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider(final Counter counter,
+                                                                                                                 final int maxEntries) {
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> basic = ExpressionFunctionProviders.basic(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Sets.of(
+                FUNCTION1,
+                FUNCTION2
+            )
+        );
+
+        return CachingExpressionFunctionProvider.with(
+            new ExpressionFunctionProviderDelegator<>() {
+                @Override
+                public ExpressionFunction<?, FakeExpressionEvaluationContext> expressionFunction(final ExpressionFunctionSelector selector,
+                                                                                                 final ProviderContext context) {
+                    counter.count++;
+                    return basic.expressionFunction(
+                        selector.setValueText(""),
+                        context
+                    );
+                }
+
+                @Override
+                public ExpressionFunction<?, FakeExpressionEvaluationContext> expressionFunction(final ExpressionFunctionName name,
+                                                                                                 final List<?> values,
+                                                                                                 final ProviderContext context) {
+                    counter.count++;
+                    return basic.expressionFunction(
+                        name,
+                        Lists.empty(),
+                        context
+                    );
+                }
+
+                @Override
+                public ExpressionFunctionProvider<FakeExpressionEvaluationContext> expressionFunctionProvider() {
+                    return basic;
+                }
+
+                @Override
+                public String toString() {
+                    return basic.toString();
+                }
+            },
+            maxEntries
+        );
+    }
+
+    static final class Counter {
+        int count;
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createExpressionFunctionProvider(),
+            "testfunction1, testfunction2"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<CachingExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(CachingExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
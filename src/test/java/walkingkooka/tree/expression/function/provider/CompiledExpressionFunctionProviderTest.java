@@ -0,0 +1,473 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CompiledExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testfunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName ALIAS2 = ExpressionFunctionName.with("alias2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunction<?, FakeExpressionEvaluationContext> FUNCTION1 = function(NAME1);
+
+    private final static ExpressionFunction<?, FakeExpressionEvaluationContext> FUNCTION2 = function(NAME2);
+
+    private static ExpressionFunction<?, FakeExpressionEvaluationContext> function(final ExpressionFunctionName name) {
+        return new FakeExpressionFunction<>() {
+            @Override
+            public Optional<ExpressionFunctionName> name() {
+                return Optional.of(name);
+            }
+
+            @Override
+            public ExpressionFunction<Object, FakeExpressionEvaluationContext> setName(final Optional<ExpressionFunctionName> n) {
+                Objects.requireNonNull(n, "name");
+
+                return this.name().equals(n) ?
+                    this :
+                    Cast.to(
+                        function(n.get())
+                    );
+            }
+
+            @Override
+            public int hashCode() {
+                return this.name().hashCode();
+            }
+
+            @Override
+            public boolean equals(final Object other) {
+                return this == other || other instanceof ExpressionFunction && this.equals0((ExpressionFunction<?, ?>) other);
+            }
+
+            private boolean equals0(final ExpressionFunction<?, ?> other) {
+                return this.name().equals(other.name());
+            }
+
+            @Override
+            public String toString() {
+                return this.name()
+                    .get()
+                    .toString();
+            }
+        };
+    }
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompiledExpressionFunctionProvider.with(
+                null,
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompiledExpressionFunctionProvider.with(
+                ExpressionFunctionProviders.fake(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentName() {
+        this.expressionFunctionIfPresentAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameAlias() {
+        this.expressionFunctionAndCheck(
+            ALIAS2,
+            VALUES,
+            CONTEXT,
+            function(ALIAS2)
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameDifferentCase() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionName.with(
+                NAME1.value()
+                    .toUpperCase()
+            ).setCaseSensitivity(CASE_SENSITIVITY),
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameSameInstance() {
+        final CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunction(
+                ALIAS2,
+                VALUES,
+                CONTEXT
+            ),
+            provider.expressionFunction(
+                ALIAS2,
+                VALUES,
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameUnknownFails() {
+        this.expressionFunctionFails(
+            ExpressionFunctionName.with("unknown")
+                .setCaseSensitivity(CASE_SENSITIVITY),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME1 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelectorSameInstanceAsName() {
+        final CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunction(
+                ALIAS2,
+                VALUES,
+                CONTEXT
+            ),
+            provider.expressionFunction(
+                ExpressionFunctionSelector.parse(
+                    ALIAS2 + "",
+                    CASE_SENSITIVITY
+                ),
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelectorUnknownFails() {
+        this.expressionFunctionFails(
+            ExpressionFunctionSelector.parse(
+                "unknown",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfos() {
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> chain = this.chain();
+
+        this.expressionFunctionInfosAndCheck(
+            CompiledExpressionFunctionProvider.with(
+                chain,
+                CONTEXT
+            ),
+            chain.expressionFunctionInfos()
+        );
+    }
+
+    @Test
+    public void testWithProviderAbsentNameLeavesLookupToProvider() {
+        final ExpressionFunctionInfoSet infos = ExpressionFunctionInfoSet.parse(
+            "https://example.com/base/testfunction1 testfunction1",
+            CASE_SENSITIVITY
+        );
+
+        final CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = CompiledExpressionFunctionProvider.with(
+            new FakeExpressionFunctionProvider<>() {
+                @Override
+                public Optional<ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                                                                  final List<?> values,
+                                                                                                                  final ProviderContext context) {
+                    return Optional.empty();
+                }
+
+                @Override
+                public ExpressionFunction<?, FakeExpressionEvaluationContext> expressionFunction(final ExpressionFunctionName name,
+                                                                                                 final List<?> values,
+                                                                                                 final ProviderContext context) {
+                    throw new UnknownExpressionFunctionException(name);
+                }
+
+                @Override
+                public ExpressionFunctionInfoSet expressionFunctionInfos() {
+                    return infos;
+                }
+
+                @Override
+                public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+                    return CASE_SENSITIVITY;
+                }
+            },
+            CONTEXT
+        );
+
+        assertThrows(
+            UnknownExpressionFunctionException.class,
+            () -> provider.expressionFunction(
+                NAME1,
+                VALUES,
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testWithProviderFailureFails() {
+        final ExpressionFunctionInfoSet infos = ExpressionFunctionInfoSet.parse(
+            "https://example.com/base/testfunction1 testfunction1",
+            CASE_SENSITIVITY
+        );
+
+        final IllegalStateException thrown = assertThrows(
+            IllegalStateException.class,
+            () -> CompiledExpressionFunctionProvider.with(
+                new FakeExpressionFunctionProvider<FakeExpressionEvaluationContext>() {
+                    @Override
+                    public Optional<ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                                                                      final List<?> values,
+                                                                                                                      final ProviderContext context) {
+                        throw new IllegalStateException("Failed to create " + name);
+                    }
+
+                    @Override
+                    public ExpressionFunctionInfoSet expressionFunctionInfos() {
+                        return infos;
+                    }
+
+                    @Override
+                    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+                        return CASE_SENSITIVITY;
+                    }
+                },
+                CONTEXT
+            )
+        );
+
+        this.checkEquals(
+            "Failed to create testfunction1",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosAfterRegistryRegisterUnchanged() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> registry = RegistryExpressionFunctionProvider.with(
+            BASE_URL,
+            CASE_SENSITIVITY
+        );
+        registry.register(FUNCTION1);
+
+        final CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = CompiledExpressionFunctionProvider.with(
+            registry,
+            CONTEXT
+        );
+
+        final ExpressionFunctionInfoSet infos = provider.expressionFunctionInfos();
+
+        registry.register(FUNCTION2);
+
+        assertSame(
+            infos,
+            provider.expressionFunctionInfos()
+        );
+    }
+
+    @Test
+    public void testCompileAgainAfterRegistryRegister() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> registry = RegistryExpressionFunctionProvider.with(
+            BASE_URL,
+            CASE_SENSITIVITY
+        );
+        registry.register(FUNCTION1);
+
+        CompiledExpressionFunctionProvider.with(
+            registry,
+            CONTEXT
+        );
+
+        registry.register(FUNCTION2);
+
+        final CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = CompiledExpressionFunctionProvider.with(
+            registry,
+            CONTEXT
+        );
+
+        this.expressionFunctionAndCheck(
+            provider,
+            NAME2,
+            VALUES,
+            CONTEXT,
+            FUNCTION2
+        );
+        this.expressionFunctionInfosAndCheck(
+            provider,
+            registry.expressionFunctionInfos()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosSameWhileUnchanged() {
+        final CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunctionInfos(),
+            provider.expressionFunctionInfos()
+        );
+    }
+
+    @Override
+    public CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return CompiledExpressionFunctionProvider.with(
+            this.chain(),
+            CONTEXT
+        );
+    }
+
+    private ExpressionFunctionProvider<FakeExpressionEvaluationContext> chain() {
+        return ExpressionFunctionProviders.aliases(
+            ExpressionFunctionAliasSet.parse(
+                NAME1 + ", " + ALIAS2 + " " + NAME2,
+                CASE_SENSITIVITY
+            ),
+            ExpressionFunctionProviders.basic(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Sets.of(
+                    FUNCTION1,
+                    FUNCTION2
+                )
+            )
+        );
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> chain = this.chain();
+
+        this.toStringAndCheck(
+            CompiledExpressionFunctionProvider.with(
+                chain,
+                CONTEXT
+            ),
+            chain.toString()
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<CompiledExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(CompiledExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -19,6 +19,8 @@ package walkingkooka.tree.expression.function.provider;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.plugin.ProviderContexts;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.text.CaseSensitivity;
 import walkingkooka.tree.expression.ExpressionFunctionName;
@@ -53,6 +55,26 @@ public final class EmptyExpressionFunctionProviderTest implements ExpressionFunc
         );
     }
 
+    @Test
+    public void testExpressionFunctionIfPresentName() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown"),
+            Lists.empty(),
+            ProviderContexts.fake()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentSelector() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionSelector.parse(
+                "unknown",
+                ExpressionFunctionName.DEFAULT_CASE_SENSITIVITY
+            ),
+            ProviderContexts.fake()
+        );
+    }
+
     @Override
     public EmptyExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
         return EmptyExpressionFunctionProvider.with(ExpressionFunctionName.DEFAULT_CASE_SENSITIVITY);
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+
+public final class ExpressionFunctionAliasSetMergerTest implements ClassTesting<ExpressionFunctionAliasSetMerger> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static String INFOS = "https://example.com/abs abs, https://example.com/max max, https://example.com/sum sum";
+
+    @Test
+    public void testMergeNames() {
+        this.mergeAndCheck(
+            "abs, max",
+            "https://example.com/abs abs, https://example.com/max max"
+        );
+    }
+
+    @Test
+    public void testMergeAliasRenamesTarget() {
+        this.mergeAndCheck(
+            "abs, total sum",
+            "https://example.com/abs abs, https://example.com/sum total"
+        );
+    }
+
+    @Test
+    public void testMergeAliasWithUrl() {
+        this.mergeAndCheck(
+            "custom-alias custom(1) https://example.com/custom",
+            "https://example.com/custom custom-alias"
+        );
+    }
+
+    @Test
+    public void testMergeMissingName() {
+        this.mergeAndCheck(
+            "abs, missing",
+            "https://example.com/abs abs"
+        );
+    }
+
+    @Test
+    public void testMergeAliasTargetMissingLeftToPluginAliasSet() {
+        this.mergeAndCheck(
+            "abs, total missing",
+            null
+        );
+    }
+
+    private void mergeAndCheck(final String aliases,
+                               final String expected) {
+        this.checkEquals(
+            null == expected ?
+                null :
+                ExpressionFunctionInfoSet.parse(
+                    expected,
+                    CASE_SENSITIVITY
+                ),
+            ExpressionFunctionAliasSetMerger.merge(
+                ExpressionFunctionAliasSet.parse(
+                    aliases,
+                    CASE_SENSITIVITY
+                ),
+                CASE_SENSITIVITY,
+                ExpressionFunctionInfoSet.parse(
+                    INFOS,
+                    CASE_SENSITIVITY
+                )
+            ),
+            aliases
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionAliasSetMerger> type() {
+        return ExpressionFunctionAliasSetMerger.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.HashCodeEqualsDefinedTesting2;
 import walkingkooka.ToStringTesting;
 import walkingkooka.collect.set.Sets;
+import walkingkooka.plugin.PluginAliasSet;
 import walkingkooka.plugin.PluginAliasSetLikeTesting;
 import walkingkooka.text.CaseSensitivity;
 import walkingkooka.tree.expression.ExpressionFunctionName;
@@ -28,6 +29,10 @@ import walkingkooka.tree.json.JsonNode;
 import walkingkooka.tree.json.marshall.JsonNodeMarshallingTesting;
 import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
 
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class ExpressionFunctionAliasSetTest implements PluginAliasSetLikeTesting<ExpressionFunctionName,
@@ -77,6 +82,20 @@ public final class ExpressionFunctionAliasSetTest implements PluginAliasSetLikeT
         );
     }
 
+    @Test
+    public void testAliasOrNameWithNameDifferentCaseReturnsStoredName() {
+        final Optional<ExpressionFunctionName> aliasOrName = this.createSet()
+            .aliasOrName(
+                ExpressionFunctionName.with("ABS")
+                    .setCaseSensitivity(CASE_SENSITIVITY)
+            );
+
+        this.checkEquals(
+            Optional.of("abs"),
+            aliasOrName.map(ExpressionFunctionName::value)
+        );
+    }
+
     @Test
     public void testAliasSelectorWithName() {
         this.aliasSelectorAndCheck(
@@ -134,9 +153,608 @@ public final class ExpressionFunctionAliasSetTest implements PluginAliasSetLikeT
         );
     }
 
+    @Test
+    public void testConcatPresentSame() {
+        final ExpressionFunctionAliasSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.concat(
+                set.first()
+            )
+        );
+    }
+
+    @Test
+    public void testConcatOrReplacePresentSame() {
+        final ExpressionFunctionAliasSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.concatOrReplace(
+                set.last()
+            )
+        );
+    }
+
+    @Test
+    public void testDeleteAbsentSame() {
+        final ExpressionFunctionAliasSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.delete(
+                ExpressionFunctionAlias.parse(
+                    "absent",
+                    CASE_SENSITIVITY
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testReplaceSameAliasSame() {
+        final ExpressionFunctionAliasSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.replace(
+                set.first(),
+                set.first()
+            )
+        );
+    }
+
+    @Test
+    public void testSetElementsEqualSame() {
+        final ExpressionFunctionAliasSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.setElements(
+                set.toSet()
+            )
+        );
+    }
+
+    // index...........................................................................................................
+
+    private final static String ALIASES = "abs, min, max, custom-alias custom(1) https://example.com/custom , sum-alias sum";
+
+    @Test
+    public void testAliasSelectorAliasOrNameContainsAliasOrNameAgreeWithPluginAliasSet() {
+        this.lookupsAgreeWithPluginAliasSet(
+            this.createSet(),
+            PluginAliasSet.parse(
+                ALIASES,
+                ExpressionFunctionPluginHelper.instance(CASE_SENSITIVITY)
+            )
+        );
+    }
+
+    @Test
+    public void testLookupsAfterConcatAndDeleteAgreeWithPluginAliasSet() {
+        final ExpressionFunctionAlias alias = ExpressionFunctionAlias.parse(
+            "new-alias new(2)",
+            CASE_SENSITIVITY
+        );
+
+        final ExpressionFunctionAliasSet concat = this.createSet()
+            .concat(alias);
+        this.lookupsAgreeWithPluginAliasSet(
+            concat,
+            PluginAliasSet.parse(
+                ALIASES + ", new-alias new(2)",
+                ExpressionFunctionPluginHelper.instance(CASE_SENSITIVITY)
+            )
+        );
+
+        this.lookupsAgreeWithPluginAliasSet(
+            concat.delete(alias),
+            PluginAliasSet.parse(
+                ALIASES,
+                ExpressionFunctionPluginHelper.instance(CASE_SENSITIVITY)
+            )
+        );
+    }
+
+    private void lookupsAgreeWithPluginAliasSet(final ExpressionFunctionAliasSet set,
+                                                final PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet> pluginAliasSet) {
+        this.checkEquals(
+            pluginAliasSet.text(),
+            set.text(),
+            "text"
+        );
+
+        for (final String text : new String[]{"abs", "ABS", "min", "max", "custom-alias", "CUSTOM-ALIAS", "custom", "sum-alias", "sum", "new-alias", "new", "unknown"}) {
+            final ExpressionFunctionName name = ExpressionFunctionName.with(text)
+                .setCaseSensitivity(CASE_SENSITIVITY);
+
+            this.checkEquals(
+                pluginAliasSet.aliasSelector(name),
+                set.aliasSelector(name),
+                () -> "aliasSelector " + name
+            );
+            this.checkEquals(
+                pluginAliasSet.aliasOrName(name),
+                set.aliasOrName(name),
+                () -> "aliasOrName " + name
+            );
+            // names are equal ignoring case, so also compare the text of the returned name
+            this.checkEquals(
+                pluginAliasSet.aliasOrName(name)
+                    .map(ExpressionFunctionName::value),
+                set.aliasOrName(name)
+                    .map(ExpressionFunctionName::value),
+                () -> "aliasOrName value " + name
+            );
+            this.checkEquals(
+                pluginAliasSet.containsAliasOrName(name),
+                set.containsAliasOrName(name),
+                () -> "containsAliasOrName " + name
+            );
+        }
+    }
+
+    @Test
+    public void testConcatAgreesWithPluginAliasSet() {
+        this.editAgreesWithPluginAliasSet(
+            "new-alias new(2)",
+            (s, a) -> s.concat(a),
+            (p, a) -> p.concat(a)
+        );
+    }
+
+    @Test
+    public void testConcatDuplicateNameAgreesWithPluginAliasSet() {
+        this.editAgreesWithPluginAliasSet(
+            "abs different",
+            (s, a) -> s.concat(a),
+            (p, a) -> p.concat(a)
+        );
+    }
+
+    @Test
+    public void testConcatDuplicateUrlAgreesWithPluginAliasSet() {
+        this.editAgreesWithPluginAliasSet(
+            "new-alias new https://example.com/custom",
+            (s, a) -> s.concat(a),
+            (p, a) -> p.concat(a)
+        );
+    }
+
+    @Test
+    public void testConcatOrReplaceAgreesWithPluginAliasSet() {
+        this.editAgreesWithPluginAliasSet(
+            "sum-alias different",
+            (s, a) -> s.concatOrReplace(a),
+            (p, a) -> p.concatOrReplace(a)
+        );
+    }
+
+    @Test
+    public void testReplaceAgreesWithPluginAliasSet() {
+        final ExpressionFunctionAlias oldAlias = ExpressionFunctionAlias.parse(
+            "sum-alias sum",
+            CASE_SENSITIVITY
+        );
+
+        this.editAgreesWithPluginAliasSet(
+            "total-alias sum",
+            (s, a) -> s.replace(oldAlias, a),
+            (p, a) -> p.replace(oldAlias, a)
+        );
+    }
+
+    @Test
+    public void testReplaceAbsentSameAliasAgreesWithPluginAliasSet() {
+        this.editAgreesWithPluginAliasSet(
+            "absent",
+            (s, a) -> s.replace(a, a),
+            (p, a) -> p.replace(a, a)
+        );
+    }
+
+    @Test
+    public void testDeleteAgreesWithPluginAliasSet() {
+        this.editAgreesWithPluginAliasSet(
+            "custom-alias custom(1) https://example.com/custom",
+            (s, a) -> s.delete(a),
+            (p, a) -> p.delete(a)
+        );
+    }
+
+    @Test
+    public void testDeleteAllIsEmpty() {
+        ExpressionFunctionAliasSet set = this.createSet();
+        for (final ExpressionFunctionAlias alias : this.createSet()) {
+            set = set.delete(alias);
+        }
+
+        assertSame(
+            ExpressionFunctionAliasSet.empty(CASE_SENSITIVITY),
+            set
+        );
+    }
+
+    @Test
+    public void testSubSetAgreesWithPluginAliasSet() {
+        final ExpressionFunctionAlias to = ExpressionFunctionAlias.parse(
+            "min",
+            CASE_SENSITIVITY
+        );
+
+        this.editAgreesWithPluginAliasSet(
+            "custom-alias custom(1) https://example.com/custom",
+            (s, a) -> s.subSet(a, to),
+            (p, a) -> p.subSet(a, to)
+        );
+    }
+
+    @Test
+    public void testSubSetReversedAgreesWithPluginAliasSet() {
+        final ExpressionFunctionAlias to = ExpressionFunctionAlias.parse(
+            "abs",
+            CASE_SENSITIVITY
+        );
+
+        this.editAgreesWithPluginAliasSet(
+            "sum-alias sum",
+            (s, a) -> s.subSet(a, to),
+            (p, a) -> p.subSet(a, to)
+        );
+    }
+
+    @Test
+    public void testHeadSetAgreesWithPluginAliasSet() {
+        this.editAgreesWithPluginAliasSet(
+            "max",
+            (s, a) -> s.headSet(a),
+            (p, a) -> p.headSet(a)
+        );
+    }
+
+    @Test
+    public void testTailSetAgreesWithPluginAliasSet() {
+        this.editAgreesWithPluginAliasSet(
+            "max",
+            (s, a) -> s.tailSet(a),
+            (p, a) -> p.tailSet(a)
+        );
+    }
+
+    @Test
+    public void testTailSetFirstSame() {
+        final ExpressionFunctionAliasSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.tailSet(
+                set.first()
+            )
+        );
+    }
+
+    @Test
+    public void testLookupsAfterHeadSetAgreeWithPluginAliasSet() {
+        this.lookupsAgreeWithPluginAliasSet(
+            this.createSet()
+                .headSet(
+                    ExpressionFunctionAlias.parse(
+                        "min",
+                        CASE_SENSITIVITY
+                    )
+                ),
+            PluginAliasSet.parse(
+                "abs, custom-alias custom(1) https://example.com/custom , max",
+                ExpressionFunctionPluginHelper.instance(CASE_SENSITIVITY)
+            )
+        );
+    }
+
+    /**
+     * Performs the same edit on the set and a {@link PluginAliasSet} with the same aliases, the results must have the
+     * same aliases and text or both fail with the same exception.
+     */
+    private void editAgreesWithPluginAliasSet(final String alias,
+                                              final BiFunction<ExpressionFunctionAliasSet, ExpressionFunctionAlias, ExpressionFunctionAliasSet> edit,
+                                              final BiFunction<PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet>, ExpressionFunctionAlias, PluginAliasSet<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet>> pluginAliasSetEdit) {
+        final ExpressionFunctionAlias parsed = ExpressionFunctionAlias.parse(
+            alias,
+            CASE_SENSITIVITY
+        );
+
+        String expected;
+        try {
+            expected = pluginAliasSetEdit.apply(
+                PluginAliasSet.parse(
+                    ALIASES,
+                    ExpressionFunctionPluginHelper.instance(CASE_SENSITIVITY)
+                ),
+                parsed
+            ).text();
+        } catch (final RuntimeException cause) {
+            expected = cause.getClass().getName();
+        }
+
+        String edited;
+        try {
+            edited = edit.apply(
+                this.createSet(),
+                parsed
+            ).text();
+        } catch (final RuntimeException cause) {
+            edited = cause.getClass().getName();
+        }
+
+        this.checkEquals(
+            expected,
+            edited,
+            alias
+        );
+    }
+
+    // merge...........................................................................................................
+
+    private final static String INFOS = "https://example.com/abs abs, https://example.com/custom custom, https://example.com/max max, https://example.com/other other, https://example.com/sum sum";
+
+    @Test
+    public void testMergeEmptyAgreesWithPluginAliasSet() {
+        this.mergeAgreesWithPluginAliasSet(
+            ExpressionFunctionAliasSet.empty(CASE_SENSITIVITY),
+            INFOS
+        );
+    }
+
+    @Test
+    public void testMergeEmptyInfosAgreesWithPluginAliasSet() {
+        this.mergeAgreesWithPluginAliasSet(
+            this.createSet(),
+            ""
+        );
+    }
+
+    @Test
+    public void testMergeAgreesWithPluginAliasSet() {
+        this.mergeAgreesWithPluginAliasSet(
+            this.createSet(),
+            INFOS
+        );
+    }
+
+    @Test
+    public void testMergeNamesOnlyAgreesWithPluginAliasSet() {
+        this.mergeAgreesWithPluginAliasSet(
+            this.parseString("abs, max, missing, sum"),
+            INFOS
+        );
+    }
+
+    @Test
+    public void testMergeAliasTargetMissingAgreesWithPluginAliasSet() {
+        this.mergeAgreesWithPluginAliasSet(
+            this.parseString("abs, missing-alias missing"),
+            INFOS
+        );
+    }
+
+    @Test
+    public void testMergeCaseSensitiveAgreesWithPluginAliasSet() {
+        this.mergeAgreesWithPluginAliasSet(
+            ExpressionFunctionAliasSet.parse(
+                "Abs, abs, sum-alias sum",
+                CaseSensitivity.SENSITIVE
+            ),
+            ExpressionFunctionInfoSet.parse(
+                "https://example.com/Abs Abs, https://example.com/abs abs, https://example.com/sum sum",
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testMergeEveryInfoNamedSame() {
+        final ExpressionFunctionInfoSet infos = ExpressionFunctionInfoSet.parse(
+            "https://example.com/abs abs, https://example.com/max max",
+            CASE_SENSITIVITY
+        );
+
+        assertSame(
+            infos,
+            this.parseString("abs, max")
+                .merge(infos)
+        );
+    }
+
+    @Test
+    public void testMergeEmptyAgreesWithPluginAliasSetEmptyInfos() {
+        this.mergeAgreesWithPluginAliasSet(
+            ExpressionFunctionAliasSet.empty(CASE_SENSITIVITY),
+            ""
+        );
+    }
+
+    private void mergeAgreesWithPluginAliasSet(final ExpressionFunctionAliasSet aliases,
+                                               final String infos) {
+        this.mergeAgreesWithPluginAliasSet(
+            aliases,
+            ExpressionFunctionInfoSet.parse(
+                infos,
+                CASE_SENSITIVITY
+            )
+        );
+    }
+
+    /**
+     * Merges using the set and using a {@link PluginAliasSet} with the same aliases, which never takes any shortcut,
+     * the results must have the same infos and case sensitivity.
+     */
+    private void mergeAgreesWithPluginAliasSet(final ExpressionFunctionAliasSet aliases,
+                                               final ExpressionFunctionInfoSet infos) {
+        final ExpressionFunctionInfoSet expected = PluginAliasSet.parse(
+            aliases.text(),
+            ExpressionFunctionPluginHelper.instance(aliases.caseSensitivity())
+        ).merge(infos);
+
+        final ExpressionFunctionInfoSet merged = aliases.merge(infos);
+
+        this.checkEquals(
+            expected,
+            merged
+        );
+        this.checkEquals(
+            expected.text(),
+            merged.text(),
+            "text"
+        );
+        this.checkEquals(
+            this.marshallContext()
+                .marshall(expected),
+            this.marshallContext()
+                .marshall(merged),
+            "json"
+        );
+    }
+
+    // binary...........................................................................................................
+
+    @Test
+    public void testParseBinaryInfoSetFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionAliasSet.parseBinary(
+                ExpressionFunctionInfoSet.empty(CASE_SENSITIVITY)
+                    .toBinary()
+            )
+        );
+
+        this.checkEquals(
+            "Invalid type 73 expected 65",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testParseBinaryUnknownAliasFlagsFails() {
+        final byte[] bytes = ExpressionFunctionAliasSet.parse(
+            "abs",
+            CASE_SENSITIVITY
+        ).toBinary();
+
+        // type, flags, count then the first alias flags
+        final int flags = bytes[3];
+        bytes[3] |= 0x80;
+
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionAliasSet.parseBinary(bytes)
+        );
+
+        this.checkEquals(
+            "Invalid flags " + (flags | 0x80) + " at 3",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testParseBinaryTruncatedEveryLengthFails() {
+        final byte[] bytes = this.createSet()
+            .toBinary();
+
+        for (int length = 0; length < bytes.length; length++) {
+            final byte[] truncated = new byte[length];
+            System.arraycopy(
+                bytes,
+                0,
+                truncated,
+                0,
+                length
+            );
+
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> ExpressionFunctionAliasSet.parseBinary(truncated),
+                "length " + length
+            );
+        }
+    }
+
+    @Test
+    public void testParseBinaryExtraBytesFails() {
+        final byte[] bytes = this.createSet()
+            .toBinary();
+        final byte[] extra = new byte[bytes.length + 1];
+        System.arraycopy(
+            bytes,
+            0,
+            extra,
+            0,
+            bytes.length
+        );
+
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionAliasSet.parseBinary(extra)
+        );
+
+        this.checkEquals(
+            "Invalid extra bytes at " + bytes.length,
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryEmpty() {
+        assertSame(
+            ExpressionFunctionAliasSet.empty(CASE_SENSITIVITY),
+            ExpressionFunctionAliasSet.parseBinary(
+                ExpressionFunctionAliasSet.empty(CASE_SENSITIVITY)
+                    .toBinary()
+            )
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryCaseInsensitive() {
+        this.toBinaryParseBinaryAndCheck(
+            this.createSet()
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryCaseSensitive() {
+        this.toBinaryParseBinaryAndCheck(
+            ExpressionFunctionAliasSet.parse(
+                "abs, custom-alias custom(1) https://example.com/custom , Sum-Alias sum",
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    private void toBinaryParseBinaryAndCheck(final ExpressionFunctionAliasSet set) {
+        final ExpressionFunctionAliasSet parsed = ExpressionFunctionAliasSet.parseBinary(
+            set.toBinary()
+        );
+
+        this.checkEquals(
+            set,
+            parsed
+        );
+        this.checkEquals(
+            set.text(),
+            parsed.text()
+        );
+        this.checkEquals(
+            this.marshallContext()
+                .marshall(set),
+            this.marshallContext()
+                .marshall(parsed)
+        );
+    }
+
     @Override
     public ExpressionFunctionAliasSet createSet() {
-        return this.parseString("abs, min, max, custom-alias custom(1) https://example.com/custom , sum-alias sum");
+        return this.parseString(ALIASES);
     }
 
     // parse............................................................................................................
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class ExpressionFunctionInfoSetJoinerTest implements ClassTesting<ExpressionFunctionInfoSetJoiner> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static String INFOS = "https://example.com/abs abs, https://example.com/max max, https://example.com/sum sum";
+
+    @Test
+    public void testFilterSameNames() {
+        this.filterAndCheck(
+            "https://example.com/abs abs, https://example.com/sum sum",
+            "https://example.com/abs abs, https://example.com/sum sum"
+        );
+    }
+
+    @Test
+    public void testFilterRenamedUrl() {
+        this.filterAndCheck(
+            "https://example.com/max maximum, https://example.com/other other",
+            "https://example.com/max max"
+        );
+    }
+
+    @Test
+    public void testFilterEveryUrlSame() {
+        final ExpressionFunctionInfoSet infos = parse(INFOS);
+
+        assertSame(
+            infos,
+            ExpressionFunctionInfoSetJoiner.filter(
+                infos,
+                parse("https://example.com/abs abs, https://example.com/max maximum, https://example.com/sum sum")
+            )
+        );
+    }
+
+    @Test
+    public void testRenameIfPresent() {
+        this.renameIfPresentAndCheck(
+            "https://example.com/sum total",
+            "https://example.com/abs abs, https://example.com/max max, https://example.com/sum total"
+        );
+    }
+
+    @Test
+    public void testRenameIfPresentSwapNames() {
+        this.renameIfPresentAndCheck(
+            "https://example.com/abs max, https://example.com/max abs",
+            "https://example.com/abs max, https://example.com/max abs, https://example.com/sum sum"
+        );
+    }
+
+    @Test
+    public void testRenameIfPresentDuplicateNameLeftToPluginInfoSet() {
+        this.renameIfPresentAndCheck(
+            "https://example.com/abs max",
+            null
+        );
+    }
+
+    @Test
+    public void testRenameIfPresentSameNamesSame() {
+        final ExpressionFunctionInfoSet infos = parse(INFOS);
+
+        assertSame(
+            infos,
+            ExpressionFunctionInfoSetJoiner.renameIfPresent(
+                infos,
+                parse("https://example.com/max max, https://example.com/other other")
+            )
+        );
+    }
+
+    private void filterAndCheck(final String other,
+                                final String expected) {
+        this.checkEquals(
+            parse(expected),
+            ExpressionFunctionInfoSetJoiner.filter(
+                parse(INFOS),
+                parse(other)
+            ),
+            other
+        );
+    }
+
+    private void renameIfPresentAndCheck(final String renameInfos,
+                                         final String expected) {
+        this.checkEquals(
+            null == expected ?
+                null :
+                parse(expected),
+            ExpressionFunctionInfoSetJoiner.renameIfPresent(
+                parse(INFOS),
+                parse(renameInfos)
+            ),
+            renameInfos
+        );
+    }
+
+    private static ExpressionFunctionInfoSet parse(final String text) {
+        return ExpressionFunctionInfoSet.parse(
+            text,
+            CASE_SENSITIVITY
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionInfoSetJoiner> type() {
+        return ExpressionFunctionInfoSetJoiner.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -18,17 +18,29 @@
 package walkingkooka.tree.expression.function.provider;
 
 import org.junit.jupiter.api.Test;
+import walkingkooka.InvalidCharacterException;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.set.Sets;
+import walkingkooka.collect.set.SortedSets;
 import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfoSet;
 import walkingkooka.plugin.PluginInfoSetLikeTesting;
 import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.text.CaseSensitivity;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.Printers;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.json.JsonNode;
 import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
 
+import java.io.StringReader;
+import java.util.SortedSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class ExpressionFunctionInfoSetTest implements PluginInfoSetLikeTesting<ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionInfoSet, ExpressionFunctionSelector, ExpressionFunctionAlias, ExpressionFunctionAliasSet>,
     ClassTesting<ExpressionFunctionInfoSet> {
@@ -95,6 +107,415 @@ public final class ExpressionFunctionInfoSetTest implements PluginInfoSetLikeTes
         );
     }
 
+    @Test
+    public void testConcatPresentSame() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.concat(
+                this.info()
+            )
+        );
+    }
+
+    @Test
+    public void testConcatAllEmptySame() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.concatAll(
+                Sets.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testDeleteAbsentSame() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.delete(
+                ExpressionFunctionInfo.with(
+                    Url.parseAbsolute("https://example.com/absent"),
+                    ExpressionFunctionName.with("absent")
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testDeleteAllEmptySame() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.deleteAll(
+                Sets.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testReplaceSameInfoSame() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.replace(
+                this.info(),
+                this.info()
+            )
+        );
+    }
+
+    @Test
+    public void testReplaceAbsentSameInfo() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+        final ExpressionFunctionInfo absent = functionInfo("absent");
+
+        this.checkEquals(
+            false,
+            set.contains(absent),
+            "contains"
+        );
+
+        this.agreesWithPluginInfoSet(
+            set,
+            (s) -> s.replace(
+                absent,
+                absent
+            ),
+            (p) -> p.replace(
+                absent,
+                absent
+            )
+        );
+    }
+
+    @Test
+    public void testReplaceAbsentDifferentInfo() {
+        final ExpressionFunctionInfo absent = functionInfo("absent");
+        final ExpressionFunctionInfo newInfo = functionInfo("new");
+
+        this.agreesWithPluginInfoSet(
+            this.createSet(),
+            (s) -> s.replace(
+                absent,
+                newInfo
+            ),
+            (p) -> p.replace(
+                absent,
+                newInfo
+            )
+        );
+    }
+
+    @Test
+    public void testReplace() {
+        final ExpressionFunctionInfo info1 = functionInfo("function1");
+        final ExpressionFunctionInfo info2 = functionInfo("function2");
+        final ExpressionFunctionInfo info3 = functionInfo("function3");
+
+        this.agreesWithPluginInfoSet(
+            ExpressionFunctionInfoSet.with(
+                Sets.of(
+                    info1,
+                    info2
+                ),
+                CASE_SENSITIVITY
+            ),
+            (s) -> s.replace(
+                info1,
+                info3
+            ),
+            (p) -> p.replace(
+                info1,
+                info3
+            )
+        );
+    }
+
+    @Test
+    public void testReplaceWithPresentInfo() {
+        final ExpressionFunctionInfo info1 = functionInfo("function1");
+        final ExpressionFunctionInfo info2 = functionInfo("function2");
+
+        this.agreesWithPluginInfoSet(
+            ExpressionFunctionInfoSet.with(
+                Sets.of(
+                    info1,
+                    info2
+                ),
+                CASE_SENSITIVITY
+            ),
+            (s) -> s.replace(
+                info1,
+                info2
+            ),
+            (p) -> p.replace(
+                info1,
+                info2
+            )
+        );
+    }
+
+    @Test
+    public void testConcatMany() {
+        ExpressionFunctionInfoSet set = ExpressionFunctionInfoSet.empty(CASE_SENSITIVITY);
+        PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo> pluginInfoSet = PluginInfoSet.with(set);
+
+        // insert in an order that forces rebalancing in both directions
+        for (final int i : new int[]{50, 40, 30, 45, 47, 60, 70, 65, 10, 20, 15, 99, 80, 85, 1}) {
+            final ExpressionFunctionInfo info = functionInfo("function" + (100 + i));
+
+            set = set.concat(info);
+            pluginInfoSet = pluginInfoSet.concat(info);
+
+            this.checkEquals(
+                Lists.of(
+                    pluginInfoSet.toArray()
+                ),
+                Lists.of(
+                    set.toArray()
+                ),
+                () -> "concat " + info
+            );
+        }
+
+        this.checkEquals(
+            pluginInfoSet.text(),
+            set.text(),
+            "text"
+        );
+    }
+
+    @Test
+    public void testConcatSameNameDifferentUrl() {
+        final ExpressionFunctionInfo info = functionInfo("function1");
+        final ExpressionFunctionInfo different = ExpressionFunctionInfo.with(
+            Url.parseAbsolute("https://example.com/different"),
+            info.name()
+        );
+
+        this.agreesWithPluginInfoSet(
+            ExpressionFunctionInfoSet.with(
+                Sets.of(info),
+                CASE_SENSITIVITY
+            ),
+            (s) -> s.concat(different),
+            (p) -> p.concat(different)
+        );
+    }
+
+    @Test
+    public void testConcatThenDelete() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+        final ExpressionFunctionInfo info = functionInfo("function1");
+
+        this.checkEquals(
+            set,
+            set.concat(info)
+                .delete(info)
+        );
+    }
+
+    @Test
+    public void testDeleteLastIsEmpty() {
+        assertSame(
+            ExpressionFunctionInfoSet.empty(CASE_SENSITIVITY),
+            this.createSet()
+                .delete(
+                    this.info()
+                )
+        );
+    }
+
+    /**
+     * Performs the same edit on the set and a {@link PluginInfoSet} with the same infos, the results must have the
+     * same infos in the same order or both fail with the same exception.
+     */
+    private void agreesWithPluginInfoSet(final ExpressionFunctionInfoSet set,
+                                         final Function<ExpressionFunctionInfoSet, ExpressionFunctionInfoSet> edit,
+                                         final Function<PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo>, PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo>> pluginInfoSetEdit) {
+        Object expected;
+        try {
+            expected = Lists.of(
+                pluginInfoSetEdit.apply(
+                    PluginInfoSet.with(set)
+                ).toArray()
+            );
+        } catch (final RuntimeException cause) {
+            expected = cause.getClass();
+        }
+
+        Object edited;
+        try {
+            edited = Lists.of(
+                edit.apply(set)
+                    .toArray()
+            );
+        } catch (final RuntimeException cause) {
+            edited = cause.getClass();
+        }
+
+        this.checkEquals(
+            expected,
+            edited
+        );
+    }
+
+    private static ExpressionFunctionInfo functionInfo(final String name) {
+        return ExpressionFunctionInfo.with(
+            Url.parseAbsolute("https://example.com/" + name),
+            ExpressionFunctionName.with(name)
+                .setCaseSensitivity(CASE_SENSITIVITY)
+        );
+    }
+
+    @Test
+    public void testSetElementsEqualSame() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.setElements(
+                Sets.of(
+                    this.info()
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testFilterSelfSame() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.filter(set)
+        );
+    }
+
+    @Test
+    public void testFilterEmptySame() {
+        final ExpressionFunctionInfoSet set = ExpressionFunctionInfoSet.empty(CASE_SENSITIVITY);
+
+        assertSame(
+            set,
+            set.filter(
+                this.createSet()
+            )
+        );
+    }
+
+    @Test
+    public void testRenameIfPresentEmptySame() {
+        final ExpressionFunctionInfoSet set = this.createSet();
+
+        assertSame(
+            set,
+            set.renameIfPresent(
+                ExpressionFunctionInfoSet.empty(CASE_SENSITIVITY)
+            )
+        );
+    }
+
+    private final static String JOIN_INFOS = "https://example.com/abs abs, https://example.com/max max, https://example.com/min min, https://example.com/sum sum";
+
+    @Test
+    public void testFilterAgreesWithPluginInfoSet() {
+        this.joinAgreesWithPluginInfoSet(
+            "https://example.com/max max, https://example.com/sum total, https://example.com/other other",
+            (s, o) -> s.filter(o),
+            (p, o) -> p.filter(o)
+        );
+    }
+
+    @Test
+    public void testFilterNoneAgreesWithPluginInfoSet() {
+        this.joinAgreesWithPluginInfoSet(
+            "https://example.com/other other",
+            (s, o) -> s.filter(o),
+            (p, o) -> p.filter(o)
+        );
+    }
+
+    @Test
+    public void testFilterEveryUrlSame() {
+        final ExpressionFunctionInfoSet set = this.parseString(JOIN_INFOS);
+
+        assertSame(
+            set,
+            set.filter(
+                this.parseString(JOIN_INFOS + ", https://example.com/other other")
+            )
+        );
+    }
+
+    @Test
+    public void testRenameIfPresentAgreesWithPluginInfoSet() {
+        this.joinAgreesWithPluginInfoSet(
+            "https://example.com/max max, https://example.com/sum total, https://example.com/other other",
+            (s, o) -> s.renameIfPresent(o),
+            (p, o) -> p.renameIfPresent(o)
+        );
+    }
+
+    @Test
+    public void testRenameIfPresentSwapNamesAgreesWithPluginInfoSet() {
+        this.joinAgreesWithPluginInfoSet(
+            "https://example.com/abs max, https://example.com/max abs",
+            (s, o) -> s.renameIfPresent(o),
+            (p, o) -> p.renameIfPresent(o)
+        );
+    }
+
+    @Test
+    public void testRenameIfPresentDuplicateNameAgreesWithPluginInfoSet() {
+        this.joinAgreesWithPluginInfoSet(
+            "https://example.com/abs max",
+            (s, o) -> s.renameIfPresent(o),
+            (p, o) -> p.renameIfPresent(o)
+        );
+    }
+
+    @Test
+    public void testRenameIfPresentSameNamesSame() {
+        final ExpressionFunctionInfoSet set = this.parseString(JOIN_INFOS);
+
+        assertSame(
+            set,
+            set.renameIfPresent(
+                this.parseString("https://example.com/max max, https://example.com/other other")
+            )
+        );
+    }
+
+    /**
+     * Joins the {@link #JOIN_INFOS} with the given infos and compares the result with the same join of
+     * {@link PluginInfoSet}.
+     */
+    private void joinAgreesWithPluginInfoSet(final String other,
+                                             final BiFunction<ExpressionFunctionInfoSet, ExpressionFunctionInfoSet, ExpressionFunctionInfoSet> join,
+                                             final BiFunction<PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo>, PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo>, PluginInfoSet<ExpressionFunctionName, ExpressionFunctionInfo>> pluginInfoSetJoin) {
+        final ExpressionFunctionInfoSet otherInfos = this.parseString(other);
+
+        this.agreesWithPluginInfoSet(
+            this.parseString(JOIN_INFOS),
+            s -> join.apply(
+                s,
+                otherInfos
+            ),
+            p -> pluginInfoSetJoin.apply(
+                p,
+                PluginInfoSet.with(otherInfos)
+            )
+        );
+    }
+
     // parse............................................................................................................
 
     @Override
@@ -192,6 +613,521 @@ public final class ExpressionFunctionInfoSetTest implements PluginInfoSetLikeTes
         );
     }
 
+    // printJson........................................................................................................
+
+    @Test
+    public void testPrintJsonEmptyCaseSensitive() {
+        this.printJsonAndCheck(
+            ExpressionFunctionInfoSet.empty(CaseSensitivity.SENSITIVE),
+            "[]"
+        );
+    }
+
+    @Test
+    public void testPrintJsonEmptyCaseInsensitive() {
+        this.printJsonAndCheck(
+            ExpressionFunctionInfoSet.empty(CaseSensitivity.INSENSITIVE),
+            "[\"@\"]"
+        );
+    }
+
+    @Test
+    public void testPrintJsonNotEmptyCaseInsensitive() {
+        this.printJsonAndCheck(
+            this.createJsonNodeMarshallingValue(),
+            "[\"@https://example.com/test-function-1 test-function-1\",\"@https://example.com/test-function-2 test-function-2\"]"
+        );
+    }
+
+    @Test
+    public void testPrintJsonSameAsMarshall() {
+        final ExpressionFunctionInfoSet set = this.createJsonNodeMarshallingValue();
+
+        final StringBuilder b = new StringBuilder();
+        set.printJson(
+            Printers.stringBuilder(
+                b,
+                LineEnding.NONE
+            )
+        );
+
+        this.checkEquals(
+            this.marshallContext()
+                .marshall(set),
+            JsonNode.parse(b.toString())
+        );
+    }
+
+    private void printJsonAndCheck(final ExpressionFunctionInfoSet set,
+                                   final String expected) {
+        final StringBuilder b = new StringBuilder();
+        set.printJson(
+            Printers.stringBuilder(
+                b,
+                LineEnding.NONE
+            )
+        );
+
+        this.checkEquals(
+            expected,
+            b.toString()
+        );
+    }
+
+    // parseJson........................................................................................................
+
+    @Test
+    public void testParseJsonNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionInfoSet.parseJson(null)
+        );
+    }
+
+    @Test
+    public void testParseJsonInvalidCharacterFails() {
+        final InvalidCharacterException thrown = assertThrows(
+            InvalidCharacterException.class,
+            () -> ExpressionFunctionInfoSet.parseJson("[!]")
+        );
+
+        this.checkEquals(
+            1,
+            thrown.position()
+        );
+    }
+
+    @Test
+    public void testParseJsonMissingCloseFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.parseJson("[\"@\"")
+        );
+    }
+
+    @Test
+    public void testParseJsonEmptyCaseSensitive() {
+        assertSame(
+            ExpressionFunctionInfoSet.empty(CaseSensitivity.SENSITIVE),
+            ExpressionFunctionInfoSet.parseJson(" [ ] ")
+        );
+    }
+
+    @Test
+    public void testParseJsonEmptyCaseInsensitive() {
+        assertSame(
+            ExpressionFunctionInfoSet.empty(CaseSensitivity.INSENSITIVE),
+            ExpressionFunctionInfoSet.parseJson("[ \"@\" ]")
+        );
+    }
+
+    @Test
+    public void testParseJsonNotEmpty() {
+        this.checkEquals(
+            this.createJsonNodeMarshallingValue(),
+            ExpressionFunctionInfoSet.parseJson(
+                "[\n" +
+                    "  \"@https://example.com/test-function-1 test-function-1\",\n" +
+                    "  \"@https://example.com/test-function-2 test-function-2\"\n" +
+                    "]"
+            )
+        );
+    }
+
+    @Test
+    public void testParseJsonEscapes() {
+        this.checkEquals(
+            this.createJsonNodeMarshallingValue(),
+            ExpressionFunctionInfoSet.parseJson(
+                "[\"@https:\\/\\/example.com\\/test-function-1 test-function-1\",\"\\u0040https://example.com/test-function-2 test-function-2\"]"
+            )
+        );
+    }
+
+    @Test
+    public void testParseJsonPrintJsonRoundtrip() {
+        final ExpressionFunctionInfoSet set = ExpressionFunctionInfoSet.with(
+            Sets.of(
+                ExpressionFunctionInfo.with(
+                    Url.parseAbsolute("https://example.com/1"),
+                    ExpressionFunctionName.with("test-function-1")
+                        .setCaseSensitivity(CaseSensitivity.SENSITIVE)
+                )
+            ),
+            CaseSensitivity.SENSITIVE
+        );
+
+        final StringBuilder b = new StringBuilder();
+        set.printJson(
+            Printers.stringBuilder(
+                b,
+                LineEnding.NONE
+            )
+        );
+
+        this.checkEquals(
+            set,
+            ExpressionFunctionInfoSet.parseJson(b)
+        );
+    }
+
+    @Test
+    public void testParseJsonUnsorted() {
+        this.checkEquals(
+            this.createJsonNodeMarshallingValue(),
+            ExpressionFunctionInfoSet.parseJson(
+                "[\"@https://example.com/test-function-2 test-function-2\",\"@https://example.com/test-function-1 test-function-1\"]"
+            )
+        );
+    }
+
+    // readJson.........................................................................................................
+
+    @Test
+    public void testReadJsonNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionInfoSet.readJson(null)
+        );
+    }
+
+    @Test
+    public void testReadJsonInvalidCharacterFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.readJson(
+                new StringReader("[!]")
+            )
+        );
+
+        this.checkEquals(
+            "Invalid character '!' at 1",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testReadJsonEmptyCaseInsensitive() {
+        assertSame(
+            ExpressionFunctionInfoSet.empty(CaseSensitivity.INSENSITIVE),
+            ExpressionFunctionInfoSet.readJson(
+                new StringReader("[ \"@\" ]")
+            )
+        );
+    }
+
+    @Test
+    public void testReadJsonNotEmpty() {
+        final String json = "[\n" +
+            "  \"@https://example.com/test-function-1 test-function-1\",\n" +
+            "  \"@https://example.com/test-function-2 test-function-2\"\n" +
+            "]";
+
+        this.checkEquals(
+            ExpressionFunctionInfoSet.parseJson(json),
+            ExpressionFunctionInfoSet.readJson(
+                new StringReader(json)
+            )
+        );
+    }
+
+    // binary...........................................................................................................
+
+    @Test
+    public void testParseBinaryNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionInfoSet.parseBinary(null)
+        );
+    }
+
+    @Test
+    public void testParseBinaryAliasSetFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.parseBinary(
+                ExpressionFunctionAliasSet.empty(CASE_SENSITIVITY)
+                    .toBinary()
+            )
+        );
+
+        this.checkEquals(
+            "Invalid type 65 expected 73",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testParseBinaryExtraBytesFails() {
+        final byte[] bytes = this.createJsonNodeMarshallingValue()
+            .toBinary();
+        final byte[] extra = new byte[bytes.length + 1];
+        System.arraycopy(
+            bytes,
+            0,
+            extra,
+            0,
+            bytes.length
+        );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.parseBinary(extra)
+        );
+    }
+
+    @Test
+    public void testParseBinaryTruncatedFails() {
+        final byte[] bytes = this.createJsonNodeMarshallingValue()
+            .toBinary();
+        final byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(
+            bytes,
+            0,
+            truncated,
+            0,
+            truncated.length
+        );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.parseBinary(truncated)
+        );
+    }
+
+    @Test
+    public void testParseBinaryTruncatedEveryLengthFails() {
+        final byte[] bytes = this.createJsonNodeMarshallingValue()
+            .toBinary();
+
+        for (int length = 0; length < bytes.length; length++) {
+            final byte[] truncated = new byte[length];
+            System.arraycopy(
+                bytes,
+                0,
+                truncated,
+                0,
+                length
+            );
+
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> ExpressionFunctionInfoSet.parseBinary(truncated),
+                "length " + length
+            );
+        }
+    }
+
+    @Test
+    public void testParseBinaryOverflowingCountFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.parseBinary(
+                new byte[]{
+                    ExpressionFunctionBinaryWriter.INFO_SET,
+                    0,
+                    (byte) 0xFF,
+                    (byte) 0xFF,
+                    (byte) 0xFF,
+                    (byte) 0xFF,
+                    0x10
+                }
+            )
+        );
+
+        this.checkEquals(
+            "Invalid varint at 2",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testParseBinaryInvalidDictionaryIndexFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.parseBinary(
+                new byte[]{
+                    ExpressionFunctionBinaryWriter.INFO_SET,
+                    0,
+                    1, // count
+                    ExpressionFunctionBinaryWriter.INFO_NAME_SAME_AS_URL,
+                    5, // url prefix 4, but nothing has been added to the dictionary
+                    3,
+                    'a',
+                    'b',
+                    's'
+                }
+            )
+        );
+
+        this.checkEquals(
+            "Invalid dictionary index 4 at 5",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testParseBinaryUnknownHeaderFlagsFails() {
+        final byte[] bytes = ExpressionFunctionInfoSet.empty(CaseSensitivity.SENSITIVE)
+            .toBinary();
+        bytes[1] |= 4;
+
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.parseBinary(bytes)
+        );
+
+        this.checkEquals(
+            "Invalid flags 4 at 1",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testParseBinaryUnknownInfoFlagsFails() {
+        final byte[] bytes = ExpressionFunctionInfoSet.parse(
+            "https://example.com/abs abs",
+            CaseSensitivity.SENSITIVE
+        ).toBinary();
+
+        // type, flags, count then the first info flags
+        final int flags = bytes[3];
+        bytes[3] |= 0x80;
+
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionInfoSet.parseBinary(bytes)
+        );
+
+        this.checkEquals(
+            "Invalid flags " + (flags | 0x80) + " at 3",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryEmptyCaseSensitive() {
+        assertSame(
+            ExpressionFunctionInfoSet.empty(CaseSensitivity.SENSITIVE),
+            ExpressionFunctionInfoSet.parseBinary(
+                ExpressionFunctionInfoSet.empty(CaseSensitivity.SENSITIVE)
+                    .toBinary()
+            )
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryEmptyCaseInsensitive() {
+        assertSame(
+            ExpressionFunctionInfoSet.empty(CaseSensitivity.INSENSITIVE),
+            ExpressionFunctionInfoSet.parseBinary(
+                ExpressionFunctionInfoSet.empty(CaseSensitivity.INSENSITIVE)
+                    .toBinary()
+            )
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryCaseInsensitive() {
+        this.toBinaryParseBinaryAndCheck(
+            this.createJsonNodeMarshallingValue()
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryCaseSensitiveNameDifferentFromUrl() {
+        this.toBinaryParseBinaryAndCheck(
+            ExpressionFunctionInfoSet.with(
+                Sets.of(
+                    ExpressionFunctionInfo.with(
+                        Url.parseAbsolute("https://example.com/1"),
+                        ExpressionFunctionName.with("test-function-1")
+                            .setCaseSensitivity(CaseSensitivity.SENSITIVE)
+                    ),
+                    ExpressionFunctionInfo.with(
+                        Url.parseAbsolute("https://example.net/2"),
+                        ExpressionFunctionName.with("test-function-2")
+                            .setCaseSensitivity(CaseSensitivity.SENSITIVE)
+                    )
+                ),
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryManySharedUrlPrefixes() {
+        final SortedSet<ExpressionFunctionInfo> infos = SortedSets.tree();
+
+        for (int i = 0; i < 200; i++) {
+            infos.add(
+                ExpressionFunctionInfo.with(
+                    Url.parseAbsolute(
+                        (0 == i % 2 ? "https://example.com/" : "https://example.net/path/") + "function" + i
+                    ),
+                    ExpressionFunctionName.with(
+                        0 == i % 3 ?
+                            "function" + i :
+                            "renamed-function" + i
+                    ).setCaseSensitivity(CaseSensitivity.INSENSITIVE)
+                )
+            );
+        }
+
+        this.toBinaryParseBinaryAndCheck(
+            ExpressionFunctionInfoSet.with(
+                infos,
+                CaseSensitivity.INSENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testToBinaryParseBinaryAfterEdits() {
+        final ExpressionFunctionInfoSet set = this.createJsonNodeMarshallingValue();
+
+        this.toBinaryParseBinaryAndCheck(
+            set.concat(
+                ExpressionFunctionInfo.with(
+                    Url.parseAbsolute("https://example.com/added"),
+                    ExpressionFunctionName.with("added")
+                        .setCaseSensitivity(CASE_SENSITIVITY)
+                )
+            ).delete(
+                set.iterator()
+                    .next()
+            )
+        );
+    }
+
+    @Test
+    public void testToBinarySmallerThanText() {
+        final ExpressionFunctionInfoSet set = this.createJsonNodeMarshallingValue();
+
+        this.checkEquals(
+            true,
+            set.toBinary().length < set.text().length(),
+            set::text
+        );
+    }
+
+    private void toBinaryParseBinaryAndCheck(final ExpressionFunctionInfoSet set) {
+        final ExpressionFunctionInfoSet parsed = ExpressionFunctionInfoSet.parseBinary(
+            set.toBinary()
+        );
+
+        this.checkEquals(
+            set,
+            parsed
+        );
+        this.checkEquals(
+            this.marshallContext()
+                .marshall(set),
+            this.marshallContext()
+                .marshall(parsed)
+        );
+    }
+
     @Override
     public ExpressionFunctionInfoSet unmarshall(final JsonNode node,
                                                 final JsonNodeUnmarshallContext context) {
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ExpressionFunctionNameIndexTest implements ClassTesting<ExpressionFunctionNameIndex<?>>,
+    ToStringTesting<ExpressionFunctionNameIndex<?>> {
+
+    @Test
+    public void testWithNullCaseSensitivityFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameIndex.with(
+                null,
+                1
+            )
+        );
+    }
+
+    @Test
+    public void testWithNegativeExpectedSizeFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionNameIndex.with(
+                CaseSensitivity.SENSITIVE,
+                -1
+            )
+        );
+
+        this.checkEquals(
+            "Invalid expectedSize -1 < 0",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testGetMissing() {
+        final ExpressionFunctionNameIndex<String> index = ExpressionFunctionNameIndex.with(
+            CaseSensitivity.SENSITIVE,
+            0
+        );
+
+        this.getAndCheck(
+            index,
+            "missing",
+            null
+        );
+    }
+
+    @Test
+    public void testPutAndGetCaseSensitive() {
+        final ExpressionFunctionNameIndex<String> index = ExpressionFunctionNameIndex.with(
+            CaseSensitivity.SENSITIVE,
+            1
+        );
+
+        this.checkEquals(
+            null,
+            index.put(
+                ExpressionFunctionName.with("hello"),
+                "value1"
+            )
+        );
+
+        this.getAndCheck(
+            index,
+            "hello",
+            "value1"
+        );
+        this.getAndCheck(
+            index,
+            "HELLO",
+            null
+        );
+    }
+
+    @Test
+    public void testPutAndGetCaseInsensitive() {
+        final ExpressionFunctionNameIndex<String> index = ExpressionFunctionNameIndex.with(
+            CaseSensitivity.INSENSITIVE,
+            1
+        );
+
+        index.put(
+            ExpressionFunctionName.with("hello"),
+            "value1"
+        );
+
+        this.getAndCheck(
+            index,
+            "hello",
+            "value1"
+        );
+        this.getAndCheck(
+            index,
+            "HELLO",
+            "value1"
+        );
+        this.getAndCheck(
+            index,
+            "hellO2",
+            null
+        );
+    }
+
+    @Test
+    public void testGetIgnoresNameCaseSensitivity() {
+        final ExpressionFunctionNameIndex<String> index = ExpressionFunctionNameIndex.with(
+            CaseSensitivity.INSENSITIVE,
+            1
+        );
+
+        index.put(
+            ExpressionFunctionName.with("hello"),
+            "value1"
+        );
+
+        this.checkEquals(
+            "value1",
+            index.get(
+                ExpressionFunctionName.with("HELLO")
+                    .setCaseSensitivity(CaseSensitivity.SENSITIVE)
+            )
+        );
+    }
+
+    @Test
+    public void testPutReplaces() {
+        final ExpressionFunctionNameIndex<String> index = ExpressionFunctionNameIndex.with(
+            CaseSensitivity.INSENSITIVE,
+            1
+        );
+
+        index.put(
+            ExpressionFunctionName.with("hello"),
+            "value1"
+        );
+
+        this.checkEquals(
+            "value1",
+            index.put(
+                ExpressionFunctionName.with("HELLO"),
+                "value2"
+            )
+        );
+
+        this.getAndCheck(
+            index,
+            "hello",
+            "value2"
+        );
+        this.checkEquals(
+            1,
+            index.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testPutResizes() {
+        final ExpressionFunctionNameIndex<String> index = ExpressionFunctionNameIndex.with(
+            CaseSensitivity.INSENSITIVE,
+            0
+        );
+
+        final int count = 100;
+        for (int i = 0; i < count; i++) {
+            index.put(
+                ExpressionFunctionName.with("function" + i),
+                "value" + i
+            );
+        }
+
+        this.checkEquals(
+            count,
+            index.size(),
+            "size"
+        );
+
+        for (int i = 0; i < count; i++) {
+            this.getAndCheck(
+                index,
+                "FUNCTION" + i,
+                "value" + i
+            );
+        }
+    }
+
+    private void getAndCheck(final ExpressionFunctionNameIndex<String> index,
+                             final String name,
+                             final String expected) {
+        this.checkEquals(
+            expected,
+            index.get(
+                ExpressionFunctionName.with(name)
+            ),
+            () -> "get " + name
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final ExpressionFunctionNameIndex<String> index = ExpressionFunctionNameIndex.with(
+            CaseSensitivity.SENSITIVE,
+            1
+        );
+
+        index.put(
+            ExpressionFunctionName.with("hello"),
+            "value1"
+        );
+
+        this.toStringAndCheck(
+            index,
+            "hello=value1"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionNameIndex<?>> type() {
+        return Cast.to(ExpressionFunctionNameIndex.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.test.Testing;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ExpressionFunctionNameInternerTest implements ClassTesting<ExpressionFunctionNameInterner>,
+    Testing {
+
+    @Test
+    public void testWithNullTextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameInterner.with(
+                null,
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullCaseSensitivityFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameInterner.with(
+                "hello",
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testInternNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameInterner.intern(
+                null,
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testWith() {
+        final CaseSensitivity caseSensitivity = CaseSensitivity.INSENSITIVE;
+        final ExpressionFunctionName name = ExpressionFunctionNameInterner.with(
+            "testWith",
+            caseSensitivity
+        );
+
+        this.checkEquals(
+            "testWith",
+            name.value(),
+            "value"
+        );
+        this.checkEquals(
+            caseSensitivity,
+            name.caseSensitivity(),
+            "caseSensitivity"
+        );
+    }
+
+    @Test
+    public void testWithSameInstance() {
+        assertSame(
+            ExpressionFunctionNameInterner.with(
+                "testWithSameInstance",
+                CaseSensitivity.SENSITIVE
+            ),
+            ExpressionFunctionNameInterner.with(
+                "testWithSameInstance",
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testWithDifferentCaseSensitivity() {
+        assertNotSame(
+            ExpressionFunctionNameInterner.with(
+                "testWithDifferentCaseSensitivity",
+                CaseSensitivity.SENSITIVE
+            ),
+            ExpressionFunctionNameInterner.with(
+                "testWithDifferentCaseSensitivity",
+                CaseSensitivity.INSENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testIntern() {
+        final ExpressionFunctionName name = ExpressionFunctionName.with("testIntern")
+            .setCaseSensitivity(CaseSensitivity.SENSITIVE);
+
+        final ExpressionFunctionName interned = ExpressionFunctionNameInterner.intern(
+            name,
+            CaseSensitivity.INSENSITIVE
+        );
+
+        this.checkEquals(
+            name.value(),
+            interned.value(),
+            "value"
+        );
+        this.checkEquals(
+            CaseSensitivity.INSENSITIVE,
+            interned.caseSensitivity(),
+            "caseSensitivity"
+        );
+
+        assertSame(
+            interned,
+            ExpressionFunctionNameInterner.intern(
+                name,
+                CaseSensitivity.INSENSITIVE
+            )
+        );
+        assertSame(
+            interned,
+            ExpressionFunctionNameInterner.with(
+                name.value(),
+                CaseSensitivity.INSENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testInternSameInstance() {
+        final ExpressionFunctionName name = ExpressionFunctionNameInterner.with(
+            "testInternSameInstance",
+            CaseSensitivity.SENSITIVE
+        );
+
+        assertSame(
+            name,
+            ExpressionFunctionNameInterner.intern(
+                name,
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testWithAfterManyOtherNamesStillInterned() {
+        final CaseSensitivity caseSensitivity = CaseSensitivity.SENSITIVE;
+
+        for (int i = 0; i < ExpressionFunctionNameInterner.SIZE * 4; i++) {
+            ExpressionFunctionNameInterner.with(
+                "junk" + i,
+                caseSensitivity
+            );
+        }
+
+        assertSame(
+            ExpressionFunctionNameInterner.with(
+                "testWithAfterManyOtherNamesStillInterned",
+                caseSensitivity
+            ),
+            ExpressionFunctionNameInterner.with(
+                "testWithAfterManyOtherNamesStillInterned",
+                caseSensitivity
+            )
+        );
+    }
+
+    @Test
+    public void testCanonicalNullTextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameInterner.canonical(
+                (String) null,
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testCanonicalNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameInterner.canonical(
+                (ExpressionFunctionName) null,
+                CaseSensitivity.SENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testCanonicalNotInterned() {
+        final CaseSensitivity caseSensitivity = CaseSensitivity.SENSITIVE;
+
+        final ExpressionFunctionName name = ExpressionFunctionNameInterner.canonical(
+            "testCanonicalNotInterned",
+            caseSensitivity
+        );
+
+        this.checkEquals(
+            "testCanonicalNotInterned",
+            name.value(),
+            "value"
+        );
+        this.checkEquals(
+            caseSensitivity,
+            name.caseSensitivity(),
+            "caseSensitivity"
+        );
+
+        // canonical never writes the table
+        assertNotSame(
+            name,
+            ExpressionFunctionNameInterner.canonical(
+                "testCanonicalNotInterned",
+                caseSensitivity
+            )
+        );
+        assertNotSame(
+            name,
+            ExpressionFunctionNameInterner.with(
+                "testCanonicalNotInterned",
+                caseSensitivity
+            )
+        );
+    }
+
+    @Test
+    public void testCanonicalAfterWith() {
+        final ExpressionFunctionName interned = ExpressionFunctionNameInterner.with(
+            "testCanonicalAfterWith",
+            CaseSensitivity.INSENSITIVE
+        );
+
+        assertSame(
+            interned,
+            ExpressionFunctionNameInterner.canonical(
+                "testCanonicalAfterWith",
+                CaseSensitivity.INSENSITIVE
+            )
+        );
+        assertSame(
+            interned,
+            ExpressionFunctionNameInterner.canonical(
+                ExpressionFunctionName.with("testCanonicalAfterWith")
+                    .setCaseSensitivity(CaseSensitivity.SENSITIVE),
+                CaseSensitivity.INSENSITIVE
+            )
+        );
+    }
+
+    @Test
+    public void testCanonicalDoesNotEvict() {
+        final CaseSensitivity caseSensitivity = CaseSensitivity.SENSITIVE;
+
+        final ExpressionFunctionName interned = ExpressionFunctionNameInterner.with(
+            "testCanonicalDoesNotEvict",
+            caseSensitivity
+        );
+
+        for (int i = 0; i < ExpressionFunctionNameInterner.SIZE * 4; i++) {
+            ExpressionFunctionNameInterner.canonical(
+                "parsed" + i,
+                caseSensitivity
+            );
+        }
+
+        assertSame(
+            interned,
+            ExpressionFunctionNameInterner.canonical(
+                "testCanonicalDoesNotEvict",
+                caseSensitivity
+            )
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionNameInterner> type() {
+        return ExpressionFunctionNameInterner.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ExpressionFunctionNameTrieTest implements ClassTesting<ExpressionFunctionNameTrie<?>>,
+    ToStringTesting<ExpressionFunctionNameTrie<?>> {
+
+    @Test
+    public void testEmptyNullCaseSensitivityFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameTrie.empty(null)
+        );
+    }
+
+    @Test
+    public void testPutNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameTrie.empty(CaseSensitivity.SENSITIVE)
+                .put(
+                    null,
+                    "value"
+                )
+        );
+    }
+
+    @Test
+    public void testPutNullValueFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionNameTrie.empty(CaseSensitivity.SENSITIVE)
+                .put(
+                    "name",
+                    null
+                )
+        );
+    }
+
+    @Test
+    public void testGetMissing() {
+        this.getAndCheck(
+            ExpressionFunctionNameTrie.empty(CaseSensitivity.SENSITIVE),
+            "missing",
+            null
+        );
+    }
+
+    @Test
+    public void testPutAndGetCaseSensitive() {
+        final ExpressionFunctionNameTrie<String> trie = ExpressionFunctionNameTrie.<String>empty(CaseSensitivity.SENSITIVE)
+            .put(
+                "hello",
+                "value1"
+            );
+
+        this.getAndCheck(
+            trie,
+            "hello",
+            "value1"
+        );
+        this.getAndCheck(
+            trie,
+            "HELLO",
+            null
+        );
+    }
+
+    @Test
+    public void testPutAndGetCaseInsensitive() {
+        final ExpressionFunctionNameTrie<String> trie = ExpressionFunctionNameTrie.<String>empty(CaseSensitivity.INSENSITIVE)
+            .put(
+                "hello",
+                "value1"
+            );
+
+        this.getAndCheck(
+            trie,
+            "HELLO",
+            "value1"
+        );
+        this.getAndCheck(
+            trie,
+            ExpressionFunctionName.with("Hello")
+                .setCaseSensitivity(CaseSensitivity.SENSITIVE),
+            "value1"
+        );
+    }
+
+    @Test
+    public void testPutSameValueSame() {
+        final ExpressionFunctionNameTrie<String> trie = ExpressionFunctionNameTrie.<String>empty(CaseSensitivity.SENSITIVE)
+            .put(
+                "hello",
+                "value1"
+            );
+
+        assertSame(
+            trie,
+            trie.put(
+                "hello",
+                "value1"
+            )
+        );
+    }
+
+    @Test
+    public void testPutReplaces() {
+        final ExpressionFunctionNameTrie<String> trie = ExpressionFunctionNameTrie.<String>empty(CaseSensitivity.SENSITIVE)
+            .put(
+                "hello",
+                "value1"
+            );
+        final ExpressionFunctionNameTrie<String> replaced = trie.put(
+            "hello",
+            "value2"
+        );
+
+        this.getAndCheck(
+            replaced,
+            "hello",
+            "value2"
+        );
+        this.getAndCheck(
+            trie,
+            "hello",
+            "value1"
+        );
+        this.checkEquals(
+            1,
+            replaced.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testRemoveAbsentSame() {
+        final ExpressionFunctionNameTrie<String> trie = ExpressionFunctionNameTrie.<String>empty(CaseSensitivity.SENSITIVE)
+            .put(
+                "hello",
+                "value1"
+            );
+
+        assertSame(
+            trie,
+            trie.remove("absent")
+        );
+    }
+
+    @Test
+    public void testSameHashCollision() {
+        // both have the same String#hashCode
+        this.checkEquals(
+            "Aa".hashCode(),
+            "BB".hashCode()
+        );
+
+        final ExpressionFunctionNameTrie<String> trie = ExpressionFunctionNameTrie.<String>empty(CaseSensitivity.SENSITIVE)
+            .put(
+                "Aa",
+                "value1"
+            ).put(
+                "BB",
+                "value2"
+            );
+
+        this.getAndCheck(
+            trie,
+            "Aa",
+            "value1"
+        );
+        this.getAndCheck(
+            trie,
+            "BB",
+            "value2"
+        );
+
+        final ExpressionFunctionNameTrie<String> removed = trie.remove("Aa");
+        this.getAndCheck(
+            removed,
+            "Aa",
+            null
+        );
+        this.getAndCheck(
+            removed,
+            "BB",
+            "value2"
+        );
+        this.checkEquals(
+            1,
+            removed.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testPutRemoveManyAgreesWithMap() {
+        ExpressionFunctionNameTrie<String> trie = ExpressionFunctionNameTrie.empty(CaseSensitivity.SENSITIVE);
+        final Map<String, String> map = new HashMap<>();
+
+        // a simple linear congruential sequence, so the test always performs the same edits
+        int next = 31;
+        for (int i = 0; i < 5000; i++) {
+            next = (next * 1103515245 + 12345) & 0x7fffffff;
+            final String name = "function" + (next % 500);
+
+            if (0 == (next & 0x100)) {
+                final String value = "value" + i;
+                trie = trie.put(
+                    name,
+                    value
+                );
+                map.put(
+                    name,
+                    value
+                );
+            } else {
+                trie = trie.remove(name);
+                map.remove(name);
+            }
+
+            this.checkEquals(
+                map.size(),
+                trie.size(),
+                "size"
+            );
+        }
+
+        for (int i = 0; i < 500; i++) {
+            final String name = "function" + i;
+
+            this.getAndCheck(
+                trie,
+                name,
+                map.get(name)
+            );
+        }
+    }
+
+    private void getAndCheck(final ExpressionFunctionNameTrie<String> trie,
+                             final String name,
+                             final String expected) {
+        this.checkEquals(
+            expected,
+            trie.get(name),
+            () -> "get " + name
+        );
+    }
+
+    private void getAndCheck(final ExpressionFunctionNameTrie<String> trie,
+                             final ExpressionFunctionName name,
+                             final String expected) {
+        this.checkEquals(
+            expected,
+            trie.get(name),
+            () -> "get " + name
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            ExpressionFunctionNameTrie.<String>empty(CaseSensitivity.SENSITIVE)
+                .put(
+                    "hello",
+                    "value1"
+                ),
+            "hello=value1"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionNameTrie<?>> type() {
+        return Cast.to(ExpressionFunctionNameTrie.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
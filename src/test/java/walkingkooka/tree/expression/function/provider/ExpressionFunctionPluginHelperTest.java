@@ -17,10 +17,14 @@
 
 package walkingkooka.tree.expression.function.provider;
 
+import org.junit.jupiter.api.Test;
 import walkingkooka.plugin.PluginHelperTesting;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
 public final class ExpressionFunctionPluginHelperTest implements PluginHelperTesting<ExpressionFunctionPluginHelper,
     ExpressionFunctionName,
     ExpressionFunctionInfo,
@@ -34,6 +38,30 @@ public final class ExpressionFunctionPluginHelperTest implements PluginHelperTes
         throw new UnsupportedOperationException();
     }
 
+    @Test
+    public void testNameDoesNotIntern() {
+        final ExpressionFunctionPluginHelper helper = this.createPluginHelper();
+
+        assertNotSame(
+            helper.name("testNameDoesNotIntern"),
+            helper.name("testNameDoesNotIntern")
+        );
+    }
+
+    @Test
+    public void testNameReusesInterned() {
+        final ExpressionFunctionName interned = ExpressionFunctionNameInterner.with(
+            "testNameReusesInterned",
+            ExpressionFunctionName.DEFAULT_CASE_SENSITIVITY
+        );
+
+        assertSame(
+            interned,
+            this.createPluginHelper()
+                .name("testNameReusesInterned")
+        );
+    }
+
     @Override
     public ExpressionFunctionPluginHelper createPluginHelper() {
         return ExpressionFunctionPluginHelper.instance(ExpressionFunctionName.DEFAULT_CASE_SENSITIVITY);
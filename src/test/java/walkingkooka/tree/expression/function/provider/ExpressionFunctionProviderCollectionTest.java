@@ -18,24 +18,34 @@
 package walkingkooka.tree.expression.function.provider;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
 import walkingkooka.Cast;
 import walkingkooka.ToStringTesting;
 import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.net.Url;
 import walkingkooka.net.UrlPath;
+import walkingkooka.plugin.ProviderCollection;
+import walkingkooka.plugin.ProviderCollectionProviderGetter;
 import walkingkooka.plugin.ProviderContext;
 import walkingkooka.plugin.ProviderContexts;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.text.CaseSensitivity;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.ExpressionFunction;
 import walkingkooka.tree.expression.function.FakeExpressionFunction;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class ExpressionFunctionProviderCollectionTest implements ExpressionFunctionProviderTesting<ExpressionFunctionProviderCollection<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
@@ -145,6 +155,318 @@ public final class ExpressionFunctionProviderCollectionTest implements Expressio
         );
     }
 
+    @Test
+    public void testUnknownWithoutQueryingProviders() {
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> basic = ExpressionFunctionProviders.basic(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Sets.of(
+                FUNCTION1
+            )
+        );
+
+        final Set<ExpressionFunctionProvider<FakeExpressionEvaluationContext>> providers = Sets.of(
+            new ExpressionFunctionProviderDelegator<>() {
+                @Override
+                public ExpressionFunction<?, FakeExpressionEvaluationContext> expressionFunction(final ExpressionFunctionSelector selector,
+                                                                                                 final ProviderContext context) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public ExpressionFunction<?, FakeExpressionEvaluationContext> expressionFunction(final ExpressionFunctionName name,
+                                                                                                 final List<?> values,
+                                                                                                 final ProviderContext context) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Optional<ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctionIfPresent(final ExpressionFunctionSelector selector,
+                                                                                                                    final ProviderContext context) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Optional<ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                                                                    final List<?> values,
+                                                                                                                    final ProviderContext context) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Map<ExpressionFunctionName, ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                                                               final ProviderContext context) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public ExpressionFunctionProvider<FakeExpressionEvaluationContext> expressionFunctionProvider() {
+                    return basic;
+                }
+            }
+        );
+
+        final ExpressionFunctionProviderCollection<FakeExpressionEvaluationContext> provider = ExpressionFunctionProviderCollection.with(
+            CASE_SENSITIVITY,
+            providers
+        );
+        final ProviderCollection<ExpressionFunctionProvider<FakeExpressionEvaluationContext>, ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionSelector, ExpressionFunction<?, FakeExpressionEvaluationContext>> providerCollection = this.providerCollection(providers);
+
+        final ExpressionFunctionName unknown = ExpressionFunctionName.with("unknown");
+
+        this.failsLikeProviderCollectionCheck(
+            () -> providerCollection.get(
+                unknown.setCaseSensitivity(CASE_SENSITIVITY),
+                VALUES,
+                CONTEXT
+            ),
+            () -> provider.expressionFunction(
+                unknown,
+                VALUES,
+                CONTEXT
+            )
+        );
+        this.failsLikeProviderCollectionCheck(
+            () -> providerCollection.get(
+                ExpressionFunctionSelector.parse(
+                    unknown + "",
+                    CASE_SENSITIVITY
+                ),
+                CONTEXT
+            ),
+            () -> provider.expressionFunction(
+                ExpressionFunctionSelector.parse(
+                    unknown + "",
+                    CASE_SENSITIVITY
+                ),
+                CONTEXT
+            )
+        );
+        this.failsLikeProviderCollectionCheck(
+            () -> providerCollection.get(
+                unknown.setCaseSensitivity(CASE_SENSITIVITY),
+                VALUES,
+                CONTEXT
+            ),
+            () -> provider.expressionFunctions(
+                Lists.of(unknown),
+                CONTEXT
+            )
+        );
+
+        this.expressionFunctionIfPresentAndCheck(
+            provider,
+            unknown,
+            VALUES,
+            CONTEXT,
+            Optional.empty()
+        );
+        this.expressionFunctionIfPresentAndCheck(
+            provider,
+            ExpressionFunctionSelector.parse(
+                unknown + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            Optional.empty()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionUnknownNameFailsLikeProviderCollection() {
+        final ExpressionFunctionName unknown = ExpressionFunctionName.with("unknown");
+
+        this.failsLikeProviderCollectionCheck(
+            () -> this.providerCollection(this.providers())
+                .get(
+                    unknown.setCaseSensitivity(CASE_SENSITIVITY),
+                    VALUES,
+                    CONTEXT
+                ),
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunction(
+                    unknown,
+                    VALUES,
+                    CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionUnknownSelectorFailsLikeProviderCollection() {
+        final ExpressionFunctionSelector unknown = ExpressionFunctionSelector.parse(
+            "unknown",
+            CASE_SENSITIVITY
+        );
+
+        this.failsLikeProviderCollectionCheck(
+            () -> this.providerCollection(this.providers())
+                .get(
+                    unknown,
+                    CONTEXT
+                ),
+            () -> this.createExpressionFunctionProvider()
+                .expressionFunction(
+                    unknown,
+                    CONTEXT
+                )
+        );
+    }
+
+    /**
+     * Creates a {@link ProviderCollection} of the given providers, like that used by {@link ExpressionFunctionProviderCollection},
+     * whose getter must never be called.
+     */
+    private ProviderCollection<ExpressionFunctionProvider<FakeExpressionEvaluationContext>, ExpressionFunctionName, ExpressionFunctionInfo, ExpressionFunctionSelector, ExpressionFunction<?, FakeExpressionEvaluationContext>> providerCollection(final Set<ExpressionFunctionProvider<FakeExpressionEvaluationContext>> providers) {
+        return ProviderCollection.with(
+            new ProviderCollectionProviderGetter<ExpressionFunctionProvider<FakeExpressionEvaluationContext>, ExpressionFunctionName, ExpressionFunctionSelector, ExpressionFunction<?, FakeExpressionEvaluationContext>>() {
+                @Override
+                public ExpressionFunction<?, FakeExpressionEvaluationContext> get(final ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider,
+                                                                                  final ExpressionFunctionName name,
+                                                                                  final List<?> values,
+                                                                                  final ProviderContext context) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public ExpressionFunction<?, FakeExpressionEvaluationContext> get(final ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider,
+                                                                                  final ExpressionFunctionSelector selector,
+                                                                                  final ProviderContext context) {
+                    throw new UnsupportedOperationException();
+                }
+            },
+            ExpressionFunctionProvider::expressionFunctionInfos,
+            ExpressionFunction.class.getSimpleName(),
+            providers
+        );
+    }
+
+    /**
+     * Checks that both fail with the same type of exception and message.
+     */
+    private void failsLikeProviderCollectionCheck(final Executable expected,
+                                                  final Executable actual) {
+        final RuntimeException expectedThrown = assertThrows(
+            RuntimeException.class,
+            expected
+        );
+        final RuntimeException thrown = assertThrows(
+            RuntimeException.class,
+            actual
+        );
+
+        this.checkEquals(
+            expectedThrown.getClass(),
+            thrown.getClass(),
+            "type"
+        );
+        this.checkEquals(
+            expectedThrown.getMessage(),
+            thrown.getMessage(),
+            "message"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameLookupDifferentCase() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionName.with(
+                NAME1.value()
+                    .toUpperCase()
+            ),
+            VALUES,
+            CONTEXT,
+            FUNCTION1.setName(
+                Optional.of(
+                    NAME1
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentName() {
+        this.expressionFunctionIfPresentAndCheck(
+            NAME2,
+            VALUES,
+            CONTEXT,
+            FUNCTION2.setName(
+                Optional.of(
+                    NAME2
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctions() {
+        this.expressionFunctionsAndCheck(
+            Lists.of(
+                NAME1,
+                NAME2
+            ),
+            CONTEXT,
+            Maps.of(
+                NAME1,
+                FUNCTION1.setName(
+                    Optional.of(
+                        NAME1
+                    )
+                ),
+                NAME2,
+                FUNCTION2.setName(
+                    Optional.of(
+                        NAME2
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsNameDifferentCaseKeyedByProviderName() {
+        final ExpressionFunctionName name = ExpressionFunctionName.with(
+            NAME1.value()
+                .toUpperCase()
+        ).setCaseSensitivity(CaseSensitivity.SENSITIVE);
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, FakeExpressionEvaluationContext>> nameToFunction = this.createExpressionFunctionProvider()
+            .expressionFunctions(
+                Lists.of(name),
+                CONTEXT
+            );
+
+        final ExpressionFunctionName key = nameToFunction.keySet()
+            .iterator()
+            .next();
+        this.checkEquals(
+            CASE_SENSITIVITY,
+            key.caseSensitivity(),
+            "key caseSensitivity"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsUnknownFails() {
+        this.expressionFunctionsFails(
+            this.createExpressionFunctionProvider(),
+            Lists.of(
+                NAME1,
+                ExpressionFunctionName.with("unknown")
+            ),
+            CONTEXT
+        );
+    }
+
     @Test
     public void testExpressionFunctionNameLookup1() {
         this.expressionFunctionAndCheck(
@@ -220,8 +542,147 @@ public final class ExpressionFunctionProviderCollectionTest implements Expressio
         );
     }
 
-    @Override
-    public ExpressionFunctionProviderCollection createExpressionFunctionProvider() {
+    @Test
+    public void testExpressionFunctionInfosSame() {
+        final ExpressionFunctionProviderCollection<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunctionInfos(),
+            provider.expressionFunctionInfos()
+        );
+    }
+
+    @Test
+    public void testCreateAgainAfterRegistryMemberRegister() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> registry = ExpressionFunctionProviders.registry(
+            BASE_URL,
+            CASE_SENSITIVITY
+        );
+
+        this.createExpressionFunctionProviderWith(registry);
+
+        registry.register(FUNCTION2);
+
+        final ExpressionFunctionProviderCollection<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProviderWith(registry);
+
+        this.expressionFunctionAndCheck(
+            provider,
+            NAME2,
+            VALUES,
+            CONTEXT,
+            FUNCTION2.setName(
+                Optional.of(
+                    NAME2
+                )
+            )
+        );
+        this.expressionFunctionInfosAndCheck(
+            provider,
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction1"),
+                NAME1
+            ),
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction2"),
+                NAME2
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosSameWhileMembersUnchanged() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> registry = ExpressionFunctionProviders.registry(
+            BASE_URL,
+            CASE_SENSITIVITY
+        );
+        registry.register(FUNCTION2);
+
+        final ExpressionFunctionProviderCollection<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProviderWith(registry);
+
+        assertSame(
+            provider.expressionFunctionInfos(),
+            provider.expressionFunctionInfos()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosAfterRegistryRegisterUnchanged() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> registry = ExpressionFunctionProviders.registry(
+            BASE_URL,
+            CASE_SENSITIVITY
+        );
+
+        final ExpressionFunctionProviderCollection<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProviderWith(registry);
+        final ExpressionFunctionInfoSet infos = provider.expressionFunctionInfos();
+
+        registry.register(FUNCTION2);
+
+        assertSame(
+            infos,
+            provider.expressionFunctionInfos()
+        );
+        this.expressionFunctionFails(
+            provider,
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionDoesNotAskMembersForInfos() {
+        final AtomicInteger infosCount = new AtomicInteger();
+
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> basic = ExpressionFunctionProviders.basic(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Sets.of(
+                FUNCTION2
+            )
+        );
+
+        final ExpressionFunctionProviderCollection<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProviderWith(
+            new ExpressionFunctionProviderDelegator<>() {
+                @Override
+                public ExpressionFunctionProvider<FakeExpressionEvaluationContext> expressionFunctionProvider() {
+                    return basic;
+                }
+
+                @Override
+                public ExpressionFunctionInfoSet expressionFunctionInfos() {
+                    infosCount.incrementAndGet();
+                    return basic.expressionFunctionInfos();
+                }
+            }
+        );
+
+        final int created = infosCount.get();
+
+        for (int i = 0; i < 3; i++) {
+            provider.expressionFunction(
+                NAME2,
+                VALUES,
+                CONTEXT
+            );
+            provider.expressionFunctionIfPresent(
+                NAME1,
+                VALUES,
+                CONTEXT
+            );
+            provider.expressionFunctionInfos();
+        }
+
+        this.checkEquals(
+            created,
+            infosCount.get(),
+            "member expressionFunctionInfos calls after create"
+        );
+    }
+
+    /**
+     * Creates a collection holding a provider of {@link #FUNCTION1} and the given member.
+     */
+    private ExpressionFunctionProviderCollection<FakeExpressionEvaluationContext> createExpressionFunctionProviderWith(final ExpressionFunctionProvider<FakeExpressionEvaluationContext> member) {
         return ExpressionFunctionProviderCollection.with(
             CASE_SENSITIVITY,
             Sets.of(
@@ -232,12 +693,33 @@ public final class ExpressionFunctionProviderCollectionTest implements Expressio
                         FUNCTION1
                     )
                 ),
-                ExpressionFunctionProviders.basic(
-                    BASE_URL,
-                    CASE_SENSITIVITY,
-                    Sets.of(
-                        FUNCTION2
-                    )
+                member
+            )
+        );
+    }
+
+    @Override
+    public ExpressionFunctionProviderCollection createExpressionFunctionProvider() {
+        return ExpressionFunctionProviderCollection.with(
+            CASE_SENSITIVITY,
+            this.providers()
+        );
+    }
+
+    private Set<ExpressionFunctionProvider<FakeExpressionEvaluationContext>> providers() {
+        return Sets.of(
+            ExpressionFunctionProviders.basic(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Sets.of(
+                    FUNCTION1
+                )
+            ),
+            ExpressionFunctionProviders.basic(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Sets.of(
+                    FUNCTION2
                 )
             )
         );
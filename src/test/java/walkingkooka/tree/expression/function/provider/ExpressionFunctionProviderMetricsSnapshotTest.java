@@ -0,0 +1,312 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.HashCodeEqualsDefinedTesting2;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.text.printer.TreePrintableTesting;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.json.JsonNode;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallingTesting;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ExpressionFunctionProviderMetricsSnapshotTest implements ClassTesting<ExpressionFunctionProviderMetricsSnapshot>,
+    HashCodeEqualsDefinedTesting2<ExpressionFunctionProviderMetricsSnapshot>,
+    JsonNodeMarshallingTesting<ExpressionFunctionProviderMetricsSnapshot>,
+    TreePrintableTesting {
+
+    private final static ExpressionFunctionName NAME = ExpressionFunctionName.with("abs")
+        .setCaseSensitivity(CaseSensitivity.SENSITIVE);
+
+    @Test
+    public void testWithNullNameToHitsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionProviderMetricsSnapshot.with(
+                1,
+                2,
+                2,
+                1,
+                0,
+                null,
+                latencies()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullLatenciesFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionProviderMetricsSnapshot.with(
+                1,
+                2,
+                2,
+                1,
+                0,
+                nameToHits(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentMisses() {
+        this.checkNotEquals(
+            ExpressionFunctionProviderMetricsSnapshot.with(
+                1,
+                2,
+                2,
+                99,
+                0,
+                nameToHits(),
+                latencies()
+            )
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentFailures() {
+        this.checkNotEquals(
+            ExpressionFunctionProviderMetricsSnapshot.with(
+                1,
+                2,
+                2,
+                1,
+                99,
+                nameToHits(),
+                latencies()
+            )
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentNameToHits() {
+        this.checkNotEquals(
+            ExpressionFunctionProviderMetricsSnapshot.with(
+                1,
+                2,
+                2,
+                1,
+                0,
+                Maps.empty(),
+                latencies()
+            )
+        );
+    }
+
+    @Test
+    public void testTreePrint() {
+        this.treePrintAndCheck(
+            this.createObject(),
+            "ExpressionFunctionProviderMetricsSnapshot\n" +
+                "  selectorLookups: 1\n" +
+                "  nameLookups: 2\n" +
+                "  hits: 2\n" +
+                "  misses: 1\n" +
+                "  failures: 0\n" +
+                "  nameToHits\n" +
+                "    abs: 2\n" +
+                "  latencies\n" +
+                "    < 1ns: 1\n" +
+                "    >= 2ns: 2\n"
+        );
+    }
+
+    @Test
+    public void testMarshall() {
+        this.marshallAndCheck(
+            this.createObject(),
+            "{\n" +
+                "  \"selectorLookups\": 1,\n" +
+                "  \"nameLookups\": 2,\n" +
+                "  \"hits\": 2,\n" +
+                "  \"misses\": 1,\n" +
+                "  \"failures\": 0,\n" +
+                "  \"nameToHits\": {\n" +
+                "    \"abs\": 2\n" +
+                "  },\n" +
+                "  \"latencies\": [1, 0, 2]\n" +
+                "}"
+        );
+    }
+
+    @Test
+    public void testMarshallCaseInsensitiveName() {
+        this.marshallAndCheck(
+            ExpressionFunctionProviderMetricsSnapshot.with(
+                1,
+                2,
+                2,
+                1,
+                0,
+                Maps.of(
+                    NAME.setCaseSensitivity(CaseSensitivity.INSENSITIVE),
+                    2L
+                ),
+                latencies()
+            ),
+            "{\n" +
+                "  \"selectorLookups\": 1,\n" +
+                "  \"nameLookups\": 2,\n" +
+                "  \"hits\": 2,\n" +
+                "  \"misses\": 1,\n" +
+                "  \"failures\": 0,\n" +
+                "  \"nameToHits\": {\n" +
+                "    \"@abs\": 2\n" +
+                "  },\n" +
+                "  \"latencies\": [1, 0, 2]\n" +
+                "}"
+        );
+    }
+
+    @Test
+    public void testMarshallRoundtripKeepsCaseSensitivity() {
+        final ExpressionFunctionName insensitive = ExpressionFunctionName.with("sum")
+            .setCaseSensitivity(CaseSensitivity.INSENSITIVE);
+
+        final Map<ExpressionFunctionName, Long> nameToHits = Maps.sorted(
+            ExpressionFunctionProviderMetricsSnapshot.NAME_COMPARATOR
+        );
+        nameToHits.put(
+            NAME,
+            2L
+        );
+        nameToHits.put(
+            NAME.setCaseSensitivity(CaseSensitivity.INSENSITIVE),
+            3L
+        );
+        nameToHits.put(
+            insensitive,
+            1L
+        );
+
+        final ExpressionFunctionProviderMetricsSnapshot snapshot = ExpressionFunctionProviderMetricsSnapshot.with(
+            1,
+            2,
+            6,
+            1,
+            1,
+            nameToHits,
+            latencies()
+        );
+
+        final ExpressionFunctionProviderMetricsSnapshot roundtrip = this.unmarshall(
+            this.marshallContext()
+                .marshall(snapshot),
+            this.unmarshallContext()
+        );
+
+        this.checkEquals(
+            snapshot,
+            roundtrip
+        );
+        this.checkEquals(
+            Lists.of(
+                CaseSensitivity.SENSITIVE,
+                CaseSensitivity.INSENSITIVE,
+                CaseSensitivity.INSENSITIVE
+            ),
+            roundtrip.nameToHits()
+                .keySet()
+                .stream()
+                .map(ExpressionFunctionName::caseSensitivity)
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testMetricsSnapshot() {
+        this.checkEquals(
+            ExpressionFunctionProviderMetrics.LATENCY_BUCKETS,
+            ExpressionFunctionProviderMetrics.empty()
+                .snapshot()
+                .latencies()
+                .size()
+        );
+    }
+
+    private static Map<ExpressionFunctionName, Long> nameToHits() {
+        return Maps.of(
+            NAME,
+            2L
+        );
+    }
+
+    private static List<Long> latencies() {
+        return Lists.of(
+            1L,
+            0L,
+            2L
+        );
+    }
+
+    // hashCode/equals..................................................................................................
+
+    @Override
+    public ExpressionFunctionProviderMetricsSnapshot createObject() {
+        return ExpressionFunctionProviderMetricsSnapshot.with(
+            1,
+            2,
+            2,
+            1,
+            0,
+            nameToHits(),
+            latencies()
+        );
+    }
+
+    // json.............................................................................................................
+
+    @Override
+    public ExpressionFunctionProviderMetricsSnapshot unmarshall(final JsonNode node,
+                                                               final JsonNodeUnmarshallContext context) {
+        return ExpressionFunctionProviderMetricsSnapshot.unmarshall(
+            node,
+            context
+        );
+    }
+
+    @Override
+    public ExpressionFunctionProviderMetricsSnapshot createJsonNodeMarshallingValue() {
+        return this.createObject();
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionProviderMetricsSnapshot> type() {
+        return ExpressionFunctionProviderMetricsSnapshot.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.HashCodeEqualsDefinedTesting2;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.text.printer.TreePrintableTesting;
+
+import java.util.Optional;
+
+public final class ExpressionFunctionProviderTraceTest implements ClassTesting<ExpressionFunctionProviderTrace>,
+    HashCodeEqualsDefinedTesting2<ExpressionFunctionProviderTrace>,
+    TreePrintableTesting {
+
+    @Test
+    public void testEqualsDifferentOutput() {
+        this.checkNotEquals(
+            ExpressionFunctionProviderTrace.with(
+                "AliasesExpressionFunctionProvider",
+                "alias1",
+                CaseSensitivity.INSENSITIVE,
+                Optional.empty(),
+                100,
+                Lists.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testTreePrint() {
+        this.treePrintAndCheck(
+            this.createObject(),
+            "AliasesExpressionFunctionProvider alias1 (INSENSITIVE) -> function1 100ns\n" +
+                "  BasicExpressionFunctionProvider function1 (INSENSITIVE) -> function1 25ns\n"
+        );
+    }
+
+    @Test
+    public void testTreePrintMissing() {
+        this.treePrintAndCheck(
+            ExpressionFunctionProviderTrace.with(
+                "BasicExpressionFunctionProvider",
+                "unknown",
+                CaseSensitivity.SENSITIVE,
+                Optional.empty(),
+                1,
+                Lists.empty()
+            ),
+            "BasicExpressionFunctionProvider unknown (SENSITIVE) -> ? 1ns\n"
+        );
+    }
+
+    @Override
+    public ExpressionFunctionProviderTrace createObject() {
+        return ExpressionFunctionProviderTrace.with(
+            "AliasesExpressionFunctionProvider",
+            "alias1",
+            CaseSensitivity.INSENSITIVE,
+            Optional.of("function1"),
+            100,
+            Lists.of(
+                ExpressionFunctionProviderTrace.with(
+                    "BasicExpressionFunctionProvider",
+                    "function1",
+                    CaseSensitivity.INSENSITIVE,
+                    Optional.of("function1"),
+                    25,
+                    Lists.empty()
+                )
+            )
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionProviderTrace> type() {
+        return ExpressionFunctionProviderTrace.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.test.Testing;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionEvaluationContext;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ExpressionFunctionRenamerTest implements ClassTesting<ExpressionFunctionRenamer<ExpressionEvaluationContext>>,
+    Testing {
+
+    private final static ExpressionFunctionName NAME = ExpressionFunctionName.with("renamed")
+        .setCaseSensitivity(CaseSensitivity.INSENSITIVE);
+
+    @Test
+    public void testWithNegativeExpectedSizeFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpressionFunctionRenamer.with(-1)
+        );
+    }
+
+    @Test
+    public void testSetNameNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionRenamer.with(1)
+                .setName(
+                    null,
+                    function()
+                )
+        );
+    }
+
+    @Test
+    public void testSetNameNullFunctionFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionRenamer.with(1)
+                .setName(
+                    NAME,
+                    null
+                )
+        );
+    }
+
+    @Test
+    public void testSetName() {
+        final ExpressionFunction<?, ExpressionEvaluationContext> renamed = ExpressionFunctionRenamer.<ExpressionEvaluationContext>with(1)
+            .setName(
+                NAME,
+                function()
+            );
+
+        this.checkEquals(
+            Optional.of(NAME),
+            renamed.name()
+        );
+    }
+
+    @Test
+    public void testSetNameSameFunction() {
+        final ExpressionFunctionRenamer<ExpressionEvaluationContext> renamer = ExpressionFunctionRenamer.with(1);
+        final ExpressionFunction<?, ExpressionEvaluationContext> function = function();
+
+        assertSame(
+            renamer.setName(
+                NAME,
+                function
+            ),
+            renamer.setName(
+                NAME,
+                function
+            )
+        );
+    }
+
+    @Test
+    public void testSetNameDifferentFunction() {
+        final ExpressionFunctionRenamer<ExpressionEvaluationContext> renamer = ExpressionFunctionRenamer.with(1);
+
+        final ExpressionFunction<?, ExpressionEvaluationContext> renamed = renamer.setName(
+            NAME,
+            function()
+        );
+
+        final ExpressionFunction<?, ExpressionEvaluationContext> different = function();
+        final ExpressionFunction<?, ExpressionEvaluationContext> renamed2 = renamer.setName(
+            NAME,
+            different
+        );
+
+        assertNotSame(
+            renamed,
+            renamed2
+        );
+        assertSame(
+            renamed2,
+            renamer.setName(
+                NAME,
+                different
+            )
+        );
+    }
+
+    @Test
+    public void testSetNameDifferentCaseSensitivity() {
+        final ExpressionFunctionRenamer<ExpressionEvaluationContext> renamer = ExpressionFunctionRenamer.with(1);
+        final ExpressionFunction<?, ExpressionEvaluationContext> function = function();
+
+        final ExpressionFunctionName sensitive = NAME.setCaseSensitivity(CaseSensitivity.SENSITIVE);
+
+        renamer.setName(
+            NAME,
+            function
+        );
+
+        this.checkEquals(
+            CaseSensitivity.SENSITIVE,
+            renamer.setName(
+                sensitive,
+                function
+            ).name()
+                .get()
+                .caseSensitivity()
+        );
+    }
+
+    @Test
+    public void testSetNameDifferentNameSameSlot() {
+        // a single name table has two slots, so many names must share them
+        final ExpressionFunctionRenamer<ExpressionEvaluationContext> renamer = ExpressionFunctionRenamer.with(1);
+        final ExpressionFunction<?, ExpressionEvaluationContext> function = function();
+
+        for (int i = 0; i < 10; i++) {
+            final ExpressionFunctionName name = ExpressionFunctionName.with("function" + i);
+
+            this.checkEquals(
+                Optional.of(name),
+                renamer.setName(
+                    name,
+                    function
+                ).name(),
+                name.toString()
+            );
+        }
+    }
+
+    @Test
+    public void testSetNameAfterManyOtherNames() {
+        final ExpressionFunctionRenamer<ExpressionEvaluationContext> renamer = ExpressionFunctionRenamer.with(1);
+        final ExpressionFunction<?, ExpressionEvaluationContext> function = function();
+
+        for (int i = 0; i < ExpressionFunctionRenamer.MAX_SIZE * 2; i++) {
+            renamer.setName(
+                ExpressionFunctionName.with("unknown" + i),
+                function
+            );
+        }
+
+        assertSame(
+            renamer.setName(
+                NAME,
+                function
+            ),
+            renamer.setName(
+                NAME,
+                function
+            )
+        );
+    }
+
+    private static ExpressionFunction<?, ExpressionEvaluationContext> function() {
+        return new FakeExpressionFunction<>() {
+            @Override
+            public Optional<ExpressionFunctionName> name() {
+                return Optional.of(
+                    ExpressionFunctionName.with("original")
+                );
+            }
+        };
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionRenamer<ExpressionEvaluationContext>> type() {
+        return Cast.to(ExpressionFunctionRenamer.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ExpressionFunctionSortedTreeTest implements ClassTesting<ExpressionFunctionSortedTree<?>>,
+    ToStringTesting<ExpressionFunctionSortedTree<?>> {
+
+    private final static Comparator<Integer> COMPARATOR = Comparator.naturalOrder();
+
+    @Test
+    public void testEmptyNullComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionSortedTree.empty(null)
+        );
+    }
+
+    @Test
+    public void testWithNullElementsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpressionFunctionSortedTree.with(
+                null,
+                COMPARATOR
+            )
+        );
+    }
+
+    @Test
+    public void testWithSorted() {
+        this.treeAndCheck(
+            ExpressionFunctionSortedTree.with(
+                Lists.of(1, 2, 3, 4, 5, 6, 7, 8, 9),
+                COMPARATOR
+            ),
+            1, 2, 3, 4, 5, 6, 7, 8, 9
+        );
+    }
+
+    @Test
+    public void testSorted() {
+        this.treeAndCheck(
+            ExpressionFunctionSortedTree.sorted(
+                new Object[]{1, 2, 3, 4, 5, 6, 7, 0, 0},
+                7,
+                COMPARATOR
+            ),
+            1, 2, 3, 4, 5, 6, 7
+        );
+    }
+
+    @Test
+    public void testWithUnsortedAndDuplicates() {
+        this.treeAndCheck(
+            ExpressionFunctionSortedTree.with(
+                Lists.of(5, 3, 9, 3, 1, 7),
+                COMPARATOR
+            ),
+            1, 3, 5, 7, 9
+        );
+    }
+
+    @Test
+    public void testAddPresentSame() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(1, 2, 3),
+            COMPARATOR
+        );
+
+        assertSame(
+            tree,
+            tree.add(2)
+        );
+    }
+
+    @Test
+    public void testAddDoesNotChangeOriginal() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(1, 3),
+            COMPARATOR
+        );
+
+        this.treeAndCheck(
+            tree.add(2),
+            1, 2, 3
+        );
+        this.treeAndCheck(
+            tree,
+            1, 3
+        );
+    }
+
+    @Test
+    public void testRemoveAbsentSame() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(1, 2, 3),
+            COMPARATOR
+        );
+
+        assertSame(
+            tree,
+            tree.remove(4)
+        );
+    }
+
+    @Test
+    public void testRemoveDoesNotChangeOriginal() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(1, 2, 3),
+            COMPARATOR
+        );
+
+        this.treeAndCheck(
+            tree.remove(2),
+            1, 3
+        );
+        this.treeAndCheck(
+            tree,
+            1, 2, 3
+        );
+    }
+
+    @Test
+    public void testAddRemoveManyAgreesWithTreeSet() {
+        ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.empty(COMPARATOR);
+        final TreeSet<Integer> treeSet = new TreeSet<>(COMPARATOR);
+
+        // a simple linear congruential sequence, so the test always performs the same edits
+        int next = 17;
+        for (int i = 0; i < 2000; i++) {
+            next = (next * 1103515245 + 12345) & 0x7fffffff;
+            final Integer element = next % 200;
+
+            if (0 == (next & 0x100)) {
+                tree = tree.add(element);
+                treeSet.add(element);
+            } else {
+                tree = tree.remove(element);
+                treeSet.remove(element);
+            }
+
+            this.checkEquals(
+                Lists.of(
+                    treeSet.toArray()
+                ),
+                list(tree),
+                "elements"
+            );
+        }
+    }
+
+    @Test
+    public void testAddAscendingStaysBalanced() {
+        ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.empty(COMPARATOR);
+        for (int i = 0; i < 1023; i++) {
+            tree = tree.add(i);
+        }
+
+        this.checkEquals(
+            1023,
+            tree.size(),
+            "size"
+        );
+        this.checkEquals(
+            10,
+            tree.height(),
+            "height"
+        );
+    }
+
+    @Test
+    public void testGet() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(10, 20, 30),
+            COMPARATOR
+        );
+
+        this.checkEquals(
+            20,
+            tree.get(20),
+            "present"
+        );
+        this.checkEquals(
+            null,
+            tree.get(25),
+            "absent"
+        );
+    }
+
+    @Test
+    public void testLowerAndHigher() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(10, 20, 30),
+            COMPARATOR
+        );
+
+        this.checkEquals(
+            10,
+            tree.lower(20),
+            "lower"
+        );
+        this.checkEquals(
+            30,
+            tree.higher(20),
+            "higher"
+        );
+        this.checkEquals(
+            null,
+            tree.lower(10),
+            "lower first"
+        );
+        this.checkEquals(
+            null,
+            tree.higher(30),
+            "higher last"
+        );
+        this.checkEquals(
+            20,
+            tree.higher(15),
+            "higher absent"
+        );
+    }
+
+    @Test
+    public void testFirstAndLast() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(10, 20, 30),
+            COMPARATOR
+        );
+
+        this.checkEquals(
+            10,
+            tree.first(),
+            "first"
+        );
+        this.checkEquals(
+            30,
+            tree.last(),
+            "last"
+        );
+    }
+
+    @Test
+    public void testRange() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(10, 20, 30, 40, 50),
+            COMPARATOR
+        );
+
+        this.treeAndCheck(
+            tree.range(
+                20,
+                40
+            ),
+            20, 30
+        );
+        this.treeAndCheck(
+            tree.range(
+                null,
+                25
+            ),
+            10, 20
+        );
+        this.treeAndCheck(
+            tree.range(
+                45,
+                null
+            ),
+            50
+        );
+        this.treeAndCheck(
+            tree.range(
+                31,
+                39
+            )
+        );
+        this.treeAndCheck(
+            tree,
+            10, 20, 30, 40, 50
+        );
+    }
+
+    @Test
+    public void testRangeAllSame() {
+        final ExpressionFunctionSortedTree<Integer> tree = ExpressionFunctionSortedTree.with(
+            Lists.of(10, 20, 30),
+            COMPARATOR
+        );
+
+        assertSame(
+            tree,
+            tree.range(
+                10,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testIteratorEmptyNextFails() {
+        assertThrows(
+            NoSuchElementException.class,
+            () -> ExpressionFunctionSortedTree.empty(COMPARATOR)
+                .iterator()
+                .next()
+        );
+    }
+
+    private void treeAndCheck(final ExpressionFunctionSortedTree<Integer> tree,
+                              final Integer... expected) {
+        this.checkEquals(
+            Lists.of(expected),
+            list(tree),
+            tree::toString
+        );
+        this.checkEquals(
+            expected.length,
+            tree.size(),
+            "size"
+        );
+        this.checkEquals(
+            0 == expected.length,
+            tree.isEmpty(),
+            "isEmpty"
+        );
+    }
+
+    private static List<Object> list(final ExpressionFunctionSortedTree<Integer> tree) {
+        final List<Object> list = Lists.array();
+
+        final Iterator<Integer> iterator = tree.iterator();
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            ExpressionFunctionSortedTree.with(
+                Lists.of(3, 1, 2),
+                COMPARATOR
+            ),
+            "1, 2, 3"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpressionFunctionSortedTree<?>> type() {
+        return Cast.to(ExpressionFunctionSortedTree.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
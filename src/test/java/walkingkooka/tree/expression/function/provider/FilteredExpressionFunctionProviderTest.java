@@ -31,6 +31,8 @@ import walkingkooka.tree.expression.function.ExpressionFunctions;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public final class FilteredExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<FilteredExpressionFunctionProvider<ExpressionEvaluationContext>, ExpressionEvaluationContext>,
     ToStringTesting<FilteredExpressionFunctionProvider<ExpressionEvaluationContext>> {
 
@@ -79,6 +81,79 @@ public final class FilteredExpressionFunctionProviderTest implements ExpressionF
         );
     }
 
+    @Test
+    public void testExpressionFunctionIfPresentName() {
+        final ExpressionFunctionName name = ExpressionFunctionName.with("node")
+            .setCaseSensitivity(CASE_SENSITIVITY);
+        final List<?> values = Lists.empty();
+
+        this.expressionFunctionIfPresentAndCheck(
+            name,
+            values,
+            CONTEXT,
+            ExpressionFunctionProviders.expressionFunctions()
+                .expressionFunction(
+                    name,
+                    values,
+                    CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameFiltered() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("name")
+                .setCaseSensitivity(CASE_SENSITIVITY),
+            Lists.empty(),
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentSelectorAgreesWithExpressionFunction() {
+        final FilteredExpressionFunctionProvider<ExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        final ExpressionFunctionSelector selector = ExpressionFunctionSelector.parse(
+            "node",
+            CASE_SENSITIVITY
+        );
+
+        this.expressionFunctionIfPresentAndCheck(
+            provider,
+            selector,
+            CONTEXT,
+            provider.expressionFunction(
+                selector,
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentSelectorFilteredAgreesWithExpressionFunction() {
+        final FilteredExpressionFunctionProvider<ExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        final ExpressionFunctionSelector selector = ExpressionFunctionSelector.parse(
+            "name",
+            CASE_SENSITIVITY
+        );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> provider.expressionFunction(
+                selector,
+                CONTEXT
+            )
+        );
+
+        this.expressionFunctionIfPresentAndCheck(
+            provider,
+            selector,
+            CONTEXT
+        );
+    }
+
     @Test
     public void testExpressionFunctionInfos() {
         this.expressionFunctionInfosAndCheck(
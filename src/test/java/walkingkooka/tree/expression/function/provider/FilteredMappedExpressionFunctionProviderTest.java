@@ -35,6 +35,7 @@ import walkingkooka.tree.expression.function.FakeExpressionFunction;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class FilteredMappedExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<FilteredMappedExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
@@ -114,6 +115,42 @@ public final class FilteredMappedExpressionFunctionProviderTest implements Expre
         );
     }
 
+    @Test
+    public void testExpressionFunctionNameSame() {
+        final ExpressionFunctionProvider<?> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunction(
+                NAME,
+                VALUES,
+                CONTEXT
+            ),
+            provider.expressionFunction(
+                NAME,
+                VALUES,
+                CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameDifferentCaseSensitivitySame() {
+        final ExpressionFunctionProvider<?> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunction(
+                NAME,
+                VALUES,
+                CONTEXT
+            ),
+            provider.expressionFunction(
+                NAME.setCaseSensitivity(CaseSensitivity.INSENSITIVE),
+                VALUES,
+                CONTEXT
+            )
+        );
+    }
+
     @Test
     public void testExpressionFunctionNameUnknownFails() {
         this.expressionFunctionFails(
@@ -123,6 +160,26 @@ public final class FilteredMappedExpressionFunctionProviderTest implements Expre
         );
     }
 
+    @Test
+    public void testExpressionFunctionIfPresentName() {
+        this.expressionFunctionIfPresentAndCheck(
+            NAME,
+            VALUES,
+            CONTEXT,
+            function(NAME)
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown")
+                .setCaseSensitivity(CASE_SENSITIVITY),
+            VALUES,
+            CONTEXT
+        );
+    }
+
     @Test
     public void testExpressionFunctionSelector() {
         this.expressionFunctionAndCheck(
@@ -0,0 +1,421 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class LazyBasicExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<LazyBasicExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<LazyBasicExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static CaseSensitivity CASE_SENSITIVITY = ExpressionFunctionName.DEFAULT_CASE_SENSITIVITY;
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testExpressionFunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testExpressionFunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION1 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME1);
+        }
+    };
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION2 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME2);
+        }
+    };
+
+    private final static Map<ExpressionFunctionName, Supplier<ExpressionFunction<?, FakeExpressionEvaluationContext>>> FUNCTIONS = Maps.of(
+        NAME1,
+        () -> FUNCTION1,
+        NAME2,
+        () -> FUNCTION2
+    );
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    private final static List<?> VALUES = Lists.empty();
+
+    @Test
+    public void testWithNullBaseUrlFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> LazyBasicExpressionFunctionProvider.with(
+                null,
+                CASE_SENSITIVITY,
+                FUNCTIONS
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullNameCaseSensitivityFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> LazyBasicExpressionFunctionProvider.with(
+                BASE_URL,
+                null,
+                FUNCTIONS
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullFunctionsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> LazyBasicExpressionFunctionProvider.with(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testWithEmptyFunctionFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LazyBasicExpressionFunctionProvider.with(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Maps.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithDuplicateFunctionCaseInsensitiveFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> LazyBasicExpressionFunctionProvider.with(
+                BASE_URL,
+                CaseSensitivity.INSENSITIVE,
+                Maps.of(
+                    ExpressionFunctionName.with("A1")
+                        .setCaseSensitivity(CaseSensitivity.SENSITIVE),
+                    () -> FUNCTION1,
+                    ExpressionFunctionName.with("a1")
+                        .setCaseSensitivity(CaseSensitivity.SENSITIVE),
+                    () -> FUNCTION2
+                )
+            )
+        );
+
+        this.checkEquals(
+            true,
+            thrown.getMessage()
+                .startsWith("Duplicate function "),
+            thrown::getMessage
+        );
+    }
+
+    @Test
+    public void testWithDoesNotCreateFunctions() {
+        final AtomicInteger created = new AtomicInteger();
+
+        final LazyBasicExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = LazyBasicExpressionFunctionProvider.with(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Maps.of(
+                NAME1,
+                () -> {
+                    created.incrementAndGet();
+                    return FUNCTION1;
+                }
+            )
+        );
+
+        this.expressionFunctionInfosAndCheck(
+            provider,
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testExpressionFunction1"),
+                NAME1
+            )
+        );
+
+        this.checkEquals(
+            0,
+            created.get(),
+            "created"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionCreatedOnce() {
+        final AtomicInteger created = new AtomicInteger();
+
+        final LazyBasicExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = LazyBasicExpressionFunctionProvider.with(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Maps.of(
+                NAME1,
+                () -> {
+                    created.incrementAndGet();
+                    return FUNCTION1;
+                }
+            )
+        );
+
+        final ExpressionFunction<?, FakeExpressionEvaluationContext> function = provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+
+        assertSame(
+            function,
+            provider.expressionFunction(
+                NAME1,
+                VALUES,
+                CONTEXT
+            )
+        );
+        assertSame(
+            function,
+            provider.expressionFunctionIfPresent(
+                NAME1,
+                VALUES,
+                CONTEXT
+            ).get()
+        );
+
+        this.checkEquals(
+            1,
+            created.get(),
+            "created"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsUnknownDoesNotCreateFunctions() {
+        final AtomicInteger created = new AtomicInteger();
+
+        final LazyBasicExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = LazyBasicExpressionFunctionProvider.with(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Maps.of(
+                NAME1,
+                () -> {
+                    created.incrementAndGet();
+                    return FUNCTION1;
+                }
+            )
+        );
+
+        this.expressionFunctionsFails(
+            provider,
+            Lists.of(
+                NAME1,
+                ExpressionFunctionName.with("unknown")
+            ),
+            CONTEXT
+        );
+
+        this.checkEquals(
+            0,
+            created.get(),
+            "created"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameUnknownFails() {
+        this.expressionFunctionFails(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME2 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentName() {
+        this.expressionFunctionIfPresentAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentSelectorUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionSelector.parse(
+                "unknown",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctions() {
+        this.expressionFunctionsAndCheck(
+            Lists.of(
+                NAME1,
+                NAME2
+            ),
+            CONTEXT,
+            Maps.of(
+                NAME1,
+                FUNCTION1,
+                NAME2,
+                FUNCTION2
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsNameDifferentCaseSensitivityKeyedByProviderName() {
+        final ExpressionFunctionName name = NAME1.setCaseSensitivity(
+            CaseSensitivity.SENSITIVE == CASE_SENSITIVITY ?
+                CaseSensitivity.INSENSITIVE :
+                CaseSensitivity.SENSITIVE
+        );
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, FakeExpressionEvaluationContext>> nameToFunction = this.createExpressionFunctionProvider()
+            .expressionFunctions(
+                Lists.of(name),
+                CONTEXT
+            );
+
+        final ExpressionFunctionName key = nameToFunction.keySet()
+            .iterator()
+            .next();
+        this.checkEquals(
+            CASE_SENSITIVITY,
+            key.caseSensitivity(),
+            "key caseSensitivity"
+        );
+        this.checkEquals(
+            FUNCTION1,
+            nameToFunction.get(NAME1),
+            "function"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfos() {
+        this.expressionFunctionInfosAndCheck(
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testExpressionFunction1"),
+                NAME1
+            ),
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testExpressionFunction2"),
+                NAME2
+            )
+        );
+    }
+
+    @Override
+    public LazyBasicExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return LazyBasicExpressionFunctionProvider.with(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            FUNCTIONS
+        );
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createExpressionFunctionProvider(),
+            "testExpressionFunction1, testExpressionFunction2"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<LazyBasicExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(LazyBasicExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class LazyExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<LazyExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<LazyExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME);
+        }
+    };
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    @Test
+    public void testWithNullCaseSensitivityFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> LazyExpressionFunctionProvider.with(
+                null,
+                LazyExpressionFunctionProviderTest::provider
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> LazyExpressionFunctionProvider.with(
+                CASE_SENSITIVITY,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameCaseSensitivityDoesNotCreateProvider() {
+        final AtomicInteger created = new AtomicInteger();
+
+        this.checkEquals(
+            CASE_SENSITIVITY,
+            LazyExpressionFunctionProvider.with(
+                CASE_SENSITIVITY,
+                counting(created)
+            ).expressionFunctionNameCaseSensitivity()
+        );
+
+        this.checkEquals(
+            0,
+            created.get(),
+            "created"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionProviderCreatedOnce() {
+        final AtomicInteger created = new AtomicInteger();
+
+        final LazyExpressionFunctionProvider<FakeExpressionEvaluationContext> lazy = LazyExpressionFunctionProvider.with(
+            CASE_SENSITIVITY,
+            counting(created)
+        );
+
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = lazy.expressionFunctionProvider();
+
+        this.expressionFunctionAndCheck(
+            lazy,
+            NAME,
+            VALUES,
+            CONTEXT,
+            FUNCTION
+        );
+        this.expressionFunctionInfosAndCheck(
+            lazy,
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction1"),
+                NAME
+            )
+        );
+
+        assertSame(
+            provider,
+            lazy.expressionFunctionProvider()
+        );
+
+        this.checkEquals(
+            1,
+            created.get(),
+            "created"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionProviderDifferentCaseSensitivityFails() {
+        final IllegalStateException thrown = assertThrows(
+            IllegalStateException.class,
+            () -> LazyExpressionFunctionProvider.<FakeExpressionEvaluationContext>with(
+                CASE_SENSITIVITY,
+                () -> ExpressionFunctionProviders.empty(CaseSensitivity.SENSITIVE)
+            ).expressionFunctionProvider()
+        );
+
+        this.checkEquals(
+            "Provider case sensitivity SENSITIVE different from INSENSITIVE",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionProviderDifferentCaseSensitivityFailsSupplierCalledOnce() {
+        final AtomicInteger created = new AtomicInteger();
+
+        final LazyExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = LazyExpressionFunctionProvider.with(
+            CASE_SENSITIVITY,
+            () -> {
+                created.incrementAndGet();
+                return ExpressionFunctionProviders.empty(CaseSensitivity.SENSITIVE);
+            }
+        );
+
+        for (int i = 0; i < 3; i++) {
+            final IllegalStateException thrown = assertThrows(
+                IllegalStateException.class,
+                provider::expressionFunctionProvider
+            );
+
+            this.checkEquals(
+                "Provider case sensitivity SENSITIVE different from INSENSITIVE",
+                thrown.getMessage()
+            );
+        }
+
+        this.checkEquals(
+            1,
+            created.get(),
+            "supplier calls"
+        );
+    }
+
+    @Test
+    public void testToStringAfterDifferentCaseSensitivityFails() {
+        final LazyExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = LazyExpressionFunctionProvider.with(
+            CASE_SENSITIVITY,
+            () -> ExpressionFunctionProviders.empty(CaseSensitivity.SENSITIVE)
+        );
+
+        assertThrows(
+            IllegalStateException.class,
+            provider::expressionFunctionProvider
+        );
+
+        this.toStringAndCheck(
+            provider,
+            "Provider case sensitivity SENSITIVE different from INSENSITIVE"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionProviderNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> LazyExpressionFunctionProvider.<FakeExpressionEvaluationContext>with(
+                CASE_SENSITIVITY,
+                () -> null
+            ).expressionFunctionProvider()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME,
+            VALUES,
+            CONTEXT,
+            FUNCTION
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameUnknownFails() {
+        this.expressionFunctionFails(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION
+        );
+    }
+
+    @Override
+    public LazyExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return LazyExpressionFunctionProvider.with(
+            CASE_SENSITIVITY,
+            LazyExpressionFunctionProviderTest::provider
+        );
+    }
+
+    private static Supplier<ExpressionFunctionProvider<FakeExpressionEvaluationContext>> counting(final AtomicInteger created) {
+        return () -> {
+            created.incrementAndGet();
+            return provider();
+        };
+    }
+
+    private static ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider() {
+        return ExpressionFunctionProviders.basic(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Sets.of(FUNCTION)
+        );
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToStringBeforeCreated() {
+        this.toStringAndCheck(
+            LazyExpressionFunctionProvider.with(
+                CASE_SENSITIVITY,
+                new Supplier<ExpressionFunctionProvider<FakeExpressionEvaluationContext>>() {
+                    @Override
+                    public ExpressionFunctionProvider<FakeExpressionEvaluationContext> get() {
+                        return provider();
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "Supplier123";
+                    }
+                }
+            ),
+            "Supplier123"
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final LazyExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+        provider.expressionFunctionProvider();
+
+        this.toStringAndCheck(
+            provider,
+            "testfunction1"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<LazyExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(LazyExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
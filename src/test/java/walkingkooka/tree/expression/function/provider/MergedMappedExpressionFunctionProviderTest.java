@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.Cast;
 import walkingkooka.ToStringTesting;
 import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.net.Url;
@@ -32,10 +33,14 @@ import walkingkooka.tree.expression.ExpressionEvaluationContext;
 import walkingkooka.tree.expression.ExpressionFunctionName;
 import walkingkooka.tree.expression.function.ExpressionFunction;
 import walkingkooka.tree.expression.function.FakeExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class MergedMappedExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<MergedMappedExpressionFunctionProvider<ExpressionEvaluationContext>, ExpressionEvaluationContext>,
@@ -120,6 +125,24 @@ public final class MergedMappedExpressionFunctionProviderTest implements Express
         );
     }
 
+    @Test
+    public void testExpressionFunctionNameRenameSame() {
+        final ExpressionFunctionProvider<?> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunction(
+                RENAME_NAME,
+                VALUES,
+                CONTEXT
+            ),
+            provider.expressionFunction(
+                RENAME_NAME,
+                VALUES,
+                CONTEXT
+            )
+        );
+    }
+
     @Test
     public void testExpressionFunctionNameProviderOnly() {
         this.expressionFunctionAndCheck(
@@ -140,6 +163,103 @@ public final class MergedMappedExpressionFunctionProviderTest implements Express
         );
     }
 
+    @Test
+    public void testExpressionFunctionIfPresentNameRename() {
+        this.expressionFunctionIfPresentAndCheck(
+            RENAME_NAME,
+            VALUES,
+            CONTEXT,
+            function(RENAME_NAME)
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown")
+                .setCaseSensitivity(CASE_SENSITIVITY),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctions() {
+        this.expressionFunctionsAndCheck(
+            Lists.of(
+                RENAME_NAME,
+                PROVIDER_ONLY_NAME
+            ),
+            CONTEXT,
+            Maps.of(
+                RENAME_NAME,
+                function(RENAME_NAME),
+                PROVIDER_ONLY_NAME,
+                function(PROVIDER_ONLY_NAME)
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsProviderKeysOtherCaseSensitivity() {
+        this.expressionFunctionsAndCheck(
+            this.createExpressionFunctionProvider(
+                Maps.of(
+                    otherCaseSensitivity(RENAME_PROVIDER_NAME),
+                    function(RENAME_PROVIDER_NAME),
+                    otherCaseSensitivity(PROVIDER_ONLY_NAME),
+                    function(PROVIDER_ONLY_NAME)
+                )
+            ),
+            Lists.of(
+                RENAME_NAME,
+                PROVIDER_ONLY_NAME
+            ),
+            CONTEXT,
+            Maps.of(
+                RENAME_NAME,
+                function(RENAME_NAME),
+                PROVIDER_ONLY_NAME,
+                function(PROVIDER_ONLY_NAME)
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsProviderMissingNameFails() {
+        final UnknownExpressionFunctionException thrown = assertThrows(
+            UnknownExpressionFunctionException.class,
+            () -> this.createExpressionFunctionProvider(
+                Maps.of(
+                    PROVIDER_ONLY_NAME,
+                    function(PROVIDER_ONLY_NAME)
+                )
+            ).expressionFunctions(
+                Lists.of(
+                    RENAME_NAME,
+                    PROVIDER_ONLY_NAME
+                ),
+                CONTEXT
+            )
+        );
+
+        this.checkEquals(
+            new UnknownExpressionFunctionException(RENAME_NAME)
+                .getMessage(),
+            thrown.getMessage()
+        );
+    }
+
+    /**
+     * Returns the given name upper cased, with the other {@link CaseSensitivity}.
+     */
+    private static ExpressionFunctionName otherCaseSensitivity(final ExpressionFunctionName name) {
+        return ExpressionFunctionName.with(
+            name.value()
+                .toUpperCase()
+        ).setCaseSensitivity(CaseSensitivity.SENSITIVE);
+    }
+
     @Test
     public void testExpressionFunctionSelectorRenameName() {
         this.expressionFunctionAndCheck(
@@ -250,6 +370,54 @@ public final class MergedMappedExpressionFunctionProviderTest implements Express
         );
     }
 
+    /**
+     * Creates a provider wrapping a provider whose {@link ExpressionFunctionProvider#expressionFunctions(Collection, ProviderContext)}
+     * always returns the given functions.
+     */
+    private MergedMappedExpressionFunctionProvider<ExpressionEvaluationContext> createExpressionFunctionProvider(final Map<ExpressionFunctionName, ExpressionFunction<?, ExpressionEvaluationContext>> functions) {
+        return MergedMappedExpressionFunctionProvider.with(
+            ExpressionFunctionInfoSet.with(
+                Sets.of(
+                    ExpressionFunctionInfo.with(
+                        RENAMED_URL,
+                        RENAME_NAME
+                    )
+                ),
+                CASE_SENSITIVITY
+            ),
+            new FakeExpressionFunctionProvider<>() {
+
+                @Override
+                public Map<ExpressionFunctionName, ExpressionFunction<?, ExpressionEvaluationContext>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                                                           final ProviderContext context) {
+                    return functions;
+                }
+
+                @Override
+                public ExpressionFunctionInfoSet expressionFunctionInfos() {
+                    return ExpressionFunctionInfoSet.with(
+                        Sets.of(
+                            ExpressionFunctionInfo.with(
+                                RENAMED_URL,
+                                RENAME_PROVIDER_NAME
+                            ),
+                            ExpressionFunctionInfo.with(
+                                PROVIDER_ONLY_URL,
+                                PROVIDER_ONLY_NAME
+                            )
+                        ),
+                        CASE_SENSITIVITY
+                    );
+                }
+
+                @Override
+                public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+                    return CASE_SENSITIVITY;
+                }
+            }
+        );
+    }
+
     @Override
     public CaseSensitivity expressionFunctionNameCaseSensitivity() {
         return CASE_SENSITIVITY;
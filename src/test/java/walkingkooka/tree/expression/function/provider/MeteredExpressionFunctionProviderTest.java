@@ -0,0 +1,440 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class MeteredExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testfunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION1 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME1);
+        }
+    };
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION2 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME2);
+        }
+    };
+
+    private final static ExpressionFunctionName UNKNOWN = ExpressionFunctionName.with("unknown");
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> MeteredExpressionFunctionProvider.with(
+                null,
+                ExpressionFunctionProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullMetricsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> MeteredExpressionFunctionProvider.with(
+                ExpressionFunctionProviders.fake(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameUnknownFails() {
+        this.expressionFunctionFails(
+            UNKNOWN,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME1 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            UNKNOWN,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testMetrics() {
+        final ExpressionFunctionProviderMetrics metrics = ExpressionFunctionProviderMetrics.empty();
+        final MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider(metrics);
+
+        provider.expressionFunction(
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            ExpressionFunctionName.with(
+                NAME1.value()
+                    .toUpperCase()
+            ),
+            VALUES,
+            CONTEXT
+        );
+        provider.expressionFunction(
+            ExpressionFunctionSelector.parse(
+                NAME2 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT
+        );
+        provider.expressionFunctionIfPresent(
+            UNKNOWN,
+            VALUES,
+            CONTEXT
+        );
+        this.expressionFunctionFails(
+            provider,
+            UNKNOWN,
+            VALUES,
+            CONTEXT
+        );
+
+        this.metricsAndCheck(
+            metrics,
+            1,
+            4,
+            3,
+            2,
+            0,
+            Maps.of(
+                NAME1,
+                2L,
+                NAME2,
+                1L
+            )
+        );
+    }
+
+    @Test
+    public void testMetricsExpressionFunctions() {
+        final ExpressionFunctionProviderMetrics metrics = ExpressionFunctionProviderMetrics.empty();
+        final MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider(metrics);
+
+        this.expressionFunctionsAndCheck(
+            provider,
+            Lists.of(
+                NAME1,
+                NAME2
+            ),
+            CONTEXT,
+            Maps.of(
+                NAME1,
+                FUNCTION1,
+                NAME2,
+                FUNCTION2
+            )
+        );
+
+        this.metricsAndCheck(
+            metrics,
+            0,
+            2,
+            2,
+            0,
+            0,
+            Maps.of(
+                NAME1,
+                1L,
+                NAME2,
+                1L
+            )
+        );
+    }
+
+    @Test
+    public void testMetricsExpressionFunctionsUnknownNames() {
+        final ExpressionFunctionProviderMetrics metrics = ExpressionFunctionProviderMetrics.empty();
+        final MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider(metrics);
+
+        this.expressionFunctionsFails(
+            provider,
+            Lists.of(
+                NAME1,
+                UNKNOWN,
+                ExpressionFunctionName.with("unknown2")
+            ),
+            CONTEXT
+        );
+
+        this.metricsAndCheck(
+            metrics,
+            0,
+            3,
+            0,
+            1,
+            0,
+            Maps.empty()
+        );
+    }
+
+    @Test
+    public void testMetricsExpressionFunctionsUnknownNamesDoesNotQueryProviderAgain() {
+        final ExpressionFunctionProviderMetrics metrics = ExpressionFunctionProviderMetrics.empty();
+        final MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = MeteredExpressionFunctionProvider.with(
+            new FakeExpressionFunctionProvider<>() {
+                @Override
+                public Map<ExpressionFunctionName, ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctions(final Collection<ExpressionFunctionName> names,
+                                                                                                                               final ProviderContext context) {
+                    throw new UnknownExpressionFunctionException(UNKNOWN);
+                }
+
+                @Override
+                public Optional<ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                                                                    final List<?> values,
+                                                                                                                    final ProviderContext context) {
+                    throw new UnsupportedOperationException("Provider queried again for " + name);
+                }
+
+                @Override
+                public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+                    return CASE_SENSITIVITY;
+                }
+            },
+            metrics
+        );
+
+        assertThrows(
+            UnknownExpressionFunctionException.class,
+            () -> provider.expressionFunctions(
+                Lists.of(
+                    NAME1,
+                    UNKNOWN
+                ),
+                CONTEXT
+            )
+        );
+
+        this.metricsAndCheck(
+            metrics,
+            0,
+            2,
+            0,
+            1,
+            0,
+            Maps.empty()
+        );
+    }
+
+    @Test
+    public void testMetricsFailure() {
+        final ExpressionFunctionProviderMetrics metrics = ExpressionFunctionProviderMetrics.empty();
+        final MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = MeteredExpressionFunctionProvider.with(
+            new FakeExpressionFunctionProvider<>() {
+                @Override
+                public Optional<ExpressionFunction<?, FakeExpressionEvaluationContext>> expressionFunctionIfPresent(final ExpressionFunctionName name,
+                                                                                                                    final List<?> values,
+                                                                                                                    final ProviderContext context) {
+                    throw new IllegalStateException("Broken");
+                }
+
+                @Override
+                public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+                    return CASE_SENSITIVITY;
+                }
+            },
+            metrics
+        );
+
+        assertThrows(
+            IllegalStateException.class,
+            () -> provider.expressionFunctionIfPresent(
+                NAME1,
+                VALUES,
+                CONTEXT
+            )
+        );
+
+        this.metricsAndCheck(
+            metrics,
+            0,
+            1,
+            0,
+            0,
+            1,
+            Maps.empty()
+        );
+        this.checkEquals(
+            1L,
+            metrics.snapshot()
+                .latencies()
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum(),
+            "latencies"
+        );
+    }
+
+    private void metricsAndCheck(final ExpressionFunctionProviderMetrics metrics,
+                                 final long selectorLookups,
+                                 final long nameLookups,
+                                 final long hits,
+                                 final long misses,
+                                 final long failures,
+                                 final Map<ExpressionFunctionName, Long> nameToHits) {
+        final ExpressionFunctionProviderMetricsSnapshot snapshot = metrics.snapshot();
+
+        this.checkEquals(
+            selectorLookups,
+            snapshot.selectorLookups(),
+            "selectorLookups"
+        );
+        this.checkEquals(
+            nameLookups,
+            snapshot.nameLookups(),
+            "nameLookups"
+        );
+        this.checkEquals(
+            hits,
+            snapshot.hits(),
+            "hits"
+        );
+        this.checkEquals(
+            misses,
+            snapshot.misses(),
+            "misses"
+        );
+        this.checkEquals(
+            failures,
+            snapshot.failures(),
+            "failures"
+        );
+        this.checkEquals(
+            nameToHits,
+            snapshot.nameToHits(),
+            "nameToHits"
+        );
+    }
+
+    @Override
+    public MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return this.createExpressionFunctionProvider(
+            ExpressionFunctionProviderMetrics.empty()
+        );
+    }
+
+    private MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider(final ExpressionFunctionProviderMetrics metrics) {
+        return MeteredExpressionFunctionProvider.with(
+            ExpressionFunctionProviders.basic(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Sets.of(
+                    FUNCTION1,
+                    FUNCTION2
+                )
+            ),
+            metrics
+        );
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createExpressionFunctionProvider(),
+            "testfunction1, testfunction2"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<MeteredExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(MeteredExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.ExpressionFunction;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class RegistryExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testfunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION1 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME1);
+        }
+    };
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION2 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME2);
+        }
+    };
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    @Test
+    public void testWithNullBaseUrlFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> RegistryExpressionFunctionProvider.with(
+                null,
+                CASE_SENSITIVITY
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullCaseSensitivityFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> RegistryExpressionFunctionProvider.with(
+                BASE_URL,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testRegisterNullFunctionFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .register(null)
+        );
+    }
+
+    @Test
+    public void testRegisterUnnamedFunctionFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createExpressionFunctionProvider()
+                .register(
+                    new FakeExpressionFunction<>() {
+                        @Override
+                        public Optional<ExpressionFunctionName> name() {
+                            return Optional.empty();
+                        }
+                    }
+                )
+        );
+
+        this.checkEquals(
+            "Cannot add unnamed functions to provider",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testRegisterReplaces() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        this.checkEquals(
+            Optional.of(FUNCTION1),
+            provider.register(FUNCTION1)
+        );
+    }
+
+    @Test
+    public void testRegisterDifferentCaseReplacesName() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        final ExpressionFunctionName differentCase = ExpressionFunctionName.with(
+            NAME1.value()
+                .toUpperCase()
+        ).setCaseSensitivity(CASE_SENSITIVITY);
+
+        final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> function = new FakeExpressionFunction<>() {
+            @Override
+            public Optional<ExpressionFunctionName> name() {
+                return Optional.of(differentCase);
+            }
+        };
+
+        this.checkEquals(
+            Optional.of(FUNCTION1),
+            provider.register(function),
+            "register"
+        );
+
+        this.expressionFunctionAndCheck(
+            provider,
+            NAME1,
+            VALUES,
+            CONTEXT,
+            function
+        );
+
+        this.checkEquals(
+            differentCase.value(),
+            provider.expressionFunctionInfos()
+                .iterator()
+                .next()
+                .name()
+                .value(),
+            "infos name"
+        );
+
+        this.toStringAndCheck(
+            provider,
+            "TESTFUNCTION1, testfunction2"
+        );
+    }
+
+    @Test
+    public void testUnregisterNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .unregister(null)
+        );
+    }
+
+    @Test
+    public void testUnregister() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        this.checkEquals(
+            Optional.of(FUNCTION1),
+            provider.unregister(NAME1),
+            "unregister"
+        );
+
+        this.expressionFunctionFails(
+            provider,
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testUnregisterUnknown() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createExpressionFunctionProvider()
+                .unregister(
+                    ExpressionFunctionName.with("unknown")
+                )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameDifferentCase() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionName.with(
+                NAME2.value()
+                    .toUpperCase()
+            ),
+            VALUES,
+            CONTEXT,
+            FUNCTION2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionsNameDifferentCaseKeyedByProviderName() {
+        final ExpressionFunctionName name = ExpressionFunctionName.with(
+            NAME2.value()
+                .toUpperCase()
+        ).setCaseSensitivity(CaseSensitivity.SENSITIVE);
+
+        final Map<ExpressionFunctionName, ExpressionFunction<?, FakeExpressionEvaluationContext>> nameToFunction = this.createExpressionFunctionProvider()
+            .expressionFunctions(
+                Lists.of(name),
+                CONTEXT
+            );
+
+        final ExpressionFunctionName key = nameToFunction.keySet()
+            .iterator()
+            .next();
+        this.checkEquals(
+            CASE_SENSITIVITY,
+            key.caseSensitivity(),
+            "key caseSensitivity"
+        );
+        this.checkEquals(
+            FUNCTION2,
+            nameToFunction.get(NAME2),
+            "function"
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameUnknownFails() {
+        this.expressionFunctionFails(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME1 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfos() {
+        this.expressionFunctionInfosAndCheck(
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction1"),
+                NAME1
+            ),
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction2"),
+                NAME2
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosSame() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+
+        assertSame(
+            provider.expressionFunctionInfos(),
+            provider.expressionFunctionInfos()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosAfterUnregister() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = this.createExpressionFunctionProvider();
+        provider.expressionFunctionInfos();
+
+        provider.unregister(NAME1);
+
+        this.expressionFunctionInfosAndCheck(
+            provider,
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction2"),
+                NAME2
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosAfterRegisterSame() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = RegistryExpressionFunctionProvider.with(
+            BASE_URL,
+            CASE_SENSITIVITY
+        );
+        provider.register(FUNCTION1);
+
+        final ExpressionFunctionInfoSet before = provider.expressionFunctionInfos();
+
+        provider.register(FUNCTION2);
+
+        final ExpressionFunctionInfoSet after = provider.expressionFunctionInfos();
+
+        this.checkNotEquals(
+            before,
+            after
+        );
+        assertSame(
+            after,
+            provider.expressionFunctionInfos()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosEmpty() {
+        this.expressionFunctionInfosAndCheck(
+            RegistryExpressionFunctionProvider.with(
+                BASE_URL,
+                CASE_SENSITIVITY
+            )
+        );
+    }
+
+    @Override
+    public RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        final RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = RegistryExpressionFunctionProvider.with(
+            BASE_URL,
+            CASE_SENSITIVITY
+        );
+        provider.register(FUNCTION1);
+        provider.register(FUNCTION2);
+        return provider;
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createExpressionFunctionProvider(),
+            "testfunction1, testfunction2"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<RegistryExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(RegistryExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
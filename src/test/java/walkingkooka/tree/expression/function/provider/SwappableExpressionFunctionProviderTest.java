@@ -0,0 +1,262 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SwappableExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testfunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION1 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME1);
+        }
+    };
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION2 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME2);
+        }
+    };
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SwappableExpressionFunctionProvider.with(null)
+        );
+    }
+
+    @Test
+    public void testSwapNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createExpressionFunctionProvider()
+                .swap(null)
+        );
+    }
+
+    @Test
+    public void testSwapDifferentCaseSensitivityFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createExpressionFunctionProvider()
+                .swap(
+                    ExpressionFunctionProviders.empty(CaseSensitivity.SENSITIVE)
+                )
+        );
+
+        this.checkEquals(
+            "Provider case sensitivity SENSITIVE different from INSENSITIVE",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testVersion() {
+        this.checkEquals(
+            0L,
+            this.createExpressionFunctionProvider()
+                .version()
+        );
+    }
+
+    @Test
+    public void testSwap() {
+        final SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext> swappable = this.createExpressionFunctionProvider();
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = provider(FUNCTION2);
+
+        this.checkEquals(
+            1L,
+            swappable.swap(provider),
+            "swap"
+        );
+        this.checkEquals(
+            1L,
+            swappable.version(),
+            "version"
+        );
+        assertSame(
+            provider,
+            swappable.expressionFunctionProvider(),
+            "expressionFunctionProvider"
+        );
+    }
+
+    @Test
+    public void testSwapTwice() {
+        final SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext> swappable = this.createExpressionFunctionProvider();
+
+        swappable.swap(
+            provider(FUNCTION2)
+        );
+
+        this.checkEquals(
+            2L,
+            swappable.swap(
+                provider(FUNCTION1)
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameAfterSwap() {
+        final SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext> swappable = this.createExpressionFunctionProvider();
+        swappable.swap(
+            provider(FUNCTION2)
+        );
+
+        this.expressionFunctionAndCheck(
+            swappable,
+            NAME2,
+            VALUES,
+            CONTEXT,
+            FUNCTION2
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameAfterSwapFails() {
+        final SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext> swappable = this.createExpressionFunctionProvider();
+        swappable.swap(
+            provider(FUNCTION2)
+        );
+
+        this.expressionFunctionFails(
+            swappable,
+            NAME1,
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME1 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionInfosAfterSwap() {
+        final SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext> swappable = this.createExpressionFunctionProvider();
+        swappable.swap(
+            provider(FUNCTION2)
+        );
+
+        this.expressionFunctionInfosAndCheck(
+            swappable,
+            ExpressionFunctionInfo.with(
+                Url.parseAbsolute("https://example.com/base/testfunction2"),
+                NAME2
+            )
+        );
+    }
+
+    @Override
+    public SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return SwappableExpressionFunctionProvider.with(
+            provider(FUNCTION1)
+        );
+    }
+
+    private static ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider(final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> function) {
+        return ExpressionFunctionProviders.basic(
+            BASE_URL,
+            CASE_SENSITIVITY,
+            Sets.of(function)
+        );
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createExpressionFunctionProvider(),
+            "testfunction1"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SwappableExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(SwappableExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
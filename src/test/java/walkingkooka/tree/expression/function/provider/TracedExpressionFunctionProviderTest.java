@@ -0,0 +1,317 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.tree.expression.function.provider;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.plugin.ProviderContexts;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CaseSensitivity;
+import walkingkooka.tree.expression.ExpressionFunctionName;
+import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
+import walkingkooka.tree.expression.function.FakeExpressionFunction;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class TracedExpressionFunctionProviderTest implements ExpressionFunctionProviderTesting<TracedExpressionFunctionProvider<FakeExpressionEvaluationContext>, FakeExpressionEvaluationContext>,
+    ToStringTesting<TracedExpressionFunctionProvider<FakeExpressionEvaluationContext>> {
+
+    private final static CaseSensitivity CASE_SENSITIVITY = CaseSensitivity.INSENSITIVE;
+
+    private final static AbsoluteUrl BASE_URL = Url.parseAbsolute("https://example.com/base/");
+
+    private final static ExpressionFunctionName NAME1 = ExpressionFunctionName.with("testfunction1")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private final static ExpressionFunctionName NAME2 = ExpressionFunctionName.with("testfunction2")
+        .setCaseSensitivity(CASE_SENSITIVITY);
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION1 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME1);
+        }
+    };
+
+    private static final FakeExpressionFunction<Object, FakeExpressionEvaluationContext> FUNCTION2 = new FakeExpressionFunction<>() {
+        @Override
+        public Optional<ExpressionFunctionName> name() {
+            return Optional.of(NAME2);
+        }
+    };
+
+    private final static List<?> VALUES = Lists.empty();
+
+    private final static ProviderContext CONTEXT = ProviderContexts.fake();
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> TracedExpressionFunctionProvider.with(
+                null,
+                ExpressionFunctionProviderTracer.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullTracerFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> TracedExpressionFunctionProvider.with(
+                ExpressionFunctionProviders.fake(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionName() {
+        this.expressionFunctionAndCheck(
+            NAME1,
+            VALUES,
+            CONTEXT,
+            FUNCTION1
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionNameUnknownFails() {
+        this.expressionFunctionFails(
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionSelector() {
+        this.expressionFunctionAndCheck(
+            ExpressionFunctionSelector.parse(
+                NAME2 + "",
+                CASE_SENSITIVITY
+            ),
+            CONTEXT,
+            FUNCTION2
+        );
+    }
+
+    @Test
+    public void testTrace() {
+        final ExpressionFunctionProviderTracer tracer = ExpressionFunctionProviderTracer.empty();
+
+        this.createExpressionFunctionProvider(tracer)
+            .expressionFunction(
+                NAME1,
+                VALUES,
+                CONTEXT
+            );
+
+        final List<ExpressionFunctionProviderTrace> traces = tracer.traces();
+        this.checkEquals(
+            1,
+            traces.size(),
+            "traces"
+        );
+
+        final ExpressionFunctionProviderTrace trace = traces.get(0);
+        this.traceAndCheck(
+            trace,
+            "BasicExpressionFunctionProvider",
+            NAME1.value(),
+            Optional.of(
+                NAME1.value()
+            )
+        );
+        this.checkEquals(
+            Lists.empty(),
+            trace.children(),
+            "children"
+        );
+    }
+
+    @Test
+    public void testTraceUnknown() {
+        final ExpressionFunctionProviderTracer tracer = ExpressionFunctionProviderTracer.empty();
+
+        this.expressionFunctionFails(
+            this.createExpressionFunctionProvider(tracer),
+            ExpressionFunctionName.with("unknown"),
+            VALUES,
+            CONTEXT
+        );
+
+        this.traceAndCheck(
+            tracer.traces()
+                .get(0),
+            "BasicExpressionFunctionProvider",
+            "unknown",
+            Optional.empty()
+        );
+    }
+
+    @Test
+    public void testTraceNested() {
+        final ExpressionFunctionProviderTracer tracer = ExpressionFunctionProviderTracer.empty();
+
+        final ExpressionFunctionProvider<FakeExpressionEvaluationContext> provider = TracedExpressionFunctionProvider.with(
+            ExpressionFunctionProviders.collection(
+                CASE_SENSITIVITY,
+                Sets.of(
+                    this.createExpressionFunctionProvider(tracer)
+                )
+            ),
+            tracer
+        );
+
+        provider.expressionFunction(
+            NAME2,
+            VALUES,
+            CONTEXT
+        );
+
+        final List<ExpressionFunctionProviderTrace> traces = tracer.traces();
+        this.checkEquals(
+            1,
+            traces.size(),
+            "traces"
+        );
+
+        final ExpressionFunctionProviderTrace trace = traces.get(0);
+        this.traceAndCheck(
+            trace,
+            "ExpressionFunctionProviderCollection",
+            NAME2.value(),
+            Optional.of(
+                NAME2.value()
+            )
+        );
+
+        final List<ExpressionFunctionProviderTrace> children = trace.children();
+        this.checkEquals(
+            1,
+            children.size(),
+            "children"
+        );
+        this.traceAndCheck(
+            children.get(0),
+            "BasicExpressionFunctionProvider",
+            NAME2.value(),
+            Optional.of(
+                NAME2.value()
+            )
+        );
+    }
+
+    @Test
+    public void testTraceClear() {
+        final ExpressionFunctionProviderTracer tracer = ExpressionFunctionProviderTracer.empty();
+
+        this.createExpressionFunctionProvider(tracer)
+            .expressionFunction(
+                NAME1,
+                VALUES,
+                CONTEXT
+            );
+        tracer.clear();
+
+        this.checkEquals(
+            Lists.empty(),
+            tracer.traces()
+        );
+    }
+
+    private void traceAndCheck(final ExpressionFunctionProviderTrace trace,
+                               final String provider,
+                               final String input,
+                               final Optional<String> output) {
+        this.checkEquals(
+            provider,
+            trace.provider(),
+            "provider"
+        );
+        this.checkEquals(
+            input,
+            trace.input(),
+            "input"
+        );
+        this.checkEquals(
+            output,
+            trace.output(),
+            "output"
+        );
+    }
+
+    @Override
+    public TracedExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider() {
+        return this.createExpressionFunctionProvider(
+            ExpressionFunctionProviderTracer.empty()
+        );
+    }
+
+    private TracedExpressionFunctionProvider<FakeExpressionEvaluationContext> createExpressionFunctionProvider(final ExpressionFunctionProviderTracer tracer) {
+        return TracedExpressionFunctionProvider.with(
+            ExpressionFunctionProviders.basic(
+                BASE_URL,
+                CASE_SENSITIVITY,
+                Sets.of(
+                    FUNCTION1,
+                    FUNCTION2
+                )
+            ),
+            tracer
+        );
+    }
+
+    @Override
+    public CaseSensitivity expressionFunctionNameCaseSensitivity() {
+        return CASE_SENSITIVITY;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createExpressionFunctionProvider(),
+            "testfunction1, testfunction2"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<TracedExpressionFunctionProvider<FakeExpressionEvaluationContext>> type() {
+        return Cast.to(TracedExpressionFunctionProvider.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -63,6 +63,39 @@ public final class TreeExpressionFunctionProviderTest implements ExpressionFunct
         );
     }
 
+    @Test
+    public void testExpressionFunctionIfPresentName() {
+        final ExpressionFunction<?, ?> function = ExpressionFunctions.typeName();
+
+        this.expressionFunctionIfPresentAndCheck(
+            function.name()
+                .get(),
+            Lists.empty(),
+            ProviderContexts.fake(),
+            function
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentNameUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionName.with("unknown"),
+            Lists.empty(),
+            ProviderContexts.fake()
+        );
+    }
+
+    @Test
+    public void testExpressionFunctionIfPresentSelectorUnknown() {
+        this.expressionFunctionIfPresentAndCheck(
+            ExpressionFunctionSelector.parse(
+                "unknown",
+                ExpressionFunctionName.DEFAULT_CASE_SENSITIVITY
+            ),
+            ProviderContexts.fake()
+        );
+    }
+
     @Override
     public TreeExpressionFunctionProvider<ExpressionEvaluationContext> createExpressionFunctionProvider() {
         return TreeExpressionFunctionProvider.instance();